@@ -1,15 +1,13 @@
 package io.jenkins.plugins.aipconsole;
 
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import hudson.model.Run;
-import jenkins.model.RunAction2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-public class AddVersionAction implements RunAction2 {
+public class AddVersionAction extends PerformanceAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(AddVersionAction.class);
 
     @CheckForNull
@@ -30,8 +28,6 @@ public class AddVersionAction implements RunAction2 {
     @Nullable
     private String backupName = "";
 
-    private transient Run run;
-
     public AddVersionAction(@CheckForNull String applicationName, @CheckForNull String filePath) {
         this.applicationName = applicationName;
         this.filePath = filePath;
@@ -131,16 +127,6 @@ public class AddVersionAction implements RunAction2 {
         this.backupName = backupName;
     }
 
-    @Override
-    public void onAttached(Run<?, ?> run) {
-        this.run = run;
-    }
-
-    @Override
-    public void onLoad(Run<?, ?> run) {
-        this.run = run;
-    }
-
     @CheckForNull
     @Override
     public String getIconFileName() {
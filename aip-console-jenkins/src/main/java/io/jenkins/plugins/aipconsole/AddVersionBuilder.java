@@ -5,7 +5,7 @@ import com.castsoftware.aip.console.tools.core.dto.NodeDto;
 import com.castsoftware.aip.console.tools.core.dto.jobs.FileCommandRequest;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
-import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatus;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApplicationServiceException;
@@ -15,9 +15,12 @@ import com.castsoftware.aip.console.tools.core.services.ApplicationService;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
 import com.castsoftware.aip.console.tools.core.services.UploadService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -39,12 +42,11 @@ import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.file.Paths;
 import java.text.DateFormat;
@@ -73,7 +75,7 @@ import static io.jenkins.plugins.aipconsole.Messages.CreateApplicationBuilder_Cr
 import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_accessDenied;
 import static io.jenkins.plugins.aipconsole.Messages.JobsSteps_changed;
 
-public class AddVersionBuilder extends Builder implements SimpleBuildStep {
+public class AddVersionBuilder extends Builder implements SimpleBuildStep, AipJobBuilder {
 
     public static final int BUFFER_SIZE = 10 * 1024 * 1024;
     @Inject
@@ -226,6 +228,45 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        JobTimingRecorder recorder = JobTimingRecorder.start(getDescriptor().getDisplayName());
+        try (Span span = Tracing.tracer().startSpan("jenkins add-version")) {
+            span.setAttribute("jenkins.build", run.getExternalizableId());
+            try {
+                String jobGuid = startJob(run, workspace, listener);
+                if (jobGuid != null) {
+                    waitForJob(run, workspace, listener, jobGuid);
+                }
+            } finally {
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        } finally {
+            AipConsoleThrottle.releaseThreadJobSlot();
+            JobTimingReport report = recorder.finish(String.valueOf(run.getResult()));
+            run.addAction(createAction(report));
+            JobTimingArtifacts.archive(report, getTimingId(), run, workspace, launcher, listener);
+            Tracing.tracer().flush();
+        }
+    }
+
+    @Override
+    public AddVersionAction createAction(JobTimingReport report) {
+        AddVersionAction action = new AddVersionAction(applicationName, filePath);
+        action.setApplicationGuid(applicationGuid);
+        action.setAutoCreate(autoCreate);
+        action.setCloneVersion(cloneVersion);
+        action.setVersionName(versionName);
+        action.setFailureIgnored(failureIgnored);
+        action.setTimeout(timeout);
+        action.setNodeName(nodeName);
+        action.setBackupApplicationEnabled(backupApplicationEnabled);
+        action.setBackupName(backupName);
+        action.setTimingReport(report);
+        return action;
+    }
+
+    @CheckForNull
+    @Override
+    public String startJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener) throws InterruptedException, IOException {
         PrintStream log = listener.getLogger();
         Result defaultResult = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
         boolean applicationHasVersion = this.cloneVersion;
@@ -235,13 +276,13 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
         if ((errorMessage = checkJobParameters()) != null) {
             listener.error(errorMessage);
             run.setResult(Result.NOT_BUILT);
-            return;
+            return null;
         }
 
         // Check the services have been properly initialized
         if (!ObjectUtils.allNotNull(apiService, uploadService, jobsService, applicationService)) {
-            // Manually setup Guice Injector using Module (Didn't find any way to make this automatically)
-            Injector injector = Guice.createInjector(new AipConsoleModule());
+            // Services shared by the builds (Didn't find any way to inject them automatically)
+            Injector injector = AipConsoleServices.injector();
             // Guice can automatically inject those, but then findbugs, not seeing the change,
             // will fail the build considering they will provoke an NPE
             // So, to avoid this, set them explicitly (if they were not set)
@@ -267,7 +308,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
         } catch (ApiCallException e) {
             listener.error(GenericError_error_accessDenied(apiServerUrl));
             run.setResult(defaultResult);
-            return;
+            return null;
         }
         ApiInfoDto apiInfoDto = apiService.getAipConsoleApiInfo();
 
@@ -277,7 +318,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
             listener.error(AddVersionBuilder_AddVersion_error_appCreateError(applicationName));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         EnvVars vars = run.getEnvironment(listener);
@@ -285,12 +326,17 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
         String fileExt = com.castsoftware.aip.console.tools.core.utils.FilenameUtils.getFileExtension(filePath);
         FilePath workspaceFile = null;
         if (StringUtils.equalsAnyIgnoreCase(fileExt, "zip", "tgz", "tar.gz")) {
+            if (workspace == null) {
+                listener.error(Messages.GenericError_error_noWorkspace(filePath));
+                run.setResult(Result.NOT_BUILT);
+                return null;
+            }
             workspaceFile = workspace.child(resolvedFilePath);
             isUpload = true;
             if (!workspaceFile.exists()) {
                 listener.error(AddVersionBuilder_AddVersion_error_fileNotFound(filePath));
                 run.setResult(Result.NOT_BUILT);
-                return;
+                return null;
             }
         }
 
@@ -303,7 +349,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                 if (!autoCreate) {
                     listener.error(AddVersionBuilder_AddVersion_error_appNotFound(applicationName));
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 // Is there a node name
                 String nodeGuid = null;
@@ -320,13 +366,13 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                         if (StringUtils.isBlank(nodeGuid)) {
                             listener.error(AddVersionBuilder_AddVersion_error_nodeNotFound(nodeName));
                             run.setResult(defaultResult);
-                            return;
+                            return null;
                         }
                     } catch (ApiCallException e) {
                         listener.error("Unable to retrieve the node guid from the given name");
                         e.printStackTrace(log);
                         run.setResult(defaultResult);
-                        return;
+                        return null;
                     }
                 }
 
@@ -341,7 +387,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                 if (StringUtils.isBlank(applicationGuid)) {
                     listener.error(CreateApplicationBuilder_CreateApplication_error_jobServiceException(applicationName, apiServerUrl));
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 // Don't clone version if we just created the application
                 applicationHasVersion = false;
@@ -365,7 +411,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                     listener.error("Unable to find the file " + filePath + " in the source.folder.location on AIP Console.");
                     e.printStackTrace(log);
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 fileName = Paths.get(filePath).toString();
                 if (apiInfoDto.isSourcePathPrefixRequired()) {
@@ -375,32 +421,31 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                 fileName = String.format("%s.%s", fileName, fileExt);
                 // if it already exists, delete it (might be a remnant of a previous execution)
                 // move source file to another file name, to avoid conflicts when uploading the same zip file for multiple applications
-                try (InputStream workspaceFileStream = workspaceFile.read();
-                     InputStream bufferedStream = new BufferedInputStream(workspaceFileStream, BUFFER_SIZE)) {
-                    log.println("Uploading file " + workspaceFile.getName());
-                    if (!uploadService.uploadInputStream(applicationGuid, fileName, workspaceFile.length(), bufferedStream)) {
-                        throw new UploadException("Uploading was not completed successfully.");
-                    }
-                    if (apiInfoDto.isSourcePathPrefixRequired()) {
-                        fileName = "upload:" + applicationName + "/main_sources";
-                    }
+                log.println("Uploading file " + workspaceFile.getName());
+                // runs on the agent holding the workspace, the archive doesn't go through the controller
+                if (!AgentUpload.upload(workspaceFile, uploadService, apiServerUrl, username, apiKey, actualTimeout,
+                        applicationGuid, fileName, listener)) {
+                    throw new UploadException("Uploading was not completed successfully.");
+                }
+                if (apiInfoDto.isSourcePathPrefixRequired()) {
+                    fileName = "upload:" + applicationName + "/main_sources";
                 }
             }
         } catch (ApplicationServiceException e) {
             listener.error(AddVersionBuilder_AddVersion_error_appCreateError(applicationName));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         } catch (UploadException e) {
             listener.error(AddVersionBuilder_AddVersion_error_uploadFailed());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         } catch (JobServiceException e) {
             listener.error(CreateApplicationBuilder_CreateApplication_error_jobServiceException(applicationName, apiServerUrl));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         try {
@@ -428,22 +473,49 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                     .backupApplication(backupApplicationEnabled)
                     .backupName(backupName);
 
+            AipConsoleThrottle.acquireThreadJobSlot(listener);
             String jobGuid = jobsService.startAddVersionJob(requestBuilder);
 
             log.println(AddVersionBuilder_AddVersion_info_pollJobMessage());
-            JobState state = pollJob(jobGuid, log);
-            if (state != JobState.COMPLETED) {
-                listener.error(AddVersionBuilder_AddVersion_error_jobFailure(state.toString()));
-                run.setResult(defaultResult);
-            } else {
-                log.println(AddVersionBuilder_AddVersion_success_analysisComplete());
-                run.setResult(Result.SUCCESS);
-            }
+            return jobGuid;
         } catch (JobServiceException e) {
-            listener.error(AddVersionBuilder_AddVersion_error_jobServiceException());
-            e.printStackTrace(listener.getLogger());
-            run.setResult(defaultResult);
+            jobFailed(run, listener, e);
         }
+        return null;
+    }
+
+    /**
+     * Waits for the job, blocking the current thread
+     */
+    private void waitForJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, String jobGuid) {
+        try {
+            jobFinished(run, workspace, listener, pollJob(jobGuid, listener.getLogger()));
+        } catch (JobServiceException e) {
+            jobFailed(run, listener, e);
+        }
+    }
+
+    @Override
+    public void jobFinished(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, JobStatusWithSteps status) {
+        if (status.getState() != JobState.COMPLETED) {
+            listener.error(AddVersionBuilder_AddVersion_error_jobFailure(String.valueOf(status.getState())));
+            run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+        } else {
+            listener.getLogger().println(AddVersionBuilder_AddVersion_success_analysisComplete());
+            run.setResult(Result.SUCCESS);
+        }
+    }
+
+    @Override
+    public void jobFailed(@Nonnull Run<?, ?> run, @Nonnull TaskListener listener, Exception e) {
+        listener.error(AddVersionBuilder_AddVersion_error_jobServiceException());
+        e.printStackTrace(listener.getLogger());
+        run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+    }
+
+    @Override
+    public String getTimingId() {
+        return "add-version";
     }
 
     /**
@@ -468,7 +540,10 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
         return null;
     }
 
-    private JobState pollJob(String jobGuid, PrintStream log) throws JobServiceException {
+    /**
+     * Waits for the job, printing its steps and logs
+     */
+    JobStatusWithSteps pollJob(String jobGuid, PrintStream log) throws JobServiceException {
         return jobsService.pollAndWaitForJobFinished(jobGuid,
                 jobStatusWithSteps -> log.println(
                         jobStatusWithSteps.getAppName() + " - " +
@@ -477,7 +552,7 @@ public class AddVersionBuilder extends Builder implements SimpleBuildStep {
                 logContentDto -> {
                     logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
                 },
-                JobStatus::getState);
+                status -> status);
     }
 
     @Symbol("aipAddVersion")
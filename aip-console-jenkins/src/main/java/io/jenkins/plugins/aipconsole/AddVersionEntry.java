@@ -0,0 +1,58 @@
+package io.jenkins.plugins.aipconsole;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionEntry_DescriptorImpl_displayName;
+
+/**
+ * An application of {@link ParallelAddVersionBuilder} : the archive or folder to add as a new version
+ */
+public class AddVersionEntry extends AbstractDescribableImpl<AddVersionEntry> {
+    private final String applicationName;
+    private final String filePath;
+    @Nullable
+    private String versionName = "";
+
+    @DataBoundConstructor
+    public AddVersionEntry(String applicationName, String filePath) {
+        this.applicationName = applicationName;
+        this.filePath = filePath;
+    }
+
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Nullable
+    public String getVersionName() {
+        return versionName;
+    }
+
+    /**
+     * @param versionName The name of the version of this application, the one of the build step if blank
+     */
+    @DataBoundSetter
+    public void setVersionName(@Nullable String versionName) {
+        this.versionName = versionName;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<AddVersionEntry> {
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return AddVersionEntry_DescriptorImpl_displayName();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.jenkins.plugins.aipconsole;
+
+import hudson.Extension;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_DescriptorImpl_displayName;
+
+/**
+ * Pipeline step of {@link AddVersionBuilder}, releasing the executor while the version is analyzed
+ */
+public class AddVersionStep extends AipJobStep {
+    private static final long serialVersionUID = 1L;
+
+    private final String filePath;
+    private String applicationGuid;
+    private boolean autoCreate = false;
+    private boolean cloneVersion = true;
+    @Nullable
+    private String versionName = "";
+    @Nullable
+    private String nodeName = "";
+    private boolean enableSecurityDataflow = false;
+    private boolean backupApplicationEnabled = false;
+    @Nullable
+    private String backupName = "";
+
+    @DataBoundConstructor
+    public AddVersionStep(String applicationName, String filePath) {
+        super(applicationName);
+        this.filePath = filePath;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public String getApplicationGuid() {
+        return applicationGuid;
+    }
+
+    @DataBoundSetter
+    public void setApplicationGuid(String applicationGuid) {
+        this.applicationGuid = applicationGuid;
+    }
+
+    public boolean isAutoCreate() {
+        return autoCreate;
+    }
+
+    @DataBoundSetter
+    public void setAutoCreate(boolean autoCreate) {
+        this.autoCreate = autoCreate;
+    }
+
+    public boolean isCloneVersion() {
+        return cloneVersion;
+    }
+
+    @DataBoundSetter
+    public void setCloneVersion(boolean cloneVersion) {
+        this.cloneVersion = cloneVersion;
+    }
+
+    @Nullable
+    public String getVersionName() {
+        return versionName;
+    }
+
+    @DataBoundSetter
+    public void setVersionName(@Nullable String versionName) {
+        this.versionName = versionName;
+    }
+
+    @Nullable
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    @DataBoundSetter
+    public void setNodeName(@Nullable String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public boolean isEnableSecurityDataflow() {
+        return enableSecurityDataflow;
+    }
+
+    @DataBoundSetter
+    public void setEnableSecurityDataflow(boolean enableSecurityDataflow) {
+        this.enableSecurityDataflow = enableSecurityDataflow;
+    }
+
+    public boolean isBackupApplicationEnabled() {
+        return backupApplicationEnabled;
+    }
+
+    @DataBoundSetter
+    public void setBackupApplicationEnabled(boolean backupApplicationEnabled) {
+        this.backupApplicationEnabled = backupApplicationEnabled;
+    }
+
+    @Nullable
+    public String getBackupName() {
+        return backupName;
+    }
+
+    @DataBoundSetter
+    public void setBackupName(@Nullable String backupName) {
+        this.backupName = backupName;
+    }
+
+    @Override
+    AipJobBuilder createBuilder() {
+        AddVersionBuilder builder = new AddVersionBuilder(getApplicationName(), filePath);
+        builder.setApplicationGuid(applicationGuid);
+        builder.setAutoCreate(autoCreate);
+        builder.setCloneVersion(cloneVersion);
+        builder.setVersionName(versionName);
+        builder.setNodeName(nodeName);
+        builder.setEnableSecurityDataflow(enableSecurityDataflow);
+        builder.setBackupApplicationEnabled(backupApplicationEnabled);
+        builder.setBackupName(backupName);
+        builder.setFailureIgnored(isFailureIgnored());
+        builder.setTimeout(getTimeout());
+        return builder;
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends AipJobStepDescriptor {
+        @Override
+        public String getFunctionName() {
+            return "aipAddVersion";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return AddVersionBuilder_DescriptorImpl_displayName();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
+import com.castsoftware.aip.console.tools.core.exceptions.UploadException;
+import com.castsoftware.aip.console.tools.core.packaging.GlobPatterns;
+import com.castsoftware.aip.console.tools.core.packaging.SourcePackager;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.UploadService;
+import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.Secret;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.io.input.ProxyInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_info_uploadFromAgent;
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_info_uploadProgress;
+import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_Deliver_info_packageFolder;
+import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_Deliver_info_packageSize;
+
+/**
+ * Uploads an archive of the workspace to AIP Console from the node holding the workspace.
+ * <p/>
+ * When the build runs on an agent, the agent logs in to AIP Console and sends the archive itself, so that the
+ * archive doesn't go through the controller. Only the progress and the outcome of the upload are sent back.
+ * <p/>
+ * A workspace folder can also be uploaded : it is packaged on the node holding it and the archive is uploaded as it
+ * is built, without being written anywhere.
+ */
+public class AgentUpload extends MasterToSlaveFileCallable<Long> {
+    private static final long serialVersionUID = 1L;
+    private static final int PROGRESS_STEPS = 10;
+
+    private final String serverUrl;
+    private final String username;
+    private final Secret apiKey;
+    private final long timeout;
+    private final String applicationGuid;
+    private final String fileName;
+    private final TaskListener listener;
+    private final boolean packageFolder;
+    private final String inclusionPatterns;
+    private final String exclusionPatterns;
+
+    private AgentUpload(String serverUrl, String username, String apiKey, long timeout, String applicationGuid, String fileName, TaskListener listener,
+                        boolean packageFolder, String inclusionPatterns, String exclusionPatterns) {
+        this.serverUrl = serverUrl;
+        this.username = username;
+        this.apiKey = Secret.fromString(apiKey);
+        this.timeout = timeout;
+        this.applicationGuid = applicationGuid;
+        this.fileName = fileName;
+        this.listener = listener;
+        this.packageFolder = packageFolder;
+        this.inclusionPatterns = inclusionPatterns;
+        this.exclusionPatterns = exclusionPatterns;
+    }
+
+    /**
+     * Uploads a workspace file, from the agent holding it if the workspace is remote, once an upload slot of
+     * {@link AipConsoleThrottle} is free
+     *
+     * @param workspaceFile   The archive to upload
+     * @param uploadService   The service used when the workspace is on the controller
+     * @param serverUrl       The URL of AIP Console, to log in from the agent
+     * @param username        The user name, null to log in with the API key
+     * @param apiKey          The API key, or the password of the user
+     * @param timeout         The timeout of the calls to AIP Console, in seconds
+     * @param applicationGuid The application receiving the archive
+     * @param fileName        The name of the uploaded file on AIP Console
+     * @param listener        Receives the progress of the upload
+     * @return True if the upload was completed, false otherwise
+     * @throws UploadException if the upload failed
+     */
+    public static boolean upload(FilePath workspaceFile, UploadService uploadService, String serverUrl, String username, String apiKey,
+                                 long timeout, String applicationGuid, String fileName, TaskListener listener)
+            throws IOException, InterruptedException, UploadException {
+        try (AipConsoleThrottle.Slot ignored = AipConsoleThrottle.acquireUploadSlot(listener)) {
+            if (!workspaceFile.isRemote()) {
+                // the workspace is on the controller, reuse the session of the build step
+                long fileSize = workspaceFile.length();
+                try (InputStream stream = new BufferedInputStream(workspaceFile.read(), AddVersionBuilder.BUFFER_SIZE)) {
+                    return uploadService.uploadInputStream(applicationGuid, fileName, fileSize, stream);
+                } catch (UploadException e) {
+                    throw checkInterrupted(e);
+                }
+            }
+            return uploadFromAgent(workspaceFile, new AgentUpload(serverUrl, username, apiKey, timeout, applicationGuid, fileName, listener,
+                    false, null, null));
+        }
+    }
+
+    /**
+     * Packages a workspace folder as a tar.gz archive and uploads it, from the agent holding it if the workspace is
+     * remote, once an upload slot of {@link AipConsoleThrottle} is free.
+     * <p/>
+     * AIP Console needs the size of the archive before its content, so the folder is packaged twice : once to compute
+     * the size, then while the archive is uploaded.
+     *
+     * @param workspaceFolder   The folder to package
+     * @param inclusionPatterns The comma-separated glob patterns of the packaged files, all the files if blank
+     * @param exclusionPatterns The comma-separated glob patterns of the files left out of the archive
+     * @return True if the upload was completed, false otherwise
+     * @throws UploadException if the upload failed
+     * @see #upload(FilePath, UploadService, String, String, String, long, String, String, TaskListener) for the other parameters
+     */
+    public static boolean uploadFolder(FilePath workspaceFolder, UploadService uploadService, String serverUrl, String username, String apiKey,
+                                       long timeout, String applicationGuid, String fileName, String inclusionPatterns, String exclusionPatterns,
+                                       TaskListener listener)
+            throws IOException, InterruptedException, UploadException {
+        try (AipConsoleThrottle.Slot ignored = AipConsoleThrottle.acquireUploadSlot(listener)) {
+            if (!workspaceFolder.isRemote()) {
+                try {
+                    return uploadPackage(new File(workspaceFolder.getRemote()), uploadService, applicationGuid, fileName,
+                            inclusionPatterns, exclusionPatterns, listener) >= 0;
+                } catch (UploadException e) {
+                    throw checkInterrupted(e);
+                }
+            }
+            return uploadFromAgent(workspaceFolder, new AgentUpload(serverUrl, username, apiKey, timeout, applicationGuid, fileName, listener,
+                    true, inclusionPatterns, exclusionPatterns));
+        }
+    }
+
+    private static boolean uploadFromAgent(FilePath workspaceFile, AgentUpload upload)
+            throws IOException, InterruptedException, UploadException {
+        upload.listener.getLogger().println(AddVersionBuilder_AddVersion_info_uploadFromAgent(workspaceFile.getName()));
+        // the agent has no timing recorder, the packaging, the upload and the extraction are recorded as a single step
+        JobTimingRecorder.recordStep(JobTimingRecorder.UPLOAD_STEP);
+        try {
+            long uploadedBytes = workspaceFile.act(upload);
+            if (uploadedBytes >= 0) {
+                JobTimingRecorder.recordUploadedBytes(uploadedBytes);
+            }
+            return uploadedBytes >= 0;
+        } catch (IOException e) {
+            if (e.getCause() instanceof UploadException) {
+                throw (UploadException) e.getCause();
+            }
+            throw e;
+        } finally {
+            JobTimingRecorder.recordStepEnd();
+        }
+    }
+
+    /**
+     * @return The size of the uploaded archive, or -1 if the upload was not completed
+     */
+    @Override
+    public Long invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        RestApiService restApiService = new RestApiServiceImpl();
+        try {
+            try {
+                if (timeout != Constants.DEFAULT_HTTP_TIMEOUT) {
+                    restApiService.setTimeout(timeout, TimeUnit.SECONDS);
+                }
+                restApiService.validateUrlAndKey(serverUrl, username, Secret.toString(apiKey));
+            } catch (ApiCallException e) {
+                throw new IOException(new UploadException("Unable to log in to AIP Console from the agent", e));
+            }
+            UploadService uploadService = new UploadServiceImpl(restApiService);
+            if (packageFolder) {
+                return uploadPackage(file, uploadService, applicationGuid, fileName, inclusionPatterns, exclusionPatterns, listener);
+            }
+            long fileSize = file.length();
+            try (InputStream stream = new ProgressInputStream(new BufferedInputStream(new FileInputStream(file), AddVersionBuilder.BUFFER_SIZE), fileSize, listener.getLogger())) {
+                return uploadService.uploadInputStream(applicationGuid, fileName, fileSize, stream) ? fileSize : -1;
+            }
+        } catch (UploadException e) {
+            // sent back to the controller, which reports it as any upload failure
+            throw new IOException(e);
+        } finally {
+            // the agent JVM outlives the build, its connections and session must not
+            restApiService.close();
+        }
+    }
+
+    /**
+     * Packages the folder once to get the size of the archive, then uploads the archive as it is packaged again
+     *
+     * @return The size of the uploaded archive, or -1 if the upload was not completed
+     */
+    private static long uploadPackage(File folder, UploadService uploadService, String applicationGuid, String fileName,
+                                      String inclusionPatterns, String exclusionPatterns, TaskListener listener)
+            throws IOException, UploadException {
+        PrintStream log = listener.getLogger();
+        SourcePackager packager = new SourcePackager(folder.toPath(), GlobPatterns.parse(inclusionPatterns), GlobPatterns.parse(exclusionPatterns),
+                Runtime.getRuntime().availableProcessors());
+        log.println(DeliverBuilder_Deliver_info_packageFolder(folder.getName()));
+        JobTimingRecorder.recordStep(JobTimingRecorder.PACKAGE_STEP);
+        long size = packager.computeSize();
+        JobTimingRecorder.recordStepEnd();
+        log.println(DeliverBuilder_Deliver_info_packageSize(folder.getName(), size / (1024 * 1024)));
+
+        try (ProgressInputStream stream = new ProgressInputStream(packager.openStream(), size, log)) {
+            boolean uploaded;
+            try {
+                uploaded = uploadService.uploadInputStream(applicationGuid, fileName, size, stream);
+            } catch (UploadException e) {
+                // a shorter archive ends before the upload reaches the size given to AIP Console
+                if (stream.read() < 0 && stream.getRead() != size) {
+                    throw folderModified(folder, e);
+                }
+                throw e;
+            }
+            if (!uploaded) {
+                return -1;
+            }
+            // the upload stops at the size given to AIP Console, a longer archive has at least one more byte
+            stream.read();
+            if (stream.getRead() != size) {
+                throw folderModified(folder, null);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The upload service gives up when its thread is interrupted, the build was then stopped rather than the upload failed
+     *
+     * @return The given exception, to throw, if the thread wasn't interrupted
+     * @throws InterruptedException If the thread was interrupted
+     */
+    private static UploadException checkInterrupted(UploadException e) throws InterruptedException {
+        if (Thread.interrupted()) {
+            InterruptedException interrupted = new InterruptedException("Stopped while uploading");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+        return e;
+    }
+
+    private static UploadException folderModified(File folder, Throwable cause) {
+        return new UploadException("The folder " + folder.getName() + " was modified while it was uploaded", cause);
+    }
+
+    /**
+     * Prints the progress of the upload to the build log every tenth of the file
+     */
+    private static class ProgressInputStream extends ProxyInputStream {
+        private final long size;
+        private final PrintStream log;
+        private long read;
+        private int reportedSteps;
+
+        ProgressInputStream(InputStream stream, long size, PrintStream log) {
+            super(stream);
+            this.size = size;
+            this.log = log;
+        }
+
+        /**
+         * @return The number of bytes read so far
+         */
+        long getRead() {
+            return read;
+        }
+
+        @Override
+        protected void afterRead(int n) {
+            if (n <= 0) {
+                return;
+            }
+            read += n;
+            if (size <= 0) {
+                return;
+            }
+            int steps = (int) Math.min(PROGRESS_STEPS, read * PROGRESS_STEPS / size);
+            if (steps > reportedSteps) {
+                reportedSteps = steps;
+                log.println(AddVersionBuilder_AddVersion_info_uploadProgress(read / (1024 * 1024), size / (1024 * 1024), steps * 100 / PROGRESS_STEPS));
+            }
+        }
+    }
+}
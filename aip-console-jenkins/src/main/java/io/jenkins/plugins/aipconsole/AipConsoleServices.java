@@ -0,0 +1,55 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import hudson.init.Terminator;
+
+/**
+ * Services shared by all the build steps of this Jenkins instance, so that their HTTP connections, sessions and
+ * caches are reused from one build to the next.
+ * <p/>
+ * Each build sets its own HTTP timeout before logging in, since the timeout is bound to the thread calling AIP Console
+ * rather than to the service. The sessions are kept by URL, user and key, so a change of the global configuration only
+ * opens new sessions : the builds still running keep the previous ones, which expire once they are no longer used.
+ * The services are closed when Jenkins stops.
+ */
+public final class AipConsoleServices {
+    private static Injector injector;
+
+    private AipConsoleServices() {
+
+    }
+
+    /**
+     * @return The injector providing the shared services
+     */
+    public static synchronized Injector injector() {
+        if (injector == null) {
+            injector = Guice.createInjector(new AipConsoleModule());
+            injector.getInstance(JobsService.class).setPollRateLimiter(AipConsoleThrottle.pollRateLimiter());
+        }
+        return injector;
+    }
+
+    /**
+     * Replaces the shared services, for the tests
+     */
+    static synchronized void useInjector(Injector testInjector) {
+        closeAll();
+        injector = testInjector;
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        closeAll();
+    }
+
+    private static void closeAll() {
+        if (injector != null) {
+            injector.getInstance(RestApiService.class).close();
+            injector = null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.http.ConcurrencyLimit;
+import com.castsoftware.aip.console.tools.core.http.RateLimiter;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.aipconsole.config.AipConsoleGlobalConfiguration;
+
+import javax.annotation.CheckForNull;
+import java.util.Locale;
+
+import static io.jenkins.plugins.aipconsole.Messages.Throttle_info_jobSlot;
+import static io.jenkins.plugins.aipconsole.Messages.Throttle_info_uploadSlot;
+
+/**
+ * Limits the uploads, the jobs and the job status polls sent to AIP Console by all the builds of this Jenkins
+ * instance, as set in the global configuration.
+ * <p/>
+ * Waiting builds get a slot in their arrival order. The time they waited is shown in the build log, recorded as a
+ * step of the timing report and in the {@value ConcurrencyLimit#WAIT_METER} metric.
+ */
+public final class AipConsoleThrottle {
+    public static final String UPLOAD_SLOT_STEP = "upload_slot";
+    public static final String JOB_SLOT_STEP = "job_slot";
+
+    private static final ConcurrencyLimit UPLOADS = new ConcurrencyLimit("jenkins.upload", 0);
+    private static final ConcurrencyLimit JOBS = new ConcurrencyLimit("jenkins.job", 0);
+    private static final RateLimiter POLLS = new RateLimiter("jenkins.poll", 0);
+    // the job slot is taken in the middle of a build step and released once the job is finished
+    private static final ThreadLocal<Slot> THREAD_JOB_SLOT = new ThreadLocal<>();
+
+    private AipConsoleThrottle() {
+
+    }
+
+    /**
+     * @return The limiter of the job status polls, shared by all the services
+     */
+    public static RateLimiter pollRateLimiter() {
+        configure();
+        return POLLS;
+    }
+
+    /**
+     * Waits for a free upload slot
+     *
+     * @return The slot, to close once the upload is done
+     */
+    public static Slot acquireUploadSlot(TaskListener listener) throws InterruptedException {
+        return acquire(UPLOADS, UPLOAD_SLOT_STEP, listener);
+    }
+
+    /**
+     * Waits for a free job slot
+     *
+     * @return The slot, to close once the job is finished
+     */
+    public static Slot acquireJobSlot(TaskListener listener) throws InterruptedException {
+        return acquire(JOBS, JOB_SLOT_STEP, listener);
+    }
+
+    /**
+     * Waits for a free job slot and binds it to the current thread, for build steps starting the job in one method and
+     * waiting for it in another
+     *
+     * @throws InterruptedException If the thread was interrupted, even before waiting, no slot is taken then
+     */
+    public static void acquireThreadJobSlot(TaskListener listener) throws InterruptedException {
+        Slot previous = takeThreadJobSlot();
+        if (previous != null) {
+            previous.close();
+        }
+        Slot slot = acquireJobSlot(listener);
+        // the build may have been stopped while the job was prepared (e.g. during the upload), it must not start
+        if (Thread.interrupted()) {
+            slot.close();
+            throw new InterruptedException("Stopped before the job was started");
+        }
+        THREAD_JOB_SLOT.set(slot);
+    }
+
+    /**
+     * Unbinds the job slot from the current thread
+     *
+     * @return The job slot bound to the current thread, null if there is none
+     */
+    @CheckForNull
+    public static Slot takeThreadJobSlot() {
+        Slot slot = THREAD_JOB_SLOT.get();
+        THREAD_JOB_SLOT.remove();
+        return slot;
+    }
+
+    /**
+     * Releases the job slot bound to the current thread, if any
+     */
+    public static void releaseThreadJobSlot() {
+        Slot slot = takeThreadJobSlot();
+        if (slot != null) {
+            slot.close();
+        }
+    }
+
+    private static Slot acquire(ConcurrencyLimit limit, String step, TaskListener listener) throws InterruptedException {
+        configure();
+        if (limit.getLimit() == 0) {
+            limit.acquire();
+            return new Slot(limit);
+        }
+        JobTimingRecorder.recordStep(step);
+        long waitedMillis;
+        try {
+            waitedMillis = limit.acquire();
+        } finally {
+            JobTimingRecorder.recordStepEnd();
+        }
+        String waited = String.format(Locale.ENGLISH, "%.1f", waitedMillis / 1000.0);
+        listener.getLogger().println(limit == UPLOADS ?
+                Throttle_info_uploadSlot(waited, limit.getRunning(), limit.getLimit()) :
+                Throttle_info_jobSlot(waited, limit.getRunning(), limit.getLimit()));
+        return new Slot(limit);
+    }
+
+    private static void configure() {
+        AipConsoleGlobalConfiguration configuration = AipConsoleGlobalConfiguration.get();
+        if (configuration == null) {
+            return;
+        }
+        UPLOADS.setLimit(configuration.getMaxConcurrentUploads());
+        JOBS.setLimit(configuration.getMaxConcurrentJobs());
+        POLLS.setRate(configuration.getMaxPollsPerSecond());
+    }
+
+    /**
+     * A slot taken from one of the limits, released once closed
+     */
+    public static final class Slot implements AutoCloseable {
+        private final ConcurrencyLimit limit;
+        private boolean released;
+
+        private Slot(ConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                limit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import hudson.FilePath;
+import hudson.model.Descriptor;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.Builder;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+
+/**
+ * A build step running a job on AIP Console in two parts : starting the job, then reporting its result once it is
+ * finished. As a builder, the step waits for the job in between. As a Pipeline step, {@link AipJobStepExecution}
+ * watches the job instead, without holding a thread or an executor.
+ */
+interface AipJobBuilder {
+
+    Descriptor<Builder> getDescriptor();
+
+    /**
+     * Checks the parameters, logs in to AIP Console and starts the job. Errors are shown in the build log and set
+     * the build result.
+     *
+     * @param workspace The workspace, null when the step runs outside of a node
+     * @return The GUID of the job, null if it wasn't started
+     */
+    @CheckForNull
+    String startJob(Run<?, ?> run, @CheckForNull FilePath workspace, TaskListener listener) throws IOException, InterruptedException;
+
+    /**
+     * Shows the result of the finished job and sets the build result
+     *
+     * @param workspace The workspace, null when the step runs outside of a node
+     */
+    void jobFinished(Run<?, ?> run, @CheckForNull FilePath workspace, TaskListener listener, JobStatusWithSteps status);
+
+    /**
+     * Shows why the job couldn't be followed and sets the build result
+     */
+    void jobFailed(Run<?, ?> run, TaskListener listener, Exception e);
+
+    /**
+     * @return The action storing the configuration and the performance data of the step with the build
+     */
+    PerformanceAction createAction(JobTimingReport report);
+
+    /**
+     * @return The name of the step in the timing report artifacts
+     */
+    String getTimingId();
+}
@@ -0,0 +1,78 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.google.common.collect.ImmutableSet;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.CheckForNull;
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A Pipeline step running a job on AIP Console without holding an executor while the job runs.
+ * <p/>
+ * The step is configured like its builder, which starts the job and reports its result. In between,
+ * {@link AipJobStepExecution} watches the job in the background, and resumes watching it after a restart of Jenkins.
+ */
+public abstract class AipJobStep extends Step implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @CheckForNull
+    private final String applicationName;
+    private boolean failureIgnored = false;
+    private long timeout = Constants.DEFAULT_HTTP_TIMEOUT;
+
+    protected AipJobStep(@CheckForNull String applicationName) {
+        this.applicationName = applicationName;
+    }
+
+    @CheckForNull
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    public boolean isFailureIgnored() {
+        return failureIgnored;
+    }
+
+    @DataBoundSetter
+    public void setFailureIgnored(boolean failureIgnored) {
+        this.failureIgnored = failureIgnored;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @DataBoundSetter
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return A builder with the configuration of this step, starting the job and reporting its result
+     */
+    abstract AipJobBuilder createBuilder();
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new AipJobStepExecution(this, context);
+    }
+
+    /**
+     * Descriptor of the steps, which only need a build and its log. Outside of a node, the steps run without
+     * workspace.
+     */
+    public abstract static class AipJobStepDescriptor extends StepDescriptor {
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return ImmutableSet.of(Run.class, TaskListener.class);
+        }
+    }
+}
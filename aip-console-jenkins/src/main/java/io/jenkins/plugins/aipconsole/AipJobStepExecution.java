@@ -0,0 +1,396 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
+import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.google.inject.Injector;
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.Secret;
+import io.jenkins.plugins.aipconsole.config.AipConsoleGlobalConfiguration;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_error_noJobAfterRestart;
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_error_pollFailed;
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_info_canceled;
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_info_resumed;
+import static io.jenkins.plugins.aipconsole.Messages.JobsSteps_changed;
+
+/**
+ * Runs an {@link AipJobStep} without blocking a thread while the job runs on AIP Console.
+ * <p/>
+ * The job is started from a short-lived thread, then its status is checked periodically from the Jenkins timer.
+ * Only the GUID of the job and its last step are saved with the build, so that the watch resumes after a restart of
+ * Jenkins. The logs of the job are not copied to the build log, only its steps are.
+ * <p/>
+ * The pipeline only saves the execution when it moves on, so the GUID of the job is also saved with the build in a
+ * {@link JobGuidsAction} as soon as the job is started.
+ * <p/>
+ * Stopping the step interrupts the start of the job. A job started anyway once the step is stopped is canceled on
+ * AIP Console, a job started before keeps running.
+ */
+public class AipJobStepExecution extends StepExecution {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(AipJobStepExecution.class.getName());
+    private static final long POLL_DELAY_SECONDS = 10;
+    // about a minute without an answer from AIP Console
+    private static final int MAX_POLL_FAILURES = 6;
+
+    private final AipJobStep step;
+    // identifies this execution in the JobGuidsAction of the build
+    private final String executionId = UUID.randomUUID().toString();
+    private volatile String jobGuid;
+    private volatile String lastStep;
+
+    private transient AipJobBuilder builder;
+    private transient JobsService jobsService;
+    // polls with the session of the timer thread which logged in, null to log in again
+    private transient volatile Runnable pollTask;
+    // the timer threads are shared, so the poll is scheduled at its slot of the poll limiter instead of waiting for it
+    private transient boolean pollSlotReserved;
+    private transient JobTimingRecorder recorder;
+    // after a restart, the job no longer holds a slot of the throttle
+    private transient volatile AipConsoleThrottle.Slot jobSlot;
+    private transient volatile ScheduledFuture<?> nextPoll;
+    private transient int pollFailures;
+    private transient volatile Thread starter;
+    // set once the step is stopped, nothing is scheduled nor reported afterwards
+    private transient volatile boolean stopped;
+
+    AipJobStepExecution(AipJobStep step, StepContext context) {
+        super(context);
+        this.step = step;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        Run<?, ?> run = getContext().get(Run.class);
+        TaskListener listener = getContext().get(TaskListener.class);
+        FilePath workspace = getContext().get(FilePath.class);
+        builder = step.createBuilder();
+        // starting the job can take a while (e.g. uploading a large archive), it must not block the CPS thread
+        starter = new Thread(() -> {
+            // bound to the starter thread, where the builder uploads and starts the job, the polls use it directly
+            recorder = JobTimingRecorder.start(builder.getDescriptor().getDisplayName());
+            try {
+                String guid = builder.startJob(run, workspace, listener);
+                if (guid != null) {
+                    if (watch(guid)) {
+                        saveJobGuid(run, guid);
+                    } else {
+                        // the start was too far along to be interrupted
+                        cancelJob(guid, listener);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!stopped) {
+                    builder.jobFailed(run, listener, e);
+                }
+            } catch (InterruptedException e) {
+                // an interrupted start is the step being stopped, which already aborted the build
+                if (!stopped) {
+                    builder.jobFailed(run, listener, e);
+                }
+                Thread.currentThread().interrupt();
+            }
+            // the slot taken by the builder when starting the job is kept until the job is finished
+            jobSlot = AipConsoleThrottle.takeThreadJobSlot();
+            if (jobGuid == null || stopped) {
+                finish(run, listener, workspace);
+            } else {
+                schedulePoll();
+            }
+        }, "AIP Console job start for " + run.getExternalizableId());
+        starter.setDaemon(true);
+        starter.start();
+        return false;
+    }
+
+    @Override
+    public void onResume() {
+        try {
+            TaskListener listener = getContext().get(TaskListener.class);
+            if (jobGuid == null) {
+                // the job may have been started after the pipeline was last saved
+                jobGuid = JobGuidsAction.get(getContext().get(Run.class), executionId);
+            }
+            if (jobGuid == null) {
+                getContext().onFailure(new AbortException(AipJobStep_error_noJobAfterRestart()));
+                return;
+            }
+            builder = step.createBuilder();
+            listener.getLogger().println(AipJobStep_info_resumed(jobGuid));
+            schedulePoll();
+        } catch (IOException | InterruptedException e) {
+            getContext().onFailure(e);
+        }
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) throws Exception {
+        synchronized (this) {
+            stopped = true;
+        }
+        Thread thread = starter;
+        if (thread != null) {
+            // stops the upload, the starter thread then releases the job slot
+            thread.interrupt();
+        }
+        ScheduledFuture<?> poll = nextPoll;
+        if (poll != null) {
+            poll.cancel(false);
+        }
+        releaseJobSlot();
+        getContext().onFailure(cause);
+    }
+
+    String getExecutionId() {
+        return executionId;
+    }
+
+    @Override
+    public String getStatus() {
+        return jobGuid == null ? "starting the job" : "waiting for job " + jobGuid + (lastStep == null ? "" : " (" + lastStep + ")");
+    }
+
+    private void schedulePoll() {
+        schedulePoll(TimeUnit.SECONDS.toMillis(POLL_DELAY_SECONDS));
+    }
+
+    private void schedulePoll(long delayMillis) {
+        if (stopped) {
+            releaseJobSlot();
+            return;
+        }
+        Runnable task = pollTask;
+        nextPoll = Timer.get().schedule(task != null ? task : this::loginAndPoll, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Logs in from the timer thread, then polls. The session is given to the next polls explicitly, and isn't left
+     * bound to the timer thread.
+     */
+    private void loginAndPoll() {
+        Injector injector = AipConsoleServices.injector();
+        RestApiService apiService = injector.getInstance(RestApiService.class);
+        apiService.withCurrentSession(() -> {
+            try {
+                if (step.getTimeout() != Constants.DEFAULT_HTTP_TIMEOUT) {
+                    apiService.setTimeout(step.getTimeout(), TimeUnit.SECONDS);
+                }
+                AipConsoleGlobalConfiguration configuration = AipConsoleGlobalConfiguration.get();
+                apiService.validateUrlAndKey(configuration.getAipConsoleUrl(), configuration.getUsername(), Secret.toString(configuration.getApiKey()));
+                jobsService = injector.getInstance(JobsService.class);
+                pollTask = apiService.withCurrentSession(this::poll);
+            } catch (ApiCallException e) {
+                pollFailed(e);
+                return;
+            }
+            poll();
+        }).run();
+    }
+
+    private void poll() {
+        if (stopped) {
+            releaseJobSlot();
+            return;
+        }
+        Run<?, ?> run;
+        TaskListener listener;
+        FilePath workspace;
+        try {
+            run = getContext().get(Run.class);
+            listener = getContext().get(TaskListener.class);
+            workspace = getContext().get(FilePath.class);
+        } catch (IOException | InterruptedException e) {
+            getContext().onFailure(e);
+            return;
+        }
+
+        if (!pollSlotReserved) {
+            long waitMillis = jobsService.reservePollSlot();
+            if (waitMillis > 0) {
+                pollSlotReserved = true;
+                schedulePoll(waitMillis);
+                return;
+            }
+        }
+        pollSlotReserved = false;
+
+        JobStatusWithSteps status;
+        try {
+            status = jobsService.getJobStatus(jobGuid, true);
+            pollFailures = 0;
+        } catch (ApiCallException | JobServiceException e) {
+            pollFailed(e);
+            return;
+        }
+
+        if (recorder != null) {
+            recorder.poll(status.getState() == JobState.STARTING);
+        }
+        String currentStep = status.getProgressStep();
+        if (currentStep != null && !currentStep.equalsIgnoreCase(lastStep)) {
+            lastStep = currentStep;
+            if (recorder != null) {
+                recorder.startStep(currentStep);
+            }
+            listener.getLogger().println(status.getAppName() + " - " + JobsSteps_changed(JobStepTranslationHelper.getStepTranslation(currentStep)));
+        }
+
+        if (status.getState() == JobState.STARTED || status.getState() == JobState.STARTING) {
+            schedulePoll();
+            return;
+        }
+        builder.jobFinished(run, workspace, listener, status);
+        finish(run, listener, workspace);
+    }
+
+    private void pollFailed(Exception e) {
+        Run<?, ?> run;
+        TaskListener listener;
+        FilePath workspace;
+        try {
+            run = getContext().get(Run.class);
+            listener = getContext().get(TaskListener.class);
+            workspace = getContext().get(FilePath.class);
+        } catch (IOException | InterruptedException contextFailure) {
+            getContext().onFailure(contextFailure);
+            return;
+        }
+        LOGGER.log(Level.FINE, "Unable to get the status of job " + jobGuid, e);
+        // the service is logged in again on the next poll
+        pollTask = null;
+        if (++pollFailures < MAX_POLL_FAILURES) {
+            listener.getLogger().println(AipJobStep_error_pollFailed(jobGuid, e.getMessage()));
+            schedulePoll();
+        } else {
+            if (!stopped) {
+                builder.jobFailed(run, listener, e);
+            }
+            finish(run, listener, workspace);
+        }
+    }
+
+    /**
+     * Adds the action of the step to the build then completes the step. The result of the job is in the build result
+     */
+    private void finish(Run<?, ?> run, TaskListener listener, FilePath workspace) {
+        releaseJobSlot();
+        if (stopped) {
+            // the step already failed when it was stopped
+            return;
+        }
+        try {
+            // after a restart, the timings of the job before the restart are lost
+            if (recorder != null) {
+                JobTimingReport report = recorder.finish(String.valueOf(run.getResult()));
+                run.addAction(builder.createAction(report));
+                JobTimingArtifacts.archive(report, builder.getTimingId(), run, workspace, getContext().get(Launcher.class), listener);
+            }
+            getContext().onSuccess(null);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            getContext().onFailure(e);
+        }
+    }
+
+    /**
+     * Watches the job started by the builder, unless the step was stopped meanwhile
+     *
+     * @return False if the step was stopped, the job is then left to the caller
+     */
+    private synchronized boolean watch(String guid) {
+        if (stopped) {
+            return false;
+        }
+        jobGuid = guid;
+        return true;
+    }
+
+    /**
+     * Cancels a job started after the step was stopped, from the starter thread which holds the session of the builder
+     */
+    private void cancelJob(String guid, TaskListener listener) {
+        // the starter thread was interrupted by the stop, the call to AIP Console would fail right away
+        boolean interrupted = Thread.interrupted();
+        try {
+            AipConsoleServices.injector().getInstance(JobsService.class).cancelJob(guid);
+            listener.getLogger().println(AipJobStep_info_canceled(guid));
+        } catch (JobServiceException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to cancel job " + guid + ", started after the step was stopped", e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void saveJobGuid(Run<?, ?> run, String guid) {
+        try {
+            JobGuidsAction.save(run, executionId, guid);
+        } catch (IOException e) {
+            // the job is still watched, it is only lost if Jenkins restarts before the pipeline is saved
+            LOGGER.log(Level.WARNING, "Unable to save the GUID of job " + guid + " with " + run, e);
+        }
+    }
+
+    private synchronized void releaseJobSlot() {
+        if (jobSlot != null) {
+            jobSlot.close();
+            jobSlot = null;
+        }
+    }
+
+    /**
+     * The GUIDs of the jobs started by the Pipeline steps of a build, by execution
+     */
+    public static class JobGuidsAction extends InvisibleAction {
+        private final Map<String, String> jobGuids = new HashMap<>();
+
+        /**
+         * Saves the GUID of a job with the build, right away
+         */
+        static void save(Run<?, ?> run, String executionId, String jobGuid) throws IOException {
+            synchronized (JobGuidsAction.class) {
+                JobGuidsAction action = run.getAction(JobGuidsAction.class);
+                if (action == null) {
+                    action = new JobGuidsAction();
+                    run.addAction(action);
+                }
+                action.jobGuids.put(executionId, jobGuid);
+                run.save();
+            }
+        }
+
+        @CheckForNull
+        static String get(Run<?, ?> run, String executionId) {
+            synchronized (JobGuidsAction.class) {
+                JobGuidsAction action = run.getAction(JobGuidsAction.class);
+                return action == null || executionId == null ? null : action.jobGuids.get(executionId);
+            }
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package io.jenkins.plugins.aipconsole;
 
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import hudson.model.Run;
-import jenkins.model.RunAction2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-public class AnalyzeAction implements RunAction2 {
+public class AnalyzeAction extends PerformanceAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(AnalyzeAction.class);
 
     @CheckForNull
@@ -22,8 +20,6 @@ public class AnalyzeAction implements RunAction2 {
     private boolean failureIgnored = false;
     private long timeout = Constants.DEFAULT_HTTP_TIMEOUT;
 
-    private transient Run run;
-
     public AnalyzeAction(@CheckForNull String applicationName) {
         this.applicationName = applicationName;
     }
@@ -79,16 +75,6 @@ public class AnalyzeAction implements RunAction2 {
         this.timeout = timeout;
     }
 
-    @Override
-    public void onAttached(Run<?, ?> run) {
-        this.run = run;
-    }
-
-    @Override
-    public void onLoad(Run<?, ?> run) {
-        this.run = run;
-    }
-
     @CheckForNull
     @Override
     public String getIconFileName() {
@@ -5,7 +5,7 @@ import com.castsoftware.aip.console.tools.core.dto.VersionDto;
 import com.castsoftware.aip.console.tools.core.dto.VersionStatus;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
-import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatus;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApplicationServiceException;
@@ -13,8 +13,11 @@ import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.services.ApplicationService;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -54,7 +57,7 @@ import static io.jenkins.plugins.aipconsole.Messages.AnalyzeBuilder_Analyze_erro
 import static io.jenkins.plugins.aipconsole.Messages.AnalyzeBuilder_DescriptorImpl_displayName;
 import static io.jenkins.plugins.aipconsole.Messages.JobsSteps_changed;
 
-public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
+public class AnalyzeBuilder extends Builder implements SimpleBuildStep, AipJobBuilder {
     private static final DateFormat RELEASE_DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
 
     @Inject
@@ -143,6 +146,41 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        JobTimingRecorder recorder = JobTimingRecorder.start(getDescriptor().getDisplayName());
+        try (Span span = Tracing.tracer().startSpan("jenkins analyze")) {
+            span.setAttribute("jenkins.build", run.getExternalizableId());
+            try {
+                String jobGuid = startJob(run, workspace, listener);
+                if (jobGuid != null) {
+                    waitForJob(run, workspace, listener, jobGuid);
+                }
+            } finally {
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        } finally {
+            AipConsoleThrottle.releaseThreadJobSlot();
+            JobTimingReport report = recorder.finish(String.valueOf(run.getResult()));
+            run.addAction(createAction(report));
+            JobTimingArtifacts.archive(report, getTimingId(), run, workspace, launcher, listener);
+            Tracing.tracer().flush();
+        }
+    }
+
+    @Override
+    public AnalyzeAction createAction(JobTimingReport report) {
+        AnalyzeAction action = new AnalyzeAction(applicationName);
+        action.setApplicationGuid(applicationGuid);
+        action.setVersionName(versionName);
+        action.setWithSnapshot(withSnapshot);
+        action.setFailureIgnored(failureIgnored);
+        action.setTimeout(timeout);
+        action.setTimingReport(report);
+        return action;
+    }
+
+    @CheckForNull
+    @Override
+    public String startJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener) throws InterruptedException, IOException {
         PrintStream log = listener.getLogger();
         Result defaultResult = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
 
@@ -150,13 +188,13 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
         if ((errorMessage = checkJobParameters()) != null) {
             listener.error(errorMessage);
             run.setResult(Result.NOT_BUILT);
-            return;
+            return null;
         }
 
         // Check the services have been properly initialized
         if (!ObjectUtils.allNotNull(apiService, jobsService, applicationService)) {
-            // Manually setup Guice Injector using Module (Didn't find any way to make this automatically)
-            Injector injector = Guice.createInjector(new AipConsoleModule());
+            // Services shared by the builds (Didn't find any way to inject them automatically)
+            Injector injector = AipConsoleServices.injector();
             // Guice can automatically inject those, but then findbugs, not seeing the change,
             // will fail the build considering they will provoke an NPE
             // So, to avoid this, set them explicitly (if they were not set)
@@ -181,7 +219,7 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
         } catch (ApiCallException e) {
             listener.error(Messages.GenericError_error_accessDenied(apiServerUrl));
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         try {
@@ -190,7 +228,7 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
             listener.error(AnalyzeBuilder_Analyze_error_appGuid());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         try {
@@ -217,7 +255,7 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
                         AnalyzeBuilder_Analyze_error_noVersionFound();
                 listener.error(message);
                 run.setResult(defaultResult);
-                return;
+                return null;
             }
 
             JobRequestBuilder requestBuilder = JobRequestBuilder.newInstance(applicationGuid, null, JobType.ANALYZE)
@@ -239,29 +277,56 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
                     .versionGuid(versionToAnalyze.getGuid())
                     .releaseAndSnapshotDate(new Date());
 
+            AipConsoleThrottle.acquireThreadJobSlot(listener);
             String jobGuid = jobsService.startJob(requestBuilder);
 
             log.println(Messages.AnalyzeBuilder_Analyze_info_pollJobMessage());
-            JobState state = pollJob(jobGuid, log);
-            if (state != JobState.COMPLETED) {
-                listener.error(Messages.AnalyzeBuilder_Analyze_error_jobFailure(state.toString()));
-                run.setResult(defaultResult);
-            } else {
-                log.println(Messages.AnalyzeBuilder_Analyze_success_analysisComplete());
-                run.setResult(Result.SUCCESS);
-            }
+            return jobGuid;
         } catch (ApplicationServiceException e) {
             listener.error(Messages.AnalyzeBuilder_Analyze_error_jobServiceException());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
         } catch (JobServiceException e) {
-            listener.error(Messages.AnalyzeBuilder_Analyze_error_appServiceException());
-            e.printStackTrace(listener.getLogger());
-            run.setResult(defaultResult);
+            jobFailed(run, listener, e);
         }
+        return null;
+    }
+
+    /**
+     * Waits for the job, blocking the current thread
+     */
+    private void waitForJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, String jobGuid) {
+        try {
+            jobFinished(run, workspace, listener, pollJob(jobGuid, listener.getLogger()));
+        } catch (JobServiceException e) {
+            jobFailed(run, listener, e);
+        }
+    }
+
+    @Override
+    public void jobFinished(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, JobStatusWithSteps status) {
+        if (status.getState() != JobState.COMPLETED) {
+            listener.error(Messages.AnalyzeBuilder_Analyze_error_jobFailure(String.valueOf(status.getState())));
+            run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+        } else {
+            listener.getLogger().println(Messages.AnalyzeBuilder_Analyze_success_analysisComplete());
+            run.setResult(Result.SUCCESS);
+        }
+    }
+
+    @Override
+    public void jobFailed(@Nonnull Run<?, ?> run, @Nonnull TaskListener listener, Exception e) {
+        listener.error(Messages.AnalyzeBuilder_Analyze_error_appServiceException());
+        e.printStackTrace(listener.getLogger());
+        run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+    }
+
+    @Override
+    public String getTimingId() {
+        return "analyze";
     }
 
-    private JobState pollJob(String jobGuid, PrintStream log) throws JobServiceException {
+    private JobStatusWithSteps pollJob(String jobGuid, PrintStream log) throws JobServiceException {
         return jobsService.pollAndWaitForJobFinished(jobGuid,
                 jobStatusWithSteps -> log.println(
                         jobStatusWithSteps.getAppName() + " - " +
@@ -270,7 +335,7 @@ public class AnalyzeBuilder extends Builder implements SimpleBuildStep {
                 logContentDto -> {
                     logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
                 },
-                JobStatus::getState);
+                status -> status);
     }
 
     /**
@@ -0,0 +1,70 @@
+package io.jenkins.plugins.aipconsole;
+
+import hudson.Extension;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static io.jenkins.plugins.aipconsole.Messages.AnalyzeBuilder_DescriptorImpl_displayName;
+
+/**
+ * Pipeline step of {@link AnalyzeBuilder}, releasing the executor during the analysis
+ */
+public class AnalyzeStep extends AipJobStep {
+    private static final long serialVersionUID = 1L;
+
+    @Nullable
+    private String versionName;
+    private boolean withSnapshot = false;
+
+    @DataBoundConstructor
+    public AnalyzeStep(@CheckForNull String applicationName) {
+        super(applicationName);
+    }
+
+    @Nullable
+    public String getVersionName() {
+        return versionName;
+    }
+
+    @DataBoundSetter
+    public void setVersionName(@Nullable String versionName) {
+        this.versionName = versionName;
+    }
+
+    public boolean isWithSnapshot() {
+        return withSnapshot;
+    }
+
+    @DataBoundSetter
+    public void setWithSnapshot(boolean withSnapshot) {
+        this.withSnapshot = withSnapshot;
+    }
+
+    @Override
+    AipJobBuilder createBuilder() {
+        AnalyzeBuilder builder = new AnalyzeBuilder(getApplicationName());
+        builder.setVersionName(versionName);
+        builder.setWithSnapshot(withSnapshot);
+        builder.setFailureIgnored(isFailureIgnored());
+        builder.setTimeout(getTimeout());
+        return builder;
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends AipJobStepDescriptor {
+        @Override
+        public String getFunctionName() {
+            return "aipAnalyze";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return AnalyzeBuilder_DescriptorImpl_displayName();
+        }
+    }
+}
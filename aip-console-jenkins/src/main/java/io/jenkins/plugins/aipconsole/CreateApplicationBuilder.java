@@ -5,8 +5,10 @@ import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import com.google.inject.Guice;
 import com.google.inject.Inject;
 import hudson.Extension;
 import hudson.FilePath;
@@ -113,11 +115,26 @@ public class CreateApplicationBuilder extends Builder implements SimpleBuildStep
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        JobTimingRecorder recorder = JobTimingRecorder.start(getDescriptor().getDisplayName());
+        try (Span span = Tracing.tracer().startSpan("jenkins create-application")) {
+            span.setAttribute("jenkins.build", run.getExternalizableId());
+            try {
+                performCreateApplication(run, workspace, launcher, listener);
+            } finally {
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        } finally {
+            JobTimingArtifacts.archive(recorder.finish(String.valueOf(run.getResult())), "create-application", run, workspace, launcher, listener);
+            Tracing.tracer().flush();
+        }
+    }
+
+    private void performCreateApplication(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
         PrintStream log = listener.getLogger();
         Result defaultResult = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
 
         if (apiService == null || jobsService == null) {
-            Guice.createInjector(new AipConsoleModule()).injectMembers(this);
+            AipConsoleServices.injector().injectMembers(this);
         }
 
         String apiServerUrl = getDescriptor().getAipConsoleUrl();
@@ -152,17 +169,20 @@ public class CreateApplicationBuilder extends Builder implements SimpleBuildStep
             }
 
             log.println(CreateApplicationBuilder_CreateApplication_info_startJob());
-            String createJobGuid = jobsService.startCreateApplication(expandedAppName);
-            log.println(CreateApplicationBuilder_CreateApplication_info_jobStarted());
-            JobState endState = jobsService.pollAndWaitForJobFinished(createJobGuid,
-                    jobStatusWithSteps -> log.println(JobsSteps_changed(JobStepTranslationHelper.getStepTranslation(jobStatusWithSteps.getProgressStep()))),
-                    logContentDto -> {
-                        logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
-                    },
-                    jobStatusWithSteps -> {
-                        applicationGuid = jobStatusWithSteps.getAppGuid();
-                        return jobStatusWithSteps.getState();
-                    });
+            JobState endState;
+            try (AipConsoleThrottle.Slot ignored = AipConsoleThrottle.acquireJobSlot(listener)) {
+                String createJobGuid = jobsService.startCreateApplication(expandedAppName);
+                log.println(CreateApplicationBuilder_CreateApplication_info_jobStarted());
+                endState = jobsService.pollAndWaitForJobFinished(createJobGuid,
+                        jobStatusWithSteps -> log.println(JobsSteps_changed(JobStepTranslationHelper.getStepTranslation(jobStatusWithSteps.getProgressStep()))),
+                        logContentDto -> {
+                            logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
+                        },
+                        jobStatusWithSteps -> {
+                            applicationGuid = jobStatusWithSteps.getAppGuid();
+                            return jobStatusWithSteps.getState();
+                        });
+            }
 
             if (endState != JobState.COMPLETED) {
                 listener.error(CreateApplicationBuilder_CreateApplication_error_jobFailed(endState.toString()));
@@ -1,15 +1,13 @@
 package io.jenkins.plugins.aipconsole;
 
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import hudson.model.Run;
-import jenkins.model.RunAction2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-public class DeliverAction implements RunAction2 {
+public class DeliverAction extends PerformanceAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeliverAction.class);
 
     @CheckForNull
@@ -32,10 +30,11 @@ public class DeliverAction implements RunAction2 {
     private boolean deploy = false;
     @Nullable
     private String exclusionPatterns = "";
+    private boolean packageWorkspaceFolder = false;
+    @Nullable
+    private String inclusionPatterns = "";
     private boolean autoDiscover = true;
 
-    private transient Run run;
-
     public DeliverAction(@CheckForNull String applicationName, @CheckForNull String filePath) {
         this.applicationName = applicationName;
         this.filePath = filePath;
@@ -151,16 +150,6 @@ public class DeliverAction implements RunAction2 {
         this.deploy = deploy;
     }
 
-    @Override
-    public void onAttached(Run<?, ?> run) {
-        this.run = run;
-    }
-
-    @Override
-    public void onLoad(Run<?, ?> run) {
-        this.run = run;
-    }
-
     @CheckForNull
     @Override
     public String getIconFileName() {
@@ -187,4 +176,21 @@ public class DeliverAction implements RunAction2 {
     public void setExclusionPatterns(@Nullable String exclusionPatterns) {
         this.exclusionPatterns = exclusionPatterns;
     }
+
+    public boolean isPackageWorkspaceFolder() {
+        return packageWorkspaceFolder;
+    }
+
+    public void setPackageWorkspaceFolder(boolean packageWorkspaceFolder) {
+        this.packageWorkspaceFolder = packageWorkspaceFolder;
+    }
+
+    @Nullable
+    public String getInclusionPatterns() {
+        return inclusionPatterns;
+    }
+
+    public void setInclusionPatterns(@Nullable String inclusionPatterns) {
+        this.inclusionPatterns = inclusionPatterns;
+    }
 }
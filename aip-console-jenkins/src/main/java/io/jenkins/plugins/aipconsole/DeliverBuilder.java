@@ -6,19 +6,23 @@ import com.castsoftware.aip.console.tools.core.dto.VersionDto;
 import com.castsoftware.aip.console.tools.core.dto.jobs.FileCommandRequest;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
-import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatus;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApplicationServiceException;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.exceptions.UploadException;
+import com.castsoftware.aip.console.tools.core.packaging.SourcePackager;
 import com.castsoftware.aip.console.tools.core.services.ApplicationService;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
 import com.castsoftware.aip.console.tools.core.services.UploadService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -40,14 +44,13 @@ import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -71,15 +74,18 @@ import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersio
 import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_info_startUpload;
 import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_success_analysisComplete;
 import static io.jenkins.plugins.aipconsole.Messages.CreateApplicationBuilder_CreateApplication_error_jobServiceException;
+import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_Deliver_error_folderNotFound;
+import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_Deliver_info_noDeliveryReport;
 import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_Deliver_info_startDeliverCloneJob;
 import static io.jenkins.plugins.aipconsole.Messages.DeliverBuilder_DescriptorImpl_displayName;
 import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_accessDenied;
 import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_missingRequiredParameters;
 import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_noApiKey;
 import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_noServerUrl;
+import static io.jenkins.plugins.aipconsole.Messages.GenericError_error_noWorkspace;
 import static io.jenkins.plugins.aipconsole.Messages.JobsSteps_changed;
 
-public class DeliverBuilder extends Builder implements SimpleBuildStep {
+public class DeliverBuilder extends Builder implements SimpleBuildStep, AipJobBuilder {
     public static final int BUFFER_SIZE = 10 * 1024 * 1024;
     @Inject
     private JobsService jobsService;
@@ -111,6 +117,9 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
 
     @Nullable
     private String exclusionPatterns = "";
+    private boolean packageWorkspaceFolder = false;
+    @Nullable
+    private String inclusionPatterns = "";
 
     private boolean autoDiscover = true;
 
@@ -186,6 +195,25 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
         this.exclusionPatterns = exclusionPatterns;
     }
 
+    public boolean isPackageWorkspaceFolder() {
+        return packageWorkspaceFolder;
+    }
+
+    @DataBoundSetter
+    public void setPackageWorkspaceFolder(boolean packageWorkspaceFolder) {
+        this.packageWorkspaceFolder = packageWorkspaceFolder;
+    }
+
+    @Nullable
+    public String getInclusionPatterns() {
+        return inclusionPatterns;
+    }
+
+    @DataBoundSetter
+    public void setInclusionPatterns(@Nullable String inclusionPatterns) {
+        this.inclusionPatterns = inclusionPatterns;
+    }
+
     @Nullable
     public String getVersionName() {
         return versionName;
@@ -259,6 +287,49 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        JobTimingRecorder recorder = JobTimingRecorder.start(getDescriptor().getDisplayName());
+        try (Span span = Tracing.tracer().startSpan("jenkins deliver")) {
+            span.setAttribute("jenkins.build", run.getExternalizableId());
+            try {
+                String jobGuid = startJob(run, workspace, listener);
+                if (jobGuid != null) {
+                    waitForJob(run, workspace, listener, jobGuid);
+                }
+            } finally {
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        } finally {
+            AipConsoleThrottle.releaseThreadJobSlot();
+            JobTimingReport report = recorder.finish(String.valueOf(run.getResult()));
+            run.addAction(createAction(report));
+            JobTimingArtifacts.archive(report, getTimingId(), run, workspace, launcher, listener);
+            Tracing.tracer().flush();
+        }
+    }
+
+    @Override
+    public DeliverAction createAction(JobTimingReport report) {
+        DeliverAction action = new DeliverAction(applicationName, filePath);
+        action.setApplicationGuid(applicationGuid);
+        action.setAutoCreate(autoCreate);
+        action.setCloneVersion(cloneVersion);
+        action.setVersionName(versionName);
+        action.setFailureIgnored(failureIgnored);
+        action.setTimeout(timeout);
+        action.setNodeName(nodeName);
+        action.setBackupApplicationEnabled(backupApplicationEnabled);
+        action.setBackupName(backupName);
+        action.setExclusionPatterns(exclusionPatterns);
+        action.setPackageWorkspaceFolder(packageWorkspaceFolder);
+        action.setInclusionPatterns(inclusionPatterns);
+        action.setAutoDiscover(autoDiscover);
+        action.setTimingReport(report);
+        return action;
+    }
+
+    @CheckForNull
+    @Override
+    public String startJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener) throws InterruptedException, IOException {
         PrintStream log = listener.getLogger();
         Result defaultResult = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
         boolean applicationHasVersion = this.cloneVersion;
@@ -268,13 +339,13 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
         if ((errorMessage = checkJobParameters()) != null) {
             listener.error(errorMessage);
             run.setResult(Result.NOT_BUILT);
-            return;
+            return null;
         }
 
         // Check the services have been properly initialized
         if (!ObjectUtils.allNotNull(apiService, uploadService, jobsService, applicationService)) {
-            // Manually setup Guice Injector using Module (Didn't find any way to make this automatically)
-            Injector injector = Guice.createInjector(new AipConsoleModule());
+            // Services shared by the builds (Didn't find any way to inject them automatically)
+            Injector injector = AipConsoleServices.injector();
             // Guice can automatically inject those, but then findbugs, not seeing the change,
             // will fail the build considering they will provoke an NPE
             // So, to avoid this, set them explicitly (if they were not set)
@@ -300,7 +371,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
         } catch (ApiCallException e) {
             listener.error(GenericError_error_accessDenied(apiServerUrl));
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         ApiInfoDto apiInfoDto = apiService.getAipConsoleApiInfo();
@@ -310,21 +381,41 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
             listener.error(AddVersionBuilder_AddVersion_error_appCreateError(applicationName));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         EnvVars vars = run.getEnvironment(listener);
         String resolvedFilePath = vars.expand(filePath);
         String fileExt = com.castsoftware.aip.console.tools.core.utils.FilenameUtils.getFileExtension(filePath);
         FilePath workspaceFile = null;
-        // Local file
-        if (StringUtils.equalsAnyIgnoreCase(fileExt, "zip", "tgz", "tar.gz")) {
+        // Workspace folder, packaged on the node holding the workspace
+        if (packageWorkspaceFolder) {
+            if (workspace == null) {
+                listener.error(GenericError_error_noWorkspace(filePath));
+                run.setResult(Result.NOT_BUILT);
+                return null;
+            }
+            workspaceFile = workspace.child(resolvedFilePath);
+            fileExt = SourcePackager.EXTENSION;
+            isUpload = true;
+            if (!workspaceFile.isDirectory()) {
+                listener.error(DeliverBuilder_Deliver_error_folderNotFound(filePath));
+                run.setResult(Result.NOT_BUILT);
+                return null;
+            }
+        } else if (StringUtils.equalsAnyIgnoreCase(fileExt, "zip", "tgz", "tar.gz")) {
+            // Local file
+            if (workspace == null) {
+                listener.error(GenericError_error_noWorkspace(filePath));
+                run.setResult(Result.NOT_BUILT);
+                return null;
+            }
             workspaceFile = workspace.child(resolvedFilePath);
             isUpload = true;
             if (!workspaceFile.exists()) {
                 listener.error(AddVersionBuilder_AddVersion_error_fileNotFound(filePath));
                 run.setResult(Result.NOT_BUILT);
-                return;
+                return null;
             }
         }
 
@@ -337,7 +428,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
                 if (!autoCreate) {
                     listener.error(AddVersionBuilder_AddVersion_error_appNotFound(applicationName));
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 // Is there a node name
                 String nodeGuid = null;
@@ -354,13 +445,13 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
                         if (StringUtils.isBlank(nodeGuid)) {
                             listener.error(AddVersionBuilder_AddVersion_error_nodeNotFound(nodeName));
                             run.setResult(defaultResult);
-                            return;
+                            return null;
                         }
                     } catch (ApiCallException e) {
                         listener.error("Unable to retrieve the node guid from the given name");
                         e.printStackTrace(log);
                         run.setResult(defaultResult);
-                        return;
+                        return null;
                     }
                 }
 
@@ -375,7 +466,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
                 if (StringUtils.isBlank(applicationGuid)) {
                     listener.error(CreateApplicationBuilder_CreateApplication_error_jobServiceException(applicationName, apiServerUrl));
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 // Don't clone version if we just created the application
                 applicationHasVersion = false;
@@ -399,7 +490,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
                     listener.error("Unable to find the file " + filePath + " in the source.folder.location");
                     e.printStackTrace(log);
                     run.setResult(defaultResult);
-                    return;
+                    return null;
                 }
                 fileName = Paths.get(filePath).toString();
                 if (apiInfoDto.isSourcePathPrefixRequired()) {
@@ -410,32 +501,39 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
 
                 // if it already exists, delete it (might be a remnant of a previous execution)
                 // move source file to another file name, to avoid conflicts when uploading the same zip file for multiple applications
-                try (InputStream workspaceFileStream = workspaceFile.read();
-                     InputStream bufferedStream = new BufferedInputStream(workspaceFileStream, BUFFER_SIZE)) {
-                    log.println("Uploading file " + workspaceFile.getName());
-                    if (!uploadService.uploadInputStream(applicationGuid, fileName, workspaceFile.length(), bufferedStream)) {
-                        throw new UploadException("Uploading was not completed successfully.");
-                    }
-                    if (apiInfoDto.isSourcePathPrefixRequired()) {
-                        fileName = "upload:" + applicationName + "/main_sources";
-                    }
+                log.println("Uploading file " + workspaceFile.getName());
+                // runs on the agent holding the workspace, the archive doesn't go through the controller
+                boolean uploaded;
+                if (packageWorkspaceFolder) {
+                    // the exclusion patterns are also sent in the delivery configuration below
+                    uploaded = AgentUpload.uploadFolder(workspaceFile, uploadService, apiServerUrl, username, apiKey, actualTimeout,
+                            applicationGuid, fileName, inclusionPatterns, exclusionPatterns, listener);
+                } else {
+                    uploaded = AgentUpload.upload(workspaceFile, uploadService, apiServerUrl, username, apiKey, actualTimeout,
+                            applicationGuid, fileName, listener);
+                }
+                if (!uploaded) {
+                    throw new UploadException("Uploading was not completed successfully.");
+                }
+                if (apiInfoDto.isSourcePathPrefixRequired()) {
+                    fileName = "upload:" + applicationName + "/main_sources";
                 }
             }
         } catch (ApplicationServiceException e) {
             listener.error(AddVersionBuilder_AddVersion_error_appCreateError(applicationName));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         } catch (UploadException e) {
             listener.error(AddVersionBuilder_AddVersion_error_uploadFailed());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         } catch (JobServiceException e) {
             listener.error(CreateApplicationBuilder_CreateApplication_error_jobServiceException(applicationName, apiServerUrl));
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         try {
@@ -471,23 +569,61 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
             }
 
             log.println("Job request : " + requestBuilder.buildJobRequest().toString());
+            AipConsoleThrottle.acquireThreadJobSlot(listener);
             String jobGuid = jobsService.startAddVersionJob(requestBuilder);
 
             log.println(AddVersionBuilder_AddVersion_info_pollJobMessage());
-            JobState state = pollJob(jobGuid, log);
-            if (state != JobState.COMPLETED) {
-                listener.error(AddVersionBuilder_AddVersion_error_jobFailure(state.toString()));
-                run.setResult(defaultResult);
-            } else {
-                log.println(AddVersionBuilder_AddVersion_success_analysisComplete());
-                downloadDeliveryReport(workspace, applicationGuid, versionName, listener);
-                run.setResult(Result.SUCCESS);
-            }
+            return jobGuid;
         } catch (JobServiceException | ApiCallException | ApplicationServiceException e) {
-            listener.error(AddVersionBuilder_AddVersion_error_jobServiceException());
-            e.printStackTrace(listener.getLogger());
-            run.setResult(defaultResult);
+            jobFailed(run, listener, e);
         }
+        return null;
+    }
+
+    /**
+     * Waits for the job, blocking the current thread
+     */
+    private void waitForJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, String jobGuid) {
+        try {
+            jobFinished(run, workspace, listener, pollJob(jobGuid, listener.getLogger()));
+        } catch (JobServiceException e) {
+            jobFailed(run, listener, e);
+        }
+    }
+
+    @Override
+    public void jobFinished(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, JobStatusWithSteps status) {
+        if (status.getState() != JobState.COMPLETED) {
+            listener.error(AddVersionBuilder_AddVersion_error_jobFailure(String.valueOf(status.getState())));
+            run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+            return;
+        }
+        listener.getLogger().println(AddVersionBuilder_AddVersion_success_analysisComplete());
+        // outside of a node there is no workspace to save the report to, and after a restart of Jenkins
+        // the step resumes without the session used to start the job
+        if (workspace == null || applicationService == null) {
+            listener.getLogger().println(DeliverBuilder_Deliver_info_noDeliveryReport());
+        } else {
+            try {
+                downloadDeliveryReport(workspace, status.getAppGuid(), versionName, listener);
+            } catch (ApiCallException | ApplicationServiceException e) {
+                jobFailed(run, listener, e);
+                return;
+            }
+        }
+        run.setResult(Result.SUCCESS);
+    }
+
+    @Override
+    public void jobFailed(@Nonnull Run<?, ?> run, @Nonnull TaskListener listener, Exception e) {
+        listener.error(AddVersionBuilder_AddVersion_error_jobServiceException());
+        e.printStackTrace(listener.getLogger());
+        run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+    }
+
+    @Override
+    public String getTimingId() {
+        return "deliver";
     }
 
     /**
@@ -504,9 +640,15 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
         log.println("Version guid " + versionGuid);
 
         String reportFile = versionName + "-report-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmm")) + ".xml";
+        FilePath reportPath = workspace.child(reportFile);
         try {
-            String content = apiService.getForEntity("/api/applications/" + appGuid + "/versions/" + versionGuid + "/dmt-report/download", String.class);
-            workspace.child(reportFile).write(content, StandardCharsets.UTF_8.toString());
+            // streamed to the workspace (on the agent if it is remote), the report is never held in memory
+            try (OutputStream reportStream = reportPath.write()) {
+                apiService.downloadToStream("/api/applications/" + appGuid + "/versions/" + versionGuid + "/dmt-report/download", reportStream);
+            } catch (ApiCallException e) {
+                reportPath.delete();
+                throw e;
+            }
             log.println("Version delivery report saved in workspace " + reportFile);
         } catch (IOException | InterruptedException e) {
             taskListener.error("Failed to download the delivery report", e.getMessage());
@@ -535,7 +677,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
         return null;
     }
 
-    private JobState pollJob(String jobGuid, PrintStream log) throws JobServiceException {
+    private JobStatusWithSteps pollJob(String jobGuid, PrintStream log) throws JobServiceException {
         return jobsService.pollAndWaitForJobFinished(jobGuid,
                 jobStatusWithSteps -> log.println(
                         jobStatusWithSteps.getAppName() + " - " +
@@ -544,7 +686,7 @@ public class DeliverBuilder extends Builder implements SimpleBuildStep {
                 logContentDto -> {
                     logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
                 },
-                JobStatus::getState);
+                status -> status);
     }
 
     @Symbol("aipDeliver")
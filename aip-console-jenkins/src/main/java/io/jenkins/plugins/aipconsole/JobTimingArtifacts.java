@@ -0,0 +1,79 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.BuildListenerAdapter;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.jenkins.plugins.aipconsole.Messages.JobTiming_error_archiveFailed;
+import static io.jenkins.plugins.aipconsole.Messages.JobTiming_info_archived;
+
+/**
+ * Prints the timing report of a build step and stores it (as JSON and as a table) in the build artifacts
+ */
+public class JobTimingArtifacts {
+    public static final String ARTIFACTS_FOLDER = "aip-console-timing";
+    public static final String JSON_SUFFIX = "-timing.json";
+    private static final String TABLE_SUFFIX = "-timing.txt";
+
+    private JobTimingArtifacts() {
+
+    }
+
+    /**
+     * @param stepId    Identifies the build step in the artifacts names. A suffix is added if the same step ran before in this build
+     * @param workspace The workspace the artifacts are written to, null to only print the report
+     */
+    public static void archive(JobTimingReport report, String stepId, Run<?, ?> run, @CheckForNull FilePath workspace, @CheckForNull Launcher launcher, TaskListener listener) {
+        if (report.isEmpty()) {
+            return;
+        }
+        PrintStream log = listener.getLogger();
+        String table = report.toTable();
+        log.println(table);
+        if (workspace == null || launcher == null) {
+            // a Pipeline step outside of a node has nowhere to write the artifacts
+            return;
+        }
+        try {
+            String baseName = uniqueBaseName(run, stepId);
+            StringWriter json = new StringWriter();
+            report.writeJson(json);
+
+            FilePath folder = workspace.child(ARTIFACTS_FOLDER);
+            folder.mkdirs();
+            folder.child(baseName + JSON_SUFFIX).write(json.toString(), StandardCharsets.UTF_8.name());
+            folder.child(baseName + TABLE_SUFFIX).write(table, StandardCharsets.UTF_8.name());
+
+            Map<String, String> artifacts = new HashMap<>();
+            artifacts.put(ARTIFACTS_FOLDER + "/" + baseName + JSON_SUFFIX, ARTIFACTS_FOLDER + "/" + baseName + JSON_SUFFIX);
+            artifacts.put(ARTIFACTS_FOLDER + "/" + baseName + TABLE_SUFFIX, ARTIFACTS_FOLDER + "/" + baseName + TABLE_SUFFIX);
+            run.getArtifactManager().archive(workspace, launcher, BuildListenerAdapter.wrap(listener), artifacts);
+            log.println(JobTiming_info_archived(ARTIFACTS_FOLDER + "/" + baseName + JSON_SUFFIX));
+        } catch (IOException e) {
+            // the timing report must never fail the build
+            listener.error(JobTiming_error_archiveFailed(e.getLocalizedMessage()));
+        } catch (InterruptedException e) {
+            listener.error(JobTiming_error_archiveFailed(e.getLocalizedMessage()));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String uniqueBaseName(Run<?, ?> run, String stepId) throws IOException {
+        String baseName = stepId;
+        for (int i = 2; run.getArtifactManager().root().child(ARTIFACTS_FOLDER + "/" + baseName + JSON_SUFFIX).exists(); i++) {
+            baseName = stepId + "-" + i;
+        }
+        return baseName;
+    }
+}
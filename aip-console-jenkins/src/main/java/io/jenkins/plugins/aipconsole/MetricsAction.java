@@ -0,0 +1,67 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.metrics.MetricsExporter;
+import hudson.Extension;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import org.apache.commons.lang3.StringUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.io.IOException;
+
+import static io.jenkins.plugins.aipconsole.Messages.Metrics_displayName;
+
+/**
+ * Exposes the metrics of the calls made to AIP Console by the builds of this controller : throttle waits, circuit
+ * breakers, bulkheads, retries, polls...
+ * <p/>
+ * The metrics are served at {@value #URL_NAME} in the Prometheus text format, or as JSON with {@code ?format=json}.
+ * Only the administrators can read them.
+ */
+@Extension
+public class MetricsAction implements RootAction {
+    public static final String URL_NAME = "aipConsoleMetrics";
+
+    /**
+     * Records the metrics from the start of Jenkins, before the first build calls AIP Console
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void enableMetrics() {
+        Metrics.enable();
+    }
+
+    @Override
+    public String getIconFileName() {
+        // not shown in the side panel, the endpoint is meant for the monitoring tools
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Metrics_displayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    public void doIndex(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.ADMINISTER);
+        String format = StringUtils.defaultIfBlank(req.getParameter("format"), "prometheus");
+        MetricsExporter exporter;
+        try {
+            exporter = MetricsExporter.forFormat(format);
+        } catch (IllegalArgumentException e) {
+            rsp.sendError(StaplerResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        rsp.setContentType(StringUtils.equalsIgnoreCase(format, "json") ?
+                "application/json;charset=UTF-8" : "text/plain; version=0.0.4; charset=UTF-8");
+        exporter.export(Metrics.registry().getMeters(), rsp.getWriter());
+    }
+}
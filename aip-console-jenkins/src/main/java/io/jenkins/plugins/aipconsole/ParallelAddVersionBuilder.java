@@ -0,0 +1,400 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractProject;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.BuildStepDescriptor;
+import hudson.tasks.Builder;
+import hudson.util.Secret;
+import hudson.util.StreamTaskListener;
+import io.jenkins.plugins.aipconsole.config.AipConsoleGlobalConfiguration;
+import jenkins.tasks.SimpleBuildStep;
+import org.apache.commons.lang3.StringUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.jenkins.plugins.aipconsole.Messages.ParallelAddVersionBuilder_DescriptorImpl_displayName;
+import static io.jenkins.plugins.aipconsole.Messages.ParallelAddVersionBuilder_error_noApplication;
+import static io.jenkins.plugins.aipconsole.Messages.ParallelAddVersionBuilder_info_start;
+import static io.jenkins.plugins.aipconsole.Messages.ParallelAddVersionBuilder_info_summary;
+
+/**
+ * Adds a version to several applications in a single build step, running up to {@link #getParallelism()} of them at
+ * the same time.
+ * <p/>
+ * Each application goes through the same steps as {@link AddVersionBuilder}, on a thread of its own which logs in to
+ * AIP Console by itself, since the sessions are bound to the calling thread. The lines of the build log are prefixed
+ * with the name of their application, and a summary of all the applications is shown at the end.
+ */
+public class ParallelAddVersionBuilder extends Builder implements SimpleBuildStep {
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final String NOT_STARTED = "NOT_STARTED";
+    private static final String ERROR = "ERROR";
+
+    private final List<AddVersionEntry> entries;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private boolean autoCreate = false;
+    private boolean cloneVersion = true;
+    @Nullable
+    private String versionName = "";
+    private long timeout = Constants.DEFAULT_HTTP_TIMEOUT;
+    private boolean failureIgnored = false;
+    @Nullable
+    private String nodeName = "";
+    private boolean enableSecurityDataflow = false;
+
+    @DataBoundConstructor
+    public ParallelAddVersionBuilder(List<AddVersionEntry> entries) {
+        this.entries = entries == null ? Collections.emptyList() : new ArrayList<>(entries);
+    }
+
+    public List<AddVersionEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @DataBoundSetter
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public boolean isAutoCreate() {
+        return autoCreate;
+    }
+
+    @DataBoundSetter
+    public void setAutoCreate(boolean autoCreate) {
+        this.autoCreate = autoCreate;
+    }
+
+    public boolean isCloneVersion() {
+        return cloneVersion;
+    }
+
+    @DataBoundSetter
+    public void setCloneVersion(boolean cloneVersion) {
+        this.cloneVersion = cloneVersion;
+    }
+
+    @Nullable
+    public String getVersionName() {
+        return versionName;
+    }
+
+    @DataBoundSetter
+    public void setVersionName(@Nullable String versionName) {
+        this.versionName = versionName;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @DataBoundSetter
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public boolean isFailureIgnored() {
+        return failureIgnored;
+    }
+
+    @DataBoundSetter
+    public void setFailureIgnored(boolean failureIgnored) {
+        this.failureIgnored = failureIgnored;
+    }
+
+    @Nullable
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    @DataBoundSetter
+    public void setNodeName(@Nullable String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public boolean isEnableSecurityDataflow() {
+        return enableSecurityDataflow;
+    }
+
+    @DataBoundSetter
+    public void setEnableSecurityDataflow(boolean enableSecurityDataflow) {
+        this.enableSecurityDataflow = enableSecurityDataflow;
+    }
+
+    @Override
+    public ParallelAddVersionDescriptorImpl getDescriptor() {
+        return (ParallelAddVersionDescriptorImpl) super.getDescriptor();
+    }
+
+    @Override
+    public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        PrintStream log = listener.getLogger();
+        if (entries.isEmpty()) {
+            listener.error(ParallelAddVersionBuilder_error_noApplication());
+            run.setResult(Result.NOT_BUILT);
+            return;
+        }
+
+        // all the applications get the same version name, unless they have their own
+        EnvVars vars = run.getEnvironment(listener);
+        String resolvedVersionName = vars.expand(versionName);
+        if (StringUtils.isBlank(resolvedVersionName)) {
+            resolvedVersionName = String.format("v%s", new SimpleDateFormat("yyMMdd.HHmmss").format(new Date()));
+        }
+
+        // each application logs in to AIP Console from its own thread, as AddVersionBuilder does
+        if (StringUtils.isBlank(getDescriptor().getAipConsoleUrl())) {
+            listener.error(Messages.GenericError_error_noServerUrl());
+            run.setResult(Result.NOT_BUILT);
+            return;
+        }
+
+        int threads = Math.min(parallelism, entries.size());
+        log.println(ParallelAddVersionBuilder_info_start(entries.size(), threads));
+        List<EntryResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            // renamed after the index of each application it works on, below
+            Thread thread = new Thread(r, "AIP Console add version for " + run.getExternalizableId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<EntryResult>> futures = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                AddVersionEntry entry = entries.get(i);
+                String threadName = "AIP Console add version " + (i + 1) + "/" + entries.size() + " for " + run.getExternalizableId();
+                String entryVersionName = StringUtils.defaultIfBlank(vars.expand(entry.getVersionName()), resolvedVersionName);
+                TaskListener entryListener = new StreamTaskListener(new PrefixedOutputStream(log, "[" + StringUtils.defaultString(entry.getApplicationName()) + "] "), StandardCharsets.UTF_8);
+                futures.add(executor.submit(() -> {
+                    Thread.currentThread().setName(threadName);
+                    return addVersion(entry, entryVersionName, run, workspace, entryListener);
+                }));
+            }
+            for (Future<EntryResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            // stops the remaining applications if the build is aborted
+            executor.shutdownNow();
+        }
+
+        // archived one after the other, so that the names of the artifacts don't collide
+        for (EntryResult result : results) {
+            JobTimingArtifacts.archive(result.report, "add-version-" + result.getApplicationName().replaceAll("[^A-Za-z0-9_.-]", "_"),
+                    run, workspace, launcher, result.listener);
+            result.listener.getLogger().close();
+        }
+        printSummary(results, log);
+
+        // the applications set the build result concurrently, make sure the worst one is kept
+        Result worst = results.stream().map(r -> r.result).reduce(Result.SUCCESS, (a, b) -> a.isWorseThan(b) ? a : b);
+        run.setResult(worst);
+        long succeeded = results.stream().filter(r -> r.result == Result.SUCCESS).count();
+        log.println(ParallelAddVersionBuilder_info_summary(succeeded, results.size() - succeeded));
+    }
+
+    /**
+     * Adds a version to a single application, from one of the threads of the step
+     */
+    private EntryResult addVersion(AddVersionEntry entry, String entryVersionName, Run<?, ?> run, FilePath workspace, TaskListener listener) {
+        AddVersionBuilder builder = new AddVersionBuilder(entry.getApplicationName(), entry.getFilePath());
+        builder.setVersionName(entryVersionName);
+        builder.setAutoCreate(autoCreate);
+        builder.setCloneVersion(cloneVersion);
+        builder.setTimeout(timeout);
+        builder.setFailureIgnored(failureIgnored);
+        builder.setNodeName(nodeName);
+        builder.setEnableSecurityDataflow(enableSecurityDataflow);
+
+        long start = System.nanoTime();
+        // bound to this worker thread only, so that the steps of the other applications are not mixed with these ones
+        JobTimingRecorder recorder = JobTimingRecorder.start(builder.getDescriptor().getDisplayName());
+        Result result = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
+        String state;
+        try {
+            String jobGuid = builder.startJob(run, workspace, listener);
+            if (jobGuid == null) {
+                state = NOT_STARTED;
+            } else {
+                JobStatusWithSteps status = builder.pollJob(jobGuid, listener.getLogger());
+                builder.jobFinished(run, workspace, listener, status);
+                state = String.valueOf(status.getState());
+                if (status.getState() == JobState.COMPLETED) {
+                    result = Result.SUCCESS;
+                }
+            }
+        } catch (JobServiceException | IOException | RuntimeException e) {
+            builder.jobFailed(run, listener, e);
+            state = ERROR;
+        } catch (InterruptedException e) {
+            builder.jobFailed(run, listener, e);
+            state = ERROR;
+            result = Result.ABORTED;
+            Thread.currentThread().interrupt();
+        } finally {
+            AipConsoleThrottle.releaseThreadJobSlot();
+        }
+        JobTimingReport report = recorder.finish(String.valueOf(result));
+        return new EntryResult(entry, entryVersionName, result, state, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), report, listener);
+    }
+
+    private static void printSummary(List<EntryResult> results, PrintStream log) {
+        int nameWidth = "Application".length();
+        int versionWidth = "Version".length();
+        for (EntryResult result : results) {
+            nameWidth = Math.max(nameWidth, result.getApplicationName().length());
+            versionWidth = Math.max(versionWidth, result.versionName.length());
+        }
+        String format = "%-" + nameWidth + "s  %-" + versionWidth + "s  %-9s  %-11s  %s%n";
+        StringBuilder table = new StringBuilder(String.format(format, "Application", "Version", "Result", "Job state", "Duration"));
+        for (EntryResult result : results) {
+            table.append(String.format(format, result.getApplicationName(), result.versionName, result.result, result.state,
+                    String.format("%d:%02d:%02d", result.durationSeconds / 3600, (result.durationSeconds / 60) % 60, result.durationSeconds % 60)));
+        }
+        log.print(table);
+    }
+
+    private static final class EntryResult {
+        private final AddVersionEntry entry;
+        private final String versionName;
+        private final Result result;
+        private final String state;
+        private final long durationSeconds;
+        private final JobTimingReport report;
+        private final TaskListener listener;
+
+        private EntryResult(AddVersionEntry entry, String versionName, Result result, String state, long durationSeconds,
+                            JobTimingReport report, TaskListener listener) {
+            this.entry = entry;
+            this.versionName = versionName;
+            this.result = result;
+            this.state = state;
+            this.durationSeconds = durationSeconds;
+            this.report = report;
+            this.listener = listener;
+        }
+
+        private String getApplicationName() {
+            return StringUtils.defaultString(entry.getApplicationName());
+        }
+    }
+
+    /**
+     * Prefixes each line with the name of its application. Whole lines are written to the build log, so that the
+     * lines of the applications running at the same time are interleaved but never mixed up.
+     */
+    private static final class PrefixedOutputStream extends OutputStream {
+        private final PrintStream target;
+        private final byte[] prefix;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        private PrefixedOutputStream(PrintStream target, String prefix) {
+            this.target = target;
+            this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            line.write(b);
+            if (b == '\n') {
+                writeLine();
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        /**
+         * Writes the last line, even if it isn't complete
+         */
+        @Override
+        public synchronized void close() {
+            if (line.size() > 0) {
+                line.write('\n');
+                writeLine();
+            }
+        }
+
+        private void writeLine() {
+            synchronized (target) {
+                target.write(prefix, 0, prefix.length);
+                target.write(line.toByteArray(), 0, line.size());
+                target.flush();
+            }
+            line.reset();
+        }
+    }
+
+    @Symbol("aipParallelAddVersion")
+    @Extension
+    public static final class ParallelAddVersionDescriptorImpl extends BuildStepDescriptor<Builder> {
+
+        @Inject
+        private AipConsoleGlobalConfiguration configuration;
+
+        @Override
+        public boolean isApplicable(Class<? extends AbstractProject> jobType) {
+            return true;
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return ParallelAddVersionBuilder_DescriptorImpl_displayName();
+        }
+
+        public String getAipConsoleUrl() {
+            return configuration.getAipConsoleUrl();
+        }
+
+        public Secret getAipConsoleSecret() {
+            return configuration.getApiKey();
+        }
+
+        public String getAipConsoleUsername() {
+            return configuration.getUsername();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import hudson.model.Action;
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+import jenkins.tasks.SimpleBuildStep;
+
+import javax.annotation.CheckForNull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base of the actions added to a build by the AIP Console build steps, storing the performance data of the step
+ * (the timing report) with the build.
+ * <p/>
+ * The first of these actions in the last build contributes the {@link PerformanceTrendAction} to the project.
+ */
+public abstract class PerformanceAction implements RunAction2, SimpleBuildStep.LastBuildAction {
+    @CheckForNull
+    private JobTimingReport timingReport;
+
+    protected transient Run run;
+
+    @CheckForNull
+    public JobTimingReport getTimingReport() {
+        return timingReport;
+    }
+
+    public void setTimingReport(@CheckForNull JobTimingReport timingReport) {
+        this.timingReport = timingReport;
+    }
+
+    public boolean hasTimingReport() {
+        return timingReport != null && !timingReport.isEmpty();
+    }
+
+    public Run getRun() {
+        return run;
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public Collection<? extends Action> getProjectActions() {
+        if (run == null) {
+            return Collections.emptyList();
+        }
+        List<PerformanceAction> actions = run.getActions(PerformanceAction.class);
+        if (actions.isEmpty() || actions.get(0) != this) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new PerformanceTrendAction(run.getParent()));
+    }
+}
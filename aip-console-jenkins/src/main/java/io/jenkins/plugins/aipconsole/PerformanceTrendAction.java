@@ -0,0 +1,272 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.timing.StepTiming;
+import hudson.Functions;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.util.ChartUtil;
+import hudson.util.DataSetBuilder;
+import hudson.util.Graph;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.CategoryLabelPositions;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.CategoryDataset;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.jenkins.plugins.aipconsole.Messages.PerformanceTrend_chart_durations;
+import static io.jenkins.plugins.aipconsole.Messages.PerformanceTrend_chart_queue;
+import static io.jenkins.plugins.aipconsole.Messages.PerformanceTrend_chart_throughput;
+import static io.jenkins.plugins.aipconsole.Messages.PerformanceTrend_displayName;
+
+/**
+ * Project action showing the performance of the AIP Console build steps across the last builds:
+ * durations of the job steps, time the jobs spent in the STARTING state on AIP Console before running, and upload
+ * throughput.
+ * <p/>
+ * Only the last {@value #MAX_BUILDS} builds are read, and only once per request : loading older builds from the disk
+ * would make the project page slow on jobs with a long history.
+ */
+public class PerformanceTrendAction implements Action {
+    public static final String URL_NAME = "aipConsolePerformance";
+    private static final int MAX_BUILDS = 30;
+    private static final String BUILDS_ATTRIBUTE = PerformanceTrendAction.class.getName() + ".builds";
+    private static final int GRAPH_WIDTH = 500;
+    private static final int GRAPH_HEIGHT = 200;
+
+    private final Job<?, ?> job;
+
+    public PerformanceTrendAction(Job<?, ?> job) {
+        this.job = job;
+    }
+
+    public Job<?, ?> getJob() {
+        return job;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "graph.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return PerformanceTrend_displayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * @return The performance of the last builds with AIP Console build steps, most recent first. Computed once for
+     * the current request.
+     */
+    @SuppressWarnings("unchecked")
+    public List<BuildPerformance> getBuilds() {
+        StaplerRequest request = Stapler.getCurrentRequest();
+        if (request == null) {
+            return loadBuilds();
+        }
+        List<BuildPerformance> builds = (List<BuildPerformance>) request.getAttribute(BUILDS_ATTRIBUTE);
+        if (builds == null) {
+            builds = loadBuilds();
+            request.setAttribute(BUILDS_ATTRIBUTE, builds);
+        }
+        return builds;
+    }
+
+    private List<BuildPerformance> loadBuilds() {
+        List<BuildPerformance> builds = new ArrayList<>();
+        for (Run<?, ?> run : job.getBuilds().limit(MAX_BUILDS)) {
+            BuildPerformance performance = BuildPerformance.of(run);
+            if (performance != null) {
+                builds.add(performance);
+            }
+        }
+        return Collections.unmodifiableList(builds);
+    }
+
+    public boolean hasData() {
+        return !getBuilds().isEmpty();
+    }
+
+    public void doDurationGraph(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        List<BuildPerformance> builds = chronological();
+        if (!checkGraph(req, rsp, builds)) {
+            return;
+        }
+        DataSetBuilder<String, ChartUtil.NumberOnlyBuildLabel> dataSet = new DataSetBuilder<>();
+        for (BuildPerformance build : builds) {
+            ChartUtil.NumberOnlyBuildLabel label = new ChartUtil.NumberOnlyBuildLabel(build.getRun());
+            dataSet.add(build.getQueueMs() / 1000.0, PerformanceTrend_chart_queue(), label);
+            for (Map.Entry<String, Long> step : build.getStepDurations().entrySet()) {
+                dataSet.add(step.getValue() / 1000.0, step.getKey(), label);
+            }
+        }
+        CategoryDataset dataset = dataSet.build();
+        new Graph(lastTimestamp(builds), GRAPH_WIDTH, GRAPH_HEIGHT) {
+            @Override
+            protected JFreeChart createGraph() {
+                return buildChart(ChartFactory.createStackedBarChart(null, null, PerformanceTrend_chart_durations(),
+                        dataset, PlotOrientation.VERTICAL, true, true, false));
+            }
+        }.doPng(req, rsp);
+    }
+
+    public void doThroughputGraph(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        List<BuildPerformance> builds = chronological();
+        if (!checkGraph(req, rsp, builds)) {
+            return;
+        }
+        DataSetBuilder<String, ChartUtil.NumberOnlyBuildLabel> dataSet = new DataSetBuilder<>();
+        for (BuildPerformance build : builds) {
+            dataSet.add(build.getUploadMegabytesPerSecond(), PerformanceTrend_chart_throughput(),
+                    new ChartUtil.NumberOnlyBuildLabel(build.getRun()));
+        }
+        CategoryDataset dataset = dataSet.build();
+        new Graph(lastTimestamp(builds), GRAPH_WIDTH, GRAPH_HEIGHT) {
+            @Override
+            protected JFreeChart createGraph() {
+                return buildChart(ChartFactory.createLineChart(null, null, PerformanceTrend_chart_throughput(),
+                        dataset, PlotOrientation.VERTICAL, false, true, false));
+            }
+        }.doPng(req, rsp);
+    }
+
+    private List<BuildPerformance> chronological() {
+        List<BuildPerformance> builds = new ArrayList<>(getBuilds());
+        Collections.reverse(builds);
+        return builds;
+    }
+
+    private static boolean checkGraph(StaplerRequest req, StaplerResponse rsp, List<BuildPerformance> builds) throws IOException {
+        if (ChartUtil.awtProblemCause != null) {
+            rsp.sendRedirect2(req.getContextPath() + "/images/headless.png");
+            return false;
+        }
+        if (builds.isEmpty()) {
+            rsp.sendError(StaplerResponse.SC_NOT_FOUND);
+            return false;
+        }
+        return true;
+    }
+
+    private static long lastTimestamp(List<BuildPerformance> builds) {
+        return builds.get(builds.size() - 1).getRun().getTimeInMillis();
+    }
+
+    private static JFreeChart buildChart(JFreeChart chart) {
+        chart.setBackgroundPaint(Color.WHITE);
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(Color.LIGHT_GRAY);
+        CategoryAxis domainAxis = plot.getDomainAxis();
+        domainAxis.setCategoryLabelPositions(CategoryLabelPositions.UP_90);
+        domainAxis.setLowerMargin(0.0);
+        domainAxis.setUpperMargin(0.0);
+        return chart;
+    }
+
+    /**
+     * The performance data of all the AIP Console build steps of a build
+     */
+    public static class BuildPerformance {
+        private final Run<?, ?> run;
+        private final Map<String, Long> stepDurations = new LinkedHashMap<>();
+        private long uploadedBytes;
+        private long uploadMs;
+        private long queueMs;
+        private int pollCount;
+        private long totalDurationMs;
+
+        private BuildPerformance(Run<?, ?> run) {
+            this.run = run;
+        }
+
+        /**
+         * @return The performance of the build, or null if none of its AIP Console build steps recorded a timing report
+         */
+        static BuildPerformance of(Run<?, ?> run) {
+            BuildPerformance performance = null;
+            for (PerformanceAction action : run.getActions(PerformanceAction.class)) {
+                if (!action.hasTimingReport()) {
+                    continue;
+                }
+                if (performance == null) {
+                    performance = new BuildPerformance(run);
+                }
+                performance.add(action.getTimingReport());
+            }
+            return performance;
+        }
+
+        private void add(JobTimingReport report) {
+            for (StepTiming step : report.getSteps()) {
+                stepDurations.merge(step.getName(), step.getDurationMs(), Long::sum);
+            }
+            uploadedBytes += report.getUploadedBytes();
+            uploadMs += report.getStepDurationMs(JobTimingRecorder.UPLOAD_STEP);
+            queueMs += report.getQueueMs();
+            pollCount += report.getPollCount();
+            totalDurationMs += report.getTotalDurationMs();
+        }
+
+        public Run<?, ?> getRun() {
+            return run;
+        }
+
+        public Map<String, Long> getStepDurations() {
+            return stepDurations;
+        }
+
+        public long getUploadedBytes() {
+            return uploadedBytes;
+        }
+
+        public String getUploadedSize() {
+            return Functions.humanReadableByteSize(uploadedBytes);
+        }
+
+        public double getUploadMegabytesPerSecond() {
+            return uploadMs <= 0 ? 0 : uploadedBytes / (1024.0 * 1024.0) / (uploadMs / 1000.0);
+        }
+
+        public String getUploadThroughput() {
+            return String.format("%.2f", getUploadMegabytesPerSecond());
+        }
+
+        public long getQueueMs() {
+            return queueMs;
+        }
+
+        public String getQueueDuration() {
+            return Util.getTimeSpanString(queueMs);
+        }
+
+        public int getPollCount() {
+            return pollCount;
+        }
+
+        public String getTotalDuration() {
+            return Util.getTimeSpanString(totalDurationMs);
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package io.jenkins.plugins.aipconsole;
 
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import hudson.model.Run;
-import jenkins.model.RunAction2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
-public class SnapshotAction implements RunAction2 {
+public class SnapshotAction extends PerformanceAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotAction.class);
     @CheckForNull
     private String applicationName;
@@ -74,18 +72,6 @@ public class SnapshotAction implements RunAction2 {
         this.timeout = timeout;
     }
 
-    private transient Run run;
-
-    @Override
-    public void onAttached(Run<?, ?> run) {
-        this.run = run;
-    }
-
-    @Override
-    public void onLoad(Run<?, ?> run) {
-        this.run = run;
-    }
-
     @CheckForNull
     @Override
     public String getIconFileName() {
@@ -5,7 +5,7 @@ import com.castsoftware.aip.console.tools.core.dto.VersionDto;
 import com.castsoftware.aip.console.tools.core.dto.VersionStatus;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
-import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatus;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApplicationServiceException;
@@ -13,8 +13,11 @@ import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.services.ApplicationService;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import com.google.inject.Guice;
 import com.google.inject.Injector;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -56,7 +59,7 @@ import static io.jenkins.plugins.aipconsole.Messages.SnapshotBuilder_Snapshot_er
 import static io.jenkins.plugins.aipconsole.Messages.SnapshotBuilder_Snapshot_info_pollJobMessage;
 import static io.jenkins.plugins.aipconsole.Messages.SnapshotBuilder_Snapshot_success_complete;
 
-public class SnapshotBuilder extends Builder implements SimpleBuildStep {
+public class SnapshotBuilder extends Builder implements SimpleBuildStep, AipJobBuilder {
     @Inject
     private JobsService jobsService;
 
@@ -133,6 +136,41 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        JobTimingRecorder recorder = JobTimingRecorder.start(getDescriptor().getDisplayName());
+        try (Span span = Tracing.tracer().startSpan("jenkins snapshot")) {
+            span.setAttribute("jenkins.build", run.getExternalizableId());
+            try {
+                String jobGuid = startJob(run, workspace, listener);
+                if (jobGuid != null) {
+                    waitForJob(run, workspace, listener, jobGuid);
+                }
+            } finally {
+                span.setAttribute("jenkins.result", String.valueOf(run.getResult()));
+            }
+        } finally {
+            AipConsoleThrottle.releaseThreadJobSlot();
+            JobTimingReport report = recorder.finish(String.valueOf(run.getResult()));
+            run.addAction(createAction(report));
+            JobTimingArtifacts.archive(report, getTimingId(), run, workspace, launcher, listener);
+            Tracing.tracer().flush();
+        }
+    }
+
+    @Override
+    public SnapshotAction createAction(JobTimingReport report) {
+        SnapshotAction action = new SnapshotAction();
+        action.setApplicationName(applicationName);
+        action.setApplicationGuid(applicationGuid);
+        action.setSnapshotName(snapshotName);
+        action.setFailureIgnored(failureIgnored);
+        action.setTimeout(timeout);
+        action.setTimingReport(report);
+        return action;
+    }
+
+    @CheckForNull
+    @Override
+    public String startJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener) throws InterruptedException, IOException {
         PrintStream log = listener.getLogger();
         Result defaultResult = failureIgnored ? Result.UNSTABLE : Result.FAILURE;
 
@@ -140,13 +178,13 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
         if ((errorMessage = checkJobParameters()) != null) {
             listener.error(errorMessage);
             run.setResult(Result.NOT_BUILT);
-            return;
+            return null;
         }
 
         // Check the services have been properly initialized
         if (!ObjectUtils.allNotNull(apiService, jobsService, applicationService)) {
-            // Manually setup Guice Injector using Module (Didn't find any way to make this automatically)
-            Injector injector = Guice.createInjector(new AipConsoleModule());
+            // Services shared by the builds (Didn't find any way to inject them automatically)
+            Injector injector = AipConsoleServices.injector();
             // Guice can automatically inject those, but then findbugs, not seeing the change,
             // will fail the build considering they will provoke an NPE
             // So, to avoid this, set them explicitly (if they were not set)
@@ -171,7 +209,7 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
         } catch (ApiCallException e) {
             listener.error(Messages.GenericError_error_accessDenied(apiServerUrl));
             run.setResult(defaultResult);
-            return;
+            return null;
         }
         ApiInfoDto apiInfoDto = apiService.getAipConsoleApiInfo();
 
@@ -181,7 +219,7 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
             listener.error(SnapshotBuilder_Snapshot_error_appGuid());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
-            return;
+            return null;
         }
 
         try {
@@ -195,12 +233,12 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
                 //FIXME change error message
                 listener.error(SnapshotBuilder_Snapshot_error_noAnalyzedVersion(applicationName));
                 run.setResult(defaultResult);
-                return;
+                return null;
             }
             if (versionToAnalyze.getStatus().ordinal() < VersionStatus.ANALYSIS_DONE.ordinal()) {
                 listener.error(SnapshotBuilder_Snapshot_error_noAnalyzedVersion(applicationName));
                 run.setResult(defaultResult);
-                return;
+                return null;
             }
             // Resolve jenkins variables in snapshot name
             String resolveSnapshotName = vars.expand(snapshotName);
@@ -221,28 +259,55 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
                     .snapshotName(resolveSnapshotName)
                     .releaseAndSnapshotDate(new Date());
 
+            AipConsoleThrottle.acquireThreadJobSlot(listener);
             String jobGuid = jobsService.startJob(requestBuilder);
             log.println(SnapshotBuilder_Snapshot_info_pollJobMessage());
-            JobState state = pollJob(jobGuid, log);
-            if (state != JobState.COMPLETED) {
-                listener.error(SnapshotBuilder_Snapshot_error_jobFailure(state.toString()));
-                run.setResult(defaultResult);
-            } else {
-                log.println(SnapshotBuilder_Snapshot_success_complete(applicationName));
-                run.setResult(Result.SUCCESS);
-            }
+            return jobGuid;
         } catch (ApplicationServiceException e) {
             listener.error(SnapshotBuilder_Snapshot_error_version());
             e.printStackTrace(listener.getLogger());
             run.setResult(defaultResult);
         } catch (JobServiceException e) {
-            listener.error(SnapshotBuilder_Snapshot_error_jobException());
-            e.printStackTrace(listener.getLogger());
-            run.setResult(defaultResult);
+            jobFailed(run, listener, e);
         }
+        return null;
+    }
+
+    /**
+     * Waits for the job, blocking the current thread
+     */
+    private void waitForJob(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, String jobGuid) {
+        try {
+            jobFinished(run, workspace, listener, pollJob(jobGuid, listener.getLogger()));
+        } catch (JobServiceException e) {
+            jobFailed(run, listener, e);
+        }
+    }
+
+    @Override
+    public void jobFinished(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull TaskListener listener, JobStatusWithSteps status) {
+        if (status.getState() != JobState.COMPLETED) {
+            listener.error(SnapshotBuilder_Snapshot_error_jobFailure(String.valueOf(status.getState())));
+            run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+        } else {
+            listener.getLogger().println(SnapshotBuilder_Snapshot_success_complete(applicationName));
+            run.setResult(Result.SUCCESS);
+        }
+    }
+
+    @Override
+    public void jobFailed(@Nonnull Run<?, ?> run, @Nonnull TaskListener listener, Exception e) {
+        listener.error(SnapshotBuilder_Snapshot_error_jobException());
+        e.printStackTrace(listener.getLogger());
+        run.setResult(failureIgnored ? Result.UNSTABLE : Result.FAILURE);
+    }
+
+    @Override
+    public String getTimingId() {
+        return "snapshot";
     }
 
-    private JobState pollJob(String jobGuid, PrintStream log) throws JobServiceException {
+    private JobStatusWithSteps pollJob(String jobGuid, PrintStream log) throws JobServiceException {
         return jobsService.pollAndWaitForJobFinished(jobGuid,
                 jobStatusWithSteps -> log.println(
                         jobStatusWithSteps.getAppName() + " - " +
@@ -251,7 +316,7 @@ public class SnapshotBuilder extends Builder implements SimpleBuildStep {
                 logContentDto -> {
                     logContentDto.getLines().forEach(logLine -> log.println(logLine.getContent()));
                 },
-                JobStatus::getState);
+                status -> status);
     }
 
     /**
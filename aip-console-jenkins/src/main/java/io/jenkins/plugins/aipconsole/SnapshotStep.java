@@ -0,0 +1,58 @@
+package io.jenkins.plugins.aipconsole;
+
+import hudson.Extension;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static io.jenkins.plugins.aipconsole.Messages.SnapshotBuilder_DescriptorImpl_displayName;
+
+/**
+ * Pipeline step of {@link SnapshotBuilder}, releasing the executor while the snapshot is created
+ */
+public class SnapshotStep extends AipJobStep {
+    private static final long serialVersionUID = 1L;
+
+    @Nullable
+    private String snapshotName;
+
+    @DataBoundConstructor
+    public SnapshotStep(String applicationName) {
+        super(applicationName);
+    }
+
+    @Nullable
+    public String getSnapshotName() {
+        return snapshotName;
+    }
+
+    @DataBoundSetter
+    public void setSnapshotName(@Nullable String snapshotName) {
+        this.snapshotName = snapshotName;
+    }
+
+    @Override
+    AipJobBuilder createBuilder() {
+        SnapshotBuilder builder = new SnapshotBuilder(getApplicationName());
+        builder.setSnapshotName(snapshotName);
+        builder.setFailureIgnored(isFailureIgnored());
+        builder.setTimeout(getTimeout());
+        return builder;
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends AipJobStepDescriptor {
+        @Override
+        public String getFunctionName() {
+            return "aipSnapshot";
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return SnapshotBuilder_DescriptorImpl_displayName();
+        }
+    }
+}
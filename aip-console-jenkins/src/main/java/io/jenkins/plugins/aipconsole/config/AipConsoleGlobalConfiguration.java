@@ -15,6 +15,9 @@ public class AipConsoleGlobalConfiguration extends GlobalConfiguration {
     private Secret apiKey;
     private String username;
     private int timeout = 90;
+    private int maxConcurrentUploads;
+    private int maxConcurrentJobs;
+    private int maxPollsPerSecond;
 
     public static AipConsoleGlobalConfiguration get() {
         return GlobalConfiguration.all().get(AipConsoleGlobalConfiguration.class);
@@ -63,6 +66,36 @@ public class AipConsoleGlobalConfiguration extends GlobalConfiguration {
         this.timeout = timeout;
     }
 
+    public int getMaxConcurrentUploads() {
+        return maxConcurrentUploads;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentUploads(int maxConcurrentUploads) {
+        this.maxConcurrentUploads = Math.max(0, maxConcurrentUploads);
+        save();
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        this.maxConcurrentJobs = Math.max(0, maxConcurrentJobs);
+        save();
+    }
+
+    public int getMaxPollsPerSecond() {
+        return maxPollsPerSecond;
+    }
+
+    @DataBoundSetter
+    public void setMaxPollsPerSecond(int maxPollsPerSecond) {
+        this.maxPollsPerSecond = Math.max(0, maxPollsPerSecond);
+        save();
+    }
+
     public FormValidation doCheckAipConsoleUrl(@QueryParameter String value) {
         return StringUtils.isBlank(value) ?
                 FormValidation.error("AIP Console URL cannot be empty") :
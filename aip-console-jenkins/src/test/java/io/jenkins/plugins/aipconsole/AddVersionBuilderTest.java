@@ -4,6 +4,7 @@ import com.castsoftware.aip.console.tools.core.dto.ApiInfoDto;
 import com.castsoftware.aip.console.tools.core.dto.NodeDto;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.exceptions.UploadException;
@@ -125,7 +126,7 @@ public class AddVersionBuilderTest {
                 .when(uploadService).uploadInputStream(eq(TEST_APP_NAME), anyString(), anyLong(), isA(InputStream.class));
         doReturn(TEST_JOB_GUID)
                 .when(jobsService).startAddVersionJob(any(JobRequestBuilder.class));
-        doReturn(JobState.COMPLETED)
+        doReturn(jobStatus(JobState.COMPLETED))
                 .when(jobsService).pollAndWaitForJobFinished(eq(TEST_JOB_GUID), any(), any(), any());
 
         FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
@@ -151,7 +152,7 @@ public class AddVersionBuilderTest {
                 .when(uploadService).uploadInputStream(eq(TEST_APP_NAME), anyString(), anyLong(), isA(InputStream.class));
         doReturn(TEST_JOB_GUID)
                 .when(jobsService).startAddVersionJob(any(JobRequestBuilder.class));
-        doReturn(JobState.COMPLETED)
+        doReturn(jobStatus(JobState.COMPLETED))
                 .when(jobsService).pollAndWaitForJobFinished(eq(TEST_JOB_GUID), any(), any(), any());
 
         WorkflowRun workflowRun = jenkins.buildAndAssertSuccess(job);
@@ -252,7 +253,7 @@ public class AddVersionBuilderTest {
                 .when(uploadService).uploadInputStream(eq(TEST_APP_NAME), anyString(), anyLong(), isA(InputStream.class));
         doReturn(TEST_JOB_GUID)
                 .when(jobsService).startAddVersionJob(any(JobRequestBuilder.class));
-        doReturn(JobState.CANCELED)
+        doReturn(jobStatus(JobState.CANCELED))
                 .when(jobsService).pollAndWaitForJobFinished(eq(TEST_JOB_GUID), any(), any(), any());
 
         Future<FreeStyleBuild> futureBuild = project.scheduleBuild2(0);
@@ -321,7 +322,7 @@ public class AddVersionBuilderTest {
                 .when(uploadService).uploadInputStream(eq(TEST_APP_NAME), anyString(), anyLong(), isA(InputStream.class));
         doReturn(TEST_JOB_GUID)
                 .when(jobsService).startAddVersionJob(any(JobRequestBuilder.class));
-        doReturn(JobState.COMPLETED)
+        doReturn(jobStatus(JobState.COMPLETED))
                 .when(jobsService).pollAndWaitForJobFinished(eq(TEST_JOB_GUID), any(), any(), any());
 
         FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
@@ -329,6 +330,12 @@ public class AddVersionBuilderTest {
         jenkins.assertLogContains(AddVersionBuilder_AddVersion_success_analysisComplete(), build);
     }
 
+    private static JobStatusWithSteps jobStatus(JobState state) {
+        JobStatusWithSteps status = new JobStatusWithSteps();
+        status.setState(state);
+        return status;
+    }
+
     private FreeStyleProject getProjectWithBuilder(Builder builder) throws IOException {
         FreeStyleProject project = jenkins.createFreeStyleProject();
         project.getBuildersList().add(builder);
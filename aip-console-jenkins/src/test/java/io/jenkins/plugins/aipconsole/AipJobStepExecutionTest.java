@@ -0,0 +1,241 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.google.inject.Guice;
+import hudson.AbortException;
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleBuild;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.Builder;
+import hudson.util.Secret;
+import hudson.util.StreamTaskListener;
+import io.jenkins.plugins.aipconsole.config.AipConsoleGlobalConfiguration;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_info_canceled;
+import static io.jenkins.plugins.aipconsole.Messages.AipJobStep_info_resumed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class AipJobStepExecutionTest {
+    private static final String TEST_URL = "http://localhost:8081";
+    private static final String TEST_KEY = "key";
+    private static final String TEST_APP_NAME = "appName";
+    private static final String TEST_JOB_GUID = "jobGuid";
+    private static final long TIMEOUT_SECONDS = 60;
+
+    // the steps are serializable, they get the builder of the current test from here
+    private static AipJobBuilder currentBuilder;
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Mock
+    private RestApiService restApiService;
+
+    @Mock
+    private JobsService jobsService;
+
+    @Mock
+    private AipJobBuilder builder;
+
+    @Mock
+    private Descriptor<Builder> descriptor;
+
+    @Mock
+    private StepContext context;
+
+    private FreeStyleBuild run;
+    private ByteArrayOutputStream log;
+    private CompletableFuture<Object> outcome;
+
+    @Before
+    public void setUp() throws Exception {
+        AipConsoleGlobalConfiguration config = AipConsoleGlobalConfiguration.get();
+        config.setAipConsoleUrl(TEST_URL);
+        config.setApiKey(Secret.fromString(TEST_KEY));
+        AipConsoleServices.useInjector(Guice.createInjector(binder -> {
+            binder.bind(RestApiService.class).toInstance(restApiService);
+            binder.bind(JobsService.class).toInstance(jobsService);
+        }));
+        doAnswer(invocation -> invocation.getArgument(0))
+                .when(restApiService).withCurrentSession(any(Runnable.class));
+
+        currentBuilder = builder;
+        doReturn(descriptor).when(builder).getDescriptor();
+        doReturn("AIP test step").when(descriptor).getDisplayName();
+        doAnswer(invocation -> new AnalyzeAction(TEST_APP_NAME)).when(builder).createAction(any());
+        doReturn("test").when(builder).getTimingId();
+
+        run = jenkins.buildAndAssertSuccess(jenkins.createFreeStyleProject());
+        log = new ByteArrayOutputStream();
+        outcome = new CompletableFuture<>();
+        doReturn(run).when(context).get(Run.class);
+        doReturn(new StreamTaskListener(log, StandardCharsets.UTF_8)).when(context).get(TaskListener.class);
+        doAnswer(invocation -> outcome.complete(invocation.getArgument(0))).when(context).onSuccess(any());
+        doAnswer(invocation -> outcome.completeExceptionally(invocation.getArgument(0))).when(context).onFailure(any());
+    }
+
+    @Test
+    public void testJobStartedThenWatchedUntilCompleted() throws Exception {
+        doReturn(TEST_JOB_GUID).when(builder).startJob(eq(run), isNull(), any());
+        doReturn(jobStatus(JobState.STARTED), jobStatus(JobState.COMPLETED))
+                .when(jobsService).getJobStatus(TEST_JOB_GUID, true);
+        AipJobStepExecution execution = new AipJobStepExecution(new TestStep(), context);
+
+        assertFalse(execution.start());
+        outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        verify(restApiService).validateUrlAndKey(TEST_URL, null, TEST_KEY);
+        verify(builder).jobFinished(eq(run), isNull(), any(), argThat(status -> status.getState() == JobState.COMPLETED));
+        // saved with the build as soon as the job is started, for a restart before the pipeline is saved
+        assertEquals(TEST_JOB_GUID, AipJobStepExecution.JobGuidsAction.get(run, execution.getExecutionId()));
+        assertEquals(1, run.getActions(AnalyzeAction.class).size());
+    }
+
+    @Test
+    public void testWatchResumedWithTheGuidSavedWithTheBuild() throws Exception {
+        doReturn(jobStatus(JobState.COMPLETED)).when(jobsService).getJobStatus(TEST_JOB_GUID, true);
+        AipJobStepExecution execution = new AipJobStepExecution(new TestStep(), context);
+        // the job was started, then Jenkins restarted before the pipeline saved the execution
+        AipJobStepExecution.JobGuidsAction.save(run, execution.getExecutionId(), TEST_JOB_GUID);
+
+        execution.onResume();
+        outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(log.toString(StandardCharsets.UTF_8.name()).contains(AipJobStep_info_resumed(TEST_JOB_GUID)));
+        verify(builder, never()).startJob(any(), any(), any());
+        verify(builder).jobFinished(eq(run), isNull(), any(), argThat(status -> status.getState() == JobState.COMPLETED));
+    }
+
+    @Test
+    public void testPollRescheduledAtItsSlotInsteadOfWaiting() throws Exception {
+        doReturn(200L).when(jobsService).reservePollSlot();
+        doReturn(jobStatus(JobState.COMPLETED)).when(jobsService).getJobStatus(TEST_JOB_GUID, true);
+        AipJobStepExecution execution = new AipJobStepExecution(new TestStep(), context);
+        AipJobStepExecution.JobGuidsAction.save(run, execution.getExecutionId(), TEST_JOB_GUID);
+
+        execution.onResume();
+        outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // the slot is reserved once, then the poll goes through when it is rescheduled
+        verify(jobsService).reservePollSlot();
+        verify(jobsService).getJobStatus(TEST_JOB_GUID, true);
+        verify(jobsService, never()).getJobStatus(anyString());
+    }
+
+    @Test
+    public void testResumeFailsWhenTheJobWasNotStarted() throws Exception {
+        new AipJobStepExecution(new TestStep(), context).onResume();
+
+        try {
+            outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("The step should fail without a job to watch");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AbortException);
+        }
+        verify(jobsService, never()).getJobStatus(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testStopInterruptsTheStart() throws Exception {
+        CountDownLatch starting = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            starting.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(10));
+            return TEST_JOB_GUID;
+        }).when(builder).startJob(any(), any(), any());
+        AipJobStepExecution execution = new AipJobStepExecution(new TestStep(), context);
+
+        execution.start();
+        assertTrue(starting.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        execution.stop(new AbortException("stopped"));
+
+        // the stop already aborted the build, it isn't failed on top of it
+        verify(builder, after(TimeUnit.SECONDS.toMillis(1)).never()).jobFailed(any(), any(), any());
+        verify(context, never()).onSuccess(any());
+        verify(jobsService, never()).getJobStatus(anyString(), anyBoolean());
+        verify(jobsService, never()).cancelJob(anyString());
+    }
+
+    @Test
+    public void testJobStartedAfterTheStopIsCanceled() throws Exception {
+        CountDownLatch starting = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            starting.countDown();
+            // too far along to notice the interruption, the job is started anyway
+            while (stopped.getCount() > 0) {
+                Thread.interrupted();
+                stopped.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            return TEST_JOB_GUID;
+        }).when(builder).startJob(any(), any(), any());
+        AipJobStepExecution execution = new AipJobStepExecution(new TestStep(), context);
+
+        execution.start();
+        assertTrue(starting.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        execution.stop(new AbortException("stopped"));
+        stopped.countDown();
+
+        verify(jobsService, timeout(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))).cancelJob(TEST_JOB_GUID);
+        verify(builder, after(TimeUnit.SECONDS.toMillis(1)).never()).jobFailed(any(), any(), any());
+        assertTrue(log.toString(StandardCharsets.UTF_8.name()).contains(AipJobStep_info_canceled(TEST_JOB_GUID)));
+        // the canceled job isn't watched after a restart either
+        assertNull(AipJobStepExecution.JobGuidsAction.get(run, execution.getExecutionId()));
+        verify(jobsService, never()).getJobStatus(anyString(), anyBoolean());
+    }
+
+    private static JobStatusWithSteps jobStatus(JobState state) {
+        JobStatusWithSteps status = new JobStatusWithSteps();
+        status.setState(state);
+        return status;
+    }
+
+    private static class TestStep extends AipJobStep {
+        private static final long serialVersionUID = 1L;
+
+        TestStep() {
+            super(TEST_APP_NAME);
+        }
+
+        @Override
+        AipJobBuilder createBuilder() {
+            return currentBuilder;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.gargoylesoftware.htmlunit.Page;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertTrue;
+
+public class MetricsActionTest {
+    private static final String TEST_METER = "aip.test.calls";
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Before
+    public void setUp() {
+        // enabled when Jenkins started, the calls of the builds are recorded
+        assertTrue(Metrics.registry().isEnabled());
+        Metrics.registry().counter(TEST_METER, "endpoint", "jobs").increment();
+    }
+
+    @Test
+    public void testMetricsServedInThePrometheusFormat() throws Exception {
+        Page page = jenkins.createWebClient().goTo(MetricsAction.URL_NAME + "/", "text/plain");
+
+        String content = page.getWebResponse().getContentAsString();
+        assertTrue(content.contains("# TYPE aip_test_calls_total counter"));
+        // the registry is shared by the tests of this JVM, the count depends on the tests run before
+        assertTrue(content.contains("aip_test_calls_total{endpoint=\"jobs\"} "));
+    }
+
+    @Test
+    public void testMetricsServedAsJson() throws Exception {
+        Page page = jenkins.createWebClient().goTo(MetricsAction.URL_NAME + "/?format=json", "application/json");
+
+        String content = page.getWebResponse().getContentAsString();
+        assertTrue(content.contains("\"name\" : \"" + TEST_METER + "\""));
+    }
+}
@@ -0,0 +1,133 @@
+package io.jenkins.plugins.aipconsole;
+
+import com.castsoftware.aip.console.tools.core.dto.ApiInfoDto;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.services.ApplicationService;
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.services.UploadService;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.google.inject.Guice;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.util.Secret;
+import io.jenkins.plugins.aipconsole.config.AipConsoleGlobalConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_error_jobFailure;
+import static io.jenkins.plugins.aipconsole.Messages.AddVersionBuilder_AddVersion_success_analysisComplete;
+import static io.jenkins.plugins.aipconsole.Messages.ParallelAddVersionBuilder_info_summary;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ParallelAddVersionBuilderTest {
+    private static final String TEST_URL = "http://localhost:8081";
+    private static final String TEST_KEY = "key";
+    private static final String FAILED_APP_NAME = "app3";
+    private static final int PARALLELISM = 2;
+    private static final long JOB_DURATION_MILLIS = 500;
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Mock
+    private RestApiService restApiService;
+
+    @Mock
+    private UploadService uploadService;
+
+    @Mock
+    private JobsService jobsService;
+
+    @Mock
+    private ApplicationService applicationService;
+
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final AtomicInteger maxRunningJobs = new AtomicInteger();
+    private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws Exception {
+        AipConsoleGlobalConfiguration config = AipConsoleGlobalConfiguration.get();
+        config.setAipConsoleUrl(TEST_URL);
+        config.setApiKey(Secret.fromString(TEST_KEY));
+        AipConsoleServices.useInjector(Guice.createInjector(binder -> {
+            binder.bind(RestApiService.class).toInstance(restApiService);
+            binder.bind(UploadService.class).toInstance(uploadService);
+            binder.bind(JobsService.class).toInstance(jobsService);
+            binder.bind(ApplicationService.class).toInstance(applicationService);
+        }));
+
+        doReturn(ApiInfoDto.builder().apiVersion("1.12.0-DEV").build())
+                .when(restApiService).getAipConsoleApiInfo();
+        // the applications already exist, their GUID is their name
+        doAnswer(invocation -> invocation.getArgument(0))
+                .when(applicationService).getApplicationGuidFromName(anyString());
+        // the job of each application has the GUID of the application
+        doAnswer(invocation -> ((JobRequestBuilder) invocation.getArgument(0)).buildJobRequest().getJobParameters().get(Constants.PARAM_APP_GUID))
+                .when(jobsService).startAddVersionJob(any(JobRequestBuilder.class));
+        doAnswer(invocation -> {
+            String jobGuid = invocation.getArgument(0);
+            threadNames.add(Thread.currentThread().getName());
+            int running = runningJobs.incrementAndGet();
+            maxRunningJobs.accumulateAndGet(running, Math::max);
+            try {
+                // long enough for the other applications to start their jobs meanwhile
+                Thread.sleep(JOB_DURATION_MILLIS);
+            } finally {
+                runningJobs.decrementAndGet();
+            }
+            JobStatusWithSteps status = new JobStatusWithSteps();
+            status.setState(FAILED_APP_NAME.equals(jobGuid) ? JobState.FAILED : JobState.COMPLETED);
+            return ((Function<JobStatusWithSteps, ?>) invocation.getArgument(3)).apply(status);
+        }).when(jobsService).pollAndWaitForJobFinished(anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void testApplicationsRunInParallelWithTheWorstResult() throws Exception {
+        ParallelAddVersionBuilder builder = new ParallelAddVersionBuilder(Arrays.asList(
+                new AddVersionEntry("app1", "sources/app1"),
+                new AddVersionEntry("app2", "sources/app2"),
+                new AddVersionEntry(FAILED_APP_NAME, "sources/app3"),
+                new AddVersionEntry("app4", "sources/app4")));
+        builder.setParallelism(PARALLELISM);
+        FreeStyleProject project = jenkins.createFreeStyleProject();
+        project.getBuildersList().add(builder);
+
+        FreeStyleBuild build = jenkins.assertBuildStatus(Result.FAILURE, project.scheduleBuild2(0).get());
+
+        assertTrue("No more applications than the parallelism should run at the same time", maxRunningJobs.get() <= PARALLELISM);
+        // each line is prefixed with its application
+        jenkins.assertLogContains("[app1] " + AddVersionBuilder_AddVersion_success_analysisComplete(), build);
+        jenkins.assertLogContains("[app4] " + AddVersionBuilder_AddVersion_success_analysisComplete(), build);
+        jenkins.assertLogContains("[" + FAILED_APP_NAME + "] ERROR: " + AddVersionBuilder_AddVersion_error_jobFailure(JobState.FAILED.toString()), build);
+        jenkins.assertLogContains(ParallelAddVersionBuilder_info_summary(3, 1), build);
+        // the threads are named after the application they work on
+        assertEquals(4, threadNames.size());
+        assertTrue(threadNames.contains("AIP Console add version 3/4 for " + build.getExternalizableId()));
+        // each application logs in from its own thread, the build thread doesn't
+        verify(restApiService, times(4)).validateUrlAndKey(TEST_URL, null, TEST_KEY);
+    }
+}
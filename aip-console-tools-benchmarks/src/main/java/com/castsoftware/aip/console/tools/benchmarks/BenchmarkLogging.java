@@ -0,0 +1,19 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The core services log every chunk and call, which would mostly measure the console output
+ */
+final class BenchmarkLogging {
+    // kept here, otherwise the logger (and its level) could be garbage collected
+    private static final Logger CORE_LOGGER = Logger.getLogger("com.castsoftware.aip.console.tools.core");
+
+    private BenchmarkLogging() {
+    }
+
+    static void silence() {
+        CORE_LOGGER.setLevel(Level.WARNING);
+    }
+}
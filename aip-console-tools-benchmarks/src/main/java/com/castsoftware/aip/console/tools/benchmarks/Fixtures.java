@@ -0,0 +1,70 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Payloads shaped like the ones sent by AIP Console
+ */
+final class Fixtures {
+    static final String APPLICATIONS_JSON = applicationsJson(50);
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return A mapper configured like the one of RestApiServiceImpl
+     */
+    static ObjectMapper newObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+        mapper.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    static String applicationsJson(int nbApplications) {
+        StringBuilder sb = new StringBuilder("{\"applications\":[");
+        for (int i = 0; i < nbApplications; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"guid\":\"").append(guid(i)).append("\",\"name\":\"application_").append(i).append("\",\"state\":\"ready\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    static String jobStatusJson() {
+        return "{\"appGuid\":\"" + guid(1) + "\",\"appName\":\"application_1\",\"created\":\"2020-03-02T10:15:30.000+0000\"," +
+                "\"fullSteps\":[\"unzip_source\",\"code_scanner\",\"copy_configuration\",\"discover_sources\",\"accept\"," +
+                "\"analyze\",\"snapshot\",\"consolidate_snapshot\"],\"guid\":\"" + guid(2) + "\",\"jobParameters\":{\"appGuid\":\"" +
+                guid(1) + "\",\"versionName\":\"v1\",\"startStep\":\"unzip_source\",\"endStep\":\"consolidate_snapshot\"}," +
+                "\"jobType\":\"add_version\",\"logUrls\":{\"unzip_source\":\"/api/jobs/" + guid(2) + "/steps/unzip_source/logs/unzip.log\"}," +
+                "\"logfiles\":{\"unzip_source\":\"unzip.log\"},\"progressStep\":\"analyze\",\"state\":\"started\"," +
+                "\"updated\":\"2020-03-02T10:45:30.000+0000\",\"url\":\"/api/jobs/" + guid(2) + "\"}";
+    }
+
+    /**
+     * @param nbLines Number of log lines, AIP Console sends up to 3000 lines at a time
+     */
+    static String logContentJson(int nbLines) {
+        StringBuilder sb = new StringBuilder("{\"endOfFile\":false,\"nbLines\":").append(nbLines).append(",\"startOffset\":0,\"lines\":[");
+        for (int i = 0; i < nbLines; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"content\":\"2020-03-02 10:15:30,000 INFO  [analysis] Processing file src/main/java/com/example/Class")
+                    .append(i).append(".java\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String guid(int i) {
+        return String.format("%08d-1234-5678-9abc-def012345678", i);
+    }
+}
@@ -0,0 +1,56 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.CreateJobsRequest;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobRequestBuilder;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of the job parameters with {@link JobRequestBuilder#buildJobRequest()}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobRequestBuilderBenchmark {
+    private JobRequestBuilder builder;
+
+    @Setup
+    public void setUp() {
+        builder = JobRequestBuilder.newInstance(StubAipConsole.APP_GUID, "upload:appName/main_sources", JobType.ADD_VERSION)
+                .versionName("v1")
+                .nodeGuid("nodeGuid")
+                .deliveryConfigGuid("configGuid")
+                .releaseAndSnapshotDate(new Date(0))
+                .securityObjective(true)
+                .backupApplication(true)
+                .backupName("backup_v1");
+    }
+
+    @Benchmark
+    public CreateJobsRequest buildJobRequest() {
+        return builder.buildJobRequest();
+    }
+
+    @Benchmark
+    public CreateJobsRequest newBuilderAndBuild() {
+        return JobRequestBuilder.newInstance(StubAipConsole.APP_GUID, "upload:appName/main_sources", JobType.ADD_VERSION)
+                .versionName("v1")
+                .releaseAndSnapshotDate(new Date(0))
+                .buildJobRequest();
+    }
+}
@@ -0,0 +1,79 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import com.castsoftware.aip.console.tools.core.dto.Applications;
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogContentDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the payloads exchanged the most often with AIP Console
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private ObjectMapper mapper;
+    private byte[] jobStatusContent;
+    private byte[] applicationsContent;
+    private byte[] logContent;
+    private JobStatusWithSteps jobStatus;
+    private Applications applications;
+    private LogContentDto logs;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = Fixtures.newObjectMapper();
+        jobStatusContent = Fixtures.jobStatusJson().getBytes(StandardCharsets.UTF_8);
+        applicationsContent = Fixtures.APPLICATIONS_JSON.getBytes(StandardCharsets.UTF_8);
+        logContent = Fixtures.logContentJson(3000).getBytes(StandardCharsets.UTF_8);
+        jobStatus = mapper.readValue(jobStatusContent, JobStatusWithSteps.class);
+        applications = mapper.readValue(applicationsContent, Applications.class);
+        logs = mapper.readValue(logContent, LogContentDto.class);
+    }
+
+    @Benchmark
+    public JobStatusWithSteps readJobStatus() throws Exception {
+        return mapper.readValue(jobStatusContent, JobStatusWithSteps.class);
+    }
+
+    @Benchmark
+    public byte[] writeJobStatus() throws Exception {
+        return mapper.writeValueAsBytes(jobStatus);
+    }
+
+    @Benchmark
+    public Applications readApplications() throws Exception {
+        return mapper.readValue(applicationsContent, Applications.class);
+    }
+
+    @Benchmark
+    public byte[] writeApplications() throws Exception {
+        return mapper.writeValueAsBytes(applications);
+    }
+
+    @Benchmark
+    public LogContentDto readLogContent() throws Exception {
+        return mapper.readValue(logContent, LogContentDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeLogContent() throws Exception {
+        return mapper.writeValueAsBytes(logs);
+    }
+}
@@ -0,0 +1,71 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import com.castsoftware.aip.console.tools.core.dto.upload.ChunkedUploadDto;
+import com.castsoftware.aip.console.tools.core.dto.upload.ChunkedUploadMetadataRequest;
+import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
+import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multipart call of a single chunk with {@link RestApiServiceImpl#exchangeMultipartForEntity}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MultipartBenchmark {
+    @Param({"65536", "1048576"})
+    public int chunkSize;
+
+    private StubAipConsole stub;
+    private RestApiServiceImpl restApiService;
+    private String endpoint;
+    private Map<String, Map<String, String>> headers;
+    private Map<String, Object> body;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkLogging.silence();
+        stub = new StubAipConsole();
+        restApiService = new RestApiServiceImpl();
+        restApiService.validateUrlAndKey(stub.getUrl(), StubAipConsole.API_KEY);
+        endpoint = ApiEndpointHelper.getApplicationUploadPath(StubAipConsole.APP_GUID, StubAipConsole.UPLOAD_GUID);
+
+        byte[] chunk = new byte[chunkSize];
+        new Random(42).nextBytes(chunk);
+        ChunkedUploadMetadataRequest metadata = new ChunkedUploadMetadataRequest();
+        metadata.setChunkSize(chunkSize);
+        headers = new HashMap<>();
+        body = new HashMap<>();
+        body.put("metadata", metadata);
+        body.put("content", chunk);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        stub.close();
+    }
+
+    @Benchmark
+    public ChunkedUploadDto sendChunk() throws Exception {
+        return restApiService.exchangeMultipartForEntity("PATCH", endpoint, headers, body, ChunkedUploadDto.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process HTTP server answering like AIP Console for the calls made by the benchmarks.
+ * <p/>
+ * Request bodies are read but not kept, so the server doesn't grow during long runs.
+ */
+public class StubAipConsole implements Closeable {
+    public static final String API_KEY = "benchmark-key";
+    public static final String APP_GUID = "appGuid";
+    public static final String UPLOAD_GUID = "uploadGuid";
+
+    // every request is logged at info level otherwise
+    private static final Logger MOCK_SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    private final MockWebServer server = new MockWebServer();
+
+    public StubAipConsole() throws IOException {
+        MOCK_SERVER_LOGGER.setLevel(Level.WARNING);
+        server.setBodyLimit(0);
+        server.setDispatcher(new StubDispatcher());
+        server.start();
+    }
+
+    public String getUrl() {
+        return server.url("/").toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private class StubDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            // drop the recorded request, only the response matters here
+            server.takeRequest(0, TimeUnit.SECONDS);
+
+            String path = request.getPath();
+            if ("/api/user".equals(path)) {
+                return json("{}").addHeader("Set-Cookie", "XSRF-TOKEN=benchmark; Path=/");
+            }
+            if (path.endsWith("/upload")) {
+                return json("{\"guid\":\"" + UPLOAD_GUID + "\",\"status\":\"uploading\"}");
+            }
+            if (path.contains("/upload/")) {
+                return json("{\"guid\":\"" + UPLOAD_GUID + "\",\"status\":\"uploaded\"}");
+            }
+            if (path.startsWith("/api/applications")) {
+                return json(Fixtures.APPLICATIONS_JSON);
+            }
+            return json("{}");
+        }
+
+        private MockResponse json(String body) {
+            return new MockResponse()
+                    .addHeader("Content-Type", "application/json")
+                    .setBody(body);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.castsoftware.aip.console.tools.benchmarks;
+
+import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunked upload of an archive : reading the chunks from the stream, encoding them as multipart and sending them
+ * to the stub server
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UploadBenchmark {
+    private static final int ARCHIVE_SIZE = 16 * 1024 * 1024;
+
+    @Param({"1048576", "5242880"})
+    public int chunkSize;
+
+    private StubAipConsole stub;
+    private UploadServiceImpl uploadService;
+    private byte[] archive;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkLogging.silence();
+        stub = new StubAipConsole();
+        RestApiServiceImpl restApiService = new RestApiServiceImpl();
+        restApiService.validateUrlAndKey(stub.getUrl(), StubAipConsole.API_KEY);
+        uploadService = new UploadServiceImpl(restApiService, chunkSize);
+        archive = new byte[ARCHIVE_SIZE];
+        new Random(42).nextBytes(archive);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        stub.close();
+    }
+
+    @Benchmark
+    public boolean uploadArchive() throws Exception {
+        return uploadService.uploadInputStream(StubAipConsole.APP_GUID, "archive.zip", archive.length,
+                new ByteArrayInputStream(archive), false);
+    }
+}
@@ -0,0 +1,59 @@
+package com.castsoftware.aip.console.tools.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records durations by operation name and computes their percentiles
+ */
+class LatencyRecorder {
+    private final ConcurrentMap<String, List<Long>> durations = new ConcurrentHashMap<>();
+
+    void record(String operation, long durationNanos) {
+        List<Long> values = durations.computeIfAbsent(operation, k -> Collections.synchronizedList(new ArrayList<>()));
+        values.add(durationNanos);
+    }
+
+    /**
+     * @return The statistics of each operation, sorted by name
+     */
+    Map<String, Stats> snapshot() {
+        Map<String, Stats> result = new TreeMap<>();
+        durations.forEach((operation, values) -> {
+            List<Long> sorted;
+            synchronized (values) {
+                sorted = new ArrayList<>(values);
+            }
+            Collections.sort(sorted);
+            result.put(operation, new Stats(sorted));
+        });
+        return result;
+    }
+
+    static class Stats {
+        final int count;
+        final long p50Nanos;
+        final long p99Nanos;
+        final long maxNanos;
+
+        private Stats(List<Long> sorted) {
+            this.count = sorted.size();
+            this.p50Nanos = percentile(sorted, 50);
+            this.p99Nanos = percentile(sorted, 99);
+            this.maxNanos = sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1);
+        }
+
+        private static long percentile(List<Long> sorted, int percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+        }
+    }
+}
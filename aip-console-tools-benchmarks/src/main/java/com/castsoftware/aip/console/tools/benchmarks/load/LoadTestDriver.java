@@ -0,0 +1,229 @@
+package com.castsoftware.aip.console.tools.benchmarks.load;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.services.ApplicationServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.JobsServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
+import com.castsoftware.aip.console.tools.core.testing.FakeAipConsole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs concurrent "add version" flows, like the CLI does, against a {@link FakeAipConsole}
+ * and reports latencies, throughput and resources used by the client.
+ * <p/>
+ * Options are given as {@code --name=value}, see {@link #printUsage(PrintStream)}.
+ */
+public class LoadTestDriver {
+    // kept here, otherwise the logger (and its level) could be garbage collected
+    private static final Logger CORE_LOGGER = Logger.getLogger("com.castsoftware.aip.console.tools.core");
+
+    private final Map<String, String> options;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger failedFlows = new AtomicInteger();
+
+    private LoadTestDriver(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                printUsage(System.err);
+                System.exit(1);
+            }
+            int separator = arg.indexOf('=');
+            options.put(separator < 0 ? arg.substring(2) : arg.substring(2, separator), separator < 0 ? "true" : arg.substring(separator + 1));
+        }
+        if (options.containsKey("help")) {
+            printUsage(System.out);
+            return;
+        }
+        CORE_LOGGER.setLevel(Level.WARNING);
+        new LoadTestDriver(options).run(System.out);
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -cp benchmarks.jar " + LoadTestDriver.class.getName() + " [options]");
+        out.println("  --flows=N             Number of add version flows to run (default 20)");
+        out.println("  --concurrency=N       Number of flows running at the same time (default 4)");
+        out.println("  --archive-size=BYTES  Size of the uploaded archive (default 10485760)");
+        out.println("  --chunk-size=BYTES    Size of the uploaded chunks (default 1048576)");
+        out.println("  --latency=MS          Latency added by the fake console to each request (default 0)");
+        out.println("  --bandwidth=BYTES     Bytes per second exchanged with the fake console, 0 for no limit (default 0)");
+        out.println("  --error-rate=RATE     Fraction of requests answered with a 503 (default 0)");
+        out.println("  --job-duration=MS     Duration of the jobs on the fake console (default 2000)");
+        out.println("  --poll-interval=MS    Delay between two job status polls (default 500)");
+        out.println("  --extract-poll=MS     Delay between two archive extraction polls (default 10000, like the CLI)");
+    }
+
+    private void run(PrintStream out) throws Exception {
+        int nbFlows = intOption("flows", 20);
+        int concurrency = intOption("concurrency", 4);
+        int chunkSize = intOption("chunk-size", 1024 * 1024);
+        long pollInterval = longOption("poll-interval", 500);
+        long extractPoll = longOption("extract-poll", 10000);
+
+        File archive = File.createTempFile("load-test", ".zip");
+        archive.deleteOnExit();
+        byte[] content = new byte[intOption("archive-size", 10 * 1024 * 1024)];
+        new Random(42).nextBytes(content);
+        Files.write(archive.toPath(), content);
+
+        try (FakeAipConsole console = FakeAipConsole.builder()
+                .latency(longOption("latency", 0))
+                .bandwidth(longOption("bandwidth", 0))
+                .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+                .jobDuration(longOption("job-duration", 2000))
+                .start()) {
+            ResourceUsage usage = new ResourceUsage();
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < nbFlows; i++) {
+                String appName = "load-test-app-" + (i % Math.max(1, concurrency));
+                results.add(executor.submit(() -> runFlow(console, appName, archive, chunkSize, pollInterval, extractPoll)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            executor.shutdown();
+
+            report(out, nbFlows, console, elapsedNanos, usage.stop(elapsedNanos));
+        } finally {
+            Files.deleteIfExists(archive.toPath());
+        }
+    }
+
+    /**
+     * Same sequence of calls as the add version command of the CLI, each flow having its own client
+     */
+    private void runFlow(FakeAipConsole console, String appName, File archive, int chunkSize, long pollInterval, long extractPoll) {
+        long flowStart = System.nanoTime();
+        try {
+            RestApiServiceImpl client = new RestApiServiceImpl();
+            RestApiService restApiService = new TimedRestApiService(client, recorder);
+            JobsServiceImpl jobsService = new JobsServiceImpl(restApiService, pollInterval);
+            ApplicationServiceImpl applicationService = new ApplicationServiceImpl(restApiService, jobsService);
+            UploadServiceImpl uploadService = new UploadServiceImpl(restApiService, chunkSize, extractPoll);
+
+            long start = System.nanoTime();
+            restApiService.validateUrlAndKey(console.getUrl(), console.getApiKey());
+            String appGuid = applicationService.getOrCreateApplicationFromName(appName, true);
+            recorder.record("flow 1. application", System.nanoTime() - start);
+
+            start = System.nanoTime();
+            String sourcePath = uploadService.uploadFileAndGetSourcePath(appName, appGuid, archive);
+            recorder.record("flow 2. upload", System.nanoTime() - start);
+
+            start = System.nanoTime();
+            String jobGuid = jobsService.startAddVersionJob(appGuid, appName, sourcePath, null, new Date(), false);
+            JobState state = jobsService.pollAndWaitForJobFinished(jobGuid, s -> { }, logs -> { }, s -> s.getState());
+            recorder.record("flow 3. job", System.nanoTime() - start);
+            if (state != JobState.COMPLETED) {
+                failedFlows.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failedFlows.incrementAndGet();
+            System.err.println("Flow failed : " + e);
+        } finally {
+            recorder.record("flow total", System.nanoTime() - flowStart);
+        }
+    }
+
+    private void report(PrintStream out, int nbFlows, FakeAipConsole console, long elapsedNanos, ResourceUsage usage) {
+        double seconds = elapsedNanos / 1e9;
+        out.println();
+        out.printf("Flows : %d (%d failed) in %.1f s, %.2f flows/s%n", nbFlows, failedFlows.get(), seconds, nbFlows / seconds);
+        out.printf("Requests on the fake console : %d (%d injected errors), %.1f requests/s, %.1f MB/s uploaded%n",
+                console.getRequestCount(), console.getInjectedErrorCount(), console.getRequestCount() / seconds,
+                console.getUploadedBytes() / seconds / (1024 * 1024));
+        out.printf("Client CPU : %.1f s (%.0f%% of %d cores), GC : %d collections in %d ms, heap peak : %d MB%n",
+                usage.cpuNanos / 1e9, usage.cpuUsage * 100, Runtime.getRuntime().availableProcessors(),
+                usage.gcCount, usage.gcMillis, usage.peakHeapBytes / (1024 * 1024));
+        out.println();
+        out.printf("%-24s %8s %12s %12s %12s%n", "Operation", "Count", "p50 (ms)", "p99 (ms)", "max (ms)");
+        recorder.snapshot().forEach((operation, stats) ->
+                out.printf("%-24s %8d %12.2f %12.2f %12.2f%n", operation, stats.count,
+                        stats.p50Nanos / 1e6, stats.p99Nanos / 1e6, stats.maxNanos / 1e6));
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private long longOption(String name, long defaultValue) {
+        return options.containsKey(name) ? Long.parseLong(options.get(name)) : defaultValue;
+    }
+
+    /**
+     * CPU, GC and heap used by this JVM (so mostly the client, the fake console being lightweight) during the run
+     */
+    private static class ResourceUsage {
+        private final long startCpuNanos = processCpuNanos();
+        private final long startGcCount = gcCount();
+        private final long startGcMillis = gcMillis();
+        private long cpuNanos;
+        private double cpuUsage;
+        private long gcCount;
+        private long gcMillis;
+        private long peakHeapBytes;
+
+        private ResourceUsage() {
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        private ResourceUsage stop(long elapsedNanos) {
+            cpuNanos = processCpuNanos() - startCpuNanos;
+            cpuUsage = elapsedNanos == 0 ? 0 : (double) cpuNanos / elapsedNanos / Runtime.getRuntime().availableProcessors();
+            gcCount = gcCount() - startGcCount;
+            gcMillis = gcMillis() - startGcMillis;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peakHeapBytes += pool.getPeakUsage().getUsed();
+                }
+            }
+            return this;
+        }
+
+        private static long processCpuNanos() {
+            java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+            }
+            return -1;
+        }
+
+        private static long gcCount() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+        }
+
+        private static long gcMillis() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        }
+    }
+}
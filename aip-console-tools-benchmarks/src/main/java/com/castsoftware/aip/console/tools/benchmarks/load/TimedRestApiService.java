@@ -0,0 +1,149 @@
+package com.castsoftware.aip.console.tools.benchmarks.load;
+
+import com.castsoftware.aip.console.tools.core.dto.ApiInfoDto;
+import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
+import com.castsoftware.aip.console.tools.core.http.EndpointClass;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of each call seen by the services, grouped by method and endpoint class
+ */
+class TimedRestApiService implements RestApiService {
+    private final RestApiService delegate;
+    private final LatencyRecorder recorder;
+
+    TimedRestApiService(RestApiService delegate, LatencyRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void setTimeout(long timeout, TimeUnit timeUnit) {
+        delegate.setTimeout(timeout, timeUnit);
+    }
+
+    @Override
+    public Runnable withCurrentSession(Runnable task) {
+        return delegate.withCurrentSession(task);
+    }
+
+    @Override
+    public <V> Callable<V> withCurrentSession(Callable<V> task) {
+        return delegate.withCurrentSession(task);
+    }
+
+    @Override
+    public void validateUrlAndKey(String serverUrl, String apiKey) throws ApiCallException {
+        delegate.validateUrlAndKey(serverUrl, apiKey);
+    }
+
+    @Override
+    public void validateUrlAndKey(String serverUrl, String username, String password) throws ApiCallException {
+        delegate.validateUrlAndKey(serverUrl, username, password);
+    }
+
+    @Override
+    public void login() throws ApiCallException {
+        long start = System.nanoTime();
+        try {
+            delegate.login();
+        } finally {
+            recorder.record("http GET login", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ApiInfoDto getAipConsoleApiInfo() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAipConsoleApiInfo();
+        } finally {
+            recorder.record("http GET metadata", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public <T> T getForEntity(String endpoint, Class<T> clazz) throws ApiCallException {
+        return timed("GET", endpoint, () -> delegate.getForEntity(endpoint, clazz));
+    }
+
+    @Override
+    public <T> T getForEntity(String endpoint, TypeReference<T> clazz) throws ApiCallException {
+        return timed("GET", endpoint, () -> delegate.getForEntity(endpoint, clazz));
+    }
+
+    @Override
+    public <T> T postForEntity(String endpoint, Object entity, Class<T> responseClass) throws ApiCallException {
+        return timed("POST", endpoint, () -> delegate.postForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T postForEntity(String endpoint, Object entity, TypeReference<T> responseClass) throws ApiCallException {
+        return timed("POST", endpoint, () -> delegate.postForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T patchForEntity(String endpoint, Object entity, Class<T> responseClass) throws ApiCallException {
+        return timed("PATCH", endpoint, () -> delegate.patchForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T patchForEntity(String endpoint, Object entity, TypeReference<T> responseClass) throws ApiCallException {
+        return timed("PATCH", endpoint, () -> delegate.patchForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T putForEntity(String endpoint, Object entity, Class<T> responseClass) throws ApiCallException {
+        return timed("PUT", endpoint, () -> delegate.putForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T putForEntity(String endpoint, Object entity, TypeReference<T> responseClass) throws ApiCallException {
+        return timed("PUT", endpoint, () -> delegate.putForEntity(endpoint, entity, responseClass));
+    }
+
+    @Override
+    public <T> T deleteForEntity(String endpoint, Object entity, Class<T> clazz) throws ApiCallException {
+        return timed("DELETE", endpoint, () -> delegate.deleteForEntity(endpoint, entity, clazz));
+    }
+
+    @Override
+    public <T> T deleteForEntity(String endpoint, Object entity, TypeReference<T> clazz) throws ApiCallException {
+        return timed("DELETE", endpoint, () -> delegate.deleteForEntity(endpoint, entity, clazz));
+    }
+
+    @Override
+    public <T> T exchangeMultipartForEntity(String method, String endpoint, Map<String, Map<String, String>> headers, Map<String, Object> content, Class<T> clazz) throws ApiCallException {
+        return timed(method, endpoint, () -> delegate.exchangeMultipartForEntity(method, endpoint, headers, content, clazz));
+    }
+
+    @Override
+    public long downloadToStream(String endpoint, OutputStream outputStream, boolean compressed) throws ApiCallException {
+        return timed("GET", endpoint, () -> delegate.downloadToStream(endpoint, outputStream, compressed));
+    }
+
+    private <T> T timed(String method, String endpoint, Call<T> call) throws ApiCallException {
+        long start = System.nanoTime();
+        try {
+            return call.execute();
+        } finally {
+            recorder.record("http " + method + " " + EndpointClass.of(endpoint).name().toLowerCase(), System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T execute() throws ApiCallException;
+    }
+}
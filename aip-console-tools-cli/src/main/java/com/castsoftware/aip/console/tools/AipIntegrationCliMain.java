@@ -1,47 +1,129 @@
 package com.castsoftware.aip.console.tools;
 
 import com.castsoftware.aip.console.tools.commands.ParentCommand;
+import com.castsoftware.aip.console.tools.commands.SharedOptions;
+import com.castsoftware.aip.console.tools.core.events.Events;
+import com.castsoftware.aip.console.tools.core.logs.LogRelayPolicy;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.metrics.MetricsExporter;
+import com.castsoftware.aip.console.tools.core.profiling.Profiler;
+import com.castsoftware.aip.console.tools.core.profiling.Profiling;
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import com.castsoftware.aip.console.tools.factories.SpringAwareCommandFactory;
+import com.castsoftware.aip.console.tools.core.watchdog.Watchdog;
+import com.castsoftware.aip.console.tools.core.watchdog.WatchdogPolicy;
+import com.castsoftware.aip.console.tools.daemon.DaemonClient;
+import com.castsoftware.aip.console.tools.factories.CommandFactory;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.slf4j.bridge.SLF4JBridgeHandler;
 import picocli.CommandLine;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.regex.Pattern;
 
-@SpringBootApplication
 @Slf4j
-public class AipIntegrationCliMain implements CommandLineRunner {
+public class AipIntegrationCliMain {
+    private static final String PROPERTIES_RESOURCE = "/application.properties";
 
-    @Autowired
-    private SpringAwareCommandFactory springAwareCommandFactory;
+    private final ApiIntegrationConfig config;
+    private final Properties properties;
+    private final CommandFactory commandFactory;
+    private final ParentCommand parentCommand;
+    private final SharedOptions sharedOptions;
+    private final int consoleUsageWidth;
 
-    @Autowired
-    private ParentCommand parentCommand;
+    public AipIntegrationCliMain(ApiIntegrationConfig config, Properties properties) throws Exception {
+        this.config = config;
+        this.properties = properties;
+        this.commandFactory = new CommandFactory(config, properties.getProperty("application.version"), this::executeInDaemon);
+        this.parentCommand = commandFactory.create(ParentCommand.class);
+        this.sharedOptions = commandFactory.create(SharedOptions.class);
+        this.consoleUsageWidth = Integer.parseInt(properties.getProperty("picocli.usage.width", "120"));
+    }
+
+    public static void main(String... args) throws Exception {
+        // the core library logs with java.util.logging
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+        if (DaemonClient.isRequested(args)) {
+            args = DaemonClient.withoutDaemonOption(args);
+            Integer exitCode = runInDaemon(args);
+            if (exitCode != null) {
+                System.exit(exitCode);
+            }
+            log.warn("No CLI daemon is running, the command runs in this process");
+        }
+        new AipIntegrationCliMain(new ApiIntegrationConfig(), loadProperties()).run(args);
+    }
+
+    /**
+     * @return The exit code of the command run by the daemon, null if no daemon is running
+     */
+    private static Integer runInDaemon(String... args) {
+        try {
+            return DaemonClient.run(args, System.out, System.err);
+        } catch (IOException e) {
+            log.error("The command could not be run by the CLI daemon: {}", e.getMessage());
+            return Constants.UNKNOWN_ERROR;
+        }
+    }
 
-    @Value("${picocli.usage.width:120}")
-    private int consoleUsageWidth;
+    /**
+     * @return The properties of the CLI, system properties override the ones in application.properties
+     */
+    private static Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream stream = AipIntegrationCliMain.class.getResourceAsStream(PROPERTIES_RESOURCE)) {
+            if (stream != null) {
+                properties.load(stream);
+            }
+        }
+        for (String name : properties.stringPropertyNames()) {
+            properties.setProperty(name, System.getProperty(name, properties.getProperty(name)));
+        }
+        return properties;
+    }
 
-    public static void main(String... args) {
-        new SpringApplicationBuilder(AipIntegrationCliMain.class)
-                .logStartupInfo(false)
-                .run(args);
+    public void run(String... args) {
+        int result = execute(null, args);
+        exportMetrics();
+        Tracing.tracer().flush();
+        Events.close();
+        System.exit(result);
     }
 
-    @Override
-    public void run(String... args) throws Exception {
+    /**
+     * Runs a command line
+     *
+     * @param workingDirectory The directory relative files are resolved against, null for the current directory
+     * @param args             The command line
+     * @return The exit code
+     */
+    public int execute(Path workingDirectory, String... args) {
         Integer result;
 
         try {
-            CommandLine cli = new CommandLine(parentCommand, springAwareCommandFactory);
+            CommandLine cli = new CommandLine(parentCommand, commandFactory);
             cli.setUsageHelpWidth(consoleUsageWidth);
+            if (workingDirectory != null) {
+                cli.registerConverter(File.class, value -> workingDirectory.resolve(value).toFile());
+            }
 
-            List<Object> returnedResults = cli.parseWithHandler(new CommandLine.RunLast(), args);
+            List<Object> returnedResults = cli.parseWithHandler(new ReportingRunLast(workingDirectory != null), args);
             if (returnedResults != null) {
                 result = returnedResults.stream()
                         .map(o -> o instanceof Integer ? (Integer) o : null)
@@ -56,6 +138,190 @@ public class AipIntegrationCliMain implements CommandLineRunner {
             log.error("Could not run AIP integration tool", t);
             result = Constants.UNKNOWN_ERROR;
         }
-        System.exit(result);
+        return result;
+    }
+
+    /**
+     * Runs a command sent to the daemon, with its own commands and options
+     */
+    private int executeInDaemon(Path workingDirectory, String... args) {
+        try {
+            return new AipIntegrationCliMain(config, properties).execute(workingDirectory, args);
+        } catch (Exception e) {
+            log.error("Could not run AIP integration tool", e);
+            return Constants.UNKNOWN_ERROR;
+        }
+    }
+
+    /**
+     * Runs the last command, recording its metrics, trace, profile and the timing of its steps
+     */
+    private class ReportingRunLast extends CommandLine.RunLast {
+        private final boolean inDaemon;
+
+        ReportingRunLast(boolean inDaemon) {
+            this.inDaemon = inDaemon;
+        }
+
+        @Override
+        protected List<Object> handle(CommandLine.ParseResult parseResult) throws CommandLine.ExecutionException {
+            if (inDaemon && hasProcessWideReports()) {
+                // the daemon runs commands concurrently, their metrics, events, traces and profiles would be mixed
+                log.error("--metrics-file, --event-log, --trace-file and --profile can't be used with --use-daemon");
+                return Collections.singletonList(Constants.UNKNOWN_ERROR);
+            }
+            if (inDaemon && hasProcessWideSettings()) {
+                // the job logs and the watchdog are configured for the whole process, other commands would use these settings
+                log.error("--job-log-level, --job-log-filter, --job-log-sample, --job-log-rate and --step-history can't be used with --use-daemon");
+                return Collections.singletonList(Constants.UNKNOWN_ERROR);
+            }
+            // options are parsed, metrics must be enabled before the command runs
+            if (sharedOptions.getMetricsFile() != null) {
+                Metrics.enable();
+            }
+            if (sharedOptions.getEventLogFile() != null) {
+                configureEventLog(sharedOptions.getEventLogFile());
+            }
+            if (!inDaemon) {
+                // in the daemon, the commands keep the default policy of the shared jobs service
+                configureJobLogs();
+            }
+            if (sharedOptions.getStepHistoryFile() != null) {
+                configureWatchdog(sharedOptions.getStepHistoryFile());
+            }
+            if (sharedOptions.getTraceFile() != null) {
+                Tracing.configure(sharedOptions.getTraceFile().toPath(), sharedOptions.getTraceSampleRatio());
+            }
+            Profiler profiler = parentCommand.isProfile() ? startProfiler() : null;
+            List<CommandLine> commands = parseResult.asCommandLineList();
+            String commandName = commands.get(commands.size() - 1).getCommandName();
+            JobTimingRecorder recorder = JobTimingRecorder.start(commandName);
+            String outcome = "error";
+            try (Span span = Tracing.tracer().startSpan("aip-cli " + commandName)) {
+                try {
+                    List<Object> results = super.handle(parseResult);
+                    outcome = "exit code " + (results.isEmpty() ? Constants.RETURN_OK : results.get(0));
+                    return results;
+                } finally {
+                    span.setAttribute("aip.cli.outcome", outcome);
+                    if (!outcome.equals("exit code " + Constants.RETURN_OK)) {
+                        span.setError(outcome);
+                    }
+                }
+            } finally {
+                reportTimings(recorder.finish(outcome));
+                if (profiler != null) {
+                    reportProfile(profiler);
+                }
+            }
+        }
+    }
+
+    private boolean hasProcessWideReports() {
+        return sharedOptions.getMetricsFile() != null || sharedOptions.getEventLogFile() != null
+                || sharedOptions.getTraceFile() != null || parentCommand.isProfile();
+    }
+
+    /**
+     * @return Whether options changing the services shared by all the commands of the process are given
+     */
+    private boolean hasProcessWideSettings() {
+        return sharedOptions.getJobLogLevel() != null || sharedOptions.getJobLogFilter() != null
+                || sharedOptions.getJobLogSample() != 1 || sharedOptions.getJobLogRate() != 0
+                || sharedOptions.getStepHistoryFile() != null;
+    }
+
+    private Profiler startProfiler() {
+        if (!Profiling.isAvailable()) {
+            log.warn("Profiling requires JDK Flight Recorder, which is not available on this JVM (Java 8u262 or later is needed)");
+            return null;
+        }
+        try {
+            return Profiler.start();
+        } catch (Exception e) {
+            log.warn("Unable to start profiling", e);
+            return null;
+        }
+    }
+
+    private void reportProfile(Profiler profiler) {
+        Path recordingFile = parentCommand.getProfileFile().toPath().toAbsolutePath();
+        String recordingName = recordingFile.getFileName().toString();
+        int extension = recordingName.lastIndexOf('.');
+        Path summaryFile = recordingFile.resolveSibling((extension > 0 ? recordingName.substring(0, extension) : recordingName) + ".txt");
+        try {
+            String summary = profiler.stop(recordingFile).toText();
+            log.info("{}{}", System.lineSeparator(), summary);
+            Files.write(summaryFile, summary.getBytes(StandardCharsets.UTF_8));
+            log.info("Profile written to {} (summary in {})", recordingFile, summaryFile);
+        } catch (Exception e) {
+            // profiling must not change the outcome of the command
+            log.warn("Unable to write profile to " + recordingFile, e);
+        }
+    }
+
+    private void configureEventLog(File eventLogFile) {
+        try {
+            Events.configure(eventLogFile.toPath());
+        } catch (Exception e) {
+            // events must not change the outcome of the command
+            log.warn("Unable to write events to " + eventLogFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void configureJobLogs() {
+        JobsService jobsService = config.jobsService();
+        try {
+            jobsService.setLogRelayPolicy(new LogRelayPolicy(
+                    LogRelayPolicy.parseLevel(sharedOptions.getJobLogLevel()),
+                    sharedOptions.getJobLogFilter() == null ? null : Pattern.compile(sharedOptions.getJobLogFilter()),
+                    sharedOptions.getJobLogSample(),
+                    sharedOptions.getJobLogRate(),
+                    LogRelayPolicy.defaultPolicy().getCapacity()));
+        } catch (IllegalArgumentException e) {
+            // includes invalid patterns and levels, all the lines are shown instead
+            log.warn("Invalid job log options, all the lines of the job logs will be shown: {}", e.getMessage());
+        }
+    }
+
+    private void configureWatchdog(File historyFile) {
+        try {
+            Watchdog.configure(historyFile.toPath(), WatchdogPolicy.of(sharedOptions.getStepOverrunFactor(), sharedOptions.isStepOverrunFail()));
+        } catch (Exception e) {
+            // the watchdog must not change the outcome of the command
+            log.warn("Unable to watch the job steps with the history in " + historyFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void reportTimings(JobTimingReport report) {
+        if (report.isEmpty()) {
+            return;
+        }
+        log.info("{}{}", System.lineSeparator(), report.toTable());
+        Events.emit(Events.TIMING_REPORT, "report", report);
+        File reportFile = sharedOptions.getTimingReportFile();
+        if (reportFile == null) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            report.writeJson(writer);
+            log.info("Timing report written to {}", reportFile.getAbsolutePath());
+        } catch (Exception e) {
+            log.warn("Unable to write timing report to " + reportFile.getAbsolutePath(), e);
+        }
+    }
+
+    private void exportMetrics() {
+        File metricsFile = sharedOptions.getMetricsFile();
+        if (metricsFile == null || !Metrics.registry().isEnabled()) {
+            return;
+        }
+        try {
+            MetricsExporter.forFormat(sharedOptions.getMetricsFormat()).export(Metrics.registry().getMeters(), metricsFile.toPath());
+            log.info("Metrics written to {}", metricsFile.getAbsolutePath());
+        } catch (Exception e) {
+            // metrics must not change the outcome of the command
+            log.warn("Unable to write metrics to " + metricsFile.getAbsolutePath(), e);
+        }
     }
 }
@@ -8,54 +8,65 @@ import com.castsoftware.aip.console.tools.core.services.RestApiService;
 import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
 import com.castsoftware.aip.console.tools.core.services.UploadService;
 import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
+import com.castsoftware.aip.console.tools.daemon.CliDaemon;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.apache.http.impl.client.BasicCookieStore;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
-import org.springframework.context.annotation.Configuration;
 
-@Configuration
-@ComponentScan
+/**
+ * Wiring of the services used by the commands.
+ * <p/>
+ * Services are created once, the first time they are needed, so that showing the usage or the version doesn't
+ * initialize the HTTP client or the JSON mapper.
+ */
 public class ApiIntegrationConfig {
+    private ObjectMapper objectMapper;
+    private RestApiService restApiService;
+    private JobsService jobsService;
+    private UploadService uploadService;
+    private ApplicationService applicationService;
 
-    @Bean
-    public BasicCookieStore getCookieStore() {
-        return new BasicCookieStore();
-    }
-
-    @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
-        objectMapper.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
-        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    public synchronized ObjectMapper objectMapper() {
+        if (objectMapper == null) {
+            objectMapper = new ObjectMapper();
+            objectMapper.registerModule(new JavaTimeModule());
+            objectMapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+            objectMapper.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+            objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+            objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
         return objectMapper;
     }
 
-    @Bean
-    public RestApiService restApiService(@Autowired ObjectMapper objectMapper) {
-        return new RestApiServiceImpl(objectMapper);
+    public synchronized RestApiService restApiService() {
+        if (restApiService == null) {
+            restApiService = new RestApiServiceImpl(objectMapper());
+        }
+        return restApiService;
     }
 
-    @Bean
-    public JobsService jobsService(@Autowired RestApiService restApiService) {
-        return new JobsServiceImpl(restApiService);
+    public synchronized JobsService jobsService() {
+        if (jobsService == null) {
+            jobsService = new JobsServiceImpl(restApiService());
+            // the job logs are relayed from another thread, to the client of a daemon request
+            jobsService.setThreadContext(CliDaemon::withCurrentOutput);
+        }
+        return jobsService;
     }
 
-    @Bean
-    public UploadService chunkedUploadService(@Autowired RestApiService restApiService) {
-        return new UploadServiceImpl(restApiService);
+    public synchronized UploadService uploadService() {
+        if (uploadService == null) {
+            uploadService = new UploadServiceImpl(restApiService());
+        }
+        return uploadService;
     }
 
-    @Bean
-    public ApplicationService applicationService(@Autowired RestApiService restApiService, @Autowired JobsService jobsService) {
-        return new ApplicationServiceImpl(restApiService, jobsService);
+    public synchronized ApplicationService applicationService() {
+        if (applicationService == null) {
+            applicationService = new ApplicationServiceImpl(restApiService(), jobsService());
+        }
+        return applicationService;
     }
 }
@@ -18,7 +18,6 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -28,7 +27,6 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
-@Component
 @CommandLine.Command(
         name = "AddVersion",
         mixinStandardHelpOptions = true,
@@ -19,7 +19,6 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.text.DateFormat;
@@ -34,7 +33,6 @@ import java.util.function.Function;
 /**
  * Run analysis for an application and a version on AIP Console
  */
-@Component
 @CommandLine.Command(
         name = "Analysis",
         mixinStandardHelpOptions = true,
@@ -8,14 +8,10 @@ import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
 import com.castsoftware.aip.console.tools.core.services.JobsService;
 import com.castsoftware.aip.console.tools.core.services.RestApiService;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.util.Arrays;
@@ -23,7 +19,6 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
-@Component
 @CommandLine.Command(
         name = "CreateApplication",
         mixinStandardHelpOptions = true,
@@ -33,19 +28,19 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Getter
 @Setter
-@NoArgsConstructor
-@AllArgsConstructor
 public class CreateApplicationCommand implements Callable<Integer> {
 
-    @Autowired
-    private JobsService jobsService;
-
-    @Autowired
-    private RestApiService restApiService;
+    private final RestApiService restApiService;
+    private final JobsService jobsService;
 
     @CommandLine.Mixin
     private SharedOptions sharedOptions;
 
+    public CreateApplicationCommand(RestApiService restApiService, JobsService jobsService) {
+        this.restApiService = restApiService;
+        this.jobsService = jobsService;
+    }
+
     /**
      * options for the upload and job startup
      */
@@ -0,0 +1,55 @@
+package com.castsoftware.aip.console.tools.commands;
+
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.castsoftware.aip.console.tools.daemon.CliDaemon;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the CLI running, to run the commands given with --use-daemon
+ */
+@CommandLine.Command(
+        name = "Daemon",
+        mixinStandardHelpOptions = true,
+        aliases = {"daemon"},
+        description = "Keeps the CLI running in the background, so that the next commands started with --use-daemon reuse its sessions and connections to AIP Console"
+)
+@Slf4j
+@Getter
+@Setter
+public class DaemonCommand implements Callable<Integer> {
+    private final CliDaemon.CommandRunner runner;
+
+    @CommandLine.Option(names = {"--port"}, description = "The port the daemon listens on, on the loopback interface only. Defaults to a free port")
+    private int port;
+
+    @CommandLine.Option(names = {"--threads"}, description = "The number of commands run at the same time, the next ones wait. Defaults to ${DEFAULT-VALUE}", defaultValue = "4")
+    private int threads;
+
+    @CommandLine.Option(names = {"--idle-timeout"}, paramLabel = "MINUTES", description = "Stop the daemon when no command was sent for this duration, 0 to keep it running. Defaults to ${DEFAULT-VALUE}", defaultValue = "60")
+    private long idleTimeout;
+
+    public DaemonCommand(CliDaemon.CommandRunner runner) {
+        this.runner = runner;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        CliDaemon daemon;
+        try {
+            daemon = CliDaemon.start(port, threads, runner);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Unable to start the CLI daemon: {}", e.getMessage());
+            return Constants.UNKNOWN_ERROR;
+        }
+        log.info("CLI daemon listening on port {} (state in {})", daemon.getPort(), daemon.getStateFile());
+        daemon.serve(TimeUnit.MINUTES.toMillis(idleTimeout));
+        return Constants.RETURN_OK;
+    }
+}
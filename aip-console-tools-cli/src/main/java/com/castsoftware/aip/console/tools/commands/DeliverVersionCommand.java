@@ -18,7 +18,6 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -30,7 +29,6 @@ import java.util.function.Function;
 /**
  * Deliver an application version on AIP Console
  */
-@Component
 @CommandLine.Command(
         name = "Deliver",
         mixinStandardHelpOptions = true,
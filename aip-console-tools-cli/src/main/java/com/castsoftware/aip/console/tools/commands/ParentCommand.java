@@ -4,21 +4,20 @@ import com.castsoftware.aip.console.tools.providers.VersionProvider;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
+import java.io.File;
 import java.util.concurrent.Callable;
 
 /**
  * This class represent a "main" command that will then delegate to subcommands
  * based on passed COMMAND parameter
  */
-@Component
 @Command(
         name = "aip-integration-tool",
         mixinStandardHelpOptions = true,
-        subcommands = {CreateApplicationCommand.class, AddVersionCommand.class, AnalyzeCommand.class, DeliverVersionCommand.class, SnapshotCommand.class},
+        subcommands = {CreateApplicationCommand.class, AddVersionCommand.class, AnalyzeCommand.class, DeliverVersionCommand.class, SnapshotCommand.class, DaemonCommand.class},
         commandListHeading = "%nPossible values for COMMAND:%n%n",
         versionProvider = VersionProvider.class
 )
@@ -27,6 +26,16 @@ import java.util.concurrent.Callable;
 @Slf4j
 public class ParentCommand implements Callable<Integer> {
 
+    @CommandLine.Option(names = {"--profile"}, description = "Profile the run with JDK Flight Recorder : CPU and allocation sampling, HTTP calls, chunk uploads, JSON parsing and job polls. Requires Java 8u262 or later.")
+    private boolean profile;
+
+    @CommandLine.Option(names = {"--profile-file"}, paramLabel = "FILE", description = "The JFR recording written when profiling, with a summary next to it (same name, .txt extension). Defaults to ${DEFAULT-VALUE}", defaultValue = "aip-integration-tool.jfr")
+    private File profileFile;
+
+    // handled before parsing, declared for the usage help
+    @CommandLine.Option(names = {"--use-daemon"}, description = "Run the command in the CLI daemon started with the Daemon command, to reuse its sessions and connections to AIP Console. The command runs in this process if no daemon is running.")
+    private boolean useDaemon;
+
     @Override
     public Integer call() throws Exception {
         log.error("No COMMAND provided");
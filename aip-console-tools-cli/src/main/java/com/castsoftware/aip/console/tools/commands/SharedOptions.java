@@ -1,12 +1,11 @@
 package com.castsoftware.aip.console.tools.commands;
 
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
+import java.io.File;
 import java.util.List;
 
-@Component
 public class SharedOptions {
     /**
      * Connection to AIP Console parameters
@@ -26,6 +25,45 @@ public class SharedOptions {
     @CommandLine.Option(names = {"--timeout"}, description = "The timeout in seconds for calls to AIP Console. Defaults to a 90s timeout", defaultValue = "90")
     private long timeout;
 
+    @CommandLine.Option(names = {"--metrics-file"}, paramLabel = "FILE", description = "Write the metrics collected during the run (calls latency, upload throughput, job steps durations, etc.) to the given file when the CLI exits. No metrics are collected if not provided.")
+    private File metricsFile;
+
+    @CommandLine.Option(names = {"--metrics-format"}, description = "The format of the metrics file, json or prometheus (text format). Defaults to ${DEFAULT-VALUE}", defaultValue = "json")
+    private String metricsFormat;
+
+    @CommandLine.Option(names = {"--timing-report"}, paramLabel = "FILE", description = "Write the duration of each step of the run (upload, extraction and job steps) as JSON to the given file. The timing table is always shown at the end of a job.")
+    private File timingReportFile;
+
+    @CommandLine.Option(names = {"--trace-file"}, paramLabel = "FILE", description = "Record trace spans of the run (service calls and requests to AIP Console) and append them in OTLP/JSON to the given file. Requests carry a W3C traceparent header.")
+    private File traceFile;
+
+    @CommandLine.Option(names = {"--trace-sample-ratio"}, paramLabel = "RATIO", description = "Ratio of the traces recorded, between 0 and 1. Defaults to ${DEFAULT-VALUE}", defaultValue = "1")
+    private double traceSampleRatio;
+
+    @CommandLine.Option(names = {"--event-log"}, paramLabel = "FILE", description = "Append the progress of the run (upload progress, job steps, job result and timing report) to the given file as newline-delimited JSON events, for log aggregation tools.")
+    private File eventLogFile;
+
+    @CommandLine.Option(names = {"--job-log-level"}, paramLabel = "LEVEL", description = "Only show the lines of the job logs with this level or above (ERROR, WARN, INFO, DEBUG). Lines without a level, like stack traces, follow the previous line. All lines are shown if not provided.")
+    private String jobLogLevel;
+
+    @CommandLine.Option(names = {"--job-log-filter"}, paramLabel = "REGEX", description = "Only show the lines of the job logs matching the given regular expression.")
+    private String jobLogFilter;
+
+    @CommandLine.Option(names = {"--job-log-sample"}, paramLabel = "N", description = "Show one line out of N lines of the job logs. Defaults to ${DEFAULT-VALUE}", defaultValue = "1")
+    private int jobLogSample = 1;
+
+    @CommandLine.Option(names = {"--job-log-rate"}, paramLabel = "LINES", description = "Maximum number of lines of the job logs shown per second, 0 for no limit. Defaults to ${DEFAULT-VALUE}", defaultValue = "0")
+    private int jobLogRate;
+
+    @CommandLine.Option(names = {"--step-history"}, paramLabel = "FILE", description = "Keep the durations of the job steps of each application in the given file, and warn when a step lasts much longer than usual. Steps are not watched if not provided.")
+    private File stepHistoryFile;
+
+    @CommandLine.Option(names = {"--step-overrun-factor"}, paramLabel = "FACTOR", description = "A step is considered stuck when it lasts longer than the 95th percentile of its previous durations multiplied by this factor. Defaults to ${DEFAULT-VALUE}", defaultValue = "3")
+    private double stepOverrunFactor;
+
+    @CommandLine.Option(names = {"--step-overrun-fail"}, description = "Stop waiting for a job and fail when one of its steps is stuck, instead of only warning. Defaults to ${DEFAULT-VALUE}", defaultValue = "false")
+    private boolean stepOverrunFail;
+
     @CommandLine.Unmatched
     private List<String> unmatchedOptions;
 
@@ -77,6 +115,110 @@ public class SharedOptions {
         this.timeout = timeout;
     }
 
+    public File getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public String getMetricsFormat() {
+        return metricsFormat;
+    }
+
+    public void setMetricsFormat(String metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
+    public File getTimingReportFile() {
+        return timingReportFile;
+    }
+
+    public void setTimingReportFile(File timingReportFile) {
+        this.timingReportFile = timingReportFile;
+    }
+
+    public File getTraceFile() {
+        return traceFile;
+    }
+
+    public void setTraceFile(File traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    public double getTraceSampleRatio() {
+        return traceSampleRatio;
+    }
+
+    public void setTraceSampleRatio(double traceSampleRatio) {
+        this.traceSampleRatio = traceSampleRatio;
+    }
+
+    public File getEventLogFile() {
+        return eventLogFile;
+    }
+
+    public void setEventLogFile(File eventLogFile) {
+        this.eventLogFile = eventLogFile;
+    }
+
+    public String getJobLogLevel() {
+        return jobLogLevel;
+    }
+
+    public void setJobLogLevel(String jobLogLevel) {
+        this.jobLogLevel = jobLogLevel;
+    }
+
+    public String getJobLogFilter() {
+        return jobLogFilter;
+    }
+
+    public void setJobLogFilter(String jobLogFilter) {
+        this.jobLogFilter = jobLogFilter;
+    }
+
+    public int getJobLogSample() {
+        return jobLogSample;
+    }
+
+    public void setJobLogSample(int jobLogSample) {
+        this.jobLogSample = jobLogSample;
+    }
+
+    public int getJobLogRate() {
+        return jobLogRate;
+    }
+
+    public void setJobLogRate(int jobLogRate) {
+        this.jobLogRate = jobLogRate;
+    }
+
+    public File getStepHistoryFile() {
+        return stepHistoryFile;
+    }
+
+    public void setStepHistoryFile(File stepHistoryFile) {
+        this.stepHistoryFile = stepHistoryFile;
+    }
+
+    public double getStepOverrunFactor() {
+        return stepOverrunFactor;
+    }
+
+    public void setStepOverrunFactor(double stepOverrunFactor) {
+        this.stepOverrunFactor = stepOverrunFactor;
+    }
+
+    public boolean isStepOverrunFail() {
+        return stepOverrunFail;
+    }
+
+    public void setStepOverrunFail(boolean stepOverrunFail) {
+        this.stepOverrunFail = stepOverrunFail;
+    }
+
     public String getApiKeyValue() {
         if (apiKeyEnvVariable != null) {
             return System.getenv(apiKeyEnvVariable);
@@ -99,6 +241,19 @@ public class SharedOptions {
                 ", apiKeyEnvVariable='" + apiKeyEnvVariable + '\'' +
                 ", username='" + username + '\'' +
                 ", timeout='" + timeout + '\'' +
+                ", metricsFile='" + metricsFile + '\'' +
+                ", metricsFormat='" + metricsFormat + '\'' +
+                ", timingReportFile='" + timingReportFile + '\'' +
+                ", traceFile='" + traceFile + '\'' +
+                ", traceSampleRatio='" + traceSampleRatio + '\'' +
+                ", eventLogFile='" + eventLogFile + '\'' +
+                ", jobLogLevel='" + jobLogLevel + '\'' +
+                ", jobLogFilter='" + jobLogFilter + '\'' +
+                ", jobLogSample='" + jobLogSample + '\'' +
+                ", jobLogRate='" + jobLogRate + '\'' +
+                ", stepHistoryFile='" + stepHistoryFile + '\'' +
+                ", stepOverrunFactor='" + stepOverrunFactor + '\'' +
+                ", stepOverrunFail='" + stepOverrunFail + '\'' +
                 ", unmatchedOptions=" + unmatchedOptions +
                 '}';
     }
@@ -19,7 +19,6 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine;
 
 import java.text.DateFormat;
@@ -35,7 +34,6 @@ import java.util.function.Function;
 /**
  * Creates a snapshot for an application
  */
-@Component
 @CommandLine.Command(
         name = "Snapshot",
         mixinStandardHelpOptions = true,
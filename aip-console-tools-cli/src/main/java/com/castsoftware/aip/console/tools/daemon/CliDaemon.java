@@ -0,0 +1,270 @@
+package com.castsoftware.aip.console.tools.daemon;
+
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A resident CLI process, running the commands sent by {@link DaemonClient} so that the JVM, the sessions to
+ * AIP Console and their connection pools stay warm between calls.
+ * <p/>
+ * The daemon only listens on the loopback interface, and clients must send the random token written in the state
+ * file, which only the user running the daemon can read. Each request runs in its own thread, with its output
+ * streamed back to its client, until the daemon is closed or stays idle for too long.
+ * <p/>
+ * A request is the token, the working directory of the client and the arguments, each written with
+ * {@link DataOutputStream#writeUTF(String)} (the number of arguments first). The daemon answers with frames made of
+ * a type ({@link #STDOUT} or {@link #STDERR}), a length and the bytes written by the command, and ends with
+ * {@link #EXIT} followed by the exit code.
+ */
+@Slf4j
+public class CliDaemon implements Closeable {
+    static final int STDOUT = 'O';
+    static final int STDERR = 'E';
+    static final int EXIT = 'X';
+    static final int MAX_ARGUMENTS = 1024;
+    private static final int BACKLOG = 50;
+    private static final int REQUEST_TIMEOUT_MILLIS = 30000;
+    private static final long ACCEPT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Runs a command of the CLI
+     */
+    @FunctionalInterface
+    public interface CommandRunner {
+        /**
+         * @param workingDirectory The directory relative paths are resolved against
+         * @param args             The arguments of the command line
+         * @return The exit code of the command
+         */
+        int run(Path workingDirectory, String... args);
+    }
+
+    private final ServerSocket serverSocket;
+    private final DaemonState state;
+    private final Path stateFile;
+    private final CommandRunner runner;
+    private final ExecutorService workers;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private volatile long lastActivity = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    private CliDaemon(ServerSocket serverSocket, DaemonState state, Path stateFile, CommandRunner runner, int threads) {
+        this.serverSocket = serverSocket;
+        this.state = state;
+        this.stateFile = stateFile;
+        this.runner = runner;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "aip-cli-daemon-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts listening and writes the state file, so that clients can find the daemon
+     *
+     * @param port    The port to listen on, 0 to pick a free one
+     * @param threads The number of commands running at the same time, the next ones wait
+     * @param runner  Runs the commands
+     * @throws IOException if the port is not available, a daemon is already running, or the state file can't be written
+     */
+    public static CliDaemon start(int port, int threads, CommandRunner runner) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The daemon needs at least one thread");
+        }
+        Path stateFile = DaemonState.defaultFile();
+        DaemonState existing = DaemonState.read(stateFile);
+        if (existing != null && existing.isReachable()) {
+            throw new IOException("A CLI daemon is already running on port " + existing.getPort() + " (state in " + stateFile + ")");
+        }
+        ServerSocket serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        DaemonState state = new DaemonState(serverSocket.getLocalPort(), DaemonState.newToken());
+        try {
+            state.write(stateFile);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        OutputRouter.install();
+        CliDaemon daemon = new CliDaemon(serverSocket, state, stateFile, runner, threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close, "aip-cli-daemon-shutdown"));
+        return daemon;
+    }
+
+    /**
+     * Gives the output of the request running in the current thread to a task run by another thread, threads started
+     * by a request don't get it otherwise
+     *
+     * @param task The task to run with the output of the current request
+     * @return The task, wrapped if the current thread runs a request
+     */
+    public static Runnable withCurrentOutput(Runnable task) {
+        return OutputRouter.withCurrentOutput(task);
+    }
+
+    public int getPort() {
+        return state.getPort();
+    }
+
+    public Path getStateFile() {
+        return stateFile;
+    }
+
+    /**
+     * Runs the requests until the daemon is closed, or no request came for the given time
+     *
+     * @param idleTimeoutMillis How long the daemon waits for requests, 0 to wait until closed
+     */
+    public void serve(long idleTimeoutMillis) throws IOException {
+        serverSocket.setSoTimeout((int) (idleTimeoutMillis > 0 ? Math.min(idleTimeoutMillis, ACCEPT_TIMEOUT_MILLIS) : ACCEPT_TIMEOUT_MILLIS));
+        try {
+            while (!closed) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    if (idleTimeoutMillis > 0 && activeRequests.get() == 0
+                            && System.currentTimeMillis() - lastActivity >= idleTimeoutMillis) {
+                        log.info("No request for {} minutes, stopping the CLI daemon", TimeUnit.MILLISECONDS.toMinutes(idleTimeoutMillis));
+                        break;
+                    }
+                    continue;
+                } catch (SocketException e) {
+                    if (closed) {
+                        break;
+                    }
+                    throw e;
+                }
+                activeRequests.incrementAndGet();
+                workers.execute(() -> handle(socket));
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Stops listening and removes the state file. The running requests are not interrupted.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        workers.shutdown();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Unable to close the daemon socket", e);
+        }
+        try {
+            // another daemon may have been started since
+            DaemonState current = DaemonState.read(stateFile);
+            if (current != null && current.acceptsToken(state.getToken())) {
+                Files.deleteIfExists(stateFile);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to remove the CLI daemon state file {}", stateFile, e);
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket) {
+            client.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+            if (!state.acceptsToken(in.readUTF())) {
+                log.warn("Rejected a CLI daemon request with an invalid token");
+                return;
+            }
+            Path workingDirectory = Paths.get(in.readUTF());
+            int count = in.readInt();
+            if (count < 0 || count > MAX_ARGUMENTS) {
+                log.warn("Rejected a CLI daemon request with {} arguments", count);
+                return;
+            }
+            String[] args = new String[count];
+            for (int i = 0; i < count; i++) {
+                args[i] = in.readUTF();
+            }
+            // commands can run for hours
+            client.setSoTimeout(0);
+
+            int exitCode;
+            OutputRouter.route(new FrameOutputStream(out, STDOUT), new FrameOutputStream(out, STDERR));
+            try {
+                exitCode = runner.run(workingDirectory, args);
+            } catch (Throwable t) {
+                log.error("Could not run AIP integration tool", t);
+                exitCode = Constants.UNKNOWN_ERROR;
+            } finally {
+                System.out.flush();
+                System.err.flush();
+                OutputRouter.reset();
+            }
+            synchronized (out) {
+                out.writeByte(EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.warn("CLI daemon request failed: {}", e.getMessage());
+        } finally {
+            lastActivity = System.currentTimeMillis();
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Writes each call as a frame, flushed right away so that the client sees the output as it comes
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final int type;
+
+        FrameOutputStream(DataOutputStream out, int type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+    }
+}
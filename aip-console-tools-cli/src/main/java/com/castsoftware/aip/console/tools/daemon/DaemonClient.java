@@ -0,0 +1,141 @@
+package com.castsoftware.aip.console.tools.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Console;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends a command line to a running {@link CliDaemon} and writes its output as it comes.
+ * <p/>
+ * The environment and the console of the client are not available in the daemon, so the API key given in an
+ * environment variable or typed at the prompt is resolved here and sent with the command.
+ */
+public final class DaemonClient {
+    public static final String USE_DAEMON_OPTION = "--use-daemon";
+    private static final String API_KEY_OPTION = "--apikey";
+    private static final String API_KEY_ENV_OPTION = "--apikey:env";
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+
+    private DaemonClient() {
+    }
+
+    /**
+     * @return Whether the command line asks to run the command in the daemon
+     */
+    public static boolean isRequested(String... args) {
+        for (String arg : args) {
+            if (USE_DAEMON_OPTION.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The command line, without the option asking to run it in the daemon
+     */
+    public static String[] withoutDaemonOption(String... args) {
+        List<String> commandLine = new ArrayList<>(args.length);
+        for (String arg : args) {
+            if (!USE_DAEMON_OPTION.equals(arg)) {
+                commandLine.add(arg);
+            }
+        }
+        return commandLine.toArray(new String[0]);
+    }
+
+    /**
+     * Runs the command in the daemon
+     *
+     * @param args The command line, without {@value #USE_DAEMON_OPTION}
+     * @param out  Receives the standard output of the command
+     * @param err  Receives the standard error of the command
+     * @return The exit code of the command, or null if no daemon is running
+     * @throws IOException if the connection to the daemon was lost while the command ran
+     */
+    public static Integer run(String[] args, OutputStream out, OutputStream err) throws IOException {
+        DaemonState state = DaemonState.read(DaemonState.defaultFile());
+        if (state == null) {
+            return null;
+        }
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), state.getPort()), CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            // stale state file, the daemon stopped without removing it
+            socket.close();
+            return null;
+        }
+        try (Socket daemon = socket) {
+            String[] commandLine = resolveApiKey(args);
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(daemon.getOutputStream()));
+            request.writeUTF(state.getToken());
+            request.writeUTF(Paths.get("").toAbsolutePath().toString());
+            request.writeInt(commandLine.length);
+            for (String arg : commandLine) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(daemon.getInputStream()));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                int type = response.read();
+                if (type == -1) {
+                    throw new EOFException("The CLI daemon closed the connection before the end of the command");
+                }
+                if (type == CliDaemon.EXIT) {
+                    return response.readInt();
+                }
+                int length = response.readInt();
+                if (length > buffer.length) {
+                    buffer = new byte[length];
+                }
+                response.readFully(buffer, 0, length);
+                OutputStream target = type == CliDaemon.STDERR ? err : out;
+                target.write(buffer, 0, length);
+                target.flush();
+            }
+        }
+    }
+
+    /**
+     * Replaces the API key options needing the client's environment or console by the key itself
+     */
+    static String[] resolveApiKey(String[] args) {
+        List<String> resolved = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith(API_KEY_ENV_OPTION + "=")) {
+                addApiKey(resolved, System.getenv(arg.substring(API_KEY_ENV_OPTION.length() + 1)));
+            } else if (arg.equals(API_KEY_ENV_OPTION) && i + 1 < args.length) {
+                addApiKey(resolved, System.getenv(args[++i]));
+            } else if (arg.equals(API_KEY_OPTION) && (i + 1 == args.length || args[i + 1].startsWith("-"))) {
+                Console console = System.console();
+                char[] key = console == null ? null : console.readPassword("Enter value for --apikey (The API Key to access AIP Console): ");
+                addApiKey(resolved, key == null ? null : new String(key));
+            } else {
+                resolved.add(arg);
+            }
+        }
+        return resolved.toArray(new String[0]);
+    }
+
+    private static void addApiKey(List<String> args, String apiKey) {
+        // without a key, the command fails in the daemon as it would in the client
+        if (apiKey != null) {
+            args.add(API_KEY_OPTION + "=" + apiKey);
+        }
+    }
+}
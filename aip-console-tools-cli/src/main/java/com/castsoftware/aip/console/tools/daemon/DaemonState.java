@@ -0,0 +1,145 @@
+package com.castsoftware.aip.console.tools.daemon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Properties;
+
+/**
+ * Where a running daemon listens, and the token the clients must send. Kept in a file only readable by the user
+ * who started the daemon.
+ */
+class DaemonState {
+    static final String FILE_ENV_VARIABLE = "AIP_CLI_DAEMON_FILE";
+    private static final String PORT = "port";
+    private static final String TOKEN = "token";
+    private static final int TOKEN_BYTES = 32;
+    private static final int PROBE_TIMEOUT_MILLIS = 2000;
+
+    private final int port;
+    private final String token;
+
+    DaemonState(int port, String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * @return The state file given in the AIP_CLI_DAEMON_FILE environment variable, or the one in the user's home
+     */
+    static Path defaultFile() {
+        String file = System.getenv(FILE_ENV_VARIABLE);
+        if (file != null && !file.trim().isEmpty()) {
+            return Paths.get(file.trim());
+        }
+        return Paths.get(System.getProperty("user.home"), ".aip-console-tools", "cli-daemon.properties");
+    }
+
+    static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        return token.toString();
+    }
+
+    /**
+     * @return The state in the given file, null if there is no such file or it is incomplete
+     */
+    static DaemonState read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream stream = Files.newInputStream(file)) {
+            properties.load(stream);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        String port = properties.getProperty(PORT);
+        String token = properties.getProperty(TOKEN);
+        if (port == null || token == null) {
+            return null;
+        }
+        try {
+            return new DaemonState(Integer.parseInt(port.trim()), token.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the state to a temporary file first, so that clients never read a partial state
+     */
+    void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(temporaryFile);
+            Properties properties = new Properties();
+            properties.setProperty(PORT, Integer.toString(port));
+            properties.setProperty(TOKEN, token);
+            try (OutputStream stream = Files.newOutputStream(temporaryFile)) {
+                properties.store(stream, "AIP Console tools CLI daemon");
+            }
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * @return Whether something still listens on the port of this state
+     */
+    boolean isReachable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), PROBE_TIMEOUT_MILLIS);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compares the tokens in constant time
+     */
+    boolean acceptsToken(String candidate) {
+        return candidate != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    private static void restrictToOwner(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, the file keeps the permissions of the user's directory
+            file.toFile().setReadable(false, false);
+            file.toFile().setReadable(true, true);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.castsoftware.aip.console.tools.daemon;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Sends what a request writes to the standard output and error of the daemon to the client of the request.
+ * <p/>
+ * The standard streams are replaced once, and each write goes to the streams of the request running in the
+ * current thread, or to the original streams for the daemon itself. Threads don't inherit the streams of a request,
+ * since pooled threads would keep writing to it once it is over : tasks of the request run by other threads get them
+ * through {@link #withCurrentOutput(Runnable)}.
+ */
+final class OutputRouter {
+    private static final ThreadLocal<OutputStream> OUT = new ThreadLocal<>();
+    private static final ThreadLocal<OutputStream> ERR = new ThreadLocal<>();
+    private static boolean installed;
+
+    private OutputRouter() {
+    }
+
+    static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        System.setOut(new PrintStream(new RoutingOutputStream(System.out, OUT), true));
+        System.setErr(new PrintStream(new RoutingOutputStream(System.err, ERR), true));
+        // nothing can be typed in the daemon, interactive options get an empty value instead of waiting forever
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        installed = true;
+    }
+
+    static void route(OutputStream out, OutputStream err) {
+        OUT.set(out);
+        ERR.set(err);
+    }
+
+    static void reset() {
+        OUT.remove();
+        ERR.remove();
+    }
+
+    /**
+     * Gives the streams of the request running in the current thread to a task run by another thread, for the time
+     * the task runs
+     */
+    static Runnable withCurrentOutput(Runnable task) {
+        OutputStream out = OUT.get();
+        OutputStream err = ERR.get();
+        if (out == null && err == null) {
+            return task;
+        }
+        return () -> {
+            OutputStream previousOut = OUT.get();
+            OutputStream previousErr = ERR.get();
+            route(out, err);
+            try {
+                task.run();
+            } finally {
+                if (previousOut == null && previousErr == null) {
+                    reset();
+                } else {
+                    route(previousOut, previousErr);
+                }
+            }
+        };
+    }
+
+    private static class RoutingOutputStream extends OutputStream {
+        private final OutputStream original;
+        private final ThreadLocal<OutputStream> target;
+
+        RoutingOutputStream(OutputStream original, ThreadLocal<OutputStream> target) {
+            this.original = original;
+            this.target = target;
+        }
+
+        private OutputStream current() {
+            OutputStream stream = target.get();
+            return stream != null ? stream : original;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
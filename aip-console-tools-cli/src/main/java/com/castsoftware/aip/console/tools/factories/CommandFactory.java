@@ -0,0 +1,82 @@
+package com.castsoftware.aip.console.tools.factories;
+
+import com.castsoftware.aip.console.tools.ApiIntegrationConfig;
+import com.castsoftware.aip.console.tools.commands.AddVersionCommand;
+import com.castsoftware.aip.console.tools.commands.AnalyzeCommand;
+import com.castsoftware.aip.console.tools.commands.CreateApplicationCommand;
+import com.castsoftware.aip.console.tools.commands.DaemonCommand;
+import com.castsoftware.aip.console.tools.commands.DeliverVersionCommand;
+import com.castsoftware.aip.console.tools.commands.SnapshotCommand;
+import com.castsoftware.aip.console.tools.core.services.ApplicationService;
+import com.castsoftware.aip.console.tools.core.services.JobsService;
+import com.castsoftware.aip.console.tools.core.services.RestApiService;
+import com.castsoftware.aip.console.tools.core.services.UploadService;
+import com.castsoftware.aip.console.tools.daemon.CliDaemon;
+import com.castsoftware.aip.console.tools.providers.VersionProvider;
+import picocli.CommandLine;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Custom command factory.
+ * Creates the commands with the services they need, created lazily, and a single instance of each class, so that
+ * the {@link com.castsoftware.aip.console.tools.commands.SharedOptions} mixed in all the commands are the same object.
+ */
+public class CommandFactory implements CommandLine.IFactory {
+    private final String version;
+    private final CliDaemon.CommandRunner daemonRunner;
+    private final RestApiService restApiService;
+    private final JobsService jobsService;
+    private final UploadService uploadService;
+    private final ApplicationService applicationService;
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+
+    public CommandFactory(ApiIntegrationConfig config, String version, CliDaemon.CommandRunner daemonRunner) {
+        this.version = version;
+        this.daemonRunner = daemonRunner;
+        this.restApiService = LazyService.of(RestApiService.class, config::restApiService);
+        this.jobsService = LazyService.of(JobsService.class, config::jobsService);
+        this.uploadService = LazyService.of(UploadService.class, config::uploadService);
+        this.applicationService = LazyService.of(ApplicationService.class, config::applicationService);
+    }
+
+    @Override
+    public synchronized <K> K create(Class<K> cls) throws Exception {
+        Object instance = instances.get(cls);
+        if (instance == null) {
+            instance = newInstance(cls);
+            instances.put(cls, instance);
+        }
+        return cls.cast(instance);
+    }
+
+    private Object newInstance(Class<?> cls) throws Exception {
+        if (cls == CreateApplicationCommand.class) {
+            return new CreateApplicationCommand(restApiService, jobsService);
+        }
+        if (cls == AddVersionCommand.class) {
+            return new AddVersionCommand(restApiService, jobsService, uploadService, applicationService);
+        }
+        if (cls == DeliverVersionCommand.class) {
+            return new DeliverVersionCommand(restApiService, jobsService, uploadService, applicationService);
+        }
+        if (cls == AnalyzeCommand.class) {
+            return new AnalyzeCommand(restApiService, jobsService, applicationService);
+        }
+        if (cls == SnapshotCommand.class) {
+            return new SnapshotCommand(restApiService, jobsService, applicationService);
+        }
+        if (cls == DaemonCommand.class) {
+            return new DaemonCommand(daemonRunner);
+        }
+        if (cls == VersionProvider.class) {
+            return new VersionProvider(version);
+        }
+        // options, mixins and converters
+        Constructor<?> constructor = cls.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+}
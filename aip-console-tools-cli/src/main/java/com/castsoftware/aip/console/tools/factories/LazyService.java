@@ -0,0 +1,51 @@
+package com.castsoftware.aip.console.tools.factories;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Proxy of a service creating it on its first call.
+ * Picocli creates all the commands to parse the arguments, the services they are given are only created
+ * if the command runs.
+ */
+final class LazyService<T> implements InvocationHandler {
+    private final Supplier<T> factory;
+    private volatile T target;
+
+    private LazyService(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    static <T> T of(Class<T> type, Supplier<T> factory) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyService<>(factory)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class && method.getName().equals("toString")) {
+            return "LazyService{" + target + "}";
+        }
+        try {
+            return method.invoke(getTarget(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private T getTarget() {
+        T current = target;
+        if (current == null) {
+            synchronized (this) {
+                current = target;
+                if (current == null) {
+                    current = factory.get();
+                    target = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,161 @@
+package com.castsoftware.aip.console.tools;
+
+import com.castsoftware.aip.console.tools.core.testing.FakeAipConsole;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the CLI as a separate process against a fake AIP Console.
+ * <p/>
+ * The native executable is tested when its path is given in the {@code cli.executable} system property
+ * (see the native profile), the packaged jar otherwise.
+ */
+public class CliIT {
+    private static final long TIMEOUT_MINUTES = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeAipConsole console;
+
+    @Before
+    public void setUp() throws Exception {
+        console = FakeAipConsole.builder().jobDuration(100).start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        console.close();
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        CliResult result = run("--version");
+        assertEquals(result.output, Constants.RETURN_OK, result.exitCode);
+        assertTrue(result.output, result.output.trim().matches("\\d+\\.\\d+\\.\\d+.*"));
+    }
+
+    @Test
+    public void testUsage() throws Exception {
+        CliResult result = run("AddVersion", "--help");
+        assertEquals(result.output, Constants.RETURN_OK, result.exitCode);
+        assertTrue(result.output, result.output.contains("--app-name"));
+    }
+
+    @Test
+    public void testCreateApplication() throws Exception {
+        CliResult result = run("CreateApplication", "-n", "native-app", "--apikey=" + console.getApiKey(), "-s", console.getUrl());
+        assertEquals(result.output, Constants.RETURN_OK, result.exitCode);
+        assertEquals(1, console.getJobCount());
+    }
+
+    @Test
+    public void testAddVersion() throws Exception {
+        console.addApplication("native-app");
+        File archive = folder.newFile("sources.zip");
+        Files.write(archive.toPath(), new byte[64 * 1024]);
+        CliResult result = run("AddVersion", "-n", "native-app", "-f", archive.getAbsolutePath(),
+                "--apikey=" + console.getApiKey(), "-s", console.getUrl(), "--timing-report", folder.getRoot().toPath().resolve("timing.json").toString());
+        assertEquals(result.output, Constants.RETURN_OK, result.exitCode);
+        assertEquals(archive.length(), console.getUploadedBytes());
+        assertTrue(result.output, Files.isRegularFile(folder.getRoot().toPath().resolve("timing.json")));
+    }
+
+    @Test
+    public void testDaemon() throws Exception {
+        console.addApplication("native-app");
+        Path stateFile = folder.getRoot().toPath().resolve("daemon.properties");
+        Map<String, String> environment = Collections.singletonMap("AIP_CLI_DAEMON_FILE", stateFile.toString());
+        // relative paths are resolved against the directory of the client, not the one of the daemon
+        File daemonDirectory = folder.newFolder("daemon");
+        Files.write(folder.getRoot().toPath().resolve("sources.zip"), new byte[64 * 1024]);
+
+        Process daemon = start(daemonDirectory, environment, "Daemon", "--idle-timeout", "1");
+        try {
+            for (int i = 0; i < 100 && !Files.exists(stateFile); i++) {
+                Thread.sleep(100);
+            }
+            assertTrue("Daemon did not start", Files.exists(stateFile));
+
+            CliResult result = run(environment, "--use-daemon", "AddVersion", "-n", "native-app", "-f", "sources.zip",
+                    "--apikey=" + console.getApiKey(), "-s", console.getUrl());
+            assertEquals(result.output, Constants.RETURN_OK, result.exitCode);
+            assertTrue(result.output, result.output.contains("Job completed successfully"));
+            assertFalse(result.output, result.output.contains("No CLI daemon is running"));
+            assertEquals(64 * 1024, console.getUploadedBytes());
+
+            result = run(environment, "--use-daemon", "CreateApplication", "-n", "other-app", "--apikey=wrong", "-s", console.getUrl());
+            assertEquals(result.output, Constants.RETURN_LOGIN_ERROR, result.exitCode);
+
+            // settings of the whole process would apply to the other calls running in the daemon
+            result = run(environment, "--use-daemon", "CreateApplication", "-n", "other-app", "--apikey=" + console.getApiKey(),
+                    "-s", console.getUrl(), "--step-history", "steps.tsv");
+            assertEquals(result.output, Constants.UNKNOWN_ERROR, result.exitCode);
+        } finally {
+            daemon.destroy();
+            daemon.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    private CliResult run(String... args) throws Exception {
+        return run(Collections.emptyMap(), args);
+    }
+
+    private CliResult run(Map<String, String> environment, String... args) throws Exception {
+        Process process = start(folder.getRoot(), environment, args);
+        String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        assertTrue("CLI did not exit", process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES));
+        return new CliResult(process.exitValue(), output);
+    }
+
+    private Process start(File directory, Map<String, String> environment, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        String executable = System.getProperty("cli.executable");
+        if (executable != null) {
+            command.add(executable);
+        } else {
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-jar");
+            command.add(Paths.get("target", "aip-console-tools-cli.jar").toAbsolutePath().toString());
+        }
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true);
+        builder.environment().putAll(environment);
+        Process process = builder.start();
+        process.getOutputStream().close();
+        return process;
+    }
+
+    private static class CliResult {
+        private final int exitCode;
+        private final String output;
+
+        private CliResult(int exitCode, String output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.castsoftware.aip.console.tools.core.events;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An event of the client progress (upload progress, job step change, job result, etc.), with its fields
+ */
+public final class ClientEvent {
+    private final String type;
+    private final long timestamp;
+    private final String thread;
+    private final Map<String, Object> fields;
+
+    /**
+     * @param type      The type of the event, like {@value Events#JOB_STEP}
+     * @param keyValues Alternating names and values of the fields
+     */
+    public ClientEvent(String type, Object... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Fields must be given as name and value pairs");
+        }
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.thread = Thread.currentThread().getName();
+        Map<String, Object> map = new LinkedHashMap<>(keyValues.length);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+        }
+        this.fields = Collections.unmodifiableMap(map);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return When the event was emitted, in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The thread which emitted the event
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,37 @@
+package com.castsoftware.aip.console.tools.core.events;
+
+/**
+ * Receives the client events
+ */
+public interface EventSink extends AutoCloseable {
+    EventSink NOOP = new EventSink() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void emit(ClientEvent event) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * @return Whether events are used, so callers can skip creating them
+     */
+    boolean isEnabled();
+
+    /**
+     * Must not block the caller
+     */
+    void emit(ClientEvent event);
+
+    /**
+     * Writes the pending events and releases the resources of this sink
+     */
+    @Override
+    void close();
+}
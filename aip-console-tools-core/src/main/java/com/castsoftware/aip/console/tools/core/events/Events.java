@@ -0,0 +1,70 @@
+package com.castsoftware.aip.console.tools.core.events;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Global access to the sink of the client events, for tools that consume the progress of a run
+ * without parsing the logs.
+ * <p/>
+ * Events are disabled by default, they can be written as newline-delimited JSON with {@link #configure(Path)}.
+ */
+public final class Events {
+    public static final String UPLOAD_STARTED = "upload.started";
+    public static final String UPLOAD_PROGRESS = "upload.progress";
+    public static final String UPLOAD_EXTRACTED = "upload.extracted";
+    public static final String JOB_STARTED = "job.started";
+    public static final String JOB_STEP = "job.step";
+    public static final String JOB_FINISHED = "job.finished";
+    public static final String JOB_STEP_OVERRUN = "job.step.overrun";
+    public static final String TIMING_REPORT = "timing.report";
+
+    private static volatile EventSink sink = EventSink.NOOP;
+
+    private Events() {
+    }
+
+    public static EventSink sink() {
+        return sink;
+    }
+
+    public static boolean isEnabled() {
+        return sink.isEnabled();
+    }
+
+    /**
+     * Emits an event, without blocking, if events are enabled
+     *
+     * @param type      The type of the event
+     * @param keyValues Alternating names and values of the fields of the event
+     */
+    public static void emit(String type, Object... keyValues) {
+        EventSink current = sink;
+        if (current.isEnabled()) {
+            current.emit(new ClientEvent(type, keyValues));
+        }
+    }
+
+    /**
+     * Appends the events to the given file, one JSON object per line
+     */
+    public static void configure(Path file) throws IOException {
+        setSink(NdjsonEventWriter.toFile(file));
+    }
+
+    /**
+     * Replaces the current sink, which is closed
+     */
+    public static void setSink(EventSink newSink) {
+        EventSink previous = sink;
+        sink = newSink == null ? EventSink.NOOP : newSink;
+        previous.close();
+    }
+
+    /**
+     * Writes the pending events and disables events
+     */
+    public static void close() {
+        setSink(null);
+    }
+}
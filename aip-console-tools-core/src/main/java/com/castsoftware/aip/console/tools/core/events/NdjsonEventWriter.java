@@ -0,0 +1,174 @@
+package com.castsoftware.aip.console.tools.core.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Writes the events as newline-delimited JSON, from a background thread.
+ * <p/>
+ * Emitting only queues the event : the polling and upload threads never wait for the serialization or the disk.
+ * The writer thread takes the events by batches and flushes once per batch. When the queue is full
+ * (or after a write failure), events are dropped and counted, and the count is written when closing.
+ */
+@Log
+public class NdjsonEventWriter implements EventSink {
+    static final String DROPPED_EVENT = "events.dropped";
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    private final BlockingQueue<ClientEvent> queue;
+    private final Writer writer;
+    private final int batchSize;
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    public NdjsonEventWriter(Writer writer) {
+        this(writer, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    NdjsonEventWriter(Writer writer, int capacity, int batchSize) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.writerThread = new Thread(this::writeLoop, "aip-event-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * @param file The file where events are appended
+     */
+    public static NdjsonEventWriter toFile(Path file) throws IOException {
+        return new NdjsonEventWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !closed;
+    }
+
+    @Override
+    public void emit(ClientEvent event) {
+        if (closed || failed || !queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of events that couldn't be written
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warning("Timed out while writing the events, " + queue.size() + " events are not written");
+            return;
+        }
+        // events queued while closing
+        List<ClientEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (failed) {
+            dropped.addAndGet(remaining.size());
+            remaining.clear();
+        }
+        if (dropped.get() > 0) {
+            remaining.add(new ClientEvent(DROPPED_EVENT, "count", dropped.get()));
+        }
+        try {
+            write(remaining);
+            writer.close();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Unable to write the events", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<ClientEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                ClientEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (failed) {
+                    dropped.addAndGet(batch.size());
+                } else {
+                    writeBatch(batch);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeBatch(List<ClientEvent> batch) {
+        try {
+            write(batch);
+        } catch (IOException e) {
+            // events must never fail the run, the next ones are dropped
+            log.log(Level.WARNING, "Unable to write the events, next events will be dropped", e);
+            failed = true;
+            dropped.addAndGet(batch.size());
+        }
+    }
+
+    private void write(List<ClientEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        JsonGenerator generator = mapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        for (ClientEvent event : events) {
+            generator.writeStartObject();
+            generator.writeStringField("time", Instant.ofEpochMilli(event.getTimestamp()).toString());
+            generator.writeStringField("type", event.getType());
+            generator.writeStringField("thread", event.getThread());
+            for (Map.Entry<String, Object> field : event.getFields().entrySet()) {
+                generator.writeObjectField(field.getKey(), field.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.close();
+        writer.flush();
+    }
+}
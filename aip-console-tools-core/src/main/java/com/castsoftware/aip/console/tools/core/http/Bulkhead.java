@@ -0,0 +1,66 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the number of calls running at the same time.
+ * <p/>
+ * Callers wait for a free slot up to the given timeout and are rejected after that.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name               Name of the bulkhead, for messages
+     * @param maxConcurrentCalls Maximum number of calls running at the same time
+     * @param maxWait            How long a call waits for a free slot
+     * @param timeUnit           The unit of the max wait
+     */
+    public Bulkhead(String name, int maxConcurrentCalls, long maxWait, TimeUnit timeUnit) {
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = timeUnit.toNanos(maxWait);
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Wait for a free slot. Each successful call must be followed by a call to {@link #release()}
+     *
+     * @throws CallNotPermittedException If no slot was freed in time
+     * @throws InterruptedIOException    If the thread was interrupted while waiting
+     */
+    public void acquire() throws CallNotPermittedException, InterruptedIOException {
+        try {
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new CallNotPermittedException("Too many concurrent calls to " + name + " endpoints (max " + maxConcurrentCalls + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a call slot to " + name + " endpoints");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getAvailableSlots() {
+        return permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,13 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a call is rejected without being sent, because the circuit breaker is open
+ * or the bulkhead is full
+ */
+public class CallNotPermittedException extends IOException {
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,162 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker based on the failure rate of the last calls.
+ * <p/>
+ * While CLOSED, the outcome of the last calls is recorded in a fixed size window. When the failure rate in that window
+ * reaches the threshold, the breaker is OPEN and rejects all calls for the open duration. After that, it is HALF_OPEN :
+ * a few probe calls are let through, the breaker is closed again if they all succeed and opened again if any fails.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int permittedProbes;
+    private final LongSupplier nanoClock;
+
+    // outcomes of the last calls (true for a failure), used as a ring buffer
+    private final boolean[] window;
+    private int windowPosition;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+    private long rejectedCount;
+    private long openedCount;
+
+    /**
+     * @param name                 Name of the breaker, for messages
+     * @param windowSize           Number of calls used to compute the failure rate
+     * @param minimumCalls         Minimum number of recorded calls before the breaker can open
+     * @param failureRateThreshold Failure rate (percentage) at which the breaker opens
+     * @param openDuration         How long calls are rejected once opened
+     * @param timeUnit             The unit of the open duration
+     * @param permittedProbes      Number of probe calls let through when half open
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          long openDuration, TimeUnit timeUnit, int permittedProbes) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openDuration, timeUnit, permittedProbes, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                   long openDuration, TimeUnit timeUnit, int permittedProbes, LongSupplier nanoClock) {
+        if (windowSize < 1 || permittedProbes < 1) {
+            throw new IllegalArgumentException("Window size and permitted probes must be positive");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = timeUnit.toNanos(openDuration);
+        this.permittedProbes = permittedProbes;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Check whether a call can be sent. Each permitted call must be followed by a call to
+     * {@link #onSuccess()} or {@link #onFailure()}
+     *
+     * @throws CallNotPermittedException If the breaker is open, or all probes are already running
+     */
+    public synchronized void acquirePermission() throws CallNotPermittedException {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                rejectedCount++;
+                throw new CallNotPermittedException("Circuit breaker for " + name + " endpoints is open, AIP Console seems overloaded or unavailable");
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= permittedProbes) {
+                rejectedCount++;
+                throw new CallNotPermittedException("Circuit breaker for " + name + " endpoints is half open, waiting for probe calls");
+            }
+            probesInFlight++;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesSucceeded++;
+            if (probesSucceeded >= permittedProbes) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= minimumCalls && failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return The failure rate (percentage) of the recorded calls, or -1 if not enough calls were recorded
+     */
+    public synchronized float getFailureRate() {
+        return recordedCalls < minimumCalls ? -1 : failedCalls * 100f / recordedCalls;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == window.length) {
+            if (window[windowPosition]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            failedCalls++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        openedCount++;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowPosition = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of operations running at the same time. Waiting callers get a slot in their arrival order.
+ * <p/>
+ * Unlike the {@link Bulkhead}, callers wait as long as needed, and the limit can be changed while operations run.
+ * The time spent waiting is recorded in the {@value #WAIT_METER} timer, tagged with the name of the limit.
+ */
+public class ConcurrencyLimit {
+    public static final String WAIT_METER = "aip.throttle.wait";
+
+    private final String name;
+    private final Deque<Object> waiting = new ArrayDeque<>();
+    private int limit;
+    private int running;
+
+    /**
+     * @param name  Name of the limited operations, for the metrics
+     * @param limit Maximum number of operations running at the same time, 0 for no limit
+     */
+    public ConcurrencyLimit(String name, int limit) {
+        this.name = name;
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * @param limit Maximum number of operations running at the same time, 0 for no limit. Operations already
+     *              running are not affected.
+     */
+    public synchronized void setLimit(int limit) {
+        this.limit = Math.max(0, limit);
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Wait for a free slot. Each call must be followed by a call to {@link #release()}
+     *
+     * @return How long the caller waited, in milliseconds
+     * @throws InterruptedException If the thread was interrupted while waiting, no slot is taken then
+     */
+    public long acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        Object ticket = new Object();
+        synchronized (this) {
+            waiting.addLast(ticket);
+            try {
+                while (waiting.peekFirst() != ticket || (limit > 0 && running >= limit)) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                waiting.remove(ticket);
+                notifyAll();
+                throw e;
+            }
+            waiting.removeFirst();
+            running++;
+            // the next caller may get a slot as well
+            notifyAll();
+        }
+        long waitedNanos = System.nanoTime() - start;
+        Metrics.registry().timer(WAIT_METER, "operation", name).record(waitedNanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+    }
+
+    public synchronized void release() {
+        if (running > 0) {
+            running--;
+        }
+        notifyAll();
+    }
+}
@@ -0,0 +1,35 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Classes of AIP Console endpoints, isolated from each other by their own circuit breaker and bulkhead
+ */
+public enum EndpointClass {
+    /**
+     * Job creation, status and logs polling
+     */
+    JOBS,
+    /**
+     * Source upload and extraction
+     */
+    UPLOADS,
+    /**
+     * Everything else (applications, versions, login, etc.)
+     */
+    METADATA;
+
+    /**
+     * @param path The path of the endpoint called, without the server url
+     * @return The class of the endpoint
+     */
+    public static EndpointClass of(String path) {
+        if (StringUtils.contains(path, "/upload")) {
+            return UPLOADS;
+        }
+        if (StringUtils.contains(path, "/jobs")) {
+            return JOBS;
+        }
+        return METADATA;
+    }
+}
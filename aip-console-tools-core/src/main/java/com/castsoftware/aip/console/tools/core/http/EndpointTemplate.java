@@ -0,0 +1,50 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns the path of an AIP Console endpoint into its template (e.g. {@code /api/jobs/{jobGuid}}),
+ * so calls to the same endpoint with different identifiers are measured together.
+ */
+public final class EndpointTemplate {
+    private static final Map<String, String> VARIABLES = new HashMap<>();
+
+    static {
+        VARIABLES.put("applications", "{appGuid}");
+        VARIABLES.put("upload", "{uploadGuid}");
+        VARIABLES.put("jobs", "{jobGuid}");
+        VARIABLES.put("steps", "{step}");
+        VARIABLES.put("logs", "{logName}");
+    }
+
+    private EndpointTemplate() {
+    }
+
+    /**
+     * @param path The path of the endpoint called, with or without query
+     * @return The template of the path, without query
+     */
+    public static String of(String path) {
+        String withoutQuery = StringUtils.substringBefore(path, "?");
+        String[] segments = StringUtils.split(withoutQuery, '/');
+        if (segments.length == 0) {
+            return "/";
+        }
+        StringBuilder template = new StringBuilder();
+        String variable = null;
+        for (String segment : segments) {
+            template.append('/');
+            if (variable != null && !VARIABLES.containsKey(segment)) {
+                template.append(variable);
+                variable = null;
+            } else {
+                template.append(segment);
+                variable = VARIABLES.get(segment);
+            }
+        }
+        return template.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.metrics.MeterRegistry;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of each attempt of a call, by endpoint template, method and status.
+ * <p/>
+ * Calls which didn't get a response are tagged with the {@code IO_ERROR} status, or {@code REJECTED} when refused
+ * by a circuit breaker or bulkhead. Does nothing when metrics are disabled.
+ */
+public class MetricsInterceptor implements Interceptor {
+    public static final String REQUESTS_METER = "aip.http.client.requests";
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        MeterRegistry registry = Metrics.registry();
+        if (!registry.isEnabled()) {
+            return chain.proceed(request);
+        }
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            Response response = chain.proceed(request);
+            status = String.valueOf(response.code());
+            return response;
+        } catch (CallNotPermittedException e) {
+            status = "REJECTED";
+            throw e;
+        } finally {
+            registry.timer(REQUESTS_METER,
+                    "method", request.method(),
+                    "uri", EndpointTemplate.of(request.url().encodedPath()),
+                    "status", status)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.profiling.HttpCallEvent;
+import com.castsoftware.aip.console.tools.core.profiling.Profiling;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Emits a JFR event for each attempt of a call, by endpoint template, method and status.
+ * Does nothing when the JFR API isn't available.
+ */
+public class ProfilingInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!Profiling.isAvailable()) {
+            return chain.proceed(chain.request());
+        }
+        return profile(chain);
+    }
+
+    private static Response profile(Chain chain) throws IOException {
+        Request request = chain.request();
+        HttpCallEvent event = new HttpCallEvent();
+        if (!event.isEnabled()) {
+            return chain.proceed(request);
+        }
+        event.method = request.method();
+        event.uri = EndpointTemplate.of(request.url().encodedPath());
+        event.status = "IO_ERROR";
+        event.begin();
+        try {
+            Response response = chain.proceed(request);
+            event.status = String.valueOf(response.code());
+            return response;
+        } finally {
+            event.close();
+        }
+    }
+}
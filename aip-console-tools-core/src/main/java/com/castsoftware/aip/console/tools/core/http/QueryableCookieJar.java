@@ -0,0 +1,65 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cookie jar with ability to query a cookie value.
+ * <p/>
+ * Cookies are indexed by their name (case insensitive), a cookie received with the same name as an existing one
+ * replaces it and an expired cookie removes it.
+ */
+public class QueryableCookieJar implements CookieJar {
+    private final ConcurrentMap<String, Cookie> cookies = new ConcurrentHashMap<>();
+
+    @Override
+    public void saveFromResponse(HttpUrl url, List<Cookie> responseCookies) {
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : responseCookies) {
+            String name = indexName(cookie.name());
+            if (cookie.expiresAt() < now) {
+                cookies.remove(name);
+            } else {
+                cookies.put(name, cookie);
+            }
+        }
+    }
+
+    @Override
+    public List<Cookie> loadForRequest(HttpUrl url) {
+        long now = System.currentTimeMillis();
+        List<Cookie> result = new ArrayList<>(cookies.size());
+        for (Cookie cookie : cookies.values()) {
+            if (cookie.expiresAt() >= now) {
+                result.add(cookie);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param name The name of the cookie, case insensitive
+     * @return The cookie with the given name, or null if none was received
+     */
+    public Cookie getCookieByName(String name) {
+        return name == null ? null : cookies.get(indexName(name));
+    }
+
+    /**
+     * Removes all the cookies from this jar
+     */
+    public void clear() {
+        cookies.clear();
+    }
+
+    private static String indexName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,93 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets at most a given number of operations through per second, evenly spaced.
+ * <p/>
+ * It is a token bucket holding a single token : each caller reserves the next free slot and waits for it, so callers
+ * go through in their arrival order and bursts are smoothed. The time spent waiting is recorded in the
+ * {@value ConcurrencyLimit#WAIT_METER} timer, tagged with the name of the limiter.
+ */
+public class RateLimiter {
+    private final String name;
+    private final LongSupplier nanoClock;
+    private long intervalNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param name             Name of the limited operations, for the metrics
+     * @param permitsPerSecond Maximum number of operations per second, 0 for no limit
+     */
+    public RateLimiter(String name, double permitsPerSecond) {
+        this(name, permitsPerSecond, System::nanoTime);
+    }
+
+    RateLimiter(String name, double permitsPerSecond, LongSupplier nanoClock) {
+        this.name = name;
+        this.nanoClock = nanoClock;
+        this.nextFreeNanos = nanoClock.getAsLong();
+        setRate(permitsPerSecond);
+    }
+
+    /**
+     * @param permitsPerSecond Maximum number of operations per second, 0 for no limit
+     */
+    public synchronized void setRate(double permitsPerSecond) {
+        intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    public synchronized double getRate() {
+        return intervalNanos == 0 ? 0 : (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    /**
+     * Wait until the operation can go through
+     *
+     * @return How long the caller waited, in milliseconds
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public long acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        recordWait(waitNanos);
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    /**
+     * Reserve the next free slot without waiting for it, for callers which must not block their thread. The
+     * operation must only go through once the returned delay has elapsed, e.g. by scheduling it.
+     *
+     * @return How long the caller must wait before going through, in milliseconds
+     */
+    public long tryAcquire() {
+        long waitNanos = reserve();
+        recordWait(waitNanos);
+        // rounded up, so that a scheduled operation never goes through before its slot
+        return (waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Reserve the next free slot
+     *
+     * @return How long the caller must wait for its slot, in nanoseconds
+     */
+    synchronized long reserve() {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        long slot = Math.max(now, nextFreeNanos);
+        nextFreeNanos = slot + intervalNanos;
+        return slot - now;
+    }
+
+    private void recordWait(long waitNanos) {
+        Metrics.registry().timer(ConcurrencyLimit.WAIT_METER, "operation", name).record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,108 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import lombok.extern.java.Log;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protects AIP Console (and the callers) with a circuit breaker and a bulkhead for each {@link EndpointClass}.
+ * <p/>
+ * A call is considered failed when it couldn't be sent or got no response, or when AIP Console answers with a 5xx
+ * or 429 status. The bulkhead slot is held until the response headers are received.
+ */
+@Log
+public class ResilienceInterceptor implements Interceptor {
+    private static final int WINDOW_SIZE = 20;
+    private static final int MINIMUM_CALLS = 10;
+    private static final int FAILURE_RATE_THRESHOLD = 50;
+    private static final long OPEN_DURATION_SECONDS = 30;
+    private static final int PERMITTED_PROBES = 2;
+    private static final long BULKHEAD_MAX_WAIT_SECONDS = 60;
+
+    private final Map<EndpointClass, CircuitBreaker> circuitBreakers = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+
+    public ResilienceInterceptor() {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String name = endpointClass.name().toLowerCase();
+            circuitBreakers.put(endpointClass, new CircuitBreaker(name, WINDOW_SIZE, MINIMUM_CALLS, FAILURE_RATE_THRESHOLD,
+                    OPEN_DURATION_SECONDS, TimeUnit.SECONDS, PERMITTED_PROBES));
+            bulkheads.put(endpointClass, new Bulkhead(name, maxConcurrentCalls(endpointClass), BULKHEAD_MAX_WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    ResilienceInterceptor(Map<EndpointClass, CircuitBreaker> circuitBreakers, Map<EndpointClass, Bulkhead> bulkheads) {
+        this.circuitBreakers.putAll(circuitBreakers);
+        this.bulkheads.putAll(bulkheads);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        EndpointClass endpointClass = EndpointClass.of(request.url().encodedPath());
+        CircuitBreaker circuitBreaker = circuitBreakers.get(endpointClass);
+        Bulkhead bulkhead = bulkheads.get(endpointClass);
+
+        bulkhead.acquire();
+        try {
+            CircuitBreaker.State previousState = circuitBreaker.getState();
+            circuitBreaker.acquirePermission();
+            boolean failed = true;
+            try {
+                Response response = chain.proceed(request);
+                failed = isFailure(response.code());
+                return response;
+            } finally {
+                if (failed) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                logTransition(endpointClass, previousState, circuitBreaker.getState());
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker(EndpointClass endpointClass) {
+        return circuitBreakers.get(endpointClass);
+    }
+
+    public Bulkhead getBulkhead(EndpointClass endpointClass) {
+        return bulkheads.get(endpointClass);
+    }
+
+    private static boolean isFailure(int httpCode) {
+        return httpCode >= 500 || httpCode == 429;
+    }
+
+    private static int maxConcurrentCalls(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case UPLOADS:
+                // chunks are large, a few of them at a time are enough to fill the bandwidth
+                return 4;
+            case JOBS:
+                return 8;
+            default:
+                return 16;
+        }
+    }
+
+    private static void logTransition(EndpointClass endpointClass, CircuitBreaker.State previousState, CircuitBreaker.State newState) {
+        if (previousState == newState) {
+            return;
+        }
+        if (newState == CircuitBreaker.State.OPEN) {
+            log.warning("Too many failed calls to " + endpointClass.name().toLowerCase() + " endpoints, calls will be rejected for " + OPEN_DURATION_SECONDS + " seconds");
+        } else if (newState == CircuitBreaker.State.CLOSED) {
+            log.info("Calls to " + endpointClass.name().toLowerCase() + " endpoints succeed again");
+        }
+    }
+}
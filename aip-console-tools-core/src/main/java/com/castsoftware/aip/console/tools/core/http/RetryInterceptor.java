@@ -0,0 +1,122 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import lombok.extern.java.Log;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends failed calls again, according to a {@link RetryPolicy}
+ */
+@Log
+public class RetryInterceptor implements Interceptor {
+    public static final String RETRIES_METER = "aip.http.client.retries";
+    public static final String EXHAUSTED_METER = "aip.http.client.retries.exhausted";
+
+    private final RetryPolicy policy;
+    private final Sleeper sleeper;
+    private final Map<RetryPolicy.FailureType, LongAdder> retries = new EnumMap<>(RetryPolicy.FailureType.class);
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryInterceptor(RetryPolicy policy) {
+        this(policy, TimeUnit.MILLISECONDS::sleep);
+    }
+
+    RetryInterceptor(RetryPolicy policy, Sleeper sleeper) {
+        this.policy = policy;
+        this.sleeper = sleeper;
+        for (RetryPolicy.FailureType failureType : RetryPolicy.FailureType.values()) {
+            retries.put(failureType, new LongAdder());
+        }
+    }
+
+    /**
+     * @param attemptTimeoutMillis The timeout of the client using the interceptor
+     * @return An interceptor sharing the retry counts of this one, which only retries calls when the next attempt
+     * can end within the budget of the policy
+     */
+    public Interceptor withAttemptTimeout(long attemptTimeoutMillis) {
+        return chain -> intercept(chain, attemptTimeoutMillis);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        return intercept(chain, 0);
+    }
+
+    private Response intercept(Chain chain, long attemptTimeoutMillis) throws IOException {
+        Request request = chain.request();
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            Response response = null;
+            IOException failure = null;
+            RetryPolicy.FailureType failureType;
+            try {
+                response = chain.proceed(request);
+                failureType = RetryPolicy.classify(response.code());
+            } catch (IOException e) {
+                failure = e;
+                failureType = RetryPolicy.classify(e);
+            }
+
+            if (failureType == RetryPolicy.FailureType.NOT_RETRYABLE || !policy.isRetryable(request, failureType)) {
+                return result(response, failure);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long delay = policy.nextDelayMillis(attempt, elapsedMillis, attemptTimeoutMillis, response);
+            if (delay < 0) {
+                exhausted.increment();
+                Metrics.registry().counter(EXHAUSTED_METER).increment();
+                log.warning(String.format("Call to %s failed (%s) after %d attempt(s), giving up", request.url().encodedPath(), failureType, attempt));
+                return result(response, failure);
+            }
+
+            if (response != null) {
+                response.close();
+            }
+            retries.get(failureType).increment();
+            Metrics.registry().counter(RETRIES_METER, "failure", failureType.name()).increment();
+            log.fine(String.format("Call to %s failed (%s), attempt %d will be sent in %d ms", request.url().encodedPath(), failureType, attempt + 1, delay));
+            try {
+                sleeper.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry call to " + request.url().encodedPath());
+            }
+        }
+    }
+
+    /**
+     * @return The number of retries sent, for the given type of failure
+     */
+    public long getRetryCount(RetryPolicy.FailureType failureType) {
+        return retries.get(failureType).sum();
+    }
+
+    /**
+     * @return The number of calls which still failed after all the allowed retries
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    private static Response result(Response response, IOException failure) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        return response;
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
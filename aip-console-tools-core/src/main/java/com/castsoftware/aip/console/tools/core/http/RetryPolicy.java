@@ -0,0 +1,161 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.http.HttpDate;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a failed call can be sent again, and when.
+ * <p/>
+ * Only idempotent methods (or requests with an {@value #IDEMPOTENCY_KEY_HEADER} header) are retried, except for
+ * connection failures which happen before anything was sent. The delay between attempts is an exponential backoff
+ * with full jitter, or the delay asked by AIP Console in a Retry-After header, as long as the next attempt can end
+ * within the total time budget, even if it lasts until its timeout. The budget grows with the timeout of the attempts,
+ * so that a long timeout (e.g. set with --timeout) still leaves room for all the attempts.
+ */
+public class RetryPolicy {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+    private static final Set<Integer> RETRYABLE_HTTP_CODES = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+    public enum FailureType {
+        /**
+         * The connection couldn't be established, nothing was sent
+         */
+        CONNECT,
+        /**
+         * No response was received in time
+         */
+        TIMEOUT,
+        /**
+         * The connection was closed while sending the request or reading the response
+         */
+        CONNECTION_LOST,
+        /**
+         * AIP Console is temporarily unable to handle the request (502, 503, 504)
+         */
+        SERVER_UNAVAILABLE,
+        /**
+         * AIP Console asks to slow down (429)
+         */
+        RATE_LIMITED,
+        /**
+         * Any other failure, which is not retried
+         */
+        NOT_RETRYABLE
+    }
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final long budgetMillis;
+
+    /**
+     * @param maxAttempts        Maximum number of attempts for a call, including the first one
+     * @param initialDelayMillis Base delay before the first retry, doubled for each following retry
+     * @param maxDelayMillis     Maximum delay between two attempts
+     * @param budgetMillis       Maximum time spent retrying a call, from its first attempt to the end of its last one,
+     *                           raised to maxAttempts times the timeout of an attempt when that is longer
+     */
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis, long budgetMillis) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * @return The policy used for AIP Console calls : 5 attempts within 2 minutes, or within 5 attempt timeouts
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(5, 500, TimeUnit.SECONDS.toMillis(10), TimeUnit.MINUTES.toMillis(2));
+    }
+
+    public static FailureType classify(IOException e) {
+        if (e instanceof CallNotPermittedException) {
+            // rejected on purpose, sending it again would defeat the circuit breaker
+            return FailureType.NOT_RETRYABLE;
+        }
+        if (e instanceof ConnectException || e instanceof NoRouteToHostException) {
+            return FailureType.CONNECT;
+        }
+        if (e instanceof SocketTimeoutException) {
+            return FailureType.TIMEOUT;
+        }
+        if (e instanceof InterruptedIOException) {
+            // thread interruption, the caller wants to stop
+            return FailureType.NOT_RETRYABLE;
+        }
+        if (e instanceof SocketException || StringUtils.containsIgnoreCase(e.getMessage(), "unexpected end of stream")) {
+            return FailureType.CONNECTION_LOST;
+        }
+        return FailureType.NOT_RETRYABLE;
+    }
+
+    public static FailureType classify(int httpCode) {
+        if (httpCode == 429) {
+            return FailureType.RATE_LIMITED;
+        }
+        return RETRYABLE_HTTP_CODES.contains(httpCode) ? FailureType.SERVER_UNAVAILABLE : FailureType.NOT_RETRYABLE;
+    }
+
+    /**
+     * @param request     The request that failed
+     * @param failureType The type of failure
+     * @return Whether the request can be sent again safely
+     */
+    public boolean isRetryable(Request request, FailureType failureType) {
+        if (failureType == FailureType.NOT_RETRYABLE) {
+            return false;
+        }
+        return failureType == FailureType.CONNECT
+                || IDEMPOTENT_METHODS.contains(request.method())
+                || request.header(IDEMPOTENCY_KEY_HEADER) != null;
+    }
+
+    /**
+     * @param attempt              The number of the attempt that failed, starting at 1
+     * @param elapsedMillis        Time spent since the first attempt
+     * @param attemptTimeoutMillis Maximum duration of the next attempt, 0 if it has no timeout
+     * @param failedResponse       The response that failed, if any, to honor its Retry-After header
+     * @return The delay before the next attempt, or -1 if the call should not be retried anymore
+     */
+    public long nextDelayMillis(int attempt, long elapsedMillis, long attemptTimeoutMillis, Response failedResponse) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        long delay = retryAfterMillis(failedResponse);
+        if (delay < 0) {
+            long cap = Math.min(maxDelayMillis, initialDelayMillis << Math.min(attempt - 1, 20));
+            delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        }
+        long budget = Math.max(budgetMillis, maxAttempts * attemptTimeoutMillis);
+        return elapsedMillis + delay + attemptTimeoutMillis > budget ? -1 : delay;
+    }
+
+    private static long retryAfterMillis(Response response) {
+        String retryAfter = response == null ? null : response.header("Retry-After");
+        if (StringUtils.isBlank(retryAfter)) {
+            return -1;
+        }
+        if (StringUtils.isNumeric(retryAfter.trim())) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        }
+        Date date = HttpDate.parse(retryAfter);
+        return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,143 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded registry of sessions, with least recently used and idle eviction.
+ * <p/>
+ * When the registry is full, the least recently used session is evicted to make room for a new one.
+ * Sessions that were not used for longer than the idle timeout are evicted when accessing the registry.
+ * An evicted session is given to the eviction callback (to release its resources) but can still be used
+ * by callers holding a reference to it, it just won't be shared anymore.
+ *
+ * @param <K> The type of the keys identifying a session
+ * @param <S> The type of the sessions
+ */
+public class SessionRegistry<K, S> {
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final Consumer<? super S> onEviction;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<S>> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxSize     The maximum number of sessions kept
+     * @param idleTimeout How long a session is kept without being used
+     * @param timeUnit    The unit of the idle timeout
+     * @param onEviction  Called with each session removed from the registry
+     */
+    public SessionRegistry(int maxSize, long idleTimeout, TimeUnit timeUnit, Consumer<? super S> onEviction) {
+        this(maxSize, idleTimeout, timeUnit, onEviction, System::nanoTime);
+    }
+
+    SessionRegistry(int maxSize, long idleTimeout, TimeUnit timeUnit, Consumer<? super S> onEviction, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Registry must accept at least one session");
+        }
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = timeUnit.toNanos(idleTimeout);
+        this.onEviction = onEviction;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the session for the given key, creating it if none exists (or if it was evicted)
+     *
+     * @param key     The key of the session
+     * @param factory Creates the session if needed
+     * @return The session for this key
+     */
+    public S getOrCreate(K key, Function<? super K, ? extends S> factory) {
+        List<S> evicted = new ArrayList<>();
+        S session;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            collectIdle(now, evicted);
+            Entry<S> entry = sessions.get(key);
+            if (entry == null) {
+                entry = new Entry<>(factory.apply(key));
+                sessions.put(key, entry);
+                collectOverflow(evicted);
+            }
+            entry.lastAccess = now;
+            session = entry.session;
+        }
+        evicted.forEach(onEviction);
+        return session;
+    }
+
+    /**
+     * Mark the session of the given key as used, so it isn't considered idle
+     *
+     * @param key The key of the session
+     */
+    public synchronized void touch(K key) {
+        Entry<S> entry = sessions.get(key);
+        if (entry != null) {
+            entry.lastAccess = nanoClock.getAsLong();
+        }
+    }
+
+    /**
+     * Evict the sessions that were not used for longer than the idle timeout
+     */
+    public void evictIdle() {
+        List<S> evicted = new ArrayList<>();
+        synchronized (this) {
+            collectIdle(nanoClock.getAsLong(), evicted);
+        }
+        evicted.forEach(onEviction);
+    }
+
+    /**
+     * Evict all the sessions
+     */
+    public void clear() {
+        List<S> evicted = new ArrayList<>();
+        synchronized (this) {
+            sessions.values().forEach(e -> evicted.add(e.session));
+            sessions.clear();
+        }
+        evicted.forEach(onEviction);
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private void collectIdle(long now, List<S> evicted) {
+        Iterator<Entry<S>> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Entry<S> entry = it.next();
+            if (now - entry.lastAccess > idleTimeoutNanos) {
+                evicted.add(entry.session);
+                it.remove();
+            }
+        }
+    }
+
+    private void collectOverflow(List<S> evicted) {
+        Iterator<Map.Entry<K, Entry<S>>> it = sessions.entrySet().iterator();
+        while (sessions.size() > maxSize && it.hasNext()) {
+            evicted.add(it.next().getValue().session);
+            it.remove();
+        }
+    }
+
+    private static class Entry<S> {
+        private final S session;
+        private long lastAccess;
+
+        private Entry(S session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces concurrent loads of the same key into a single execution ("single-flight")
+ * and keeps the successful results for a short amount of time.
+ * <p/>
+ * Callers asking for a key that is currently being loaded wait for the running load and get the same result
+ * (or the same exception). Exceptions are never cached, and neither are values loaded before the last
+ * {@link #invalidateAll()}.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the loaded values
+ */
+public class SingleFlightCache<K, V> {
+    /**
+     * Number of entries above which expired entries are purged when adding a new one
+     */
+    private static final int PURGE_THRESHOLD = 256;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final Predicate<V> cacheable;
+    private final LongSupplier nanoClock;
+    // bumped by each invalidation, so that the loads started before it don't store their results
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param ttl       How long a loaded value is kept. 0 to only coalesce concurrent loads.
+     * @param timeUnit  The unit of the ttl
+     * @param cacheable Whether a loaded value can be kept in the cache
+     */
+    public SingleFlightCache(long ttl, TimeUnit timeUnit, Predicate<V> cacheable) {
+        this(ttl, timeUnit, cacheable, System::nanoTime);
+    }
+
+    SingleFlightCache(long ttl, TimeUnit timeUnit, Predicate<V> cacheable, LongSupplier nanoClock) {
+        this.ttlNanos = Math.max(0, timeUnit.toNanos(ttl));
+        this.cacheable = cacheable;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the value for the given key, either from the cache, from a load currently running in another thread
+     * or by running the given loader.
+     *
+     * @param key    The key of the value
+     * @param loader The loader to run if no value is available for the key
+     * @return The loaded value
+     * @throws IOException If the loader failed (in this thread or in the one running the shared load)
+     */
+    public V get(K key, Loader<V> loader) throws IOException {
+        if (ttlNanos > 0) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - nanoClock.getAsLong() > 0) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key, entry);
+            }
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        try {
+            V value = loader.load();
+            if (ttlNanos > 0 && cacheable.test(value) && generation.get() == loadGeneration) {
+                if (entries.size() > PURGE_THRESHOLD) {
+                    purgeExpired();
+                }
+                Entry<V> entry = new Entry<>(value, nanoClock.getAsLong() + ttlNanos);
+                entries.put(key, entry);
+                // an invalidation between the check and the put must still remove the value
+                if (generation.get() != loadGeneration) {
+                    entries.remove(key, entry);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (IOException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Remove all the cached values. Loads that are currently running still answer their callers, but their
+     * results are not cached and later calls don't wait for them.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        inFlight.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return The number of calls answered from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of calls that ran the loader
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of calls that waited for a load started by another thread
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private void purgeExpired() {
+        long now = nanoClock.getAsLong();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt - now <= 0);
+    }
+
+    private V await(CompletableFuture<V> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a shared call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws IOException;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.SpanKind;
+import com.castsoftware.aip.console.tools.core.tracing.Tracer;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Creates a client span for each attempt of a call, and propagates it to AIP Console with the W3C
+ * {@value #TRACEPARENT_HEADER} header. Does nothing when tracing is disabled.
+ */
+public class TracingInterceptor implements Interceptor {
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Tracer tracer = Tracing.tracer();
+        if (!tracer.isEnabled()) {
+            return chain.proceed(request);
+        }
+        String route = EndpointTemplate.of(request.url().encodedPath());
+        try (Span span = tracer.startSpan(request.method() + " " + route, SpanKind.CLIENT)) {
+            span.setAttribute("http.request.method", request.method())
+                    .setAttribute("http.route", route)
+                    .setAttribute("server.address", request.url().host())
+                    .setAttribute("server.port", request.url().port());
+            try {
+                Response response = chain.proceed(request.newBuilder()
+                        .header(TRACEPARENT_HEADER, span.getTraceparent())
+                        .build());
+                span.setAttribute("http.response.status_code", response.code());
+                if (response.code() >= 500) {
+                    span.setError(response.message());
+                }
+                return response;
+            } catch (IOException e) {
+                span.recordException(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.castsoftware.aip.console.tools.core.logs;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogContentDto;
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogLine;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import lombok.extern.java.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Relays the lines of the remote job logs to an output, from a background thread.
+ * <p/>
+ * The polling thread only filters the lines and puts them in a ring buffer, so the poll cadence doesn't depend
+ * on the volume of logs. The relay thread takes all the buffered lines at once and gives them to the output
+ * as a single batch. When the buffer is full, the oldest lines are dropped.
+ * Lines without a level (like stack traces) have the level of the previous line, the pattern is matched against
+ * every line.
+ */
+@Log
+public class JobLogRelay implements Consumer<LogContentDto>, AutoCloseable {
+    public static final String LINES_METER = "aip.jobs.log.lines";
+    private static final Pattern LEVEL_PATTERN = Pattern.compile("\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|SEVERE|FATAL)\\b");
+    private static final int LEVEL_SEARCH_LENGTH = 64;
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final LogRelayPolicy policy;
+    private final Consumer<List<String>> output;
+    private final LongSupplier nanoClock;
+    private final String[] ring;
+    private final Thread relayThread;
+
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // ring buffer, guarded by this
+    private int head;
+    private int size;
+    private boolean closed;
+
+    // filtering state, only used by the polling thread
+    private boolean previousLevelKept = true;
+    private long seenLines;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param policy Which lines are relayed
+     * @param output Receives the batches of lines, from the relay thread
+     */
+    public JobLogRelay(LogRelayPolicy policy, Consumer<List<String>> output) {
+        this(policy, output, UnaryOperator.identity());
+    }
+
+    /**
+     * @param policy        Which lines are relayed
+     * @param output        Receives the batches of lines, from the relay thread
+     * @param threadContext Wraps the relay loop, to give the relay thread the context the output needs (e.g. the
+     *                      session of the polling thread), since threads don't inherit it
+     */
+    public JobLogRelay(LogRelayPolicy policy, Consumer<List<String>> output, UnaryOperator<Runnable> threadContext) {
+        this(policy, output, threadContext, System::nanoTime);
+    }
+
+    JobLogRelay(LogRelayPolicy policy, Consumer<List<String>> output, LongSupplier nanoClock) {
+        this(policy, output, UnaryOperator.identity(), nanoClock);
+    }
+
+    private JobLogRelay(LogRelayPolicy policy, Consumer<List<String>> output, UnaryOperator<Runnable> threadContext, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.output = output;
+        this.nanoClock = nanoClock;
+        this.ring = new String[policy.getCapacity()];
+        this.tokens = policy.getMaxLinesPerSecond();
+        this.lastRefill = nanoClock.getAsLong();
+        this.relayThread = new Thread(threadContext.apply(this::relayLoop), "aip-job-log-relay");
+        this.relayThread.setDaemon(true);
+        this.relayThread.start();
+    }
+
+    @Override
+    public void accept(LogContentDto logContent) {
+        if (logContent == null || logContent.getLines() == null) {
+            return;
+        }
+        List<String> kept = new ArrayList<>(logContent.getLines().size());
+        for (LogLine line : logContent.getLines()) {
+            String content = line.getContent();
+            if (content != null && isKept(content)) {
+                kept.add(content);
+            }
+        }
+        if (!kept.isEmpty()) {
+            enqueue(kept);
+        }
+    }
+
+    /**
+     * Relays the remaining lines and stops the relay thread
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            relayThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long notRelayed = filtered.get() + sampled.get() + rateLimited.get() + dropped.get();
+        if (notRelayed > 0) {
+            log.info(String.format("%d remote log lines were not shown (filtered: %d, sampled: %d, rate limited: %d, dropped: %d)",
+                    notRelayed, filtered.get(), sampled.get(), rateLimited.get(), dropped.get()));
+        }
+        Metrics.registry().counter(LINES_METER, "outcome", "relayed").increment(relayed.get());
+        Metrics.registry().counter(LINES_METER, "outcome", "filtered").increment(filtered.get());
+        Metrics.registry().counter(LINES_METER, "outcome", "sampled").increment(sampled.get());
+        Metrics.registry().counter(LINES_METER, "outcome", "rate_limited").increment(rateLimited.get());
+        Metrics.registry().counter(LINES_METER, "outcome", "dropped").increment(dropped.get());
+    }
+
+    public long getRelayedCount() {
+        return relayed.get();
+    }
+
+    public long getFilteredCount() {
+        return filtered.get();
+    }
+
+    public long getSampledCount() {
+        return sampled.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    /**
+     * @return The number of lines lost because the output couldn't keep up
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private boolean isKept(String line) {
+        boolean matches = isLevelKept(line) && (policy.getFilter() == null || policy.getFilter().matcher(line).find());
+        if (!matches) {
+            filtered.incrementAndGet();
+            return false;
+        }
+        if (seenLines++ % policy.getSampleEvery() != 0) {
+            sampled.incrementAndGet();
+            return false;
+        }
+        if (policy.getMaxLinesPerSecond() > 0 && !tryAcquire()) {
+            rateLimited.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A line without level continues the previous one (e.g. a stack trace), so it has the level of that line
+     */
+    private boolean isLevelKept(String line) {
+        if (policy.getMinLevel() == null) {
+            return true;
+        }
+        Level level = findLevel(line);
+        if (level != null) {
+            previousLevelKept = level.intValue() >= policy.getMinLevel().intValue();
+        }
+        return previousLevelKept;
+    }
+
+    private boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        int rate = policy.getMaxLinesPerSecond();
+        tokens = Math.min(rate, tokens + (now - lastRefill) * rate / (double) TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private Level findLevel(String line) {
+        Matcher matcher = LEVEL_PATTERN.matcher(line);
+        matcher.region(0, Math.min(line.length(), LEVEL_SEARCH_LENGTH));
+        return matcher.find() ? LogRelayPolicy.parseLevel(matcher.group(1)) : null;
+    }
+
+    private synchronized void enqueue(List<String> lines) {
+        for (String line : lines) {
+            if (size == ring.length) {
+                // overwrite the oldest line
+                head = (head + 1) % ring.length;
+                size--;
+                dropped.incrementAndGet();
+            }
+            ring[(head + size) % ring.length] = line;
+            size++;
+        }
+        notifyAll();
+    }
+
+    private void relayLoop() {
+        while (true) {
+            List<String> batch;
+            synchronized (this) {
+                while (size == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (size == 0) {
+                    return;
+                }
+                batch = new ArrayList<>(size);
+                for (; size > 0; size--) {
+                    batch.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                }
+            }
+            try {
+                output.accept(batch);
+                relayed.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Unable to relay the job logs", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.castsoftware.aip.console.tools.core.logs;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which lines of the remote job logs are relayed to the output, and how many.
+ * <p/>
+ * Lines are first filtered by level (as found at the start of the line) and by pattern, then sampled
+ * and finally rate limited. The relay buffers at most {@code capacity} lines, the oldest ones are dropped
+ * when the output can't keep up.
+ */
+public class LogRelayPolicy {
+    private static final int DEFAULT_CAPACITY = 10000;
+
+    private final Level minLevel;
+    private final Pattern filter;
+    private final int sampleEvery;
+    private final int maxLinesPerSecond;
+    private final int capacity;
+
+    /**
+     * @param minLevel          Lines with a lower level are not relayed. Null to relay all levels
+     * @param filter            Only lines containing a match are relayed. Null to relay all lines
+     * @param sampleEvery       Relay one line out of this number of lines. 1 to relay all lines
+     * @param maxLinesPerSecond Maximum number of lines relayed per second. 0 for no limit
+     * @param capacity          Number of lines buffered while waiting for the output
+     */
+    public LogRelayPolicy(Level minLevel, Pattern filter, int sampleEvery, int maxLinesPerSecond, int capacity) {
+        if (sampleEvery < 1 || maxLinesPerSecond < 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid log relay settings");
+        }
+        this.minLevel = minLevel;
+        this.filter = filter;
+        this.sampleEvery = sampleEvery;
+        this.maxLinesPerSecond = maxLinesPerSecond;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return The policy relaying all the lines
+     */
+    public static LogRelayPolicy defaultPolicy() {
+        return new LogRelayPolicy(null, null, 1, 0, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param level A level as written in logs (ERROR, WARN, INFO, DEBUG, TRACE) or a java.util.logging level
+     * @return The matching java.util.logging level, null if blank
+     */
+    public static Level parseLevel(String level) {
+        if (StringUtils.isBlank(level)) {
+            return null;
+        }
+        switch (level.trim().toUpperCase(Locale.ROOT)) {
+            case "FATAL":
+            case "ERROR":
+                return Level.SEVERE;
+            case "WARN":
+                return Level.WARNING;
+            case "DEBUG":
+                return Level.FINE;
+            case "TRACE":
+                return Level.FINEST;
+            default:
+                return Level.parse(level.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public Level getMinLevel() {
+        return minLevel;
+    }
+
+    public Pattern getFilter() {
+        return filter;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public int getMaxLinesPerSecond() {
+        return maxLinesPerSecond;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
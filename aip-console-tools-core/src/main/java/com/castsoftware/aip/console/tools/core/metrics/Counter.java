@@ -0,0 +1,14 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+/**
+ * Monotonically increasing count of events
+ */
+public interface Counter extends Meter {
+    default void increment() {
+        increment(1);
+    }
+
+    void increment(long amount);
+
+    long count();
+}
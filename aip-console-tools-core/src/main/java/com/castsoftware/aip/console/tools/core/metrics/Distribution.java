@@ -0,0 +1,87 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free distribution of positive values, used by timers and histograms.
+ * <p/>
+ * Values are counted in log-linear buckets (4 buckets per power of 2), so percentiles are approximated
+ * to the upper bound of their bucket, within 25% of the actual value.
+ */
+final class Distribution {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -20;
+    private static final int MAX_EXPONENT = 70;
+    private static final long MANTISSA_MASK = 0x000FFFFFFFFFFFFFL;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder total = new DoubleAdder();
+    private final AtomicLong maxBits = new AtomicLong(Double.doubleToLongBits(0));
+
+    void record(double value) {
+        buckets.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        long current = maxBits.get();
+        while (value > Double.longBitsToDouble(current) && !maxBits.compareAndSet(current, Double.doubleToLongBits(value))) {
+            current = maxBits.get();
+        }
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    double total() {
+        return total.sum();
+    }
+
+    double max() {
+        return Double.longBitsToDouble(maxBits.get());
+    }
+
+    double percentile(double percentile) {
+        long nbValues = count();
+        if (nbValues == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * nbValues));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static int index(double value) {
+        if (!(value > 0)) {
+            return 0;
+        }
+        int exponent = Math.getExponent(value);
+        if (exponent < MIN_EXPONENT) {
+            return 1;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+        }
+        int subBucket = (int) ((Double.doubleToRawLongBits(value) & MANTISSA_MASK) >>> (52 - SUB_BUCKET_BITS));
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static double upperBound(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        int exponent = (index - 1) / SUB_BUCKETS + MIN_EXPONENT;
+        int subBucket = (index - 1) % SUB_BUCKETS;
+        return Math.scalb(1.0 + (subBucket + 1) / (double) SUB_BUCKETS, exponent);
+    }
+}
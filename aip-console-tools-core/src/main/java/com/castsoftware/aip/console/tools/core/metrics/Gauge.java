@@ -0,0 +1,8 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+/**
+ * Current value of something, read when exporting the metrics
+ */
+public interface Gauge extends Meter {
+    double value();
+}
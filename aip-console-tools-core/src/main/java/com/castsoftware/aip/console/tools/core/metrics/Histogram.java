@@ -0,0 +1,20 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+/**
+ * Distribution of recorded values (sizes, rates, etc.)
+ */
+public interface Histogram extends Meter {
+    void record(double value);
+
+    long count();
+
+    double total();
+
+    double max();
+
+    /**
+     * @param percentile Between 0 and 1
+     * @return The approximate value below which the given percentage of the recorded values fall
+     */
+    double percentile(double percentile);
+}
@@ -0,0 +1,64 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the meters as a JSON array, one object per meter. Durations are in milliseconds.
+ */
+public class JsonMetricsExporter implements MetricsExporter {
+    private final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Override
+    public void export(Collection<Meter> meters, Writer writer) throws IOException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Meter meter : MetricsExporter.sorted(meters)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("name", meter.getId().getName());
+            json.put("tags", meter.getId().getTags());
+            if (meter instanceof Counter) {
+                json.put("type", "counter");
+                json.put("count", ((Counter) meter).count());
+            } else if (meter instanceof Timer) {
+                Timer timer = (Timer) meter;
+                json.put("type", "timer");
+                json.put("count", timer.count());
+                json.put("totalMs", timer.totalTime(TimeUnit.MILLISECONDS));
+                json.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+                json.put("p50Ms", timer.percentile(0.5, TimeUnit.MILLISECONDS));
+                json.put("p95Ms", timer.percentile(0.95, TimeUnit.MILLISECONDS));
+                json.put("p99Ms", timer.percentile(0.99, TimeUnit.MILLISECONDS));
+            } else if (meter instanceof Histogram) {
+                Histogram histogram = (Histogram) meter;
+                json.put("type", "histogram");
+                json.put("count", histogram.count());
+                json.put("total", histogram.total());
+                json.put("max", histogram.max());
+                json.put("p50", histogram.percentile(0.5));
+                json.put("p95", histogram.percentile(0.95));
+                json.put("p99", histogram.percentile(0.99));
+            } else if (meter instanceof Gauge) {
+                double value = ((Gauge) meter).value();
+                json.put("type", "gauge");
+                json.put("value", Double.isNaN(value) ? null : value);
+            } else {
+                continue;
+            }
+            result.add(json);
+        }
+        mapper.writeValue(writer, result);
+        writer.flush();
+    }
+}
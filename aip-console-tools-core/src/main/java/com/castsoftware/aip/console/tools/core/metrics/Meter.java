@@ -0,0 +1,8 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+/**
+ * Base of all the meters
+ */
+public interface Meter {
+    MeterId getId();
+}
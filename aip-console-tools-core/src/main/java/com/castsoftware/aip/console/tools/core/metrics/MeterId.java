@@ -0,0 +1,60 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Name and tags identifying a meter. Tags are sorted by key.
+ */
+public final class MeterId {
+    private final String name;
+    private final Map<String, String> tags;
+
+    /**
+     * @param name The name of the meter, dot separated (e.g. {@code aip.http.client.requests})
+     * @param tags Keys and values of the tags, alternated
+     */
+    public MeterId(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be given as key and value pairs");
+        }
+        this.name = name;
+        Map<String, String> sortedTags = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            sortedTags.put(tags[i], tags[i + 1] == null ? "none" : tags[i + 1]);
+        }
+        this.tags = Collections.unmodifiableMap(sortedTags);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MeterId)) {
+            return false;
+        }
+        MeterId meterId = (MeterId) o;
+        return name.equals(meterId.name) && tags.equals(meterId.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, tags);
+    }
+
+    @Override
+    public String toString() {
+        return name + tags;
+    }
+}
@@ -0,0 +1,31 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Creates and keeps the meters. Getting a meter with the same name and tags twice returns the same meter.
+ * <p/>
+ * Tags are given as alternated keys and values.
+ */
+public interface MeterRegistry {
+    /**
+     * @return false if meters do nothing, in which case callers can skip computing expensive tags
+     */
+    boolean isEnabled();
+
+    Counter counter(String name, String... tags);
+
+    Timer timer(String name, String... tags);
+
+    Histogram histogram(String name, String... tags);
+
+    /**
+     * Register a gauge. The supplier is kept until the gauge is removed.
+     */
+    void gauge(String name, Supplier<? extends Number> value, String... tags);
+
+    void remove(String name, String... tags);
+
+    Collection<Meter> getMeters();
+}
@@ -0,0 +1,36 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+/**
+ * Global access to the registry used by the services.
+ * <p/>
+ * Metrics are disabled by default : the registry is a {@link NoopMeterRegistry} until another one is set.
+ */
+public final class Metrics {
+    private static volatile MeterRegistry registry = NoopMeterRegistry.INSTANCE;
+
+    private Metrics() {
+    }
+
+    public static MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * @param meterRegistry The registry to use, or null to disable the metrics
+     */
+    public static void setRegistry(MeterRegistry meterRegistry) {
+        registry = meterRegistry == null ? NoopMeterRegistry.INSTANCE : meterRegistry;
+    }
+
+    /**
+     * Start recording the metrics in a new {@link SimpleMeterRegistry}, unless metrics are already enabled
+     *
+     * @return The registry in use
+     */
+    public static synchronized MeterRegistry enable() {
+        if (!registry.isEnabled()) {
+            registry = new SimpleMeterRegistry();
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,56 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the current values of meters in a given format
+ */
+public interface MetricsExporter {
+    Comparator<Meter> METER_ORDER = Comparator.<Meter, String>comparing(m -> m.getId().getName())
+            .thenComparing(m -> m.getId().getTags().toString());
+
+    void export(Collection<Meter> meters, Writer writer) throws IOException;
+
+    /**
+     * Export the meters to the given file, replacing it if it exists
+     */
+    default void export(Collection<Meter> meters, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            export(meters, writer);
+        }
+    }
+
+    /**
+     * @param format {@code json} or {@code prometheus}
+     * @return The exporter for the given format
+     */
+    static MetricsExporter forFormat(String format) {
+        switch (format == null ? "" : format.toLowerCase(Locale.ROOT)) {
+            case "json":
+                return new JsonMetricsExporter();
+            case "prometheus":
+                return new PrometheusTextExporter();
+            default:
+                throw new IllegalArgumentException("Unknown metrics format '" + format + "', expected json or prometheus");
+        }
+    }
+
+    static List<Meter> sorted(Collection<Meter> meters) {
+        List<Meter> result = new ArrayList<>(meters);
+        result.sort(METER_ORDER);
+        return result;
+    }
+}
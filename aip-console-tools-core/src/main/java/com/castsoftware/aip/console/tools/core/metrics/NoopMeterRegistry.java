@@ -0,0 +1,111 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registry used when metrics are disabled. Meters are shared and do nothing.
+ */
+public final class NoopMeterRegistry implements MeterRegistry {
+    public static final NoopMeterRegistry INSTANCE = new NoopMeterRegistry();
+
+    private static final MeterId NOOP_ID = new MeterId("noop");
+    private static final NoopMeter NOOP_METER = new NoopMeter();
+
+    private NoopMeterRegistry() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        return NOOP_METER;
+    }
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        return NOOP_METER;
+    }
+
+    @Override
+    public Histogram histogram(String name, String... tags) {
+        return NOOP_METER;
+    }
+
+    @Override
+    public void gauge(String name, Supplier<? extends Number> value, String... tags) {
+        // nothing to keep
+    }
+
+    @Override
+    public void remove(String name, String... tags) {
+        // nothing was kept
+    }
+
+    @Override
+    public Collection<Meter> getMeters() {
+        return Collections.emptyList();
+    }
+
+    private static final class NoopMeter implements Counter, Timer, Histogram {
+        @Override
+        public MeterId getId() {
+            return NOOP_ID;
+        }
+
+        @Override
+        public void increment(long amount) {
+            // disabled
+        }
+
+        @Override
+        public void record(long duration, TimeUnit unit) {
+            // disabled
+        }
+
+        @Override
+        public void record(double value) {
+            // disabled
+        }
+
+        @Override
+        public long count() {
+            return 0;
+        }
+
+        @Override
+        public double total() {
+            return 0;
+        }
+
+        @Override
+        public double max() {
+            return 0;
+        }
+
+        @Override
+        public double percentile(double percentile) {
+            return 0;
+        }
+
+        @Override
+        public double totalTime(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public double max(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public double percentile(double percentile, TimeUnit unit) {
+            return 0;
+        }
+    }
+}
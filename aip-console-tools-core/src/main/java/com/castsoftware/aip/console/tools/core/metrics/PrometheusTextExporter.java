@@ -0,0 +1,102 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the meters in the Prometheus text exposition format (version 0.0.4).
+ * <p/>
+ * Counters get the {@code _total} suffix, timers are exported in seconds as summaries with their max as a gauge,
+ * histograms as summaries.
+ */
+public class PrometheusTextExporter implements MetricsExporter {
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    @Override
+    public void export(Collection<Meter> meters, Writer writer) throws IOException {
+        Set<String> declared = new HashSet<>();
+        for (Meter meter : MetricsExporter.sorted(meters)) {
+            String name = sanitize(meter.getId().getName());
+            Map<String, String> tags = meter.getId().getTags();
+            if (meter instanceof Counter) {
+                typeLine(writer, declared, name + "_total", "counter");
+                sample(writer, name + "_total", tags, null, ((Counter) meter).count());
+            } else if (meter instanceof Timer) {
+                Timer timer = (Timer) meter;
+                String base = name + "_seconds";
+                typeLine(writer, declared, base, "summary");
+                for (double quantile : QUANTILES) {
+                    sample(writer, base, tags, quantile, timer.percentile(quantile, TimeUnit.SECONDS));
+                }
+                sample(writer, base + "_count", tags, null, timer.count());
+                sample(writer, base + "_sum", tags, null, timer.totalTime(TimeUnit.SECONDS));
+                typeLine(writer, declared, base + "_max", "gauge");
+                sample(writer, base + "_max", tags, null, timer.max(TimeUnit.SECONDS));
+            } else if (meter instanceof Histogram) {
+                Histogram histogram = (Histogram) meter;
+                typeLine(writer, declared, name, "summary");
+                for (double quantile : QUANTILES) {
+                    sample(writer, name, tags, quantile, histogram.percentile(quantile));
+                }
+                sample(writer, name + "_count", tags, null, histogram.count());
+                sample(writer, name + "_sum", tags, null, histogram.total());
+                typeLine(writer, declared, name + "_max", "gauge");
+                sample(writer, name + "_max", tags, null, histogram.max());
+            } else if (meter instanceof Gauge) {
+                typeLine(writer, declared, name, "gauge");
+                sample(writer, name, tags, null, ((Gauge) meter).value());
+            }
+        }
+        writer.flush();
+    }
+
+    private static void typeLine(Writer writer, Set<String> declared, String name, String type) throws IOException {
+        if (declared.add(name)) {
+            writer.write("# TYPE " + name + " " + type + "\n");
+        }
+    }
+
+    private static void sample(Writer writer, String name, Map<String, String> tags, Double quantile, double value) throws IOException {
+        StringBuilder line = new StringBuilder(name);
+        if (!tags.isEmpty() || quantile != null) {
+            line.append('{');
+            String separator = "";
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                line.append(separator).append(sanitize(tag.getKey())).append("=\"").append(escape(tag.getValue())).append('"');
+                separator = ",";
+            }
+            if (quantile != null) {
+                line.append(separator).append("quantile=\"").append(quantile).append('"');
+            }
+            line.append('}');
+        }
+        line.append(' ').append(format(value)).append('\n');
+        writer.write(line.toString());
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
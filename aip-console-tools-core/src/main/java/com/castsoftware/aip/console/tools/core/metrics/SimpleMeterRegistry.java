@@ -0,0 +1,191 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry keeping all the meters in memory, until they are exported.
+ */
+public class SimpleMeterRegistry implements MeterRegistry {
+    private final ConcurrentMap<MeterId, Meter> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        return getOrCreate(new MeterId(name, tags), SimpleCounter::new, Counter.class);
+    }
+
+    @Override
+    public Timer timer(String name, String... tags) {
+        return getOrCreate(new MeterId(name, tags), SimpleTimer::new, Timer.class);
+    }
+
+    @Override
+    public Histogram histogram(String name, String... tags) {
+        return getOrCreate(new MeterId(name, tags), SimpleHistogram::new, Histogram.class);
+    }
+
+    @Override
+    public void gauge(String name, Supplier<? extends Number> value, String... tags) {
+        MeterId id = new MeterId(name, tags);
+        meters.put(id, new SimpleGauge(id, value));
+    }
+
+    @Override
+    public void remove(String name, String... tags) {
+        meters.remove(new MeterId(name, tags));
+    }
+
+    @Override
+    public Collection<Meter> getMeters() {
+        return new ArrayList<>(meters.values());
+    }
+
+    private <M extends Meter> M getOrCreate(MeterId id, Function<MeterId, M> factory, Class<M> type) {
+        Meter meter = meters.get(id);
+        if (meter == null) {
+            meter = meters.computeIfAbsent(id, factory);
+        }
+        if (!type.isInstance(meter)) {
+            throw new IllegalArgumentException("Meter " + id + " is already registered as a " + meter.getClass().getSimpleName());
+        }
+        return type.cast(meter);
+    }
+
+    private static final class SimpleCounter implements Counter {
+        private final MeterId id;
+        private final LongAdder count = new LongAdder();
+
+        private SimpleCounter(MeterId id) {
+            this.id = id;
+        }
+
+        @Override
+        public MeterId getId() {
+            return id;
+        }
+
+        @Override
+        public void increment(long amount) {
+            count.add(amount);
+        }
+
+        @Override
+        public long count() {
+            return count.sum();
+        }
+    }
+
+    private static final class SimpleTimer implements Timer {
+        private final MeterId id;
+        private final Distribution distribution = new Distribution();
+
+        private SimpleTimer(MeterId id) {
+            this.id = id;
+        }
+
+        @Override
+        public MeterId getId() {
+            return id;
+        }
+
+        @Override
+        public void record(long duration, TimeUnit unit) {
+            distribution.record(unit.toNanos(duration));
+        }
+
+        @Override
+        public long count() {
+            return distribution.count();
+        }
+
+        @Override
+        public double totalTime(TimeUnit unit) {
+            return fromNanos(distribution.total(), unit);
+        }
+
+        @Override
+        public double max(TimeUnit unit) {
+            return fromNanos(distribution.max(), unit);
+        }
+
+        @Override
+        public double percentile(double percentile, TimeUnit unit) {
+            return fromNanos(distribution.percentile(percentile), unit);
+        }
+
+        private static double fromNanos(double nanos, TimeUnit unit) {
+            return nanos / unit.toNanos(1);
+        }
+    }
+
+    private static final class SimpleHistogram implements Histogram {
+        private final MeterId id;
+        private final Distribution distribution = new Distribution();
+
+        private SimpleHistogram(MeterId id) {
+            this.id = id;
+        }
+
+        @Override
+        public MeterId getId() {
+            return id;
+        }
+
+        @Override
+        public void record(double value) {
+            distribution.record(value);
+        }
+
+        @Override
+        public long count() {
+            return distribution.count();
+        }
+
+        @Override
+        public double total() {
+            return distribution.total();
+        }
+
+        @Override
+        public double max() {
+            return distribution.max();
+        }
+
+        @Override
+        public double percentile(double percentile) {
+            return distribution.percentile(percentile);
+        }
+    }
+
+    private static final class SimpleGauge implements Gauge {
+        private final MeterId id;
+        private final Supplier<? extends Number> value;
+
+        private SimpleGauge(MeterId id, Supplier<? extends Number> value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        @Override
+        public MeterId getId() {
+            return id;
+        }
+
+        @Override
+        public double value() {
+            Number number = value.get();
+            return number == null ? Double.NaN : number.doubleValue();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of durations
+ */
+public interface Timer extends Meter {
+    void record(long duration, TimeUnit unit);
+
+    long count();
+
+    double totalTime(TimeUnit unit);
+
+    double max(TimeUnit unit);
+
+    /**
+     * @param percentile Between 0 and 1
+     * @param unit       The unit of the returned duration
+     * @return The approximate duration below which the given percentage of the recorded durations fall
+     */
+    double percentile(double percentile, TimeUnit unit);
+}
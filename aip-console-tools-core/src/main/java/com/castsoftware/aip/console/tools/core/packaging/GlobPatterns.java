@@ -0,0 +1,122 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Glob patterns selecting files by their path relative to a folder, with '/' as separator whatever the platform.
+ * <p/>
+ * {@code *} matches any part of a file or folder name, {@code **} any number of folders and {@code ?} a single
+ * character. A pattern matching a folder also matches its whole content.
+ * A pattern without '/' (other than a trailing one) matches files or folders at any depth (e.g. {@code *.log} or
+ * {@code node_modules/}), others are matched against the whole relative path (e.g. {@code src/test} or
+ * {@code /build}).
+ */
+public final class GlobPatterns {
+    private final List<Pattern> pathPatterns;
+    private final List<Pattern> namePatterns;
+
+    private GlobPatterns(Collection<String> patterns) {
+        this.pathPatterns = new ArrayList<>();
+        this.namePatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            String stripped = StringUtils.stripEnd(pattern, "/");
+            if (stripped.isEmpty()) {
+                continue;
+            }
+            if (!stripped.contains("/")) {
+                namePatterns.add(Pattern.compile(toRegex(stripped)));
+            } else {
+                pathPatterns.add(Pattern.compile(toRegex(StringUtils.stripStart(stripped, "/")) + "(?:/.*)?"));
+            }
+        }
+    }
+
+    /**
+     * @param patterns The patterns, separated by commas (as the exclusion patterns of a delivery configuration)
+     * @return The trimmed patterns, in their original order and without duplicates
+     */
+    public static Set<String> parse(String patterns) {
+        if (StringUtils.isBlank(patterns)) {
+            return Collections.emptySet();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String pattern : patterns.split(",")) {
+            if (StringUtils.isNotBlank(pattern)) {
+                parsed.add(pattern.trim());
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * @param patterns The glob patterns
+     * @return The patterns, compiled to be matched against relative paths
+     */
+    public static GlobPatterns compile(Collection<String> patterns) {
+        return new GlobPatterns(patterns);
+    }
+
+    public boolean isEmpty() {
+        return pathPatterns.isEmpty() && namePatterns.isEmpty();
+    }
+
+    /**
+     * @param relativePath A path relative to the folder, with '/' as separator
+     * @return True if any of the patterns matches the path
+     */
+    public boolean matches(String relativePath) {
+        for (Pattern pattern : pathPatterns) {
+            if (pattern.matcher(relativePath).matches()) {
+                return true;
+            }
+        }
+        if (namePatterns.isEmpty()) {
+            return false;
+        }
+        for (String element : relativePath.split("/")) {
+            for (Pattern pattern : namePatterns) {
+                if (pattern.matcher(element).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            // "**/" also matches no folder at all
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+}
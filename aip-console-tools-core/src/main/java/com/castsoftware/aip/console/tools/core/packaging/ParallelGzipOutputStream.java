@@ -0,0 +1,186 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the gzip compressed form of its content, compressing blocks of the content on several threads.
+ * <p/>
+ * As in pigz, each block is compressed on its own with the end of the previous block as dictionary, then the blocks
+ * are written in order : the result is a single standard gzip member, readable by any gzip decompressor, and always
+ * the same for the same content.
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0,
+            // no modification time, so that the output only depends on the content
+            0, 0, 0, 0,
+            0,
+            // unknown operating system
+            (byte) 0xff};
+
+    private final ExecutorService executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private byte[] block;
+    private int blockLength;
+    private byte[] dictionary;
+    private long totalLength;
+    private boolean closed;
+
+    /**
+     * @param out       The stream receiving the compressed content
+     * @param executor  The threads compressing the blocks, owned by the caller
+     * @param threads   The number of threads of the executor, which bounds the number of blocks held in memory
+     * @param level     The compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * @param blockSize The size of the compressed blocks
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int threads, int level, int blockSize) throws IOException {
+        super(out);
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = 2 * Math.max(1, threads);
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int copied = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, copied);
+            blockLength += copied;
+            off += copied;
+            len -= copied;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Blocks can only be written once complete, flushing only writes the blocks already compressed
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            out.write(await(pendingBlocks.removeFirst()));
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pendingBlocks.isEmpty()) {
+                out.write(await(pendingBlocks.removeFirst()));
+            }
+            writeInt((int) crc.getValue());
+            writeInt((int) totalLength);
+            out.flush();
+        } finally {
+            pendingBlocks.forEach(f -> f.cancel(true));
+            out.close();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] content = block;
+        int length = blockLength;
+        byte[] blockDictionary = dictionary;
+        crc.update(content, 0, length);
+        totalLength += length;
+        if (!last) {
+            dictionary = Arrays.copyOfRange(content, length - Math.min(length, DICTIONARY_SIZE), length);
+            block = new byte[blockSize];
+            blockLength = 0;
+        }
+        pendingBlocks.addLast(executor.submit(() -> deflate(content, length, blockDictionary, last)));
+        // the compressed blocks are written in order, as soon as the compression is not ahead too much
+        while (pendingBlocks.size() >= maxPendingBlocks || !pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+            out.write(await(pendingBlocks.removeFirst()));
+        }
+    }
+
+    private byte[] deflate(byte[] content, int length, byte[] blockDictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (blockDictionary != null) {
+                deflater.setDictionary(blockDictionary);
+            }
+            deflater.setInput(content, 0, length);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // ends on a byte boundary without ending the stream, so that the next block can follow
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, written);
+                } while (written == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to compress the content", e.getCause());
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        // little endian, as all gzip fields
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
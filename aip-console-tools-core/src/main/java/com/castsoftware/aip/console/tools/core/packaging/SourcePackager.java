@@ -0,0 +1,198 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import lombok.extern.java.Log;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Packages the files of a folder selected by glob patterns (see {@link GlobPatterns}) into a tar.gz archive, without
+ * writing the archive anywhere : it is either written to a stream or read from a stream as it is built.
+ * <p/>
+ * The archive is compressed on several threads and only depends on the selected files (their names, modification
+ * times and content). Packaging the same folder twice gives the same archive, so its size can be computed before it
+ * is streamed, e.g. to an upload expecting its size first.
+ */
+@Log
+public class SourcePackager {
+    public static final String EXTENSION = "tar.gz";
+    private static final int PIPE_SIZE = 1024 * 1024;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Path folder;
+    private final GlobPatterns inclusions;
+    private final GlobPatterns exclusions;
+    private final int threads;
+
+    /**
+     * @param folder            The folder to package
+     * @param inclusionPatterns The files to package, all the files of the folder if empty
+     * @param exclusionPatterns The files left out of the package, even if they are included
+     * @param threads           The number of threads compressing the archive
+     */
+    public SourcePackager(Path folder, Collection<String> inclusionPatterns, Collection<String> exclusionPatterns, int threads) {
+        this.folder = folder;
+        this.inclusions = GlobPatterns.compile(inclusionPatterns);
+        this.exclusions = GlobPatterns.compile(exclusionPatterns);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @return The paths of the packaged files relative to the folder, with '/' as separator, in the order they are packaged
+     */
+    public List<String> listFiles() throws IOException {
+        List<String> files = new ArrayList<>();
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                // excluded folders are not even visited
+                return dir.equals(folder) || !exclusions.matches(relativePath(dir)) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String relativePath = relativePath(file);
+                if (attrs.isRegularFile() && (inclusions.isEmpty() || inclusions.matches(relativePath)) && !exclusions.matches(relativePath)) {
+                    files.add(relativePath);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Writes the archive to the given stream, which is not closed
+     *
+     * @return The size of the archive
+     */
+    public long writeTo(OutputStream outputStream) throws IOException {
+        List<String> files = listFiles();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "source-packager-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CountingOutputStream counter = new CountingOutputStream(new CloseShieldOutputStream(outputStream));
+            try (OutputStream gzip = new ParallelGzipOutputStream(counter, executor, threads, Deflater.DEFAULT_COMPRESSION, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE)) {
+                TarWriter tar = new TarWriter(gzip);
+                for (String file : files) {
+                    Path path = folder.resolve(file);
+                    try (InputStream content = Files.newInputStream(path)) {
+                        tar.writeFile(file, Files.size(path), Files.getLastModifiedTime(path).toMillis(), content);
+                    }
+                }
+                tar.finish();
+            }
+            log.fine("Packaged " + files.size() + " files of " + folder + " in " + counter.getByteCount() + " bytes");
+            return counter.getByteCount();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Packages the folder without keeping the archive
+     *
+     * @return The size of the archive
+     */
+    public long computeSize() throws IOException {
+        return writeTo(NullOutputStream.NULL_OUTPUT_STREAM);
+    }
+
+    /**
+     * Packages the folder on a separate thread while the archive is read. Packaging errors are thrown by the reads,
+     * closing the stream before the end stops the packaging (the writer fails on its next write).
+     *
+     * @return The content of the archive
+     */
+    public InputStream openStream() throws IOException {
+        PipedInputStream input = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream output = new PipedOutputStream(input);
+        PackagingStream stream = new PackagingStream(input);
+        Thread writer = new Thread(() -> {
+            OutputStream bufferedOutput = new BufferedOutputStream(output, PIPE_SIZE / 4);
+            try {
+                writeTo(bufferedOutput);
+                bufferedOutput.close();
+            } catch (IOException | RuntimeException e) {
+                // set before closing the pipe, so that the reader gets the error instead of the end of the archive
+                stream.failure = e;
+                IOUtils.closeQuietly(output);
+            }
+        }, "source-packager-writer-" + THREAD_COUNT.incrementAndGet());
+        writer.setDaemon(true);
+        writer.start();
+        return new BufferedInputStream(stream);
+    }
+
+    private String relativePath(Path path) {
+        return folder.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * The reading end of {@link #openStream()}, reporting the packaging errors
+     */
+    private static class PackagingStream extends FilterInputStream {
+        private volatile Exception failure;
+
+        private PackagingStream(PipedInputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int read = super.read();
+                return read < 0 ? checkFailure(read) : read;
+            } catch (IOException e) {
+                checkFailure(-1);
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int read = super.read(b, off, len);
+                return read < 0 ? checkFailure(read) : read;
+            } catch (IOException e) {
+                checkFailure(-1);
+                throw e;
+            }
+        }
+
+        private int checkFailure(int read) throws IOException {
+            Exception e = failure;
+            if (e != null) {
+                throw new IOException("Unable to package the sources", e);
+            }
+            return read;
+        }
+    }
+}
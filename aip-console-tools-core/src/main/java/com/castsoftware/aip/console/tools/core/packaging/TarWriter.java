@@ -0,0 +1,117 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes files in the ustar format, with the GNU extension for names longer than 100 bytes.
+ * <p/>
+ * Only regular files are written, with fixed owner and permissions : the archive only depends on the names, the
+ * modification times and the content of the files.
+ */
+class TarWriter {
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final String LONG_NAME = "././@LongLink";
+    private static final byte REGULAR_FILE = '0';
+    private static final byte GNU_LONG_NAME = 'L';
+    // largest size written as 11 octal digits, larger ones are written in base 256 (GNU extension)
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[64 * 1024];
+
+    TarWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * @param name         The path of the file in the archive, with '/' as separator
+     * @param size         The size of the file
+     * @param modifiedTime The modification time of the file, in milliseconds
+     * @param content      The content of the file, of the given size
+     */
+    void writeFile(String name, long size, long modifiedTime, InputStream content) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > NAME_LENGTH) {
+            byte[] longName = Arrays.copyOf(nameBytes, nameBytes.length + 1);
+            writeHeader(Arrays.copyOf(LONG_NAME.getBytes(StandardCharsets.US_ASCII), NAME_LENGTH), longName.length, 0, GNU_LONG_NAME);
+            out.write(longName);
+            pad(longName.length);
+            nameBytes = Arrays.copyOf(nameBytes, NAME_LENGTH);
+        }
+        writeHeader(nameBytes, size, modifiedTime / 1000, REGULAR_FILE);
+
+        long remaining = size;
+        while (remaining > 0) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("The file " + name + " is shorter than expected, was it modified while it was archived ?");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        pad(size);
+    }
+
+    /**
+     * Writes the end of the archive
+     */
+    void finish() throws IOException {
+        out.write(new byte[2 * BLOCK_SIZE]);
+    }
+
+    private void writeHeader(byte[] name, long size, long modifiedSeconds, byte type) throws IOException {
+        byte[] header = new byte[BLOCK_SIZE];
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        writeOctal(header, 100, 8, 0644);
+        writeOctal(header, 108, 8, 0);
+        writeOctal(header, 116, 8, 0);
+        if (size <= MAX_OCTAL_SIZE) {
+            writeOctal(header, 124, 12, size);
+        } else {
+            header[124] = (byte) 0x80;
+            for (int i = 0; i < 8; i++) {
+                header[135 - i] = (byte) (size >>> (8 * i));
+            }
+        }
+        writeOctal(header, 136, 12, Math.max(0, modifiedSeconds));
+        header[156] = type;
+        System.arraycopy("ustar".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 5);
+        header[263] = '0';
+        header[264] = '0';
+
+        // the checksum is computed with its own field filled with spaces
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        writeOctal(header, 148, 7, checksum);
+        header[155] = ' ';
+        out.write(header);
+    }
+
+    /**
+     * Writes the value as octal digits followed by a NUL, padded with zeros
+     */
+    private static void writeOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        int digits = length - 1;
+        for (int i = 0; i < digits; i++) {
+            int index = octal.length() - digits + i;
+            header[offset + i] = index < 0 ? (byte) '0' : (byte) octal.charAt(index);
+        }
+        header[offset + digits] = 0;
+    }
+
+    private void pad(long size) throws IOException {
+        int remainder = (int) (size % BLOCK_SIZE);
+        if (remainder != 0) {
+            out.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+}
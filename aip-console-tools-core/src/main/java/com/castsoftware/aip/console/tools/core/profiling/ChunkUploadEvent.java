@@ -0,0 +1,27 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ChunkUploadEvent.NAME)
+@Label("AIP Console Chunk Upload")
+@Category({"AIP Console", "Upload"})
+@Description("Upload of a chunk of a file to AIP Console")
+class ChunkUploadEvent extends jdk.jfr.Event implements ProfiledSection {
+    static final String NAME = "com.castsoftware.aip.ChunkUpload";
+
+    @Label("Upload GUID")
+    String uploadGuid;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
@@ -0,0 +1,30 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(HttpCallEvent.NAME)
+@Label("AIP Console HTTP Call")
+@Category({"AIP Console", "HTTP"})
+@Description("An attempt of a call to AIP Console")
+public class HttpCallEvent extends jdk.jfr.Event implements ProfiledSection {
+    public static final String NAME = "com.castsoftware.aip.HttpCall";
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    @Description("The endpoint template, without identifiers")
+    public String uri;
+
+    @Label("Status")
+    @Description("The response code, or IO_ERROR if no response was received")
+    public String status;
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
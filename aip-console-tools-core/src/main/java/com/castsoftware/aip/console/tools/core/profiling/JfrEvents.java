@@ -0,0 +1,40 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates the JFR events. Only loaded when the JFR API is available.
+ */
+final class JfrEvents {
+    static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = Collections.unmodifiableList(Arrays.asList(
+            HttpCallEvent.class, ChunkUploadEvent.class, JsonParseEvent.class, JobPollEvent.class));
+
+    private JfrEvents() {
+    }
+
+    static ProfiledSection chunkUpload(String uploadGuid, long bytes) {
+        ChunkUploadEvent event = new ChunkUploadEvent();
+        event.uploadGuid = uploadGuid;
+        event.bytes = bytes;
+        event.begin();
+        return event;
+    }
+
+    static ProfiledSection jsonParse(String type, long bytes) {
+        JsonParseEvent event = new JsonParseEvent();
+        event.type = type;
+        event.bytes = bytes;
+        event.begin();
+        return event;
+    }
+
+    static ProfiledSection jobPoll(String jobGuid, int iteration) {
+        JobPollEvent event = new JobPollEvent();
+        event.jobGuid = jobGuid;
+        event.iteration = iteration;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,25 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(JobPollEvent.NAME)
+@Label("AIP Console Job Poll")
+@Category({"AIP Console", "Jobs"})
+@Description("Poll of the status of a job running on AIP Console")
+class JobPollEvent extends jdk.jfr.Event implements ProfiledSection {
+    static final String NAME = "com.castsoftware.aip.JobPoll";
+
+    @Label("Job GUID")
+    String jobGuid;
+
+    @Label("Iteration")
+    int iteration;
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
@@ -0,0 +1,28 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(JsonParseEvent.NAME)
+@Label("AIP Console JSON Parse")
+@Category({"AIP Console", "JSON"})
+@Description("Parsing of a JSON response from AIP Console")
+class JsonParseEvent extends jdk.jfr.Event implements ProfiledSection {
+    static final String NAME = "com.castsoftware.aip.JsonParse";
+
+    @Label("Type")
+    String type;
+
+    @Label("Size")
+    @Description("The size of the JSON content, -1 if unknown")
+    @DataAmount
+    long bytes;
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
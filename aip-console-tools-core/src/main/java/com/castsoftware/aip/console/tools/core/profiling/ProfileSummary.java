@@ -0,0 +1,174 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Where the CPU time and allocations of a recording went, and how long the client spent in HTTP calls,
+ * chunk uploads, JSON parsing and job polls.
+ */
+public class ProfileSummary {
+    static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    static final String ALLOCATION_IN_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+    private static final int TOP_ENTRIES = 10;
+
+    private final Map<String, Long> cpuSamplesByMethod = new HashMap<>();
+    private final Map<String, Long> allocatedBytesByClass = new HashMap<>();
+    private final Map<String, EventStats> clientEvents = new HashMap<>();
+    private long cpuSamples;
+    private long allocatedBytes;
+
+    /**
+     * @param file A JFR recording
+     * @return The summary of the recording
+     */
+    public static ProfileSummary read(Path file) throws IOException {
+        ProfileSummary summary = new ProfileSummary();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                summary.add(recording.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    private void add(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        switch (type) {
+            case EXECUTION_SAMPLE:
+                cpuSamples++;
+                cpuSamplesByMethod.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                break;
+            case ALLOCATION_IN_TLAB:
+                addAllocation(event, event.getLong("tlabSize"));
+                break;
+            case ALLOCATION_OUTSIDE_TLAB:
+                addAllocation(event, event.getLong("allocationSize"));
+                break;
+            case HttpCallEvent.NAME:
+                addClientEvent("HTTP " + event.getString("method") + " " + event.getString("uri"), event);
+                break;
+            case ChunkUploadEvent.NAME:
+                addClientEvent("Chunk upload", event);
+                break;
+            case JsonParseEvent.NAME:
+                addClientEvent("JSON parse " + event.getString("type"), event);
+                break;
+            case JobPollEvent.NAME:
+                addClientEvent("Job poll", event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addAllocation(RecordedEvent event, long bytes) {
+        RecordedClass objectClass = event.getClass("objectClass");
+        allocatedBytes += bytes;
+        allocatedBytesByClass.merge(objectClass == null ? "unknown" : objectClass.getName(), bytes, Long::sum);
+    }
+
+    private void addClientEvent(String name, RecordedEvent event) {
+        clientEvents.computeIfAbsent(name, n -> new EventStats()).add(event.getDuration().toNanos());
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    public long getCpuSamples() {
+        return cpuSamples;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return Count and durations of the client events, by event and endpoint
+     */
+    public Map<String, EventStats> getClientEvents() {
+        return clientEvents;
+    }
+
+    /**
+     * @return A readable summary, with the methods using the most CPU, the classes allocating the most memory and
+     * the time spent in each kind of client event
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("CPU samples : %d%n", cpuSamples));
+        for (Map.Entry<String, Long> entry : top(cpuSamplesByMethod)) {
+            text.append(String.format("  %5.1f%%  %s%n", percent(entry.getValue(), cpuSamples), entry.getKey()));
+        }
+        text.append(String.format("Allocations : %d KB sampled%n", allocatedBytes / 1024));
+        for (Map.Entry<String, Long> entry : top(allocatedBytesByClass)) {
+            text.append(String.format("  %5.1f%%  %s%n", percent(entry.getValue(), allocatedBytes), entry.getKey()));
+        }
+        text.append(String.format("%-60s %8s %12s %12s%n", "Client events :", "count", "total (ms)", "max (ms)"));
+        List<Map.Entry<String, EventStats>> events = clientEvents.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, EventStats> e) -> e.getValue().getTotalNanos()).reversed())
+                .collect(Collectors.toList());
+        for (Map.Entry<String, EventStats> entry : events) {
+            EventStats stats = entry.getValue();
+            text.append(String.format("  %-58s %8d %12d %12d%n", entry.getKey(), stats.getCount(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos()), TimeUnit.NANOSECONDS.toMillis(stats.getMaxNanos())));
+        }
+        return text.toString();
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> values) {
+        return values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ENTRIES)
+                .collect(Collectors.toList());
+    }
+
+    private static double percent(long value, long total) {
+        return total == 0 ? 0 : value * 100.0 / total;
+    }
+
+    /**
+     * Count and durations of an event
+     */
+    public static class EventStats {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+/**
+ * A section of code measured by a profiling event, which is committed when the section is closed
+ */
+public interface ProfiledSection extends AutoCloseable {
+    ProfiledSection NOOP = () -> {
+    };
+
+    @Override
+    void close();
+}
@@ -0,0 +1,65 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * In-process JFR recording of a run, with CPU sampling, allocation profiling and the client events.
+ * <p/>
+ * Must only be used when {@link Profiling#isAvailable()}.
+ */
+public class Profiler {
+    /**
+     * The JDK settings used for the recording, sampling the CPU every 20 ms and recording allocations
+     */
+    private static final String JDK_CONFIGURATION = "profile";
+
+    private final Recording recording;
+
+    private Profiler(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Starts a recording
+     *
+     * @throws IOException If the JDK settings can't be read
+     */
+    public static Profiler start() throws IOException {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(JDK_CONFIGURATION);
+        } catch (ParseException e) {
+            throw new IOException("Unable to read the JFR settings " + JDK_CONFIGURATION, e);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName("aip-console-tools");
+        for (Class<? extends Event> eventType : JfrEvents.EVENT_TYPES) {
+            recording.enable(eventType).withThreshold(Duration.ZERO);
+        }
+        recording.start();
+        return new Profiler(recording);
+    }
+
+    /**
+     * Stops the recording and writes it to the given file
+     *
+     * @param file The .jfr file to write
+     * @return The summary of the recording
+     */
+    public ProfileSummary stop(Path file) throws IOException {
+        try {
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            recording.close();
+        }
+        return ProfileSummary.read(file);
+    }
+}
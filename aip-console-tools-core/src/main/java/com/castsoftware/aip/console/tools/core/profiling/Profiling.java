@@ -0,0 +1,60 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import lombok.extern.java.Log;
+
+import java.util.logging.Level;
+
+/**
+ * Global access to the JDK Flight Recorder events emitted on the client hot paths.
+ * <p/>
+ * The events are only created when the JFR API is available (JDK 8u262 and later), and only recorded while a
+ * recording is running (see {@link Profiler}). Otherwise the sections returned here do nothing.
+ */
+@Log
+public final class Profiling {
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private Profiling() {
+    }
+
+    /**
+     * @return Whether this JVM provides the JFR API
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * @param uploadGuid The upload the chunk is sent to
+     * @param bytes      The size of the chunk
+     */
+    public static ProfiledSection chunkUpload(String uploadGuid, long bytes) {
+        return AVAILABLE ? JfrEvents.chunkUpload(uploadGuid, bytes) : ProfiledSection.NOOP;
+    }
+
+    /**
+     * @param type  The type read from the JSON content
+     * @param bytes The size of the JSON content, -1 if unknown
+     */
+    public static ProfiledSection jsonParse(String type, long bytes) {
+        return AVAILABLE ? JfrEvents.jsonParse(type, bytes) : ProfiledSection.NOOP;
+    }
+
+    /**
+     * @param jobGuid   The job which status is polled
+     * @param iteration The number of the poll, starting at 1
+     */
+    public static ProfiledSection jobPoll(String jobGuid, int iteration) {
+        return AVAILABLE ? JfrEvents.jobPoll(jobGuid, iteration) : ProfiledSection.NOOP;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Profiling.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.log(Level.FINE, "JFR API is not available, profiling events are disabled", e);
+            return false;
+        }
+    }
+}
@@ -10,12 +10,14 @@ import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApplicationServiceException;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
+import com.castsoftware.aip.console.tools.core.packaging.GlobPatterns;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.java.Log;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -23,8 +25,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 
-import static java.util.stream.Collectors.toSet;
-
 @Log
 public class ApplicationServiceImpl implements ApplicationService {
 
@@ -38,14 +38,19 @@ public class ApplicationServiceImpl implements ApplicationService {
 
     @Override
     public String getApplicationGuidFromName(String applicationName) throws ApplicationServiceException {
-        return getApplications()
-                .getApplications()
-                .stream()
-                .filter(Objects::nonNull)
-                .filter(a -> StringUtils.equalsAnyIgnoreCase(applicationName, a.getName()))
-                .findFirst()
-                .map(ApplicationDto::getGuid)
-                .orElse(null);
+        try (Span span = Tracing.tracer().startSpan("ApplicationService.getApplicationGuidFromName")) {
+            span.setAttribute("aip.application.name", applicationName);
+            String applicationGuid = getApplications()
+                    .getApplications()
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .filter(a -> StringUtils.equalsAnyIgnoreCase(applicationName, a.getName()))
+                    .findFirst()
+                    .map(ApplicationDto::getGuid)
+                    .orElse(null);
+            span.setAttribute("aip.application.guid", applicationGuid);
+            return applicationGuid;
+        }
     }
 
     @Override
@@ -139,7 +144,8 @@ public class ApplicationServiceImpl implements ApplicationService {
 
     @Override
     public String createDeliveryConfiguration(String appGuid, String exclusionPatterns) throws ApiCallException {
-        Set<String> patterns = Arrays.stream(exclusionPatterns.split(",")).collect(toSet());
+        // same parsing as the packaging of the sources, so that both leave out the same files
+        Set<String> patterns = GlobPatterns.parse(exclusionPatterns);
         DeliveryConfigurationDto deliveryConfigurationDto = DeliveryConfigurationDto.builder()
                 .ignorePatterns(patterns)
                 .packages(new HashSet())
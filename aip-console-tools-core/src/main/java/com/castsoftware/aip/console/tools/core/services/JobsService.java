@@ -5,10 +5,13 @@ import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.LogContentDto;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
+import com.castsoftware.aip.console.tools.core.http.RateLimiter;
+import com.castsoftware.aip.console.tools.core.logs.LogRelayPolicy;
 
 import java.util.Date;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public interface JobsService {
     /**
@@ -67,6 +70,43 @@ public interface JobsService {
      */
     String startJob(JobRequestBuilder jobRequestBuilder) throws JobServiceException;
 
+    /**
+     * Asks AIP Console to cancel a job, without waiting for it to be canceled
+     *
+     * @param jobGuid The job GUID
+     * @throws JobServiceException If AIP Console didn't accept the request
+     */
+    void cancelJob(String jobGuid) throws JobServiceException;
+
+    /**
+     * Gets the current status of a job, without waiting for it to finish. The calling thread waits for a slot of the
+     * poll limiter first
+     *
+     * @param jobGuid The job GUID
+     * @return The status of the job and its current step
+     * @throws JobServiceException If the status couldn't be retrieved from AIP Console
+     */
+    JobStatusWithSteps getJobStatus(String jobGuid) throws JobServiceException;
+
+    /**
+     * Gets the current status of a job, without waiting for it to finish
+     *
+     * @param jobGuid      The job GUID
+     * @param slotReserved True if the caller already got its slot with {@link #reservePollSlot()} and waited for it,
+     *                     false to wait for a slot of the poll limiter from the calling thread
+     * @return The status of the job and its current step
+     * @throws JobServiceException If the status couldn't be retrieved from AIP Console
+     */
+    JobStatusWithSteps getJobStatus(String jobGuid, boolean slotReserved) throws JobServiceException;
+
+    /**
+     * Reserve the slot of the next poll without waiting for it, for callers which must not block their thread (e.g.
+     * a shared timer). The status is then got with {@link #getJobStatus(String, boolean)} once the delay has elapsed
+     *
+     * @return How long to wait before polling, in milliseconds
+     */
+    long reservePollSlot();
+
     /**
      * Polls AIP Console to get the status of the job with the given GUID.
      *
@@ -106,4 +146,28 @@ public interface JobsService {
     //<R> R pollAndWaitForJobFinished(String jobGuid, Consumer<JobStatusWithSteps> stepChangedCallback, Function<JobStatusWithSteps, R> completionCallback) throws JobServiceException;
 
     <R> R pollAndWaitForJobFinished(String jobGuid, Consumer<JobStatusWithSteps> stepChangedCallback, Consumer<LogContentDto> pollingCallback, Function<JobStatusWithSteps, R> completionCallback) throws JobServiceException;
+
+    /**
+     * Set which lines of the job logs are given to the polling callbacks. The lines are relayed from a background
+     * thread, in batches, so the polling doesn't wait for the logs output.
+     *
+     * @param logRelayPolicy The filtering, sampling and rate limiting of the job logs
+     */
+    void setLogRelayPolicy(LogRelayPolicy logRelayPolicy);
+
+    /**
+     * Set the limiter that each poll of a job status goes through, shared with other services to cap the polls
+     * sent to AIP Console
+     *
+     * @param pollRateLimiter The limiter, null to poll without limit
+     */
+    void setPollRateLimiter(RateLimiter pollRateLimiter);
+
+    /**
+     * Set what the threads started while polling a job get from the polling thread, besides the session and the
+     * span (e.g. where the output of a CLI daemon request goes), since threads don't inherit it
+     *
+     * @param threadContext Wraps the tasks of those threads, null for nothing more
+     */
+    void setThreadContext(UnaryOperator<Runnable> threadContext);
 }
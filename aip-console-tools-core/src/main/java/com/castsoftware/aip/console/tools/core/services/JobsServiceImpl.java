@@ -10,12 +10,27 @@ import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatus;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobStatusWithSteps;
 import com.castsoftware.aip.console.tools.core.dto.jobs.JobType;
 import com.castsoftware.aip.console.tools.core.dto.jobs.LogContentDto;
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogLine;
 import com.castsoftware.aip.console.tools.core.dto.jobs.LogsDto;
 import com.castsoftware.aip.console.tools.core.dto.jobs.SuccessfulJobStartDto;
+import com.castsoftware.aip.console.tools.core.events.Events;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.JobServiceException;
+import com.castsoftware.aip.console.tools.core.http.RateLimiter;
+import com.castsoftware.aip.console.tools.core.logs.JobLogRelay;
+import com.castsoftware.aip.console.tools.core.logs.LogRelayPolicy;
+import com.castsoftware.aip.console.tools.core.metrics.MeterRegistry;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.profiling.ProfiledSection;
+import com.castsoftware.aip.console.tools.core.profiling.Profiling;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracer;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.castsoftware.aip.console.tools.core.watchdog.StepMonitor;
+import com.castsoftware.aip.console.tools.core.watchdog.Watchdog;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.extern.java.Log;
 import org.apache.commons.lang3.StringUtils;
@@ -24,16 +39,26 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 @Log
 public class JobsServiceImpl implements JobsService {
     private static final long POLL_SLEEP_DURATION = TimeUnit.SECONDS.toMillis(10);
+    private static final String POLLS_METER = "aip.jobs.polls";
+    private static final String STEP_DURATION_METER = "aip.jobs.step.duration";
+    /**
+     * The step followed by the watchdog while the job waits for an executor
+     */
+    private static final String QUEUE_STEP = "queued";
 
     private final RestApiService restApiService;
 
@@ -41,6 +66,12 @@ public class JobsServiceImpl implements JobsService {
 
     private ApiInfoDto apiInfoDto;
 
+    private volatile LogRelayPolicy logRelayPolicy = LogRelayPolicy.defaultPolicy();
+
+    private volatile RateLimiter pollRateLimiter;
+
+    private volatile UnaryOperator<Runnable> threadContext = UnaryOperator.identity();
+
     public JobsServiceImpl(RestApiService restApiService) {
         this.restApiService = restApiService;
         this.pollingSleepDuration = POLL_SLEEP_DURATION;
@@ -51,6 +82,21 @@ public class JobsServiceImpl implements JobsService {
         this.pollingSleepDuration = pollingSleepDuration;
     }
 
+    @Override
+    public void setLogRelayPolicy(LogRelayPolicy logRelayPolicy) {
+        this.logRelayPolicy = logRelayPolicy == null ? LogRelayPolicy.defaultPolicy() : logRelayPolicy;
+    }
+
+    @Override
+    public void setPollRateLimiter(RateLimiter pollRateLimiter) {
+        this.pollRateLimiter = pollRateLimiter;
+    }
+
+    @Override
+    public void setThreadContext(UnaryOperator<Runnable> threadContext) {
+        this.threadContext = threadContext == null ? UnaryOperator.identity() : threadContext;
+    }
+
     @Override
     public String startCreateApplication(String applicationName) throws JobServiceException {
         if (StringUtils.isBlank(applicationName)) {
@@ -125,6 +171,20 @@ public class JobsServiceImpl implements JobsService {
     @Override
     public String startJob(JobRequestBuilder jobRequestBuilder) throws JobServiceException {
         CreateJobsRequest jobRequest = jobRequestBuilder.buildJobRequest();
+        try (Span span = Tracing.tracer().startSpan("JobsService.startJob")) {
+            span.setAttribute("aip.job.type", String.valueOf(jobRequest.getJobType()));
+            try {
+                String jobGuid = startJob(jobRequest);
+                span.setAttribute("aip.job.guid", jobGuid);
+                return jobGuid;
+            } catch (JobServiceException e) {
+                span.recordException(e);
+                throw e;
+            }
+        }
+    }
+
+    private String startJob(CreateJobsRequest jobRequest) throws JobServiceException {
         ApiInfoDto apiInfoDto = getApiInfoDto();
 
         try {
@@ -148,6 +208,7 @@ public class JobsServiceImpl implements JobsService {
                 }
             }
             log.info("Successfully started Job");
+            Events.emit(Events.JOB_STARTED, "jobGuid", dto.getJobGuid(), "jobType", jobRequest.getJobType());
             return dto.getJobGuid();
         } catch (ApiCallException e) {
             log.log(Level.SEVERE, "Error starting Job with type " + jobRequest.getJobType(), e);
@@ -155,6 +216,42 @@ public class JobsServiceImpl implements JobsService {
         }
     }
 
+    @Override
+    public void cancelJob(String jobGuid) throws JobServiceException {
+        try {
+            ChangeJobStateRequest cancelRequest = new ChangeJobStateRequest();
+            cancelRequest.setState(JobState.CANCELED);
+            restApiService.putForEntity(ApiEndpointHelper.getJobDetailsEndpoint(jobGuid), cancelRequest, String.class);
+            log.info("Canceled job " + jobGuid);
+        } catch (ApiCallException e) {
+            throw new JobServiceException("Unable to cancel job " + jobGuid, e);
+        }
+    }
+
+    @Override
+    public JobStatusWithSteps getJobStatus(String jobGuid) throws JobServiceException {
+        return getJobStatus(jobGuid, false);
+    }
+
+    @Override
+    public JobStatusWithSteps getJobStatus(String jobGuid, boolean slotReserved) throws JobServiceException {
+        try {
+            if (!slotReserved) {
+                waitForPollSlot();
+            }
+            // Force login to keep session alive (jobs endpoint doesn't refresh session status)
+            restApiService.login();
+            JobStatusWithSteps jobStatus = restApiService.getForEntity(ApiEndpointHelper.getJobDetailsEndpoint(jobGuid), JobStatusWithSteps.class);
+            Metrics.registry().counter(POLLS_METER).increment();
+            return jobStatus;
+        } catch (ApiCallException e) {
+            throw new JobServiceException("Unable to get the status of job " + jobGuid, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobServiceException("Interrupted while waiting to get the status of job " + jobGuid, e);
+        }
+    }
+
     @Override
     public JobState pollAndWaitForJobFinished(String jobGuid) throws JobServiceException {
         return pollAndWaitForJobFinished(jobGuid, JobStatus::getState);
@@ -164,7 +261,7 @@ public class JobsServiceImpl implements JobsService {
     public <R> R pollAndWaitForJobFinished(String jobGuid, Function<JobStatusWithSteps, R> callback) throws JobServiceException {
         return pollAndWaitForJobFinished(jobGuid,
                 jobStep -> log.info("Current step is : " + jobStep.getProgressStep()),
-                jobContentDto -> printLog(jobContentDto),
+                this::printLog,
                 callback);
     }
 
@@ -174,45 +271,119 @@ public class JobsServiceImpl implements JobsService {
 
         String jobDetailsEndpoint = ApiEndpointHelper.getJobDetailsEndpoint(jobGuid);
         String previousStep = "";
+        long stepStart = System.nanoTime();
+        MeterRegistry registry = Metrics.registry();
+        Tracer tracer = Tracing.tracer();
+        Span stepSpan = Span.NOOP;
+        StepMonitor stepMonitor = null;
+        boolean completed = false;
         log.fine("Checking status of Job with GUID " + jobGuid);
-        try {
-            JobStatusWithSteps jobStatus;
-            String logName = null;
-            int startOffset = 0;
-            while (true) {
-                // Force login to keep session alive (jobs endpoint doesn't refresh session status)
-                restApiService.login();
-                jobStatus = restApiService.getForEntity(jobDetailsEndpoint, JobStatusWithSteps.class);
-                String currentStep = jobStatus.getProgressStep();
-
-                if (currentStep != null && !currentStep.equalsIgnoreCase(previousStep)) {
-                    previousStep = currentStep;
-                    if (stepChangedCallback != null) {
-                        stepChangedCallback.accept(jobStatus);
+        try (Span span = tracer.startSpan("JobsService.pollAndWaitForJobFinished");
+             // the callback runs in the relay thread, with the session, the span and the context of this one
+             JobLogRelay logRelay = new JobLogRelay(logRelayPolicy, lines -> pollingCallback.accept(toLogContent(lines)),
+                     task -> restApiService.withCurrentSession(tracer.withCurrentSpan(threadContext.apply(task))))) {
+            span.setAttribute("aip.job.guid", jobGuid);
+            try {
+                JobStatusWithSteps jobStatus;
+                String logName = null;
+                int startOffset = 0;
+                int pollIteration = 0;
+                while (true) {
+                    waitForPollSlot();
+                    // Force login to keep session alive (jobs endpoint doesn't refresh session status)
+                    try (ProfiledSection ignored = Profiling.jobPoll(jobGuid, ++pollIteration)) {
+                        restApiService.login();
+                        jobStatus = restApiService.getForEntity(jobDetailsEndpoint, JobStatusWithSteps.class);
                     }
-                    logName = getLogName(jobGuid, currentStep);
-                    startOffset = 0;
-                }
+                    registry.counter(POLLS_METER).increment();
+                    JobTimingRecorder.recordPoll(jobStatus.getState() == JobState.STARTING);
+                    String currentStep = jobStatus.getProgressStep();
 
-                if (!StringUtils.isAnyBlank(logName, currentStep)) {
-                    LogContentDto logContent = restApiService.getForEntity("/api/jobs/" + jobGuid + "/steps/" + currentStep + "/logs/" + logName + "?nbLines=3000&startOffset=" + startOffset, LogContentDto.class);
-                    pollingCallback.accept(logContent);
-                    startOffset = startOffset + logContent.getNbLines();
-                }
+                    if (currentStep != null && !currentStep.equalsIgnoreCase(previousStep)) {
+                        stepStart = recordStepDuration(registry, previousStep, stepStart);
+                        JobTimingRecorder.recordStep(currentStep);
+                        stepSpan.close();
+                        stepSpan = tracer.startSpan("job step " + currentStep).setAttribute("aip.job.step", currentStep);
+                        previousStep = currentStep;
+                        Events.emit(Events.JOB_STEP, "jobGuid", jobGuid, "step", currentStep, "state", jobStatus.getState());
+                        if (stepChangedCallback != null) {
+                            stepChangedCallback.accept(jobStatus);
+                        }
+                        logName = getLogName(jobGuid, currentStep);
+                        startOffset = 0;
+                    }
 
-                if (jobStatus.getState() != JobState.STARTED && jobStatus.getState() != JobState.STARTING) {
-                    break;
-                }
+                    if (stepMonitor == null) {
+                        // steps durations are compared with the ones of the same application
+                        stepMonitor = Watchdog.current().monitor(StringUtils.defaultIfBlank(jobStatus.getAppGuid(), jobStatus.getJobType()));
+                    }
+                    String monitoredStep = jobStatus.getState() == JobState.STARTING ? QUEUE_STEP : currentStep;
+                    boolean stuck = stepMonitor.poll(monitoredStep);
 
-                Thread.sleep(pollingSleepDuration);
+                    if (!StringUtils.isAnyBlank(logName, currentStep)) {
+                        LogContentDto logContent = restApiService.getForEntity("/api/jobs/" + jobGuid + "/steps/" + currentStep + "/logs/" + logName + "?nbLines=3000&startOffset=" + startOffset, LogContentDto.class);
+                        logRelay.accept(logContent);
+                        startOffset = startOffset + logContent.getNbLines();
+                    }
+
+                    if (jobStatus.getState() != JobState.STARTED && jobStatus.getState() != JobState.STARTING) {
+                        recordStepDuration(registry, previousStep, stepStart);
+                        JobTimingRecorder.recordStepEnd();
+                        span.setAttribute("aip.job.state", String.valueOf(jobStatus.getState()));
+                        Events.emit(Events.JOB_FINISHED, "jobGuid", jobGuid, "state", jobStatus.getState(), "polls", pollIteration);
+                        completed = jobStatus.getState() == JobState.COMPLETED;
+                        break;
+                    }
+
+                    if (stuck) {
+                        span.setError("stuck on step " + monitoredStep);
+                        throw new JobServiceException("Job " + jobGuid + " seems stuck on step " + monitoredStep + ", stopped waiting for it");
+                    }
+
+                    Thread.sleep(pollingSleepDuration);
+                }
+                // all the job logs are shown before the completion
+                logRelay.close();
+                return completionCallback.apply(jobStatus);
+            } catch (InterruptedException | ApiCallException e) {
+                span.recordException(e);
+                log.log(Level.SEVERE, "Error occurred while polling the job status", e);
+                throw new JobServiceException(e);
+            } finally {
+                stepSpan.close();
+                if (stepMonitor != null) {
+                    stepMonitor.finish(completed);
+                }
             }
-            return completionCallback.apply(jobStatus);
-        } catch (InterruptedException | ApiCallException e) {
-            log.log(Level.SEVERE, "Error occurred while polling the job status", e);
-            throw new JobServiceException(e);
         }
     }
 
+    @Override
+    public long reservePollSlot() {
+        RateLimiter limiter = pollRateLimiter;
+        return limiter == null ? 0 : limiter.tryAcquire();
+    }
+
+    private void waitForPollSlot() throws InterruptedException {
+        RateLimiter limiter = pollRateLimiter;
+        if (limiter != null) {
+            limiter.acquire();
+        }
+    }
+
+    /**
+     * Records the duration of the given step (if any) as measured by the polling
+     *
+     * @return The start time of the next step
+     */
+    private static long recordStepDuration(MeterRegistry registry, String step, long stepStart) {
+        long now = System.nanoTime();
+        if (StringUtils.isNotEmpty(step)) {
+            registry.timer(STEP_DURATION_METER, "step", step).record(now - stepStart, TimeUnit.NANOSECONDS);
+        }
+        return now;
+    }
+
     private String getLogName(String jobGuid, String step) throws ApiCallException {
         Set<LogsDto> logs = restApiService.getForEntity("/api/jobs/" + jobGuid + "/steps/" + step + "/logs", new TypeReference<Set<LogsDto>>() {
         });
@@ -220,7 +391,26 @@ public class JobsServiceImpl implements JobsService {
     }
 
     private void printLog(LogContentDto logContent) {
-        logContent.getLines().forEach(logLine -> log.info(logLine.getContent()));
+        // a single record for the whole batch of lines
+        log.info(logContent.getLines().stream()
+                .map(LogLine::getContent)
+                .collect(Collectors.joining(System.lineSeparator())));
+    }
+
+    /**
+     * @return The log content given to the polling callbacks for a batch of relayed lines
+     */
+    private static LogContentDto toLogContent(List<String> lines) {
+        Set<LogLine> logLines = new LinkedHashSet<>(lines.size());
+        for (String line : lines) {
+            LogLine logLine = new LogLine();
+            logLine.setContent(line);
+            logLines.add(logLine);
+        }
+        LogContentDto logContent = new LogContentDto();
+        logContent.setLines(logLines);
+        logContent.setNbLines(logLines.size());
+        return logContent;
     }
 
     private synchronized ApiInfoDto getApiInfoDto() {
@@ -4,18 +4,35 @@ import com.castsoftware.aip.console.tools.core.dto.ApiInfoDto;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.fasterxml.jackson.core.type.TypeReference;
 
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 public interface RestApiService {
     /**
-     * Update the OkHttpClient with the given timeout
+     * Set the timeout of the calls made by the current thread, including the calls after its next login
      *
      * @param timeout  the timeout, between 0 and {@link Integer#MAX_VALUE}
      * @param timeUnit A time unit for the timeout
      */
     void setTimeout(long timeout, TimeUnit timeUnit);
 
+    /**
+     * Wraps a task so that it calls AIP Console with the session and timeout of the current thread, whichever thread
+     * runs it. Threads don't share or inherit sessions otherwise.
+     */
+    default Runnable withCurrentSession(Runnable task) {
+        return task;
+    }
+
+    /**
+     * @see #withCurrentSession(Runnable)
+     */
+    default <V> Callable<V> withCurrentSession(Callable<V> task) {
+        return task;
+    }
+
     /**
      * @param serverUrl
      * @param apiKey
@@ -81,4 +98,33 @@ public interface RestApiService {
      * @throws ApiCallException
      */
     public <T> T exchangeMultipartForEntity(String method, String endpoint, Map<String, Map<String, String>> headers, Map<String, Object> content, Class<T> clazz) throws ApiCallException;
+
+    /**
+     * Downloads the response of a GET call to the given stream, through a fixed-size buffer : the response is never
+     * held in memory, whatever its size. The stream is not closed.
+     *
+     * @param endpoint     The endpoint to call
+     * @param outputStream The stream the response is written to
+     * @param compressed   Whether AIP Console may compress the response (gzip) while it is transferred. It is always
+     *                     written uncompressed to the stream
+     * @return The number of bytes written to the stream
+     * @throws ApiCallException if the call failed or the response couldn't be written to the stream
+     */
+    long downloadToStream(String endpoint, OutputStream outputStream, boolean compressed) throws ApiCallException;
+
+    /**
+     * Downloads the response of a GET call to the given stream, allowing AIP Console to compress it while it is
+     * transferred
+     *
+     * @see #downloadToStream(String, OutputStream, boolean)
+     */
+    default long downloadToStream(String endpoint, OutputStream outputStream) throws ApiCallException {
+        return downloadToStream(endpoint, outputStream, true);
+    }
+
+    /**
+     * Releases the sessions of this service : their pooled connections and cached responses.
+     * The service can still be used afterwards, new sessions are opened by the next logins.
+     */
+    void close();
 }
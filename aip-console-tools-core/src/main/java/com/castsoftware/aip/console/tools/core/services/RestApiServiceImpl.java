@@ -3,6 +3,23 @@ package com.castsoftware.aip.console.tools.core.services;
 import com.castsoftware.aip.console.tools.core.dto.ApiInfoDto;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiKeyMissingException;
+import com.castsoftware.aip.console.tools.core.http.CallNotPermittedException;
+import com.castsoftware.aip.console.tools.core.http.EndpointClass;
+import com.castsoftware.aip.console.tools.core.http.MetricsInterceptor;
+import com.castsoftware.aip.console.tools.core.http.ProfilingInterceptor;
+import com.castsoftware.aip.console.tools.core.http.QueryableCookieJar;
+import com.castsoftware.aip.console.tools.core.http.ResilienceInterceptor;
+import com.castsoftware.aip.console.tools.core.http.RetryInterceptor;
+import com.castsoftware.aip.console.tools.core.http.RetryPolicy;
+import com.castsoftware.aip.console.tools.core.http.SessionRegistry;
+import com.castsoftware.aip.console.tools.core.http.SingleFlightCache;
+import com.castsoftware.aip.console.tools.core.http.TracingInterceptor;
+import com.castsoftware.aip.console.tools.core.metrics.MeterRegistry;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.profiling.ProfiledSection;
+import com.castsoftware.aip.console.tools.core.profiling.Profiling;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -16,10 +33,9 @@ import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.java.Log;
+import okhttp3.ConnectionPool;
 import okhttp3.Cookie;
-import okhttp3.CookieJar;
 import okhttp3.Credentials;
-import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -29,44 +45,67 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import okhttp3.internal.http.HttpMethod;
-import org.apache.commons.io.IOUtils;
+import okio.ByteString;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
+/**
+ * Implementation of the {@link RestApiService} based on OkHttp.
+ * <p/>
+ * This service is safe for concurrent use and can be shared between callers targeting different AIP Console
+ * instances or using different credentials : each (url, username, key) has its own session, with its own cookies,
+ * connection pool and cached responses, as well as its own circuit breakers and bulkheads
+ * (see {@link ResilienceInterceptor}). Transient failures are retried according to {@link RetryPolicy#defaultPolicy()}.
+ * When {@link Metrics} are enabled, each session also publishes its cache, circuit breakers and bulkheads state.
+ * <p/>
+ * Calling {@link #validateUrlAndKey(String, String, String)} binds the session to the current thread only, along with
+ * the timeout set by {@link #setTimeout(long, TimeUnit)} : calls from a thread without a bound session fail.
+ * Tasks given to other threads get the session through {@link #withCurrentSession(Runnable)}.
+ */
 @Log
 public class RestApiServiceImpl implements RestApiService {
     private static final List<Integer> ACCEPTED_HTTP_CODES = Arrays.asList(200, 201, 202, 204);
     private static final String JSON_MEDIA_TYPE = "application/json";
+    /**
+     * How long the result of a GET call is reused by other callers asking for the same endpoint
+     */
+    private static final long GET_CACHE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    /**
+     * Size of the buffer through which downloaded responses are written
+     */
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Maximum number of sessions kept at the same time, the least recently used one is closed above that
+     */
+    private static final int MAX_SESSIONS = 32;
+    /**
+     * How long a session is kept without being used
+     */
+    private static final long SESSION_IDLE_TIMEOUT_MINUTES = 30;
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(Constants.DEFAULT_HTTP_TIMEOUT);
 
-    private OkHttpClient client;
-    private ObjectMapper mapper;
-    private QueryableCookieJar cookieJar;
-    private String serverUrl;
-    private String username;
-    private String key;
+    private final ObjectMapper mapper;
+    private final SessionRegistry<ConnectionSettings, SessionContext> sessions =
+            new SessionRegistry<>(MAX_SESSIONS, SESSION_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES, SessionContext::close);
+    // not inherited : a pooled thread created during a call must not keep the session of that call
+    private final ThreadLocal<CallerContext> callerContext = ThreadLocal.withInitial(CallerContext::new);
 
     public RestApiServiceImpl() {
-        this.cookieJar = new QueryableCookieJar();
-        this.client = new OkHttpClient.Builder()
-                .addInterceptor(getAuthInterceptor())
-                .cookieJar(cookieJar)
-                .connectTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .readTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .writeTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .build();
         this.mapper = new ObjectMapper();
         this.mapper.registerModule(new JavaTimeModule());
         this.mapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
@@ -76,14 +115,6 @@ public class RestApiServiceImpl implements RestApiService {
     }
 
     public RestApiServiceImpl(ObjectMapper preConfiguredMapper) {
-        this.cookieJar = new QueryableCookieJar();
-        this.client = new OkHttpClient.Builder()
-                .addInterceptor(getAuthInterceptor())
-                .cookieJar(cookieJar)
-                .connectTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .readTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .writeTimeout(Constants.DEFAULT_HTTP_TIMEOUT, TimeUnit.SECONDS)
-                .build();
         this.mapper = preConfiguredMapper;
     }
 
@@ -93,16 +124,56 @@ public class RestApiServiceImpl implements RestApiService {
             // negative timeout ? don't update the client
             return;
         }
-        // Get a new builder from initial client and update timeouts
-        this.client = this.client.newBuilder()
-                .connectTimeout(timeout, timeUnit)
-                .readTimeout(timeout, timeUnit)
-                .writeTimeout(timeout, timeUnit)
-                .build();
+        CallerContext context = callerContext.get();
+        context.timeoutMillis = timeUnit.toMillis(timeout);
+        context.pendingTimeoutMillis = context.timeoutMillis;
+    }
+
+    @Override
+    public Runnable withCurrentSession(Runnable task) {
+        CallerContext captured = callerContext.get().copy();
+        return () -> {
+            CallerContext previous = callerContext.get();
+            callerContext.set(captured.copy());
+            try {
+                task.run();
+            } finally {
+                callerContext.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public <V> Callable<V> withCurrentSession(Callable<V> task) {
+        CallerContext captured = callerContext.get().copy();
+        return () -> {
+            CallerContext previous = callerContext.get();
+            callerContext.set(captured.copy());
+            try {
+                return task.call();
+            } finally {
+                callerContext.set(previous);
+            }
+        };
     }
 
     @Override
     public void validateUrlAndKey(String serverUrl, String apiKey) throws ApiCallException {
+        validateUrlAndKey(serverUrl, null, apiKey);
+    }
+
+    @Override
+    public ApiInfoDto getAipConsoleApiInfo() {
+        try {
+            return getForEntity(ApiEndpointHelper.getRootPath(), ApiInfoDto.class);
+        } catch (ApiCallException e) {
+            log.log(Level.WARNING, "Unable to retrieve AIP Console information.", e);
+            return new ApiInfoDto();
+        }
+    }
+
+    @Override
+    public void validateUrlAndKey(String serverUrl, String username, String apiKey) throws ApiCallException {
         assert StringUtils.isNoneBlank(serverUrl);
 
         if(StringUtils.isBlank(apiKey)) {
@@ -117,27 +188,22 @@ public class RestApiServiceImpl implements RestApiService {
             serverUrl = serverUrl.substring(0, serverUrl.length() - 1);
         }
 
-        this.serverUrl = serverUrl;
-        this.key = apiKey;
-        login();
-    }
-
-    @Override
-    public ApiInfoDto getAipConsoleApiInfo() {
-        try {
-            return getForEntity(ApiEndpointHelper.getRootPath(), ApiInfoDto.class);
-        } catch (ApiCallException e) {
-            log.log(Level.WARNING, "Unable to retrieve AIP Console information.", e);
-            return new ApiInfoDto();
+        CallerContext context = callerContext.get();
+        context.session = sessions.getOrCreate(new ConnectionSettings(serverUrl, username, apiKey), SessionContext::new);
+        // a timeout set before a previous login on this thread (e.g. by another build) doesn't apply to this one
+        context.timeoutMillis = context.pendingTimeoutMillis != null ? context.pendingTimeoutMillis : DEFAULT_TIMEOUT_MILLIS;
+        context.pendingTimeoutMillis = null;
+        try (Span span = Tracing.tracer().startSpan("RestApiService.validateUrlAndKey")) {
+            span.setAttribute("server.url", serverUrl);
+            try {
+                login();
+            } catch (ApiCallException e) {
+                span.recordException(e);
+                throw e;
+            }
         }
     }
 
-    @Override
-    public void validateUrlAndKey(String serverUrl, String username, String password) throws ApiCallException {
-        this.username = username;
-        validateUrlAndKey(serverUrl, password);
-    }
-
     @Override
     public <T> T getForEntity(String endpoint, Class<T> responseClass) throws ApiCallException {
         return exchangeForEntity("GET", endpoint, null, responseClass);
@@ -190,7 +256,9 @@ public class RestApiServiceImpl implements RestApiService {
 
     @Override
     public <T> T exchangeMultipartForEntity(String method, String endpoint, Map<String, Map<String, String>> headers, Map<String, Object> content, Class<T> responseClass) throws ApiCallException {
-        Request.Builder reqBuilder = getRequestBuilder(endpoint);
+        CallerContext context = currentContext();
+        SessionContext session = context.session;
+        Request.Builder reqBuilder = getRequestBuilder(session, endpoint);
         log.finer(String.format("Executing MULTIPART call with method %s to endpoint %s", method, endpoint));
 
         MultipartBody.Builder builder = new MultipartBody.Builder();
@@ -214,12 +282,14 @@ public class RestApiServiceImpl implements RestApiService {
 
         Request req = reqBuilder.method(method, builder.build())
                 .build();
+        session.getCache.invalidateAll();
 
-        try (Response response = client.newCall(req).execute()) {
+        try (Response response = session.client(context.timeoutMillis).newCall(req).execute()) {
             if (ACCEPTED_HTTP_CODES.contains(response.code())) {
                 ResponseBody responseBody = response.body();
                 if (responseBody != null) {
-                    try (InputStream bodyStream = responseBody.byteStream()) {
+                    try (InputStream bodyStream = responseBody.byteStream();
+                         ProfiledSection ignored = Profiling.jsonParse(responseClass.getName(), responseBody.contentLength())) {
                         return mapper.readValue(bodyStream, responseClass);
                     } catch (MismatchedInputException e) {
                         log.log(Level.WARNING, "Unable to parse object as " + responseClass.getName() + "(expected ?). Returning null instead.", e);
@@ -230,12 +300,54 @@ public class RestApiServiceImpl implements RestApiService {
             log.log(Level.SEVERE, "Response code from API was unexpected : " + response.code());
             log.log(Level.SEVERE, "Content was " + (response.body() == null ? "EMPTY" : response.body().string()));
             throw new ApiCallException(response.code(), "Unable to execute multipart form data with provided content");
+        } catch (CallNotPermittedException e) {
+            log.log(Level.SEVERE, "Call to endpoint " + endpoint + " was rejected", e);
+            throw new ApiCallException(503, e);
         } catch (IOException e) {
             log.log(Level.SEVERE, "IOException when calling endpoint " + endpoint, e);
             throw new ApiCallException(500, e);
         }
     }
 
+    @Override
+    public long downloadToStream(String endpoint, OutputStream outputStream, boolean compressed) throws ApiCallException {
+        CallerContext context = currentContext();
+        SessionContext session = context.session;
+        Request.Builder builder = getRequestBuilder(session, endpoint).get();
+        if (!compressed) {
+            // without an explicit encoding, OkHttp asks for gzip and decompresses the response transparently
+            builder.header("Accept-Encoding", "identity");
+        }
+        Request request = builder.build();
+        log.fine("Downloading endpoint " + endpoint);
+
+        try (Response response = session.client(context.timeoutMillis).newCall(request).execute()) {
+            ResponseBody responseBody = response.body();
+            if (!ACCEPTED_HTTP_CODES.contains(response.code()) || responseBody == null) {
+                String message = "Response code from API was unexpected : " + response.code();
+                message += "\nContent was " + (responseBody == null ? "EMPTY" : responseBody.string());
+                throw new ApiCallException(response.code(), message);
+            }
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            long written = 0;
+            try (InputStream bodyStream = responseBody.byteStream()) {
+                int read;
+                while ((read = bodyStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+            outputStream.flush();
+            return written;
+        } catch (CallNotPermittedException e) {
+            log.log(Level.SEVERE, "Call to endpoint " + endpoint + " was rejected", e);
+            throw new ApiCallException(503, e);
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Unable to download endpoint " + endpoint, e);
+            throw new ApiCallException(500, e);
+        }
+    }
+
     private <T> T exchangeForEntity(String method, String endpoint, Object entity, Class<T> responseClass) throws ApiCallException {
         return exchangeForEntity(method, endpoint, entity, TypeFactory.defaultInstance().constructType(responseClass));
     }
@@ -246,47 +358,73 @@ public class RestApiServiceImpl implements RestApiService {
 
     private <T> T exchangeForEntity(String method, String endpoint, Object entity, JavaType javaType) throws ApiCallException {
         RequestBody body = HttpMethod.requiresRequestBody(method) ? getRequestBodyForEntity(entity) : null;
-        Request request = getRequestBuilder(endpoint)
+        CallerContext context = currentContext();
+        SessionContext session = context.session;
+        long timeoutMillis = context.timeoutMillis;
+        Request request = getRequestBuilder(session, endpoint)
                 .method(method, body)
                 .build();
         log.fine(String.format("Executing call with method %s to endpoint %s", method, endpoint));
         log.finest("Entity is " + entity);
 
-        try (Response response = client.newCall(request).execute()) {
-            if (ACCEPTED_HTTP_CODES.contains(response.code())) {
-                ResponseBody responseBody = response.body();
-                if (responseBody != null) {
-                    try (InputStream bodyStream = responseBody.byteStream()) {
-                        if (String.class.isAssignableFrom(javaType.getRawClass())) {
-                            // may be used for debug purposes
-                            return (T) IOUtils.toString(bodyStream, StandardCharsets.UTF_8);
-                        } else {
-                            return mapper.readValue(bodyStream, javaType);
-                        }
-                    } catch (MismatchedInputException e) {
-                        log.log(Level.WARNING, "Unable to parse object as " + javaType.getRawClass().getName() + "(expected ?). Returning null instead.", e);
-                        return null;
-                    }
-                }
-                log.fine("No body in response to parse");
-                return null;
+        BufferedResponse response;
+        try {
+            if ("GET".equals(method)) {
+                // identical concurrent GETs share the same call (and its result for a short time)
+                response = session.getCache.get(request.url().toString(), () -> executeAndBuffer(session, timeoutMillis, request));
+            } else {
+                // any modification might change the result of previous GETs
+                session.getCache.invalidateAll();
+                response = executeAndBuffer(session, timeoutMillis, request);
             }
-            String message = "Response code from API was unexpected : " + response.code();
-            message += "\nContent was " + (response.body() == null ? "EMPTY" : response.body().string());
-            throw new ApiCallException(response.code(), message);
+        } catch (CallNotPermittedException e) {
+            log.log(Level.SEVERE, "Call to endpoint " + endpoint + " was rejected", e);
+            throw new ApiCallException(503, e);
         } catch (IOException e) {
             log.log(Level.SEVERE, "Unable to send request", e);
             throw new ApiCallException(500, e);
         }
+
+        if (ACCEPTED_HTTP_CODES.contains(response.code)) {
+            try (InputStream bodyStream = new ByteArrayInputStream(response.body)) {
+                if (String.class.isAssignableFrom(javaType.getRawClass())) {
+                    // may be used for debug purposes
+                    return (T) new String(response.body, StandardCharsets.UTF_8);
+                } else {
+                    try (ProfiledSection ignored = Profiling.jsonParse(javaType.getRawClass().getName(), response.body.length)) {
+                        return mapper.readValue(bodyStream, javaType);
+                    }
+                }
+            } catch (MismatchedInputException e) {
+                log.log(Level.WARNING, "Unable to parse object as " + javaType.getRawClass().getName() + "(expected ?). Returning null instead.", e);
+                return null;
+            } catch (IOException e) {
+                log.log(Level.SEVERE, "Unable to read response", e);
+                throw new ApiCallException(500, e);
+            }
+        }
+        String message = "Response code from API was unexpected : " + response.code;
+        message += "\nContent was " + (response.body.length == 0 ? "EMPTY" : new String(response.body, StandardCharsets.UTF_8));
+        throw new ApiCallException(response.code, message);
+    }
+
+    private BufferedResponse executeAndBuffer(SessionContext session, long timeoutMillis, Request request) throws IOException {
+        try (Response response = session.client(timeoutMillis).newCall(request).execute()) {
+            ResponseBody responseBody = response.body();
+            byte[] content = responseBody == null ? new byte[0] : responseBody.bytes();
+            return new BufferedResponse(response.code(), content);
+        }
     }
 
     @Override
     public void login() throws ApiCallException {
-        Request request = getRequestBuilder("/api/user")
+        CallerContext context = currentContext();
+        SessionContext session = context.session;
+        Request request = getRequestBuilder(session, "/api/user")
                 .get()
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = session.client(context.timeoutMillis).newCall(request).execute()) {
             if (ArrayUtils.contains(new int[]{200, 201, 202, 204}, response.code())) {
                 ResponseBody responseBody = response.body();
                 if (responseBody != null) {
@@ -297,18 +435,41 @@ public class RestApiServiceImpl implements RestApiService {
             log.severe("Login to AIP Console failed (http status is " + response.code() + ")");
             log.severe("Content was " + (response.body() == null ? "EMPTY" : response.body().string()));
             throw new ApiCallException(response.code(), "Unable to login to AIP Console");
+        } catch (CallNotPermittedException e) {
+            log.log(Level.SEVERE, "Login to AIP Console was rejected", e);
+            throw new ApiCallException(503, e);
         } catch (IOException e) {
             log.log(Level.SEVERE, "Unable to send request", e);
             throw new ApiCallException(500, e);
         }
     }
 
-    private Request.Builder getRequestBuilder(String endpoint) {
+    @Override
+    public void close() {
+        callerContext.remove();
+        sessions.clear();
+    }
+
+    /**
+     * @return The session and timeout bound to the current thread
+     * @throws ApiCallException if no session is bound to the current thread
+     */
+    private CallerContext currentContext() throws ApiCallException {
+        CallerContext context = callerContext.get();
+        if (context.session == null) {
+            throw new ApiCallException(401, "No AIP Console session in thread " + Thread.currentThread().getName()
+                    + ", validateUrlAndKey must be called first");
+        }
+        sessions.touch(context.session.settings);
+        return context;
+    }
+
+    private Request.Builder getRequestBuilder(SessionContext session, String endpoint) {
         String url;
         if (StringUtils.startsWithIgnoreCase(endpoint, "/")) {
-            url = this.serverUrl + endpoint;
+            url = session.settings.serverUrl + endpoint;
         } else {
-            url = this.serverUrl + "/" + endpoint;
+            url = session.settings.serverUrl + "/" + endpoint;
         }
 
         Request.Builder builder = new Request.Builder();
@@ -334,49 +495,181 @@ public class RestApiServiceImpl implements RestApiService {
      * <p/>
      * It'll also add XSRF Token to the request (to avoid 403s)
      *
+     * @param session The session providing the credentials and cookies
      * @return an Interceptor instance that'll add Authentication headers if necessary
      */
-    private Interceptor getAuthInterceptor() {
-        return new AipLoginInterceptor();
+    private static Interceptor getAuthInterceptor(SessionContext session) {
+        return new AipLoginInterceptor(session);
     }
 
     /**
-     * Simple cookie jar impl with ability to query a cookie value
+     * Url and credentials used to connect to AIP Console. Instances are immutable.
      */
-    private static class QueryableCookieJar implements CookieJar {
-        private Set<Cookie> cookieSet = new HashSet<>();
+    private static final class ConnectionSettings {
+        private final String serverUrl;
+        private final String username;
+        private final String key;
+
+        private ConnectionSettings(String serverUrl, String username, String key) {
+            this.serverUrl = serverUrl;
+            this.username = username;
+            this.key = key;
+        }
 
         @Override
-        public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
-            cookies.forEach(c -> {
-                Optional<Cookie> optCookie = cookieSet.stream()
-                        .filter(prevCookie -> StringUtils.equalsIgnoreCase(c.name(), prevCookie.name()))
-                        .findFirst();
-                optCookie.ifPresent(cookie -> cookieSet.remove(cookie));
-                cookieSet.add(c);
-            });
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ConnectionSettings)) {
+                return false;
+            }
+            ConnectionSettings that = (ConnectionSettings) o;
+            return Objects.equals(serverUrl, that.serverUrl) &&
+                    Objects.equals(username, that.username) &&
+                    Objects.equals(key, that.key);
         }
 
         @Override
-        public List<Cookie> loadForRequest(HttpUrl url) {
-            return new ArrayList<>(cookieSet);
+        public int hashCode() {
+            return Objects.hash(serverUrl, username, key);
         }
+    }
 
-        public Cookie getCookieByName(String name) {
-            return cookieSet
-                    .stream()
-                    .filter(c -> StringUtils.equalsIgnoreCase(c.name(), name))
-                    .findFirst()
-                    .orElse(null);
+    /**
+     * What a thread calls AIP Console with : its session, shared with the other callers using the same settings, and
+     * its own timeout
+     */
+    private static final class CallerContext {
+        private SessionContext session;
+        private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        // set by setTimeout, for the next login of the thread
+        private Long pendingTimeoutMillis;
+
+        private CallerContext copy() {
+            CallerContext copy = new CallerContext();
+            copy.session = session;
+            copy.timeoutMillis = timeoutMillis;
+            return copy;
         }
     }
 
-    private class AipLoginInterceptor implements Interceptor {
+    /**
+     * Authenticated session on an AIP Console instance, with its own cookies, connections and cached responses
+     */
+    private static final class SessionContext {
+        private static final String CACHE_METER = "aip.http.cache.requests";
+        private static final String CIRCUIT_STATE_METER = "aip.http.circuit.state";
+        private static final String BULKHEAD_AVAILABLE_METER = "aip.http.bulkhead.available";
+
+        private final ConnectionSettings settings;
+        // tells apart the gauges of the sessions of several users on the same server, without exposing their names
+        private final String gaugesSessionTag;
+        private final QueryableCookieJar cookieJar = new QueryableCookieJar();
+        private final ConnectionPool connectionPool = new ConnectionPool();
+        private final RetryInterceptor retryInterceptor = new RetryInterceptor(RetryPolicy.defaultPolicy());
+        private final MetricsInterceptor metricsInterceptor = new MetricsInterceptor();
+        private final ProfilingInterceptor profilingInterceptor = new ProfilingInterceptor();
+        private final TracingInterceptor tracingInterceptor = new TracingInterceptor();
+        private final ResilienceInterceptor resilienceInterceptor = new ResilienceInterceptor();
+        private final SingleFlightCache<String, BufferedResponse> getCache =
+                new SingleFlightCache<>(GET_CACHE_TTL_MILLIS, TimeUnit.MILLISECONDS, r -> ACCEPTED_HTTP_CODES.contains(r.code));
+        // one client per timeout used by the callers, all sharing the connections and cookies of the session
+        private final ConcurrentMap<Long, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+        private SessionContext(ConnectionSettings settings) {
+            this.settings = settings;
+            this.gaugesSessionTag = ByteString.encodeUtf8(settings.username + "\n" + settings.key).sha256().hex().substring(0, 8);
+            registerGauges(Metrics.registry());
+        }
+
+        private void registerGauges(MeterRegistry registry) {
+            if (!registry.isEnabled()) {
+                return;
+            }
+            String server = Objects.toString(settings.serverUrl, "none");
+            registry.gauge(CACHE_METER, getCache::getHitCount, "server", server, "session", gaugesSessionTag, "result", "hit");
+            registry.gauge(CACHE_METER, getCache::getMissCount, "server", server, "session", gaugesSessionTag, "result", "miss");
+            registry.gauge(CACHE_METER, getCache::getCoalescedCount, "server", server, "session", gaugesSessionTag, "result", "coalesced");
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                String name = endpointClass.name();
+                registry.gauge(CIRCUIT_STATE_METER, () -> resilienceInterceptor.getCircuitBreaker(endpointClass).getState().ordinal(),
+                        "server", server, "session", gaugesSessionTag, "endpoints", name);
+                registry.gauge(BULKHEAD_AVAILABLE_METER, () -> resilienceInterceptor.getBulkhead(endpointClass).getAvailableSlots(),
+                        "server", server, "session", gaugesSessionTag, "endpoints", name);
+            }
+        }
+
+        private void removeGauges(MeterRegistry registry) {
+            if (!registry.isEnabled()) {
+                return;
+            }
+            String server = Objects.toString(settings.serverUrl, "none");
+            for (String result : new String[]{"hit", "miss", "coalesced"}) {
+                registry.remove(CACHE_METER, "server", server, "session", gaugesSessionTag, "result", result);
+            }
+            for (EndpointClass endpointClass : EndpointClass.values()) {
+                registry.remove(CIRCUIT_STATE_METER, "server", server, "session", gaugesSessionTag, "endpoints", endpointClass.name());
+                registry.remove(BULKHEAD_AVAILABLE_METER, "server", server, "session", gaugesSessionTag, "endpoints", endpointClass.name());
+            }
+        }
+
+        /**
+         * @param timeoutMillis The timeout expected for the calls
+         * @return A client using this session, with the given timeout
+         */
+        private OkHttpClient client(long timeoutMillis) {
+            return clients.computeIfAbsent(timeoutMillis, t -> new OkHttpClient.Builder()
+                    // each attempt is measured, profiled, traced and goes through the circuit breaker
+                    .addInterceptor(retryInterceptor.withAttemptTimeout(t))
+                    .addInterceptor(metricsInterceptor)
+                    .addInterceptor(profilingInterceptor)
+                    .addInterceptor(tracingInterceptor)
+                    .addInterceptor(resilienceInterceptor)
+                    .addInterceptor(getAuthInterceptor(this))
+                    .cookieJar(cookieJar)
+                    .connectionPool(connectionPool)
+                    .connectTimeout(t, TimeUnit.MILLISECONDS)
+                    .readTimeout(t, TimeUnit.MILLISECONDS)
+                    .writeTimeout(t, TimeUnit.MILLISECONDS)
+                    .build());
+        }
+
+        /**
+         * Releases the idle connections of this session. Calls still running are not affected.
+         */
+        private void close() {
+            getCache.invalidateAll();
+            connectionPool.evictAll();
+            removeGauges(Metrics.registry());
+        }
+    }
+
+    /**
+     * Status and fully read content of a response, which can be shared between callers
+     */
+    private static class BufferedResponse {
+        private final int code;
+        private final byte[] body;
+
+        private BufferedResponse(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    private static class AipLoginInterceptor implements Interceptor {
+        private final SessionContext session;
+
+        private AipLoginInterceptor(SessionContext session) {
+            this.session = session;
+        }
+
         @Override
         public Response intercept(Chain chain) throws IOException {
             Request request = chain.request();
 
-            Cookie xsrfCookie = cookieJar.getCookieByName("XSRF-TOKEN");
+            Cookie xsrfCookie = session.cookieJar.getCookieByName("XSRF-TOKEN");
 
             Response response;
             Request.Builder reqBuilder = request.newBuilder();
@@ -394,10 +687,11 @@ public class RestApiServiceImpl implements RestApiService {
                 // authentication already defined
                 return chain.proceed(reqBuilder.build());
             } else {
-                if (!StringUtils.isBlank(username)) {
-                    reqBuilder.header("Authorization", Credentials.basic(username, key));
-                } else {
-                    reqBuilder.header(Constants.API_KEY_HEADER, key);
+                ConnectionSettings settings = session.settings;
+                if (!StringUtils.isBlank(settings.username)) {
+                    reqBuilder.header("Authorization", Credentials.basic(settings.username, settings.key));
+                } else if (settings.key != null) {
+                    reqBuilder.header(Constants.API_KEY_HEADER, settings.key);
                 }
                 return chain.proceed(reqBuilder.build());
             }
@@ -6,11 +6,21 @@ import com.castsoftware.aip.console.tools.core.dto.upload.ChunkedUploadDto;
 import com.castsoftware.aip.console.tools.core.dto.upload.ChunkedUploadMetadataRequest;
 import com.castsoftware.aip.console.tools.core.dto.upload.ChunkedUploadStatus;
 import com.castsoftware.aip.console.tools.core.dto.upload.CreateUploadRequest;
+import com.castsoftware.aip.console.tools.core.events.Events;
 import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
 import com.castsoftware.aip.console.tools.core.exceptions.UploadException;
 import com.castsoftware.aip.console.tools.core.exceptions.UploadIncompleteException;
+import com.castsoftware.aip.console.tools.core.metrics.MeterRegistry;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.profiling.ProfiledSection;
+import com.castsoftware.aip.console.tools.core.profiling.Profiling;
+import com.castsoftware.aip.console.tools.core.timing.JobTimingRecorder;
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
 import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
 import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.castsoftware.aip.console.tools.core.watchdog.StepMonitor;
+import com.castsoftware.aip.console.tools.core.watchdog.Watchdog;
 import lombok.extern.java.Log;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -42,6 +52,10 @@ public class UploadServiceImpl implements UploadService {
     private static final int DEFAULT_CHUNK_SIZE = 10 * 1024 * 1024;
     private static final long EXTRACT_SLEEP_TIME = TimeUnit.SECONDS.toMillis(10);
     private static final long LOG_INFO_TIME_THRESHOLD = TimeUnit.MINUTES.toMillis(5);
+    private static final String CHUNK_DURATION_METER = "aip.upload.chunk.duration";
+    private static final String BYTES_METER = "aip.upload.bytes";
+    private static final String THROUGHPUT_METER = "aip.upload.throughput";
+    private static final String EXTRACT_DURATION_METER = "aip.upload.extract.duration";
 
     private RestApiService restApiService;
 
@@ -135,12 +149,29 @@ public class UploadServiceImpl implements UploadService {
     @Override
     public boolean uploadInputStream(String appGuid, String fileName, long fileSize, InputStream content, boolean extract)
             throws UploadException {
+        try (Span span = Tracing.tracer().startSpan("UploadService.uploadInputStream")) {
+            span.setAttribute("aip.application.guid", appGuid)
+                    .setAttribute("aip.upload.file.size", fileSize)
+                    .setAttribute("aip.upload.chunk.size", chunkSize)
+                    .setAttribute("aip.upload.extract", extract);
+            try {
+                return doUploadInputStream(appGuid, fileName, fileSize, content, extract);
+            } catch (UploadException e) {
+                span.recordException(e);
+                throw e;
+            }
+        }
+    }
+
+    private boolean doUploadInputStream(String appGuid, String fileName, long fileSize, InputStream content, boolean extract)
+            throws UploadException {
         String createUploadEndpoint = ApiEndpointHelper.getApplicationCreateUploadPath(appGuid);
         CreateUploadRequest request = new CreateUploadRequest();
         request.setFileName(fileName);
         request.setFileSize(fileSize);
 
         ChunkedUploadDto dto;
+        JobTimingRecorder.recordStep(JobTimingRecorder.UPLOAD_STEP);
         try {
             log.info("Creating a new upload for application");
             log.fine("Params : " + createUploadEndpoint + "\n" + request.toString());
@@ -155,12 +186,17 @@ public class UploadServiceImpl implements UploadService {
         }
         String uploadChunkEndpoint = ApiEndpointHelper.getApplicationUploadPath(appGuid, dto.getGuid());
         int currentChunk = 1;
+        MeterRegistry registry = Metrics.registry();
+        long uploadStart = System.nanoTime();
         try {
             long currentOffset = 0;
             int totalChunks = (int) Math.ceil((double) fileSize / (double) chunkSize);
             log.info("Starting chunks uploads. Expected number of chunks is " + totalChunks);
+            Events.emit(Events.UPLOAD_STARTED, "appGuid", appGuid, "uploadGuid", dto.getGuid(), "fileName", fileName,
+                    "fileSize", fileSize, "chunks", totalChunks);
             while (currentOffset < fileSize) {
-                byte[] buffer = new byte[chunkSize];
+                // never reads past the expected size, the caller may check what follows in the stream
+                byte[] buffer = new byte[(int) Math.min(chunkSize, fileSize - currentOffset)];
                 // IOUtils.read will try to fill the buffer (unless it arrives at EOF)
                 int nbBytesRead = IOUtils.read(content, buffer);
                 log.fine("Read " + nbBytesRead + " from file");
@@ -188,7 +224,7 @@ public class UploadServiceImpl implements UploadService {
 
                 Map<String, Object> body = new HashMap<>();
                 body.put("metadata", metadata);
-                if (nbBytesRead < chunkSize) {
+                if (nbBytesRead < buffer.length) {
                     body.put("content", ArrayUtils.subarray(buffer, 0, nbBytesRead));
                 } else {
                     body.put("content", buffer);
@@ -197,13 +233,26 @@ public class UploadServiceImpl implements UploadService {
                 log.info(String.format("Uploading chunk %s of %s", currentChunk, totalChunks));
                 log.fine("Uploading a chunk of " + nbBytesRead + " bytes");
 
-                dto = restApiService.exchangeMultipartForEntity("PATCH", uploadChunkEndpoint, headers, body, ChunkedUploadDto.class);
+                long chunkStart = System.nanoTime();
+                try (ProfiledSection ignored = Profiling.chunkUpload(dto.getGuid(), nbBytesRead)) {
+                    dto = restApiService.exchangeMultipartForEntity("PATCH", uploadChunkEndpoint, headers, body, ChunkedUploadDto.class);
+                }
+                registry.timer(CHUNK_DURATION_METER).record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+                registry.counter(BYTES_METER).increment(nbBytesRead);
+                JobTimingRecorder.recordUploadedBytes(nbBytesRead);
                 currentOffset += nbBytesRead;
+                Events.emit(Events.UPLOAD_PROGRESS, "uploadGuid", dto.getGuid(), "chunk", currentChunk, "chunks", totalChunks,
+                        "uploadedBytes", currentOffset, "fileSize", fileSize);
                 currentChunk++;
 
                 assert dto != null;
                 assert dto.getCurrentOffset() == currentOffset;
             }
+            long uploadNanos = System.nanoTime() - uploadStart;
+            if (uploadNanos > 0) {
+                // bytes per second
+                registry.histogram(THROUGHPUT_METER).record(fileSize * (double) TimeUnit.SECONDS.toNanos(1) / uploadNanos);
+            }
 
         } catch (ApiCallException | IOException e) {
             log.info("Error occurred during upload. Trying to delete before failing.");
@@ -220,29 +269,56 @@ public class UploadServiceImpl implements UploadService {
         boolean uploadComplete = StringUtils.equalsAnyIgnoreCase(dto.getStatus(), ChunkedUploadStatus.UPLOADED.name(), "completed");
         // return if enablePackagePath is false or the upload was not complete
         if (!uploadComplete || !extract) {
+            JobTimingRecorder.recordStepEnd();
             return uploadComplete;
         }
 
         log.info("Extracting archive on AIP Console");
+        JobTimingRecorder.recordStep(JobTimingRecorder.EXTRACT_STEP);
+        try (Span span = Tracing.tracer().startSpan("UploadService.extract")) {
+            dto = extract(appGuid, dto);
+            span.setAttribute("aip.upload.status", dto.getStatus());
+        }
+        return StringUtils.equalsIgnoreCase(dto.getStatus(), "EXTRACTED");
+    }
+
+    private ChunkedUploadDto extract(String appGuid, ChunkedUploadDto dto) throws UploadException {
         long waitTime = 0;
+        long extractStart = System.nanoTime();
         String extractEndpoint = ApiEndpointHelper.getApplicationExtractUploadPath(appGuid, dto.getGuid());
-        while (StringUtils.equalsAnyIgnoreCase(dto.getStatus(), ChunkedUploadStatus.UPLOADED.name(), ChunkedUploadStatus.EXTRACTING.name())) {
-            try {
-                dto = restApiService.putForEntity(extractEndpoint, null, ChunkedUploadDto.class);
-                Thread.sleep(extractPollSleep);
-                waitTime += extractPollSleep;
-                // Notify every X minutes (check LOG_INFO_TIME_THRESHOLD for value) that we're still waiting for extraction from AIP Console
-                if (waitTime > LOG_INFO_TIME_THRESHOLD) {
-                    waitTime = 0;
-                    log.info("Waiting for AIP Console to finish extraction. Current status is " + dto.getStatus());
+        StepMonitor stepMonitor = Watchdog.current().monitor(appGuid);
+        boolean extracted = false;
+        try {
+            while (StringUtils.equalsAnyIgnoreCase(dto.getStatus(), ChunkedUploadStatus.UPLOADED.name(), ChunkedUploadStatus.EXTRACTING.name())) {
+                if (stepMonitor.poll(JobTimingRecorder.EXTRACT_STEP)) {
+                    throw new UploadException("Extraction of the source code seems stuck in AIP Console, stopped waiting for it");
+                }
+                try {
+                    dto = restApiService.putForEntity(extractEndpoint, null, ChunkedUploadDto.class);
+                    Thread.sleep(extractPollSleep);
+                    waitTime += extractPollSleep;
+                    // Notify every X minutes (check LOG_INFO_TIME_THRESHOLD for value) that we're still waiting for extraction from AIP Console
+                    if (waitTime > LOG_INFO_TIME_THRESHOLD) {
+                        waitTime = 0;
+                        log.info("Waiting for AIP Console to finish extraction. Current status is " + dto.getStatus());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UploadException("Interrupted while waiting for the extraction of the source code", e);
+                } catch (ApiCallException e) {
+                    log.log(Level.SEVERE, "Unable to extract source code archive on AIP Console", e);
+                    throw new UploadException("Failed to extract source code in AIP Console", e);
                 }
-            } catch (InterruptedException e) {
-                log.log(Level.WARNING, "Thread.sleep was interrupted. Trying to continue polling AIP Console", e);
-            } catch (ApiCallException e) {
-                log.log(Level.SEVERE, "Unable to extract source code archive on AIP Console", e);
-                throw new UploadException("Failed to extract source code in AIP Console", e);
             }
+            extracted = StringUtils.equalsIgnoreCase(dto.getStatus(), "EXTRACTED");
+        } finally {
+            stepMonitor.finish(extracted);
         }
-        return StringUtils.equalsIgnoreCase(dto.getStatus(), "EXTRACTED");
+        Metrics.registry().timer(EXTRACT_DURATION_METER, "status", dto.getStatus())
+                .record(System.nanoTime() - extractStart, TimeUnit.NANOSECONDS);
+        JobTimingRecorder.recordStepEnd();
+        Events.emit(Events.UPLOAD_EXTRACTED, "appGuid", appGuid, "uploadGuid", dto.getGuid(), "status", dto.getStatus(),
+                "durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - extractStart));
+        return dto;
     }
 }
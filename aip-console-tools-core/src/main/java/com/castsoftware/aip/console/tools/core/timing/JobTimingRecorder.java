@@ -0,0 +1,165 @@
+package com.castsoftware.aip.console.tools.core.timing;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the wall-clock duration of each step of a run (upload, extraction, then each job step).
+ * <p/>
+ * A recorder is bound to the thread which started it, so that the services called by this thread can report their
+ * steps through {@link #recordStep(String)} and {@link #recordStepEnd()} without knowing about the recorder. Those
+ * calls do nothing if no recorder is bound. The threads created by a run don't get its recorder : a thread running
+ * a job of its own starts its own recorder, other threads use the recorder instance directly.
+ */
+public class JobTimingRecorder {
+    public static final String PACKAGE_STEP = "package";
+    public static final String UPLOAD_STEP = "upload";
+    public static final String EXTRACT_STEP = "extract";
+
+    private static final ThreadLocal<JobTimingRecorder> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final LongSupplier clock;
+    private final long startMillis;
+    private final List<StepTiming> steps = new ArrayList<>();
+    private String currentStep;
+    private long currentStepStart;
+    private long uploadedBytes;
+    private long queueMs;
+    private int pollCount;
+    private long lastPollMillis;
+    private boolean lastPollQueued;
+
+    JobTimingRecorder(String name, LongSupplier clock) {
+        this.name = name;
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+    }
+
+    /**
+     * Start a recording and bind it to the current thread
+     *
+     * @param name The name of the run (i.e. the command or build step)
+     * @return The recorder, to finish once the run is over
+     */
+    public static JobTimingRecorder start(String name) {
+        JobTimingRecorder recorder = new JobTimingRecorder(name, System::currentTimeMillis);
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Marks the start of a step in the recorder bound to the current thread, ending the previous step
+     */
+    public static void recordStep(String step) {
+        JobTimingRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.startStep(step);
+        }
+    }
+
+    /**
+     * Marks the end of the current step in the recorder bound to the current thread
+     */
+    public static void recordStepEnd() {
+        JobTimingRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.endStep();
+        }
+    }
+
+    /**
+     * Adds to the bytes uploaded in the recorder bound to the current thread
+     */
+    public static void recordUploadedBytes(long bytes) {
+        JobTimingRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.addUploadedBytes(bytes);
+        }
+    }
+
+    /**
+     * Counts a poll of a job status in the recorder bound to the current thread
+     *
+     * @param queued Whether the job is still in the STARTING state
+     */
+    public static void recordPoll(boolean queued) {
+        JobTimingRecorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.poll(queued);
+        }
+    }
+
+    public synchronized void addUploadedBytes(long bytes) {
+        uploadedBytes += bytes;
+    }
+
+    /**
+     * The job is considered queued between this poll and the next one if it is queued now
+     */
+    public synchronized void poll(boolean queued) {
+        long now = clock.getAsLong();
+        if (pollCount > 0 && lastPollQueued) {
+            queueMs += now - lastPollMillis;
+        }
+        pollCount++;
+        lastPollMillis = now;
+        lastPollQueued = queued;
+    }
+
+    public synchronized void startStep(String step) {
+        if (StringUtils.isBlank(step) || step.equalsIgnoreCase(currentStep)) {
+            return;
+        }
+        endStep();
+        currentStep = step;
+        currentStepStart = clock.getAsLong();
+    }
+
+    public synchronized void endStep() {
+        if (currentStep != null) {
+            long now = clock.getAsLong();
+            steps.add(new StepTiming(currentStep, currentStepStart - startMillis, now - currentStepStart, 0));
+            currentStep = null;
+        }
+    }
+
+    /**
+     * Ends the recording and unbinds it from the current thread
+     *
+     * @param outcome The result of the run
+     * @return The report of all the recorded steps
+     */
+    public synchronized JobTimingReport finish(String outcome) {
+        endStep();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        long total = clock.getAsLong() - startMillis;
+        JobTimingReport report = new JobTimingReport();
+        report.setName(name);
+        report.setOutcome(outcome);
+        report.setStartedAt(new Date(startMillis));
+        report.setTotalDurationMs(total);
+        report.setUploadedBytes(uploadedBytes);
+        report.setQueueMs(queueMs);
+        report.setPollCount(pollCount);
+        long tracked = 0;
+        StepTiming dominant = null;
+        for (StepTiming step : steps) {
+            step.setShare(JobTimingReport.share(step.getDurationMs(), total));
+            tracked += step.getDurationMs();
+            if (dominant == null || step.getDurationMs() > dominant.getDurationMs()) {
+                dominant = step;
+            }
+            report.getSteps().add(step);
+        }
+        report.setUntrackedMs(Math.max(0, total - tracked));
+        report.setDominantStep(dominant == null ? null : dominant.getName());
+        return report;
+    }
+}
@@ -0,0 +1,120 @@
+package com.castsoftware.aip.console.tools.core.timing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps of a run, in the order they were executed, with their durations.
+ * <p/>
+ * Steps are sequential, so they all are on the critical path : the dominant step is the one worth optimizing first.
+ * The untracked time is spent outside of any step (waiting for a job to start, between polls, etc.)
+ * The queue time is the time jobs spent in the STARTING state on AIP Console, before running.
+ */
+@Data
+@NoArgsConstructor
+public class JobTimingReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private String name;
+    private String outcome;
+    private Date startedAt;
+    private long totalDurationMs;
+    private long untrackedMs;
+    private String dominantStep;
+    private long uploadedBytes;
+    private long queueMs;
+    private int pollCount;
+    private List<StepTiming> steps = new ArrayList<>();
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    /**
+     * @return Total duration of the given step, if it ran several times
+     */
+    public long getStepDurationMs(String stepName) {
+        return steps.stream()
+                .filter(s -> s.getName().equalsIgnoreCase(stepName))
+                .mapToLong(StepTiming::getDurationMs)
+                .sum();
+    }
+
+    /**
+     * @return The upload throughput in MB/s, 0 if nothing was uploaded
+     */
+    @JsonIgnore
+    public double getUploadMegabytesPerSecond() {
+        long uploadMs = getStepDurationMs(JobTimingRecorder.UPLOAD_STEP);
+        return uploadMs <= 0 ? 0 : uploadedBytes / (1024.0 * 1024.0) / (uploadMs / 1000.0);
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+        MAPPER.writeValue(writer, this);
+    }
+
+    public static JobTimingReport readJson(InputStream stream) throws IOException {
+        return MAPPER.readValue(stream, JobTimingReport.class);
+    }
+
+    /**
+     * @return The report as a table, for a console output
+     */
+    public String toTable() {
+        int nameWidth = "Total".length();
+        for (StepTiming step : steps) {
+            nameWidth = Math.max(nameWidth, step.getName().length());
+        }
+        String lineFormat = "%-" + nameWidth + "s  %10s  %10s  %6s%n";
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("Timing of %s (%s)%n", name, outcome));
+        table.append(String.format(lineFormat, "Step", "Start", "Duration", "Share"));
+        for (StepTiming step : steps) {
+            table.append(String.format(lineFormat, step.getName(), formatDuration(step.getStartOffsetMs()),
+                    formatDuration(step.getDurationMs()), String.format("%.1f%%", step.getShare())));
+        }
+        if (untrackedMs > 0) {
+            table.append(String.format(lineFormat, "(untracked)", "", formatDuration(untrackedMs),
+                    String.format("%.1f%%", share(untrackedMs, totalDurationMs))));
+        }
+        table.append(String.format(lineFormat, "Total", "", formatDuration(totalDurationMs), "100%"));
+        if (dominantStep != null) {
+            table.append(String.format("Longest step : %s%n", dominantStep));
+        }
+        if (uploadedBytes > 0) {
+            table.append(String.format("Uploaded %d bytes (%.2f MB/s)%n", uploadedBytes, getUploadMegabytesPerSecond()));
+        }
+        if (pollCount > 0) {
+            table.append(String.format("Job status polled %d times, %s before the job started%n", pollCount, formatDuration(queueMs)));
+        }
+        return table.toString();
+    }
+
+    static double share(long durationMs, long totalDurationMs) {
+        return totalDurationMs <= 0 ? 0 : Math.round(durationMs * 1000.0 / totalDurationMs) / 10.0;
+    }
+
+    private static String formatDuration(long millis) {
+        long hours = TimeUnit.MILLISECONDS.toHours(millis);
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis) % 60;
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) % 60;
+        return String.format("%d:%02d:%02d", hours, minutes, seconds);
+    }
+}
@@ -0,0 +1,24 @@
+package com.castsoftware.aip.console.tools.core.timing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wall-clock time spent in one step of a job (or in the upload/extraction done before the job)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StepTiming {
+    private String name;
+    /**
+     * Time between the start of the recording and the start of this step
+     */
+    private long startOffsetMs;
+    private long durationMs;
+    /**
+     * Percentage of the total duration spent in this step
+     */
+    private double share;
+}
@@ -0,0 +1,127 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Appends spans to a file in the OTLP/JSON format : each line is an {@code ExportTraceServiceRequest},
+ * as written by the file exporter of the OpenTelemetry collector (which can read it back to forward the spans).
+ * <p/>
+ * Spans are kept in memory until flushed, or until {@value #MAX_BUFFERED_SPANS} spans are waiting.
+ */
+@Log
+public class OtlpJsonFileExporter implements SpanExporter {
+    public static final String SERVICE_NAME = "aip-console-tools";
+    private static final String SCOPE_NAME = "com.castsoftware.aip.console.tools";
+    private static final int MAX_BUFFERED_SPANS = 1000;
+    private static final int STATUS_OK = 1;
+    private static final int STATUS_ERROR = 2;
+
+    private final Path file;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Span> buffer = new ArrayList<>();
+
+    public OtlpJsonFileExporter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void export(Span span) {
+        boolean full;
+        synchronized (buffer) {
+            buffer.add(span);
+            full = buffer.size() >= MAX_BUFFERED_SPANS;
+        }
+        if (full) {
+            try {
+                flush();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Unable to write trace spans to " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        List<Span> spans;
+        synchronized (buffer) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            spans = new ArrayList<>(buffer);
+            buffer.clear();
+        }
+        String line = mapper.writeValueAsString(toRequest(spans));
+        synchronized (this) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+
+    ObjectNode toRequest(List<Span> spans) {
+        ObjectNode request = mapper.createObjectNode();
+        ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        ArrayNode resourceAttributes = resourceSpans.putObject("resource").putArray("attributes");
+        addAttribute(resourceAttributes, "service.name", SERVICE_NAME);
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", SCOPE_NAME);
+        ArrayNode spansNode = scopeSpans.putArray("spans");
+        for (Span span : spans) {
+            ObjectNode spanNode = spansNode.addObject();
+            spanNode.put("traceId", span.getTraceId());
+            spanNode.put("spanId", span.getSpanId());
+            if (span.getParent() != null) {
+                spanNode.put("parentSpanId", span.getParent().getSpanId());
+            }
+            spanNode.put("name", span.getName());
+            spanNode.put("kind", span.getKind().getOtlpValue());
+            // 64 bits integers are strings in OTLP/JSON
+            spanNode.put("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+            spanNode.put("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+            ArrayNode attributes = spanNode.putArray("attributes");
+            for (Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+                addAttribute(attributes, attribute.getKey(), attribute.getValue());
+            }
+            ObjectNode status = spanNode.putObject("status");
+            status.put("code", span.isError() ? STATUS_ERROR : STATUS_OK);
+            if (span.getStatusMessage() != null) {
+                status.put("message", span.getStatusMessage());
+            }
+        }
+        return request;
+    }
+
+    private static void addAttribute(ArrayNode attributes, String key, Object value) {
+        ObjectNode attribute = attributes.addObject();
+        attribute.put("key", key);
+        ObjectNode valueNode = attribute.putObject("value");
+        if (value instanceof Boolean) {
+            valueNode.put("boolValue", (Boolean) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            valueNode.put("doubleValue", ((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            valueNode.put("intValue", Long.toString(((Number) value).longValue()));
+        } else {
+            valueNode.put("stringValue", String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed operation of a trace. Starting a span makes it the current span of the thread, closing it ends it and
+ * restores its parent as the current span, so spans are meant to be used with try-with-resources :
+ * <pre>
+ * try (Span span = Tracing.tracer().startSpan("UploadService.uploadInputStream")) {
+ *     span.setAttribute("file.size", fileSize);
+ *     ...
+ * }
+ * </pre>
+ * Spans which are not sampled are not recording : they only carry the trace context to propagate.
+ */
+public class Span implements AutoCloseable {
+    /**
+     * Span returned when tracing is disabled, does nothing
+     */
+    public static final Span NOOP = new Span(null, "noop", SpanKind.INTERNAL, null, null, null, false);
+
+    private final Tracer tracer;
+    private final String name;
+    private final SpanKind kind;
+    private final String traceId;
+    private final String spanId;
+    private final Span parent;
+    private final boolean sampled;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private final Map<String, Object> attributes;
+    private long endEpochNanos;
+    private boolean error;
+    private String statusMessage;
+    private boolean ended;
+
+    Span(Tracer tracer, String name, SpanKind kind, String traceId, String spanId, Span parent, boolean sampled) {
+        this.tracer = tracer;
+        this.name = name;
+        this.kind = kind;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parent = parent;
+        this.sampled = sampled;
+        this.startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        this.startNanoTime = System.nanoTime();
+        this.attributes = sampled ? new LinkedHashMap<>() : Collections.emptyMap();
+    }
+
+    public boolean isRecording() {
+        return sampled && tracer != null;
+    }
+
+    /**
+     * @param key   The name of the attribute, following the OpenTelemetry conventions when there is one
+     * @param value A String, a Boolean or a Number
+     */
+    public synchronized Span setAttribute(String key, Object value) {
+        if (isRecording() && !ended && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public synchronized Span setError(String message) {
+        if (isRecording() && !ended) {
+            error = true;
+            statusMessage = message;
+        }
+        return this;
+    }
+
+    public Span recordException(Throwable throwable) {
+        setAttribute("exception.type", throwable.getClass().getName());
+        return setError(throwable.getMessage());
+    }
+
+    /**
+     * @return The W3C traceparent header value for requests sent in this span, null for the noop span
+     */
+    public String getTraceparent() {
+        if (traceId == null) {
+            return null;
+        }
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * Ends this span, and restores its parent as the current span
+     */
+    @Override
+    public void close() {
+        if (tracer == null) {
+            return;
+        }
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            endEpochNanos = startEpochNanos + (System.nanoTime() - startNanoTime);
+        }
+        tracer.onEnd(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SpanKind getKind() {
+        return kind;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public Span getParent() {
+        return parent;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public synchronized long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public synchronized Map<String, Object> getAttributes() {
+        return new LinkedHashMap<>(attributes);
+    }
+
+    public synchronized boolean isError() {
+        return error;
+    }
+
+    public synchronized String getStatusMessage() {
+        return statusMessage;
+    }
+}
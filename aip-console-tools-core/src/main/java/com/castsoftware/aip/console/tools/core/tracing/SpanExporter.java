@@ -0,0 +1,15 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import java.io.IOException;
+
+/**
+ * Receives the ended and sampled spans
+ */
+public interface SpanExporter {
+    void export(Span span);
+
+    /**
+     * Writes the spans received so far
+     */
+    void flush() throws IOException;
+}
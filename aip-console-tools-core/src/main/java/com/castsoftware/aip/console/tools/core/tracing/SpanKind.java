@@ -0,0 +1,19 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+/**
+ * Kind of a span, with its OTLP value
+ */
+public enum SpanKind {
+    INTERNAL(1),
+    CLIENT(3);
+
+    private final int otlpValue;
+
+    SpanKind(int otlpValue) {
+        this.otlpValue = otlpValue;
+    }
+
+    public int getOtlpValue() {
+        return otlpValue;
+    }
+}
@@ -0,0 +1,135 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Creates spans, as children of the current span of the thread.
+ * <p/>
+ * Threads don't inherit the current span : pooled threads would otherwise keep a finished span as the parent of
+ * unrelated work. Tasks given to other threads get it through {@link #withCurrentSpan(Runnable)}.
+ * <p/>
+ * A new trace is sampled according to the sample ratio, spans of a trace are all sampled or not, like their root.
+ * A disabled tracer (without exporter) only returns {@link Span#NOOP}.
+ */
+@Log
+public class Tracer {
+    private static final long SAMPLE_PRECISION = 10000;
+
+    private final SpanExporter exporter;
+    private final long sampleThreshold;
+    private final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+
+    /**
+     * @param exporter    Receives the sampled spans, or null to disable tracing
+     * @param sampleRatio Ratio of traces recorded, from 0 to 1
+     */
+    public Tracer(SpanExporter exporter, double sampleRatio) {
+        if (sampleRatio < 0 || sampleRatio > 1) {
+            throw new IllegalArgumentException("Sample ratio must be between 0 and 1, got " + sampleRatio);
+        }
+        this.exporter = exporter;
+        this.sampleThreshold = Math.round(sampleRatio * SAMPLE_PRECISION);
+    }
+
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+
+    public Span startSpan(String name) {
+        return startSpan(name, SpanKind.INTERNAL);
+    }
+
+    /**
+     * Starts a span and makes it the current span of this thread, until it is closed
+     */
+    public Span startSpan(String name, SpanKind kind) {
+        if (!isEnabled()) {
+            return Span.NOOP;
+        }
+        Span parent = currentSpan.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String traceId;
+        boolean sampled;
+        if (parent != null) {
+            traceId = parent.getTraceId();
+            sampled = parent.isSampled();
+        } else {
+            long high = random.nextLong();
+            long low = random.nextLong() | 1;
+            traceId = hex(high) + hex(low);
+            sampled = Long.remainderUnsigned(low, SAMPLE_PRECISION) < sampleThreshold;
+        }
+        Span span = new Span(this, name, kind, traceId, hex(random.nextLong() | 1), parent, sampled);
+        currentSpan.set(span);
+        return span;
+    }
+
+    /**
+     * @return The current span of this thread, or {@link Span#NOOP} if none
+     */
+    public Span currentSpan() {
+        Span span = currentSpan.get();
+        return span == null ? Span.NOOP : span;
+    }
+
+    /**
+     * Gives the current span of this thread to a task run by another thread, for the time the task runs
+     *
+     * @param task The task to run with the current span
+     * @return The task, wrapped if this thread has a current span
+     */
+    public Runnable withCurrentSpan(Runnable task) {
+        Span span = currentSpan.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = currentSpan.get();
+            currentSpan.set(span);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    currentSpan.remove();
+                } else {
+                    currentSpan.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes the spans ended so far, failures are only logged
+     */
+    public void flush() {
+        if (exporter == null) {
+            return;
+        }
+        try {
+            exporter.flush();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Unable to export trace spans", e);
+        }
+    }
+
+    void onEnd(Span span) {
+        if (currentSpan.get() == span) {
+            if (span.getParent() == null) {
+                currentSpan.remove();
+            } else {
+                currentSpan.set(span.getParent());
+            }
+        }
+        if (span.isSampled()) {
+            exporter.export(span);
+        }
+    }
+
+    private static String hex(long value) {
+        return String.format("%016x", value);
+    }
+}
@@ -0,0 +1,52 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Global access to the tracer used by the services.
+ * <p/>
+ * Tracing is disabled by default. It can be enabled with {@link #configure(Path, double)},
+ * or with the {@value #FILE_PROPERTY} (and optionally {@value #SAMPLE_RATIO_PROPERTY}) system properties.
+ */
+public final class Tracing {
+    public static final String FILE_PROPERTY = "aip.console.tools.trace.file";
+    public static final String SAMPLE_RATIO_PROPERTY = "aip.console.tools.trace.sampleRatio";
+
+    private static final Tracer DISABLED = new Tracer(null, 0);
+    private static volatile Tracer tracer = fromSystemProperties();
+
+    private Tracing() {
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    /**
+     * Export the spans in OTLP/JSON to the given file
+     *
+     * @param file        The file where spans are appended, one line per batch of spans
+     * @param sampleRatio Ratio of traces recorded, from 0 to 1
+     */
+    public static void configure(Path file, double sampleRatio) {
+        Tracer previous = tracer;
+        tracer = new Tracer(new OtlpJsonFileExporter(file), sampleRatio);
+        previous.flush();
+    }
+
+    public static void setTracer(Tracer newTracer) {
+        tracer = newTracer == null ? DISABLED : newTracer;
+    }
+
+    private static Tracer fromSystemProperties() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (StringUtils.isBlank(file)) {
+            return DISABLED;
+        }
+        double ratio = Double.parseDouble(System.getProperty(SAMPLE_RATIO_PROPERTY, "1"));
+        return new Tracer(new OtlpJsonFileExporter(Paths.get(file)), ratio);
+    }
+}
@@ -0,0 +1,173 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+/**
+ * The last durations of each step, by application, kept in a local file.
+ * <p/>
+ * The file has one line per application and step, with the application, the step and the durations in milliseconds
+ * separated by tabs, the most recent duration last. Durations recorded since loading are merged with the content of
+ * the file when saving, so that runs sharing the file don't lose each other's durations. The merge holds a lock on a
+ * {@value #LOCK_SUFFIX} file next to the history, for processes saving at the same time.
+ */
+@Log
+public class StepDurationHistory {
+    static final int DEFAULT_MAX_SAMPLES = 50;
+    private static final char SEPARATOR = '\t';
+    private static final String LOCK_SUFFIX = ".lock";
+    // a process can't lock the same file twice, its threads wait for each other first
+    private static final ConcurrentMap<Path, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final int maxSamples;
+    private final Map<String, Deque<Long>> durations = new LinkedHashMap<>();
+    private final Map<String, List<Long>> unsaved = new LinkedHashMap<>();
+
+    StepDurationHistory(Path file, int maxSamples) {
+        this.file = file;
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * Reads the history from the given file, which doesn't have to exist
+     */
+    public static StepDurationHistory load(Path file) throws IOException {
+        StepDurationHistory history = new StepDurationHistory(file, DEFAULT_MAX_SAMPLES);
+        history.durations.putAll(history.read());
+        return history;
+    }
+
+    /**
+     * Adds the duration of a step which completed
+     */
+    public synchronized void record(String application, String step, long durationMs) {
+        String key = key(application, step);
+        append(durations, key, durationMs);
+        unsaved.computeIfAbsent(key, k -> new ArrayList<>()).add(durationMs);
+    }
+
+    /**
+     * @param percentile Between 0 and 1
+     * @param minSamples The minimum number of recorded durations for the percentile to be meaningful
+     * @return The percentile of the recorded durations of the step, using the nearest rank. Empty if there are not
+     * enough durations
+     */
+    public synchronized OptionalLong percentile(String application, String step, double percentile, int minSamples) {
+        Deque<Long> samples = durations.get(key(application, step));
+        if (samples == null || samples.size() < Math.max(1, minSamples)) {
+            return OptionalLong.empty();
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile * sorted.size());
+        return OptionalLong.of(sorted.get(Math.min(sorted.size(), Math.max(1, rank)) - 1));
+    }
+
+    /**
+     * Writes the durations recorded since loading to the file, with the durations other runs saved meanwhile
+     */
+    public synchronized void save() throws IOException {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path lockFile = parent.resolve(file.getFileName() + LOCK_SUFFIX);
+        synchronized (FILE_MONITORS.computeIfAbsent(lockFile.normalize(), p -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                merge(parent);
+            }
+        }
+    }
+
+    private void merge(Path parent) throws IOException {
+        Map<String, Deque<Long>> merged = read();
+        for (Map.Entry<String, List<Long>> entry : unsaved.entrySet()) {
+            for (Long duration : entry.getValue()) {
+                append(merged, entry.getKey(), duration);
+            }
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Deque<Long>> entry : merged.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(SEPARATOR);
+                writer.write(StringUtils.join(entry.getValue(), ','));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        durations.clear();
+        durations.putAll(merged);
+        unsaved.clear();
+    }
+
+    private Map<String, Deque<Long>> read() throws IOException {
+        Map<String, Deque<Long>> read = new LinkedHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return read;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int lastSeparator = line.lastIndexOf(SEPARATOR);
+                if (lastSeparator <= 0) {
+                    continue;
+                }
+                String key = line.substring(0, lastSeparator);
+                try {
+                    for (String duration : StringUtils.split(line.substring(lastSeparator + 1), ',')) {
+                        append(read, key, Long.parseLong(duration.trim()));
+                    }
+                } catch (NumberFormatException e) {
+                    log.log(Level.FINE, "Ignoring invalid step durations for " + key, e);
+                }
+            }
+        }
+        return read;
+    }
+
+    private void append(Map<String, Deque<Long>> target, String key, long duration) {
+        Deque<Long> samples = target.computeIfAbsent(key, k -> new ArrayDeque<>());
+        samples.addLast(duration);
+        while (samples.size() > maxSamples) {
+            samples.removeFirst();
+        }
+    }
+
+    private static String key(String application, String step) {
+        return clean(application) + SEPARATOR + clean(step);
+    }
+
+    private static String clean(String value) {
+        return StringUtils.defaultIfBlank(value, "-").replaceAll("[\\t\\r\\n]", " ");
+    }
+}
@@ -0,0 +1,95 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import com.castsoftware.aip.console.tools.core.events.Events;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+
+import java.util.OptionalLong;
+
+/**
+ * Follows the steps of a single job (or extraction) as they are polled, and warns when the current step is stuck.
+ */
+@Log
+public class StepMonitor {
+    public static final String OVERRUNS_METER = "aip.jobs.step.overruns";
+
+    private final StepWatchdog watchdog;
+    private final String application;
+    private String step;
+    private long stepStart;
+    private boolean flagged;
+
+    StepMonitor(StepWatchdog watchdog, String application) {
+        this.watchdog = watchdog;
+        this.application = application;
+    }
+
+    /**
+     * Called on each poll with the step currently running, the step is considered running until another one is polled
+     *
+     * @param currentStep The running step, null if none
+     * @return Whether the step is stuck and the policy is to stop waiting
+     */
+    public boolean poll(String currentStep) {
+        if (!watchdog.isEnabled()) {
+            return false;
+        }
+        long now = watchdog.now();
+        if (!StringUtils.equalsIgnoreCase(currentStep, step)) {
+            completeStep(now);
+            step = currentStep;
+            stepStart = now;
+            flagged = false;
+        }
+        if (step == null || flagged) {
+            return false;
+        }
+        long elapsed = now - stepStart;
+        OptionalLong threshold = watchdog.threshold(application, step);
+        if (!threshold.isPresent() || elapsed <= threshold.getAsLong()) {
+            return false;
+        }
+        flagged = true;
+        log.warning(String.format("Step %s has been running for %s, it usually completes in less than %s. It may be stuck on AIP Console",
+                step, format(elapsed), format(threshold.getAsLong())));
+        Metrics.registry().counter(OVERRUNS_METER, "step", step).increment();
+        Events.emit(Events.JOB_STEP_OVERRUN, "application", application, "step", step,
+                "elapsedMs", elapsed, "thresholdMs", threshold.getAsLong());
+        return watchdog.getPolicy().isFailFast();
+    }
+
+    /**
+     * Stops following the steps and saves the durations of the completed ones
+     *
+     * @param completed Whether the current step completed, its duration is recorded only then
+     */
+    public void finish(boolean completed) {
+        if (!watchdog.isEnabled()) {
+            return;
+        }
+        if (completed) {
+            completeStep(watchdog.now());
+        }
+        step = null;
+        watchdog.save();
+    }
+
+    /**
+     * @return The current step, if it was found stuck
+     */
+    public String getStuckStep() {
+        return flagged ? step : null;
+    }
+
+    private void completeStep(long now) {
+        if (step != null) {
+            watchdog.record(application, step, now - stepStart);
+        }
+    }
+
+    private static String format(long durationMs) {
+        return DurationFormatUtils.formatDuration(durationMs, "H'h'mm'm'ss's'");
+    }
+}
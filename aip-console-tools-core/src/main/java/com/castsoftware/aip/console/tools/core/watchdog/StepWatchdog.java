@@ -0,0 +1,77 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+
+/**
+ * Flags the steps lasting much longer than they usually do, based on the history of their durations.
+ * <p/>
+ * Each wait for a job or an extraction is followed by a {@link StepMonitor}, which adds the durations of the
+ * completed steps to the history.
+ */
+@Log
+public class StepWatchdog {
+    public static final StepWatchdog DISABLED = new StepWatchdog(null, null, System::currentTimeMillis);
+
+    private final StepDurationHistory history;
+    private final WatchdogPolicy policy;
+    private final LongSupplier clock;
+
+    public StepWatchdog(StepDurationHistory history, WatchdogPolicy policy) {
+        this(history, policy, System::currentTimeMillis);
+    }
+
+    StepWatchdog(StepDurationHistory history, WatchdogPolicy policy, LongSupplier clock) {
+        this.history = history;
+        this.policy = policy;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return history != null;
+    }
+
+    /**
+     * @param application The application of the steps, their durations are compared to the ones of this application
+     * @return A monitor for the steps of a job or an extraction
+     */
+    public StepMonitor monitor(String application) {
+        return new StepMonitor(this, application);
+    }
+
+    WatchdogPolicy getPolicy() {
+        return policy;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * @return The duration after which the step is stuck, empty if its history is too short to tell
+     */
+    OptionalLong threshold(String application, String step) {
+        OptionalLong percentile = history.percentile(application, step, WatchdogPolicy.PERCENTILE, policy.getMinSamples());
+        if (!percentile.isPresent()) {
+            return percentile;
+        }
+        return OptionalLong.of(Math.max(policy.getMinThresholdMs(), Math.round(percentile.getAsLong() * policy.getFactor())));
+    }
+
+    void record(String application, String step, long durationMs) {
+        history.record(application, step, durationMs);
+    }
+
+    void save() {
+        try {
+            history.save();
+        } catch (IOException e) {
+            // the history only helps spotting stuck steps, it must not fail the run
+            log.log(Level.WARNING, "Unable to save the history of the steps durations", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Global access to the watchdog of the steps of jobs and extractions.
+ * <p/>
+ * The watchdog is disabled by default, it is enabled with {@link #configure(Path, WatchdogPolicy)}.
+ */
+public final class Watchdog {
+    private static volatile StepWatchdog current = StepWatchdog.DISABLED;
+
+    private Watchdog() {
+    }
+
+    public static StepWatchdog current() {
+        return current;
+    }
+
+    /**
+     * Enables the watchdog, keeping the history of the steps durations in the given file
+     */
+    public static void configure(Path historyFile, WatchdogPolicy policy) throws IOException {
+        set(new StepWatchdog(StepDurationHistory.load(historyFile), policy));
+    }
+
+    public static void set(StepWatchdog watchdog) {
+        current = watchdog == null ? StepWatchdog.DISABLED : watchdog;
+    }
+}
@@ -0,0 +1,61 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a step is considered stuck, and what to do about it.
+ * <p/>
+ * A step is stuck when it lasts longer than the 95th percentile of its previous durations for the same application
+ * multiplied by a factor, and longer than a minimum duration so that short steps are not flagged on small variations.
+ */
+public class WatchdogPolicy {
+    static final double PERCENTILE = 0.95;
+    private static final int DEFAULT_MIN_SAMPLES = 5;
+    private static final long DEFAULT_MIN_THRESHOLD_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final double factor;
+    private final int minSamples;
+    private final long minThresholdMs;
+    private final boolean failFast;
+
+    /**
+     * @param factor         The factor applied to the 95th percentile of the previous durations
+     * @param minSamples     The number of previous durations needed before a step can be flagged
+     * @param minThresholdMs Steps shorter than this are never flagged
+     * @param failFast       Whether to stop waiting for a job when one of its steps is stuck, instead of only warning
+     */
+    public WatchdogPolicy(double factor, int minSamples, long minThresholdMs, boolean failFast) {
+        if (factor < 1 || minSamples < 1 || minThresholdMs < 0) {
+            throw new IllegalArgumentException("Invalid watchdog settings");
+        }
+        this.factor = factor;
+        this.minSamples = minSamples;
+        this.minThresholdMs = minThresholdMs;
+        this.failFast = failFast;
+    }
+
+    /**
+     * @param factor   The factor applied to the 95th percentile of the previous durations
+     * @param failFast Whether to stop waiting for a job when one of its steps is stuck
+     * @return A policy with the default number of samples and minimum duration
+     */
+    public static WatchdogPolicy of(double factor, boolean failFast) {
+        return new WatchdogPolicy(factor, DEFAULT_MIN_SAMPLES, DEFAULT_MIN_THRESHOLD_MS, failFast);
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public long getMinThresholdMs() {
+        return minThresholdMs;
+    }
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+}
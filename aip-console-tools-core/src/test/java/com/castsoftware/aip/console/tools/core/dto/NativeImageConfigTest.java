@@ -0,0 +1,54 @@
+package com.castsoftware.aip.console.tools.core.dto;
+
+import com.castsoftware.aip.console.tools.core.timing.JobTimingReport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the classes mapped by Jackson are registered for reflection in native images
+ */
+public class NativeImageConfigTest {
+    private static final String REFLECT_CONFIG = "/META-INF/native-image/com.castsoftware.aip.console.tools/aip-console-tools-core/reflect-config.json";
+
+    @Test
+    public void testAllDtosAreRegisteredForReflection() throws Exception {
+        Set<String> registered = new HashSet<>();
+        try (InputStream stream = getClass().getResourceAsStream(REFLECT_CONFIG)) {
+            assertNotNull(stream);
+            for (JsonNode entry : new ObjectMapper().readTree(stream)) {
+                registered.add(entry.path("name").asText());
+            }
+        }
+
+        Path classes = Paths.get(ApiInfoDto.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path dtoPackage = classes.resolve(ApiInfoDto.class.getPackage().getName().replace('.', '/'));
+        List<String> dtos;
+        try (Stream<Path> files = Files.walk(dtoPackage)) {
+            dtos = files.map(file -> classes.relativize(file).toString().replace('\\', '/'))
+                    // builders are not used by Jackson
+                    .filter(file -> file.endsWith(".class") && !file.contains("$"))
+                    .map(file -> file.substring(0, file.length() - ".class".length()).replace('/', '.'))
+                    .collect(Collectors.toList());
+        }
+        dtos.add(JobTimingReport.class.getName());
+
+        assertTrue(dtos.size() > 20);
+        for (String dto : dtos) {
+            assertTrue(dto + " is missing in " + REFLECT_CONFIG, registered.contains(dto));
+        }
+    }
+}
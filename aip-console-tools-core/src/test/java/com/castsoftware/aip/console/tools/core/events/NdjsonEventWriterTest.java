@@ -0,0 +1,93 @@
+package com.castsoftware.aip.console.tools.core.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NdjsonEventWriterTest {
+    private static final int NB_THREADS = 4;
+    private static final int NB_EVENTS_PER_THREAD = 500;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testEventsFromSeveralThreadsAreAllWritten() throws Exception {
+        StringWriter output = new StringWriter();
+        NdjsonEventWriter writer = new NdjsonEventWriter(output, 4096, 64);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < NB_EVENTS_PER_THREAD; i++) {
+                    writer.emit(new ClientEvent(Events.UPLOAD_PROGRESS, "chunk", i, "uploadGuid", "guid"));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(NB_THREADS * NB_EVENTS_PER_THREAD, lines.length);
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(Events.UPLOAD_PROGRESS, first.get("type").asText());
+        assertEquals("guid", first.get("uploadGuid").asText());
+        assertTrue(first.has("time"));
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void testEmitDoesNotBlockWhenWriterIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter output = new StringWriter();
+        Writer slowWriter = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                output.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        NdjsonEventWriter writer = new NdjsonEventWriter(slowWriter, 10, 5);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            writer.emit(new ClientEvent(Events.JOB_STEP, "step", "step" + i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        writer.close();
+
+        assertTrue("emitting took " + elapsedMillis + " ms", elapsedMillis < 1000);
+        assertTrue(writer.getDroppedCount() > 0);
+        String[] lines = output.toString().split("\n");
+        JsonNode last = mapper.readTree(lines[lines.length - 1]);
+        assertEquals(NdjsonEventWriter.DROPPED_EVENT, last.get("type").asText());
+        assertEquals(writer.getDroppedCount(), last.get("count").asLong());
+        assertEquals(1000, lines.length - 1 + writer.getDroppedCount());
+    }
+}
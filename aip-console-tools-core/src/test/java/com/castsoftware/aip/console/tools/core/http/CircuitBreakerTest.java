@@ -0,0 +1,100 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        breaker = new CircuitBreaker("jobs", 10, 4, 50, 30, TimeUnit.SECONDS, 2, clock::get);
+    }
+
+    @Test
+    public void testStaysClosedBelowMinimumCalls() throws Exception {
+        recordFailures(3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testOpensAtFailureRateThreshold() throws Exception {
+        recordSuccesses(2);
+        recordFailures(2);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertRejected();
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void testOldOutcomesLeaveTheWindow() throws Exception {
+        recordFailures(3);
+        recordSuccesses(10);
+        recordFailures(4);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(40f, breaker.getFailureRate(), 0.01f);
+    }
+
+    @Test
+    public void testHalfOpenProbesCloseTheBreaker() throws Exception {
+        recordFailures(4);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // only 2 probes are allowed at the same time
+        assertRejected();
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testFailedProbeOpensAgain() throws Exception {
+        recordFailures(4);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        breaker.acquirePermission();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+        assertRejected();
+    }
+
+    private void recordFailures(int nb) throws CallNotPermittedException {
+        for (int i = 0; i < nb; i++) {
+            breaker.acquirePermission();
+            breaker.onFailure();
+        }
+    }
+
+    private void recordSuccesses(int nb) throws CallNotPermittedException {
+        for (int i = 0; i < nb; i++) {
+            breaker.acquirePermission();
+            breaker.onSuccess();
+        }
+    }
+
+    private void assertRejected() {
+        try {
+            breaker.acquirePermission();
+            fail("Call should have been rejected");
+        } catch (CallNotPermittedException e) {
+            // expected
+        }
+    }
+}
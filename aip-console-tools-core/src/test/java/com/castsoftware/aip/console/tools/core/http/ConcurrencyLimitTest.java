@@ -0,0 +1,100 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyLimitTest {
+
+    @Test
+    public void testWaitingCallersGetSlotsInArrivalOrder() throws Exception {
+        ConcurrencyLimit limit = new ConcurrencyLimit("uploads", 1);
+        limit.acquire();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            int caller = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    limit.acquire();
+                    order.add(caller);
+                    limit.release();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+            // each caller is queued before the next one starts
+            waitUntil(() -> limit.getWaiting() == caller + 1);
+        }
+
+        assertEquals(1, limit.getRunning());
+        limit.release();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        assertEquals(3, order.size());
+        assertEquals(0, (int) order.get(0));
+        assertEquals(1, (int) order.get(1));
+        assertEquals(2, (int) order.get(2));
+        assertEquals(0, limit.getRunning());
+    }
+
+    @Test
+    public void testRaisingTheLimitLetsCallersIn() throws Exception {
+        ConcurrencyLimit limit = new ConcurrencyLimit("jobs", 1);
+        limit.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            try {
+                limit.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waitUntil(() -> limit.getWaiting() == 1);
+
+        limit.setLimit(0);
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(2, limit.getRunning());
+    }
+
+    @Test
+    public void testInterruptedCallerLeavesTheQueue() throws Exception {
+        ConcurrencyLimit limit = new ConcurrencyLimit("uploads", 1);
+        limit.acquire();
+        Thread waiting = new Thread(() -> {
+            try {
+                limit.acquire();
+            } catch (InterruptedException e) {
+                // expected
+            }
+        });
+        waiting.start();
+        waitUntil(() -> limit.getWaiting() == 1);
+
+        waiting.interrupt();
+        waiting.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(0, limit.getWaiting());
+        assertEquals(1, limit.getRunning());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
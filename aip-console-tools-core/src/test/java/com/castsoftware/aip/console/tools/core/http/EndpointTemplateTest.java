@@ -0,0 +1,19 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EndpointTemplateTest {
+
+    @Test
+    public void testIdentifiersAreReplaced() {
+        assertEquals("/api/applications", EndpointTemplate.of("/api/applications"));
+        assertEquals("/api/applications/{appGuid}/upload/{uploadGuid}/extract",
+                EndpointTemplate.of("/api/applications/1b4e28ba-2fa1/upload/6fa459ea-ee8a/extract"));
+        assertEquals("/api/jobs/{jobGuid}/steps/{step}/logs/{logName}",
+                EndpointTemplate.of("/api/jobs/abc/steps/analyze/logs/main.log?nbLines=3000&startOffset=0"));
+        assertEquals("/api/jobs/{jobGuid}/steps/{step}/logs", EndpointTemplate.of("/api/jobs/abc/steps/analyze/logs"));
+        assertEquals("/", EndpointTemplate.of("/"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.metrics.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsInterceptorTest {
+    private final MockWebServer server = new MockWebServer();
+
+    @After
+    public void tearDown() throws Exception {
+        Metrics.setRegistry(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void testCallsMeasuredByTemplateAndStatus() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.setRegistry(registry);
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody("{}"));
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(new MetricsInterceptor()).build();
+
+        for (String jobGuid : new String[]{"first", "second", "third"}) {
+            try (Response ignored = client.newCall(new Request.Builder().url(server.url("/api/jobs/" + jobGuid)).build()).execute()) {
+                // only the measure matters
+            }
+        }
+
+        assertEquals(2, registry.timer(MetricsInterceptor.REQUESTS_METER, "method", "GET", "uri", "/api/jobs/{jobGuid}", "status", "200").count());
+        assertEquals(1, registry.timer(MetricsInterceptor.REQUESTS_METER, "method", "GET", "uri", "/api/jobs/{jobGuid}", "status", "404").count());
+    }
+}
@@ -0,0 +1,88 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class QueryableCookieJarTest {
+    private static final HttpUrl TEST_URL = HttpUrl.parse("http://localhost:8081/api/user");
+    private static final int NB_THREADS = 8;
+    private static final int NB_ITERATIONS = 2000;
+
+    @Test
+    public void testCookieReplacedByName() {
+        QueryableCookieJar jar = new QueryableCookieJar();
+        jar.saveFromResponse(TEST_URL, Collections.singletonList(cookie("XSRF-TOKEN", "first")));
+        jar.saveFromResponse(TEST_URL, Collections.singletonList(cookie("xsrf-token", "second")));
+
+        assertEquals(1, jar.loadForRequest(TEST_URL).size());
+        assertEquals("second", jar.getCookieByName("XSRF-TOKEN").value());
+    }
+
+    @Test
+    public void testExpiredCookieRemovesPreviousOne() {
+        QueryableCookieJar jar = new QueryableCookieJar();
+        jar.saveFromResponse(TEST_URL, Collections.singletonList(cookie("JSESSIONID", "session")));
+        Cookie expired = new Cookie.Builder()
+                .name("JSESSIONID")
+                .value("")
+                .domain(TEST_URL.host())
+                .expiresAt(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1))
+                .build();
+        jar.saveFromResponse(TEST_URL, Collections.singletonList(expired));
+
+        assertNull(jar.getCookieByName("JSESSIONID"));
+        assertEquals(0, jar.loadForRequest(TEST_URL).size());
+    }
+
+    @Test
+    public void testConcurrentUpdatesAndReads() throws Exception {
+        QueryableCookieJar jar = new QueryableCookieJar();
+        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < NB_THREADS; t++) {
+                int threadIndex = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < NB_ITERATIONS; i++) {
+                        jar.saveFromResponse(TEST_URL, Collections.singletonList(cookie("XSRF-TOKEN", threadIndex + "-" + i)));
+                        jar.saveFromResponse(TEST_URL, Collections.singletonList(cookie("cookie" + (i % 4), "value")));
+                        assertNotNull(jar.getCookieByName("XSRF-TOKEN"));
+                        jar.loadForRequest(TEST_URL).forEach(Cookie::value);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(5, jar.loadForRequest(TEST_URL).size());
+    }
+
+    private static Cookie cookie(String name, String value) {
+        return new Cookie.Builder()
+                .name(name)
+                .value(value)
+                .domain(TEST_URL.host())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    public void testCallersAreEvenlySpaced() {
+        RateLimiter limiter = new RateLimiter("polls", 2, clock::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), limiter.reserve());
+    }
+
+    @Test
+    public void testUnusedSlotsAreNotAccumulated() {
+        RateLimiter limiter = new RateLimiter("polls", 2, clock::get);
+
+        assertEquals(0, limiter.reserve());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+    }
+
+    @Test
+    public void testTryAcquireReservesWithoutWaiting() {
+        RateLimiter limiter = new RateLimiter("polls", 3, clock::get);
+
+        assertEquals(0, limiter.tryAcquire());
+        // 333.33ms, rounded up so that the caller doesn't go through before its slot
+        assertEquals(334, limiter.tryAcquire());
+        assertEquals(667, limiter.tryAcquire());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire());
+    }
+
+    @Test
+    public void testNoLimit() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("polls", 0, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.acquire());
+        }
+        limiter.setRate(4);
+        assertEquals(4, limiter.getRate(), 0.001);
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), limiter.reserve());
+    }
+}
@@ -0,0 +1,81 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ResilienceInterceptorTest {
+    private MockWebServer server;
+    private OkHttpClient client;
+    private Map<EndpointClass, CircuitBreaker> breakers;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        breakers = new EnumMap<>(EndpointClass.class);
+        Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            breakers.put(endpointClass, new CircuitBreaker(endpointClass.name(), 4, 2, 50, 1, TimeUnit.MINUTES, 1));
+            bulkheads.put(endpointClass, new Bulkhead(endpointClass.name(), 2, 1, TimeUnit.SECONDS));
+        }
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new ResilienceInterceptor(breakers, bulkheads))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testServerErrorsOpenOnlyTheirEndpointClass() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("[]"));
+
+        call("/api/jobs/jobGuid");
+        call("/api/jobs/jobGuid");
+        try {
+            call("/api/jobs/jobGuid");
+            fail("Jobs calls should be rejected once the breaker is open");
+        } catch (CallNotPermittedException e) {
+            // expected
+        }
+        assertEquals(200, call("/api/applications"));
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breakers.get(EndpointClass.JOBS).getState());
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.get(EndpointClass.METADATA).getState());
+    }
+
+    @Test
+    public void testClientErrorsAreNotFailures() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        call("/api/applications/appGuid/upload");
+        call("/api/applications/appGuid/upload");
+
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.get(EndpointClass.UPLOADS).getState());
+    }
+
+    private int call(String path) throws Exception {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryInterceptorTest {
+    private MockWebServer server;
+    private List<Long> delays;
+    private RetryInterceptor interceptor;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        delays = new ArrayList<>();
+        interceptor = new RetryInterceptor(new RetryPolicy(3, 100, 1000, 60000), delays::add);
+        client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testGetRetriedOnServerUnavailable() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertEquals(200, call(get()));
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, interceptor.getRetryCount(RetryPolicy.FailureType.SERVER_UNAVAILABLE));
+        assertEquals(2, delays.size());
+        assertTrue(delays.get(0) <= 100 && delays.get(1) <= 200);
+    }
+
+    @Test
+    public void testRetryAfterHonored() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "7"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertEquals(200, call(get()));
+        assertEquals(1, delays.size());
+        assertEquals(7000L, (long) delays.get(0));
+        assertEquals(1, interceptor.getRetryCount(RetryPolicy.FailureType.RATE_LIMITED));
+    }
+
+    @Test
+    public void testNonIdempotentPostNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        assertEquals(503, call(post().build()));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testPostWithIdempotencyKeyRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        assertEquals(200, call(post().header(RetryPolicy.IDEMPOTENCY_KEY_HEADER, "key").build()));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testClientErrorNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertEquals(404, call(get()));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testLastFailureReturnedWhenAttemptsExhausted() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(504));
+        }
+
+        assertEquals(504, call(get()));
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, interceptor.getExhaustedCount());
+    }
+
+    @Test
+    public void testNotRetriedWhenNextAttemptCouldExceedBudget() throws Exception {
+        client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor.withAttemptTimeout(59_000))
+                .build();
+        server.enqueue(new MockResponse().setResponseCode(503).addHeader("Retry-After", "120"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        // 120 s of delay and up to 59 s for the next attempt don't fit in the budget of 3 attempts of 59 s
+        assertEquals(503, call(get()));
+        assertEquals(1, server.getRequestCount());
+        assertTrue(delays.isEmpty());
+        assertEquals(1, interceptor.getExhaustedCount());
+    }
+
+    @Test
+    public void testRetriedWithAttemptTimeoutLongerThanBudget() throws Exception {
+        client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor.withAttemptTimeout(120_000))
+                .build();
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        // a timeout of 120 s alone exceeds the 60 s budget, the budget is raised to 3 attempts of 120 s
+        assertEquals(200, call(get()));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, delays.size());
+    }
+
+    @Test
+    public void testTimedOutAttemptRetriedWithinBudget() {
+        RetryPolicy policy = RetryPolicy.defaultPolicy();
+
+        // the first attempt lasted until its timeout of 90 s, 4 more fit in 5 attempt timeouts
+        assertTrue(policy.nextDelayMillis(1, 90_000, 90_000, null) >= 0);
+        assertEquals(-1, policy.nextDelayMillis(4, 4 * 90_000 + 1, 90_000, null));
+    }
+
+    @Test
+    public void testConnectionRefusedRetriedEvenForPost() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        Request request = new Request.Builder()
+                .url("http://localhost:" + closedPort + "/api/jobs")
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}"))
+                .build();
+        try {
+            call(request);
+            fail("Connection should be refused");
+        } catch (ConnectException e) {
+            assertEquals(2, interceptor.getRetryCount(RetryPolicy.FailureType.CONNECT));
+        }
+    }
+
+    private Request get() {
+        return new Request.Builder().url(server.url("/api/jobs/jobGuid")).build();
+    }
+
+    private Request.Builder post() {
+        return new Request.Builder()
+                .url(server.url("/api/jobs"))
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}"));
+    }
+
+    private int call(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SessionRegistryTest {
+    private AtomicLong clock;
+    private List<String> evicted;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        evicted = new ArrayList<>();
+    }
+
+    @Test
+    public void testSameKeyReturnsSameSession() {
+        SessionRegistry<String, String> registry = new SessionRegistry<>(2, 1, TimeUnit.MINUTES, evicted::add, clock::get);
+
+        String session = registry.getOrCreate("server1", k -> new String(k));
+        assertSame(session, registry.getOrCreate("server1", k -> new String(k)));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        SessionRegistry<String, String> registry = new SessionRegistry<>(2, 1, TimeUnit.MINUTES, evicted::add, clock::get);
+
+        registry.getOrCreate("server1", k -> k);
+        registry.getOrCreate("server2", k -> k);
+        registry.touch("server1");
+        registry.getOrCreate("server3", k -> k);
+
+        assertEquals(2, registry.size());
+        assertEquals(1, evicted.size());
+        assertEquals("server2", evicted.get(0));
+    }
+
+    @Test
+    public void testIdleSessionEvicted() {
+        SessionRegistry<String, String> registry = new SessionRegistry<>(2, 1, TimeUnit.MINUTES, evicted::add, clock::get);
+
+        String first = registry.getOrCreate("server1", k -> new String(k));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        registry.getOrCreate("server2", k -> k);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(45));
+        registry.evictIdle();
+
+        assertEquals(1, registry.size());
+        assertEquals("server1", evicted.get(0));
+        assertNotSame(first, registry.getOrCreate("server1", k -> new String(k)));
+    }
+
+    @Test
+    public void testClearEvictsAll() {
+        SessionRegistry<String, String> registry = new SessionRegistry<>(2, 1, TimeUnit.MINUTES, evicted::add, clock::get);
+
+        registry.getOrCreate("server1", k -> k);
+        registry.getOrCreate("server2", k -> k);
+        registry.clear();
+
+        assertEquals(0, registry.size());
+        assertEquals(2, evicted.size());
+    }
+}
@@ -0,0 +1,169 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SingleFlightCacheTest {
+    private static final String TEST_KEY = "/api/applications";
+    private static final int NB_THREADS = 8;
+
+    private AtomicLong clock;
+    private AtomicInteger nbLoads;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        nbLoads = new AtomicInteger();
+    }
+
+    @Test
+    public void testConcurrentCallsShareSingleLoad() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(0, TimeUnit.SECONDS, v -> true);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(TEST_KEY, () -> {
+                loadStarted.countDown();
+                awaitUninterruptibly(releaseLoad);
+                return "value" + nbLoads.incrementAndGet();
+            })));
+            loadStarted.await();
+            for (int i = 1; i < NB_THREADS; i++) {
+                results.add(executor.submit(() -> cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet())));
+            }
+            // let the other threads reach the in-flight call before completing it
+            while (cache.getCoalescedCount() < NB_THREADS - 1) {
+                Thread.sleep(5);
+            }
+            releaseLoad.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, nbLoads.get());
+            assertEquals(1, cache.getMissCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testValueReusedUntilExpiration() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> true, clock::get);
+
+        String first = cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertSame(first, cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+        assertEquals(1, cache.getHitCount());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals("value2", cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+    }
+
+    @Test
+    public void testInvalidateAllForcesNewLoad() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> true, clock::get);
+
+        cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet());
+        cache.invalidateAll();
+        assertEquals("value2", cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+    }
+
+    @Test
+    public void testLoadRunningDuringInvalidationIsNotKept() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> true, clock::get);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> staleLoad = executor.submit(() -> cache.get(TEST_KEY, () -> {
+                loadStarted.countDown();
+                awaitUninterruptibly(releaseLoad);
+                return "stale" + nbLoads.incrementAndGet();
+            }));
+            loadStarted.await();
+            // a write happens while the load is running
+            cache.invalidateAll();
+            releaseLoad.countDown();
+            assertEquals("stale1", staleLoad.get(5, TimeUnit.SECONDS));
+
+            assertEquals("value2", cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+            assertEquals(0, cache.getHitCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallAfterInvalidationDoesNotWaitForRunningLoad() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> true, clock::get);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> staleLoad = executor.submit(() -> cache.get(TEST_KEY, () -> {
+                loadStarted.countDown();
+                awaitUninterruptibly(releaseLoad);
+                return "stale" + nbLoads.incrementAndGet();
+            }));
+            loadStarted.await();
+            cache.invalidateAll();
+
+            assertEquals("fresh", cache.get(TEST_KEY, () -> "fresh"));
+            assertEquals(0, cache.getCoalescedCount());
+            releaseLoad.countDown();
+            staleLoad.get(5, TimeUnit.SECONDS);
+            assertEquals("fresh", cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNonCacheableValueIsNotKept() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> !v.startsWith("error"), clock::get);
+
+        cache.get(TEST_KEY, () -> "error" + nbLoads.incrementAndGet());
+        assertEquals("error2", cache.get(TEST_KEY, () -> "error" + nbLoads.incrementAndGet()));
+    }
+
+    @Test
+    public void testFailureIsNotCached() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(2, TimeUnit.SECONDS, v -> true, clock::get);
+
+        try {
+            cache.get(TEST_KEY, () -> {
+                throw new IOException("fake exception");
+            });
+            fail("Loader exception should be thrown to the caller");
+        } catch (IOException e) {
+            assertEquals("fake exception", e.getMessage());
+        }
+        assertEquals("value1", cache.get(TEST_KEY, () -> "value" + nbLoads.incrementAndGet()));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.castsoftware.aip.console.tools.core.http;
+
+import com.castsoftware.aip.console.tools.core.tracing.Span;
+import com.castsoftware.aip.console.tools.core.tracing.SpanExporter;
+import com.castsoftware.aip.console.tools.core.tracing.Tracer;
+import com.castsoftware.aip.console.tools.core.tracing.Tracing;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TracingInterceptorTest {
+    private final MockWebServer server = new MockWebServer();
+
+    @After
+    public void tearDown() throws Exception {
+        Tracing.setTracer(null);
+        server.shutdown();
+    }
+
+    @Test
+    public void testTraceparentPropagated() throws Exception {
+        List<Span> exported = new ArrayList<>();
+        Tracer tracer = new Tracer(new SpanExporter() {
+            @Override
+            public void export(Span span) {
+                exported.add(span);
+            }
+
+            @Override
+            public void flush() {
+                // kept in memory
+            }
+        }, 1);
+        Tracing.setTracer(tracer);
+        server.enqueue(new MockResponse().setBody("{}"));
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(new TracingInterceptor()).build();
+
+        try (Span root = tracer.startSpan("root");
+             Response ignored = client.newCall(new Request.Builder().url(server.url("/api/jobs/jobGuid")).build()).execute()) {
+            // only the propagation matters
+        }
+
+        RecordedRequest request = server.takeRequest();
+        Span clientSpan = exported.get(0);
+        assertEquals("GET /api/jobs/{jobGuid}", clientSpan.getName());
+        assertEquals(clientSpan.getTraceparent(), request.getHeader(TracingInterceptor.TRACEPARENT_HEADER));
+        assertEquals(exported.get(1).getTraceId(), clientSpan.getTraceId());
+        assertEquals(200, clientSpan.getAttributes().get("http.response.status_code"));
+    }
+
+    @Test
+    public void testNoHeaderWhenTracingDisabled() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}"));
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(new TracingInterceptor()).build();
+
+        client.newCall(new Request.Builder().url(server.url("/api/jobs")).build()).execute().close();
+
+        assertNull(server.takeRequest().getHeader(TracingInterceptor.TRACEPARENT_HEADER));
+    }
+}
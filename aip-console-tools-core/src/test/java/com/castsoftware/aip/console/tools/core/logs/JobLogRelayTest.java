@@ -0,0 +1,161 @@
+package com.castsoftware.aip.console.tools.core.logs;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogContentDto;
+import com.castsoftware.aip.console.tools.core.dto.jobs.LogLine;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobLogRelayTest {
+
+    @Test
+    public void testAllLinesRelayedInOrder() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        try (JobLogRelay relay = new JobLogRelay(LogRelayPolicy.defaultPolicy(), output::addAll)) {
+            for (int poll = 0; poll < 10; poll++) {
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < 300; i++) {
+                    lines.add("line " + (poll * 300 + i));
+                }
+                relay.accept(content(lines));
+            }
+        }
+        assertEquals(3000, output.size());
+        for (int i = 0; i < output.size(); i++) {
+            assertEquals("line " + i, output.get(i));
+        }
+    }
+
+    @Test
+    public void testLevelAndPatternFiltering() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        LogRelayPolicy policy = new LogRelayPolicy(Level.WARNING, Pattern.compile("analyzer"), 1, 0, 100);
+        JobLogRelay relay = new JobLogRelay(policy, output::addAll);
+        relay.accept(content(Arrays.asList(
+                "2020-06-12 15:46:04 INFO analyzer started",
+                "2020-06-12 15:46:05 WARN analyzer missing file",
+                "    continuation of the warning",
+                "2020-06-12 15:46:06 ERROR database unavailable",
+                "    at some.Class.method",
+                "2020-06-12 15:46:07 ERROR analyzer failed")));
+        relay.close();
+
+        assertEquals(Arrays.asList(
+                "2020-06-12 15:46:05 WARN analyzer missing file",
+                "2020-06-12 15:46:07 ERROR analyzer failed"), output);
+        assertEquals(4, relay.getFilteredCount());
+        assertEquals(2, relay.getRelayedCount());
+    }
+
+    @Test
+    public void testContinuationLinesHaveTheLevelOfThePreviousLine() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        JobLogRelay relay = new JobLogRelay(new LogRelayPolicy(Level.WARNING, null, 1, 0, 100), output::addAll);
+        relay.accept(content(Arrays.asList(
+                "2020-06-12 15:46:04 INFO analyzer started",
+                "    continuation of the info",
+                "2020-06-12 15:46:05 ERROR database unavailable",
+                "    at some.Class.method")));
+        relay.close();
+
+        assertEquals(Arrays.asList(
+                "2020-06-12 15:46:05 ERROR database unavailable",
+                "    at some.Class.method"), output);
+    }
+
+    @Test
+    public void testPatternFilteringWithoutLevels() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        JobLogRelay relay = new JobLogRelay(new LogRelayPolicy(null, Pattern.compile("analyzer"), 1, 0, 100), output::addAll);
+        relay.accept(content(Arrays.asList(
+                "starting the analyzer",
+                "reading the sources",
+                "analyzer done",
+                "saving the results")));
+        relay.close();
+
+        assertEquals(Arrays.asList("starting the analyzer", "analyzer done"), output);
+        assertEquals(2, relay.getFilteredCount());
+    }
+
+    @Test
+    public void testSamplingAndRateLimiting() {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong clock = new AtomicLong();
+        LogRelayPolicy policy = new LogRelayPolicy(null, null, 2, 10, 100);
+        JobLogRelay relay = new JobLogRelay(policy, output::addAll, clock::get);
+        // 50 lines, 25 are sampled out, the 10 first of the others are in the rate
+        relay.accept(content(lines(50)));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        // 5 more allowed after half a second
+        relay.accept(content(lines(20)));
+        relay.close();
+
+        assertEquals(35, relay.getSampledCount());
+        assertEquals(15, relay.getRelayedCount());
+        assertEquals(20, relay.getRateLimitedCount());
+        assertEquals(15, output.size());
+    }
+
+    @Test
+    public void testPollingIsNotBlockedBySlowOutput() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        JobLogRelay relay = new JobLogRelay(new LogRelayPolicy(null, null, 1, 0, 100), lines -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            output.addAll(lines);
+        });
+
+        long start = System.nanoTime();
+        for (int poll = 0; poll < 10; poll++) {
+            relay.accept(content(lines(3000)));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        relay.close();
+
+        assertTrue("polling took " + elapsedMillis + " ms", elapsedMillis < 5000);
+        assertTrue(relay.getDroppedCount() > 0);
+        assertEquals(30000, relay.getDroppedCount() + relay.getRelayedCount());
+        // the most recent lines are kept
+        assertEquals("line 2999", output.get(output.size() - 1));
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + i);
+        }
+        return lines;
+    }
+
+    private static LogContentDto content(List<String> lines) {
+        Set<LogLine> logLines = new LinkedHashSet<>();
+        for (String line : lines) {
+            LogLine logLine = new LogLine();
+            logLine.setContent(line);
+            logLines.add(logLine);
+        }
+        LogContentDto content = new LogContentDto();
+        content.setLines(logLines);
+        content.setNbLines(logLines.size());
+        return content;
+    }
+}
@@ -0,0 +1,70 @@
+package com.castsoftware.aip.console.tools.core.metrics;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleMeterRegistryTest {
+
+    @Test
+    public void testSameNameAndTagsGiveSameMeter() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Counter counter = registry.counter("calls", "status", "200", "method", "GET");
+        counter.increment();
+        registry.counter("calls", "method", "GET", "status", "200").increment(2);
+
+        assertSame(counter, registry.counter("calls", "method", "GET", "status", "200"));
+        assertEquals(3, counter.count());
+        assertEquals(1, registry.getMeters().size());
+    }
+
+    @Test
+    public void testTimerPercentiles() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Timer timer = registry.timer("latency");
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(100, timer.count());
+        assertEquals(5050, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(100, timer.max(TimeUnit.MILLISECONDS), 0.001);
+        // percentiles are approximated within 25%
+        assertEquals(50, timer.percentile(0.5, TimeUnit.MILLISECONDS), 12.5);
+        assertEquals(99, timer.percentile(0.99, TimeUnit.MILLISECONDS), 1);
+    }
+
+    @Test
+    public void testPrometheusExport() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.counter("aip.jobs.polls").increment(3);
+        registry.timer("aip.http.client.requests", "uri", "/api/jobs/{jobGuid}", "status", "200").record(2, TimeUnit.SECONDS);
+        AtomicInteger value = new AtomicInteger(7);
+        registry.gauge("aip.http.bulkhead.available", value::get, "endpoints", "JOBS");
+
+        StringWriter writer = new StringWriter();
+        new PrometheusTextExporter().export(registry.getMeters(), writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("# TYPE aip_jobs_polls_total counter\naip_jobs_polls_total 3\n"));
+        assertTrue(text.contains("aip_http_client_requests_seconds_count{status=\"200\",uri=\"/api/jobs/{jobGuid}\"} 1\n"));
+        assertTrue(text.contains("aip_http_client_requests_seconds_sum{status=\"200\",uri=\"/api/jobs/{jobGuid}\"} 2\n"));
+        assertTrue(text.contains("aip_http_bulkhead_available{endpoints=\"JOBS\"} 7\n"));
+    }
+
+    @Test
+    public void testNoopRegistryKeepsNothing() {
+        MeterRegistry registry = NoopMeterRegistry.INSTANCE;
+        registry.counter("calls").increment();
+        registry.timer("latency").record(1, TimeUnit.SECONDS);
+
+        assertEquals(0, registry.counter("calls").count());
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GlobPatternsTest {
+
+    @Test
+    public void testParseTrimsAndSkipsEmptyPatterns() {
+        assertEquals(Arrays.asList("*.log", "tests/", "src/**/*.tmp"),
+                Arrays.asList(GlobPatterns.parse(" *.log, tests/ ,,src/**/*.tmp,*.log").toArray()));
+        assertTrue(GlobPatterns.parse(null).isEmpty());
+        assertTrue(GlobPatterns.parse(" ").isEmpty());
+    }
+
+    @Test
+    public void testNamePatternsMatchAtAnyDepth() {
+        GlobPatterns patterns = GlobPatterns.compile(Arrays.asList("*.log", "node_modules/"));
+
+        assertTrue(patterns.matches("build.log"));
+        assertTrue(patterns.matches("logs/2020/build.log"));
+        assertTrue(patterns.matches("web/node_modules/lib/index.js"));
+        assertFalse(patterns.matches("build.log.txt"));
+        assertFalse(patterns.matches("src/Main.java"));
+    }
+
+    @Test
+    public void testPathPatternsMatchFromTheRoot() {
+        GlobPatterns patterns = GlobPatterns.compile(Arrays.asList("src/test", "/build/", "**/generated/*.java", "doc/?.md"));
+
+        assertTrue(patterns.matches("src/test/java/MainTest.java"));
+        assertFalse(patterns.matches("module/src/test/java/MainTest.java"));
+        assertTrue(patterns.matches("build/classes/Main.class"));
+        assertTrue(patterns.matches("generated/Parser.java"));
+        assertTrue(patterns.matches("module/target/generated/Parser.java"));
+        assertFalse(patterns.matches("module/generated/sub/Parser.java"));
+        assertTrue(patterns.matches("doc/a.md"));
+        assertFalse(patterns.matches("doc/ab.md"));
+    }
+
+    @Test
+    public void testNoPattern() {
+        GlobPatterns patterns = GlobPatterns.compile(Collections.emptyList());
+
+        assertTrue(patterns.isEmpty());
+        assertFalse(patterns.matches("src/Main.java"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.castsoftware.aip.console.tools.core.packaging;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SourcePackagerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testParallelGzipIsReadableAndDeterministic() throws Exception {
+        byte[] content = new byte[5 * 64 * 1024 + 123];
+        Random random = new Random(42);
+        for (int i = 0; i < content.length; i++) {
+            // compressible, with matches across the blocks
+            content[i] = (byte) ('a' + random.nextInt(4));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            byte[] compressed = gzip(content, executor);
+
+            assertArrayEquals(content, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+            assertArrayEquals(compressed, gzip(content, executor));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPackagesSelectedFiles() throws Exception {
+        Path folder = temporaryFolder.newFolder("sources").toPath();
+        write(folder, "src/Main.java", "class Main {}");
+        write(folder, "src/test/MainTest.java", "class MainTest {}");
+        write(folder, "build.log", "log");
+        write(folder, "README.md", "readme");
+        String longName = "src/" + String.join("/", Collections.nCopies(20, "package")) + "/Deep.java";
+        write(folder, longName, "class Deep {}");
+
+        SourcePackager packager = new SourcePackager(folder, Arrays.asList("src/", "*.md"), Arrays.asList("src/test", "*.log"), 2);
+
+        assertEquals(Arrays.asList("README.md", "src/Main.java", longName), packager.listFiles());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        long size = packager.writeTo(archive);
+        assertEquals(archive.size(), size);
+        assertEquals(size, packager.computeSize());
+
+        Map<String, String> files = readTarGz(archive.toByteArray());
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("README.md", "readme");
+        expected.put("src/Main.java", "class Main {}");
+        expected.put(longName, "class Deep {}");
+        assertEquals(expected, files);
+    }
+
+    @Test
+    public void testStreamGivesTheSameArchive() throws Exception {
+        Path folder = temporaryFolder.newFolder("sources").toPath();
+        byte[] large = new byte[3 * ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE];
+        new Random(7).nextBytes(large);
+        Files.write(folder.resolve("large.bin"), large);
+        write(folder, "small.txt", "small");
+        SourcePackager packager = new SourcePackager(folder, Collections.emptyList(), Collections.emptyList(), 4);
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        packager.writeTo(archive);
+        try (InputStream stream = packager.openStream()) {
+            assertArrayEquals(archive.toByteArray(), IOUtils.toByteArray(stream));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testStreamReportsPackagingErrors() throws Exception {
+        SourcePackager packager = new SourcePackager(temporaryFolder.getRoot().toPath().resolve("missing"),
+                Collections.emptyList(), Collections.emptyList(), 1);
+
+        try (InputStream stream = packager.openStream()) {
+            IOUtils.toByteArray(stream);
+        }
+    }
+
+    private static byte[] gzip(byte[] content, ExecutorService executor) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(compressed, executor, 4, Deflater.DEFAULT_COMPRESSION, 64 * 1024)) {
+            // written in uneven parts, to cross the blocks boundaries
+            for (int offset = 0; offset < content.length; offset += 10_000) {
+                gzip.write(content, offset, Math.min(10_000, content.length - offset));
+            }
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void write(Path folder, String relativePath, String content) throws IOException {
+        Path file = folder.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the regular files of the archive, and the GNU long names
+     */
+    private static Map<String, String> readTarGz(byte[] archive) throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        try (InputStream tar = new GZIPInputStream(new ByteArrayInputStream(archive))) {
+            byte[] header = new byte[512];
+            String longName = null;
+            while (IOUtils.read(tar, header) == 512 && header[0] != 0) {
+                String name = new String(header, 0, 100, StandardCharsets.UTF_8).replace("\0", "");
+                long size = Long.parseLong(new String(header, 124, 11, StandardCharsets.US_ASCII), 8);
+                byte[] content = new byte[(int) size];
+                IOUtils.readFully(tar, content);
+                IOUtils.skipFully(tar, (512 - size % 512) % 512);
+                if (header[156] == 'L') {
+                    longName = new String(content, StandardCharsets.UTF_8).replace("\0", "");
+                } else {
+                    files.put(longName != null ? longName : name, new String(content, StandardCharsets.UTF_8));
+                    longName = null;
+                }
+            }
+        }
+        return files;
+    }
+}
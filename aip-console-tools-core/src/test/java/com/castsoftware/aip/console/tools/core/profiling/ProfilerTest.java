@@ -0,0 +1,47 @@
+package com.castsoftware.aip.console.tools.core.profiling;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ProfilerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordingIsWrittenAndSummarized() throws Exception {
+        assumeTrue("JFR is not available on this JVM", Profiling.isAvailable());
+        Profiler profiler = Profiler.start();
+        for (int i = 1; i <= 3; i++) {
+            try (ProfiledSection ignored = Profiling.jobPoll("jobGuid", i)) {
+                Thread.sleep(5);
+            }
+        }
+        try (ProfiledSection ignored = Profiling.chunkUpload("uploadGuid", 1024)) {
+            Thread.sleep(5);
+        }
+        Path file = new File(folder.getRoot(), "run.jfr").toPath();
+        ProfileSummary summary = profiler.stop(file);
+
+        assertTrue(file.toFile().length() > 0);
+        assertEquals(3, summary.getClientEvents().get("Job poll").getCount());
+        assertEquals(1, summary.getClientEvents().get("Chunk upload").getCount());
+        assertTrue(summary.getClientEvents().get("Job poll").getTotalNanos() > 0);
+        assertTrue(summary.toText().contains("Job poll"));
+    }
+
+    @Test
+    public void testSectionsAreIgnoredWithoutRecording() {
+        // must not fail, whether or not JFR is available
+        try (ProfiledSection section = Profiling.jsonParse(String.class.getName(), 10)) {
+            assertTrue(section != null);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.castsoftware.aip.console.tools.core.services;
+
+import com.castsoftware.aip.console.tools.core.dto.Applications;
+import com.castsoftware.aip.console.tools.core.dto.BaseDto;
+import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
+import com.castsoftware.aip.console.tools.core.metrics.Metrics;
+import com.castsoftware.aip.console.tools.core.metrics.SimpleMeterRegistry;
+import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Stress tests running many calls at the same time on a single {@link RestApiServiceImpl} instance
+ */
+public class RestApiServiceImplConcurrencyTest {
+    private static final String TEST_KEY = "key";
+    private static final String TEST_OTHER_KEY = "otherKey";
+    private static final String TEST_XSRF_TOKEN = "xsrfToken";
+    private static final String APPLICATIONS_CONTENT = "{\"applications\":[{\"guid\":\"appGuid\",\"name\":\"appName\"}]}";
+    private static final int NB_THREADS = 16;
+    private static final int NB_CALLS_PER_THREAD = 50;
+
+    private MockWebServer server;
+    private MockWebServer otherServer;
+    private AtomicInteger invalidKeys;
+    private AtomicInteger missingXsrfTokens;
+
+    @Before
+    public void setUp() throws Exception {
+        invalidKeys = new AtomicInteger();
+        missingXsrfTokens = new AtomicInteger();
+        server = new MockWebServer();
+        server.setDispatcher(new CheckingDispatcher(TEST_KEY));
+        server.start();
+        otherServer = new MockWebServer();
+        otherServer.setDispatcher(new CheckingDispatcher(TEST_OTHER_KEY));
+        otherServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        otherServer.shutdown();
+    }
+
+    @Test
+    public void testConcurrentCallsShareSession() throws Exception {
+        RestApiServiceImpl service = new RestApiServiceImpl();
+        service.validateUrlAndKey(server.url("/").toString(), TEST_KEY);
+
+        List<Future<?>> results = runConcurrently(threadIndex -> service.withCurrentSession(() -> {
+            for (int i = 0; i < NB_CALLS_PER_THREAD; i++) {
+                if (i % 2 == 0) {
+                    Applications applications = service.getForEntity(ApiEndpointHelper.getApplicationsPath(), Applications.class);
+                    assertEquals(1, applications.getApplications().size());
+                } else {
+                    BaseDto response = service.postForEntity("/api/applications/appGuid/delivery-configuration", new BaseDto(), BaseDto.class);
+                    assertEquals("configGuid", response.getGuid());
+                }
+                if (threadIndex == 0) {
+                    // changing the timeout while other threads are sending requests
+                    service.setTimeout(Constants.DEFAULT_HTTP_TIMEOUT + i, TimeUnit.SECONDS);
+                }
+            }
+            return null;
+        }));
+
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        assertEquals("All requests should have the api key", 0, invalidKeys.get());
+        assertEquals("All requests should have the xsrf token", 0, missingXsrfTokens.get());
+    }
+
+    @Test
+    public void testConcurrentSettingsChangesAreNeverMixed() throws Exception {
+        RestApiServiceImpl service = new RestApiServiceImpl();
+        service.validateUrlAndKey(server.url("/").toString(), TEST_KEY);
+
+        List<Future<?>> results = runConcurrently(threadIndex -> service.withCurrentSession(() -> {
+            for (int i = 0; i < NB_CALLS_PER_THREAD; i++) {
+                if (threadIndex == 0) {
+                    // switching between both servers, each with its own key
+                    if (i % 2 == 0) {
+                        service.validateUrlAndKey(otherServer.url("/").toString(), TEST_OTHER_KEY);
+                    } else {
+                        service.validateUrlAndKey(server.url("/").toString(), TEST_KEY);
+                    }
+                } else {
+                    assertNotNull(service.getForEntity(ApiEndpointHelper.getApplicationsPath(), String.class));
+                }
+            }
+            return null;
+        }));
+
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        assertTrue(server.getRequestCount() > 0);
+        assertTrue(otherServer.getRequestCount() > 0);
+        assertEquals("No request should be sent with the key of another server", 0, invalidKeys.get());
+        assertEquals("Sessions of other threads should not be affected", 0, missingXsrfTokens.get());
+    }
+
+    @Test
+    public void testConcurrentSessionsOnSeveralServersAreIsolated() throws Exception {
+        RestApiServiceImpl service = new RestApiServiceImpl();
+
+        List<Future<?>> results = runConcurrently(threadIndex -> () -> {
+            // each thread works with its own server, like concurrent builds sharing the service
+            if (threadIndex % 2 == 0) {
+                service.validateUrlAndKey(server.url("/").toString(), TEST_KEY);
+            } else {
+                service.validateUrlAndKey(otherServer.url("/").toString(), TEST_OTHER_KEY);
+            }
+            for (int i = 0; i < NB_CALLS_PER_THREAD; i++) {
+                if (i % 2 == 0) {
+                    assertNotNull(service.getForEntity(ApiEndpointHelper.getApplicationsPath(), String.class));
+                } else {
+                    BaseDto response = service.postForEntity("/api/applications/appGuid/delivery-configuration", new BaseDto(), BaseDto.class);
+                    assertEquals("configGuid", response.getGuid());
+                }
+            }
+            return null;
+        });
+
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        assertTrue(server.getRequestCount() > NB_CALLS_PER_THREAD);
+        assertTrue(otherServer.getRequestCount() > NB_CALLS_PER_THREAD);
+        assertEquals("No request should be sent with the key of another server", 0, invalidKeys.get());
+        assertEquals("All requests should have the xsrf token of their session", 0, missingXsrfTokens.get());
+    }
+
+    @Test
+    public void testThreadsDontGetSessionsImplicitly() throws Exception {
+        RestApiServiceImpl service = new RestApiServiceImpl();
+        service.validateUrlAndKey(server.url("/").toString(), TEST_KEY);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the executor thread is created by the thread holding the session, but doesn't get it
+            Future<String> withoutSession = executor.submit(() -> service.getForEntity(ApiEndpointHelper.getApplicationsPath(), String.class));
+            try {
+                withoutSession.get(1, TimeUnit.MINUTES);
+                fail("A thread without session should not use the one of another thread");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ApiCallException);
+            }
+
+            Callable<String> withSession = service.withCurrentSession(() -> service.getForEntity(ApiEndpointHelper.getApplicationsPath(), String.class));
+            assertEquals(APPLICATIONS_CONTENT, executor.submit(withSession).get(1, TimeUnit.MINUTES));
+            // the session is only bound while the task runs
+            Future<String> afterTask = executor.submit(() -> service.getForEntity(ApiEndpointHelper.getApplicationsPath(), String.class));
+            try {
+                afterTask.get(1, TimeUnit.MINUTES);
+                fail("The session should be unbound once the task is done");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ApiCallException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSessionsOfSeveralUsersHaveTheirOwnGauges() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.setRegistry(registry);
+        try {
+            RestApiServiceImpl service = new RestApiServiceImpl();
+            service.validateUrlAndKey(server.url("/").toString(), "user", TEST_KEY);
+            // another session on the same server, without leaving it bound to this thread
+            service.withCurrentSession(() -> {
+                service.validateUrlAndKey(server.url("/").toString(), "otherUser", TEST_KEY);
+                return null;
+            }).call();
+
+            Set<String> sessions = registry.getMeters().stream()
+                    .filter(meter -> "aip.http.cache.requests".equals(meter.getId().getName()))
+                    .map(meter -> meter.getId().getTags().get("session"))
+                    .collect(Collectors.toSet());
+            assertEquals("Each user should have gauges for its session on the same server", 2, sessions.size());
+            assertTrue(sessions.stream().noneMatch(session -> session.contains("user") || session.contains(TEST_KEY)));
+
+            service.close();
+            assertTrue(registry.getMeters().stream().noneMatch(meter -> meter.getId().getTags().containsKey("session")));
+        } finally {
+            Metrics.setRegistry(null);
+        }
+    }
+
+    private List<Future<?>> runConcurrently(TaskFactory taskFactory) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < NB_THREADS; i++) {
+            Callable<?> task = taskFactory.create(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface TaskFactory {
+        Callable<?> create(int threadIndex);
+    }
+
+    /**
+     * Answers like AIP Console and counts requests that are missing the expected credentials or xsrf token
+     */
+    private class CheckingDispatcher extends Dispatcher {
+        private final String expectedKey;
+
+        private CheckingDispatcher(String expectedKey) {
+            this.expectedKey = expectedKey;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath();
+            if (!expectedKey.equals(request.getHeader(Constants.API_KEY_HEADER))) {
+                invalidKeys.incrementAndGet();
+            }
+            if ("/api/user".equals(path)) {
+                return new MockResponse()
+                        .addHeader("Set-Cookie", "XSRF-TOKEN=" + TEST_XSRF_TOKEN + "; Path=/")
+                        .setBody("{}");
+            }
+            if (!TEST_XSRF_TOKEN.equals(request.getHeader("X-XSRF-TOKEN"))) {
+                missingXsrfTokens.incrementAndGet();
+            }
+            if ("POST".equals(request.getMethod())) {
+                return new MockResponse().setBody("{\"guid\":\"configGuid\"}");
+            }
+            return new MockResponse().setBody(APPLICATIONS_CONTENT);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.castsoftware.aip.console.tools.core.services;
+
+import com.castsoftware.aip.console.tools.core.exceptions.ApiCallException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link RestApiServiceImpl#downloadToStream(String, java.io.OutputStream, boolean)}
+ */
+public class RestApiServiceImplDownloadTest {
+    private static final String REPORT_ENDPOINT = "/api/report";
+    private static final byte[] REPORT_CONTENT = buildReport();
+
+    private MockWebServer server;
+    private RestApiServiceImpl service;
+    private volatile String acceptEncoding;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (!REPORT_ENDPOINT.equals(request.getPath())) {
+                    return new MockResponse().setResponseCode(200);
+                }
+                acceptEncoding = request.getHeader("Accept-Encoding");
+                if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    return new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzip(REPORT_CONTENT));
+                }
+                return new MockResponse().setBody(new Buffer().write(REPORT_CONTENT));
+            }
+        });
+        server.start();
+        service = new RestApiServiceImpl();
+        service.validateUrlAndKey(server.url("/").toString(), "key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testCompressedDownloadIsWrittenUncompressed() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = service.downloadToStream(REPORT_ENDPOINT, output);
+
+        assertEquals("gzip", acceptEncoding);
+        assertEquals(REPORT_CONTENT.length, written);
+        assertArrayEquals(REPORT_CONTENT, output.toByteArray());
+    }
+
+    @Test
+    public void testUncompressedDownload() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = service.downloadToStream(REPORT_ENDPOINT, output, false);
+
+        assertEquals("identity", acceptEncoding);
+        assertEquals(REPORT_CONTENT.length, written);
+        assertArrayEquals(REPORT_CONTENT, output.toByteArray());
+    }
+
+    @Test(expected = ApiCallException.class)
+    public void testFailedDownloadThrows() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            service.downloadToStream(REPORT_ENDPOINT, output);
+        } finally {
+            assertEquals(0, output.size());
+        }
+    }
+
+    private static byte[] buildReport() {
+        // larger than the download buffer
+        StringBuilder report = new StringBuilder("<report>");
+        for (int i = 0; i < 10_000; i++) {
+            report.append("<entry id=\"").append(i).append("\"/>");
+        }
+        return report.append("</report>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Buffer gzip(byte[] content) {
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            sink.write(content);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,456 @@
+package com.castsoftware.aip.console.tools.core.testing;
+
+import com.castsoftware.aip.console.tools.core.utils.Constants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fake AIP Console, answering the endpoints used by the tools (see {@link com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper})
+ * with an in-memory state of applications, uploads and jobs.
+ * <p/>
+ * Latency, bandwidth, error rate and job duration can be configured to load test the tools without a real AIP Console.
+ * Uploaded content is counted but not kept.
+ */
+public class FakeAipConsole implements Closeable {
+    public static final String API_VERSION = "1.19.0";
+    public static final String NODE_NAME = "fake-node";
+    public static final String XSRF_TOKEN = "fake-xsrf-token";
+    private static final String MAIN_LOG_NAME = "main.log";
+    private static final List<String> JOB_STEPS = Arrays.asList(
+            Constants.EXTRACT_STEP_NAME, Constants.CODE_SCANNER_STEP_NAME, "copy_configuration", "discover_sources",
+            "accept", "analyze", "snapshot", "consolidate_snapshot");
+    private static final Pattern CHUNK_SIZE_PATTERN = Pattern.compile("\"chunkSize\"\\s*:\\s*(\\d+)");
+    // only the beginning of the body is kept, the chunk metadata is sent first
+    private static final long RECORDED_BODY_LIMIT = 4096;
+    // every request is logged at info level otherwise
+    private static final Logger MOCK_SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    private final MockWebServer server = new MockWebServer();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Settings settings;
+
+    private final ConcurrentMap<String, String> applications = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FakeUpload> uploads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FakeJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger nbRequests = new AtomicInteger();
+    private final AtomicInteger nbInjectedErrors = new AtomicInteger();
+    private final AtomicLong nbUploadedBytes = new AtomicLong();
+
+    private FakeAipConsole(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return A started fake console, without latency or errors and with jobs lasting 1 second
+     */
+    public static FakeAipConsole start() throws IOException {
+        return builder().start();
+    }
+
+    public String getUrl() {
+        return server.url("/").toString();
+    }
+
+    public String getApiKey() {
+        return settings.apiKey;
+    }
+
+    /**
+     * Declare an application, as if it was already created on AIP Console
+     *
+     * @return The guid of the application
+     */
+    public String addApplication(String name) {
+        String guid = UUID.randomUUID().toString();
+        applications.put(guid, name);
+        return guid;
+    }
+
+    public int getRequestCount() {
+        return nbRequests.get();
+    }
+
+    public int getInjectedErrorCount() {
+        return nbInjectedErrors.get();
+    }
+
+    public long getUploadedBytes() {
+        return nbUploadedBytes.get();
+    }
+
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private FakeAipConsole doStart() throws IOException {
+        MOCK_SERVER_LOGGER.setLevel(Level.WARNING);
+        server.setBodyLimit(RECORDED_BODY_LIMIT);
+        server.setDispatcher(new FakeDispatcher());
+        server.start();
+        return this;
+    }
+
+    private class FakeDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            // state is kept here, no need to keep every request in the server
+            server.takeRequest(0, TimeUnit.SECONDS);
+            nbRequests.incrementAndGet();
+            simulateNetwork(request.getBodySize());
+
+            String method = request.getMethod();
+            String path = request.getPath();
+            int queryStart = path.indexOf('?');
+            String query = queryStart < 0 ? "" : path.substring(queryStart + 1);
+            List<String> segments = segments(queryStart < 0 ? path : path.substring(0, queryStart));
+
+            if (!settings.apiKey.equals(request.getHeader(Constants.API_KEY_HEADER))) {
+                return new MockResponse().setResponseCode(401);
+            }
+            if (segments.size() == 2 && "user".equals(segments.get(1))) {
+                return json("{}").addHeader("Set-Cookie", "XSRF-TOKEN=" + XSRF_TOKEN + "; Path=/");
+            }
+            if (settings.errorRate > 0 && settings.random.nextDouble() < settings.errorRate) {
+                nbInjectedErrors.incrementAndGet();
+                return new MockResponse().setResponseCode(503);
+            }
+            try {
+                return route(method, segments, query, request);
+            } catch (IOException e) {
+                return new MockResponse().setResponseCode(400).setBody(String.valueOf(e.getMessage()));
+            }
+        }
+
+        private MockResponse route(String method, List<String> segments, String query, RecordedRequest request) throws IOException {
+            if (segments.size() == 1) {
+                return json(map("apiVersion", API_VERSION));
+            }
+            String resource = segments.get(1);
+            if ("nodes".equals(resource)) {
+                return json(Collections.singletonList(map("guid", "fake-node-guid", "name", NODE_NAME)));
+            }
+            if ("applications".equals(resource)) {
+                return routeApplications(method, segments, request);
+            }
+            if ("jobs".equals(resource)) {
+                return routeJobs(method, segments, query, request);
+            }
+            return new MockResponse().setResponseCode(404);
+        }
+
+        private MockResponse routeApplications(String method, List<String> segments, RecordedRequest request) throws IOException {
+            if (segments.size() == 2) {
+                List<Object> result = new ArrayList<>();
+                applications.forEach((guid, name) -> result.add(map("guid", guid, "name", name)));
+                return json(map("applications", result));
+            }
+            String appGuid = segments.get(2);
+            if (!applications.containsKey(appGuid)) {
+                return new MockResponse().setResponseCode(404);
+            }
+            String sub = segments.size() > 3 ? segments.get(3) : "";
+            switch (sub) {
+                case "versions":
+                    return json(Collections.emptyList());
+                case "delivery-configuration":
+                    return json(map("guid", UUID.randomUUID().toString()));
+                case "server-folders":
+                    return json(Collections.emptyList());
+                case "upload":
+                    return routeUploads(method, appGuid, segments, request);
+                default:
+                    return json(map("guid", appGuid, "name", applications.get(appGuid)));
+            }
+        }
+
+        private MockResponse routeUploads(String method, String appGuid, List<String> segments, RecordedRequest request) throws IOException {
+            if (segments.size() == 4 && "POST".equals(method)) {
+                JsonNode body = mapper.readTree(request.getBody().readUtf8());
+                FakeUpload upload = new FakeUpload(appGuid, body.path("fileName").asText(), body.path("fileSize").asLong());
+                uploads.put(upload.guid, upload);
+                return json(upload.toDto());
+            }
+            FakeUpload upload = segments.size() > 4 ? uploads.get(segments.get(4)) : null;
+            if (upload == null) {
+                return new MockResponse().setResponseCode(404);
+            }
+            if ("DELETE".equals(method)) {
+                uploads.remove(upload.guid);
+                return json("{}");
+            }
+            if (segments.size() > 5 && "extract".equals(segments.get(5))) {
+                upload.status = "extracted";
+                return json(upload.toDto());
+            }
+            // chunk of content : only the offset of the upload matters
+            Matcher matcher = CHUNK_SIZE_PATTERN.matcher(request.getBody().readUtf8());
+            long chunkSize = matcher.find() ? Long.parseLong(matcher.group(1)) : request.getBodySize();
+            nbUploadedBytes.addAndGet(chunkSize);
+            synchronized (upload) {
+                upload.currentOffset += chunkSize;
+                upload.status = upload.currentOffset >= upload.fileSize ? "uploaded" : "uploading";
+                return json(upload.toDto());
+            }
+        }
+
+        private MockResponse routeJobs(String method, List<String> segments, String query, RecordedRequest request) throws IOException {
+            if (segments.size() == 2 && "POST".equals(method)) {
+                JsonNode body = mapper.readTree(request.getBody().readUtf8());
+                FakeJob job = new FakeJob(body.path("jobType").asText(), mapper.convertValue(body.path("jobParameters"), Map.class));
+                jobs.put(job.guid, job);
+                return json(map("jobGuid", job.guid, "appGuid", job.appGuid, "jobUrl", "/api/jobs/" + job.guid));
+            }
+            FakeJob job = segments.size() > 2 ? jobs.get(segments.get(2)) : null;
+            if (job == null) {
+                return new MockResponse().setResponseCode(404);
+            }
+            if (segments.size() == 3) {
+                return "GET".equals(method) ? json(job.toStatus()) : json("{}");
+            }
+            // /api/jobs/{guid}/steps/{step}/logs[/{logName}]
+            if (segments.size() == 6) {
+                return json(Collections.singletonList(map("logName", MAIN_LOG_NAME, "logType", "MAIN_LOG", "finished", false)));
+            }
+            int startOffset = parseIntParam(query, "startOffset", 0);
+            int nbLines = Math.min(parseIntParam(query, "nbLines", settings.logLinesPerPoll), settings.logLinesPerPoll);
+            List<Object> lines = new ArrayList<>(nbLines);
+            for (int i = 0; i < nbLines; i++) {
+                lines.add(map("content", "Line " + (startOffset + i) + " of step " + segments.get(4) + " for job " + job.guid));
+            }
+            return json(map("endOfFile", false, "nbLines", nbLines, "startOffset", startOffset, "lines", lines));
+        }
+
+        private void simulateNetwork(long requestBodySize) throws InterruptedException {
+            long delayMillis = settings.latencyMillis;
+            if (settings.bandwidthBytesPerSecond > 0 && requestBodySize > 0) {
+                delayMillis += requestBodySize * 1000 / settings.bandwidthBytesPerSecond;
+            }
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        }
+
+        private MockResponse json(Object body) {
+            String content;
+            try {
+                content = body instanceof String ? (String) body : mapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            MockResponse response = new MockResponse()
+                    .addHeader("Content-Type", "application/json")
+                    .setBody(content);
+            if (settings.bandwidthBytesPerSecond > 0) {
+                // throttle by 10th of seconds, to keep a smooth rate
+                response.throttleBody(Math.max(1, settings.bandwidthBytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+            }
+            return response;
+        }
+    }
+
+    private class FakeUpload {
+        private final String guid = UUID.randomUUID().toString();
+        private final String appGuid;
+        private final String fileName;
+        private final long fileSize;
+        private long currentOffset;
+        private String status = "uploading";
+
+        private FakeUpload(String appGuid, String fileName, long fileSize) {
+            this.appGuid = appGuid;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+        }
+
+        private Map<String, Object> toDto() {
+            return map("guid", guid, "applicationGuid", appGuid, "fileName", fileName, "fileSize", fileSize,
+                    "currentOffset", currentOffset, "status", status);
+        }
+    }
+
+    private class FakeJob {
+        private final String guid = UUID.randomUUID().toString();
+        private final String jobType;
+        private final Map<String, String> parameters;
+        private final String appGuid;
+        private final long startNanos = System.nanoTime();
+        private final boolean failed;
+
+        private FakeJob(String jobType, Map<String, String> parameters) {
+            this.jobType = jobType;
+            this.parameters = parameters == null ? new HashMap<>() : parameters;
+            String guid = this.parameters.get(Constants.PARAM_APP_GUID);
+            if (guid == null) {
+                // application creation : the application is known right away, jobs don't check it
+                guid = UUID.randomUUID().toString();
+                applications.put(guid, this.parameters.getOrDefault(Constants.PARAM_APP_NAME, guid));
+            }
+            this.appGuid = guid;
+            this.failed = settings.jobFailureRate > 0 && settings.random.nextDouble() < settings.jobFailureRate;
+        }
+
+        private Map<String, Object> toStatus() {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            boolean finished = elapsed >= settings.jobDurationMillis;
+            int stepIndex = finished ? JOB_STEPS.size() - 1 :
+                    (int) (elapsed * JOB_STEPS.size() / Math.max(1, settings.jobDurationMillis));
+            String state = !finished ? "started" : failed ? "failed" : "completed";
+            Map<String, Object> status = map("guid", guid, "appGuid", appGuid, "appName", applications.get(appGuid),
+                    "jobType", jobType, "jobParameters", parameters, "state", state, "progressStep", JOB_STEPS.get(stepIndex),
+                    "fullSteps", JOB_STEPS, "url", "/api/jobs/" + guid);
+            if (finished && failed) {
+                status.put("failureStep", JOB_STEPS.get(stepIndex));
+            }
+            return status;
+        }
+    }
+
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            result.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return result;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> result = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    private static int parseIntParam(String query, String name, int defaultValue) {
+        for (String param : query.split("&")) {
+            if (param.startsWith(name + "=")) {
+                try {
+                    return Integer.parseInt(param.substring(name.length() + 1));
+                } catch (NumberFormatException e) {
+                    return defaultValue;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static class Settings {
+        private String apiKey = "fake-api-key";
+        private long latencyMillis;
+        private long bandwidthBytesPerSecond;
+        private double errorRate;
+        private double jobFailureRate;
+        private long jobDurationMillis = TimeUnit.SECONDS.toMillis(1);
+        private int logLinesPerPoll = 20;
+        private Random random = new Random();
+    }
+
+    public static class Builder {
+        private final Settings settings = new Settings();
+
+        private Builder() {
+        }
+
+        public Builder apiKey(String apiKey) {
+            settings.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * @param latencyMillis Added to the processing of each request
+         */
+        public Builder latency(long latencyMillis) {
+            settings.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * @param bytesPerSecond Rate at which request bodies are received and response bodies sent, 0 for no limit
+         */
+        public Builder bandwidth(long bytesPerSecond) {
+            settings.bandwidthBytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * @param errorRate Fraction (between 0 and 1) of requests answered with a 503 status
+         */
+        public Builder errorRate(double errorRate) {
+            settings.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * @param jobFailureRate Fraction (between 0 and 1) of jobs ending in failed state
+         */
+        public Builder jobFailureRate(double jobFailureRate) {
+            settings.jobFailureRate = jobFailureRate;
+            return this;
+        }
+
+        /**
+         * @param jobDurationMillis How long a job stays in started state
+         */
+        public Builder jobDuration(long jobDurationMillis) {
+            settings.jobDurationMillis = jobDurationMillis;
+            return this;
+        }
+
+        /**
+         * @param logLinesPerPoll Number of log lines returned each time the logs are polled
+         */
+        public Builder logLinesPerPoll(int logLinesPerPoll) {
+            settings.logLinesPerPoll = logLinesPerPoll;
+            return this;
+        }
+
+        /**
+         * @param seed Seed of the random injection of errors and job failures, to get reproducible runs
+         */
+        public Builder seed(long seed) {
+            settings.random = new Random(seed);
+            return this;
+        }
+
+        public FakeAipConsole start() throws IOException {
+            return new FakeAipConsole(settings).doStart();
+        }
+    }
+}
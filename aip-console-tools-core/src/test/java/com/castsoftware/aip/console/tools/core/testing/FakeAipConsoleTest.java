@@ -0,0 +1,83 @@
+package com.castsoftware.aip.console.tools.core.testing;
+
+import com.castsoftware.aip.console.tools.core.dto.jobs.JobState;
+import com.castsoftware.aip.console.tools.core.services.ApplicationServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.JobsServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.RestApiServiceImpl;
+import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
+import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FakeAipConsoleTest {
+    private static final int ARCHIVE_SIZE = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeAipConsole console;
+    private RestApiServiceImpl restApiService;
+    private JobsServiceImpl jobsService;
+    private ApplicationServiceImpl applicationService;
+    private UploadServiceImpl uploadService;
+
+    @Before
+    public void setUp() throws Exception {
+        console = FakeAipConsole.builder()
+                .jobDuration(200)
+                .start();
+        restApiService = new RestApiServiceImpl();
+        restApiService.validateUrlAndKey(console.getUrl(), console.getApiKey());
+        jobsService = new JobsServiceImpl(restApiService, 20);
+        applicationService = new ApplicationServiceImpl(restApiService, jobsService);
+        uploadService = new UploadServiceImpl(restApiService, 4096, 10);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        console.close();
+    }
+
+    @Test
+    public void testAddVersionFlow() throws Exception {
+        String appGuid = applicationService.getOrCreateApplicationFromName("fake-app", true);
+        assertNotNull(appGuid);
+        assertEquals(appGuid, applicationService.getApplicationGuidFromName("fake-app"));
+
+        File archive = folder.newFile("sources.zip");
+        Files.write(archive.toPath(), new byte[ARCHIVE_SIZE]);
+        String sourcePath = uploadService.uploadFileAndGetSourcePath("fake-app", appGuid, archive);
+        assertEquals("upload:fake-app/main_sources", sourcePath);
+        assertEquals(ARCHIVE_SIZE, console.getUploadedBytes());
+
+        String jobGuid = jobsService.startAddVersionJob(appGuid, "fake-app", sourcePath, "v1", new Date(), false);
+        assertEquals(JobState.COMPLETED, jobsService.pollAndWaitForJobFinished(jobGuid));
+        assertEquals(2, console.getJobCount());
+    }
+
+    @Test
+    public void testInjectedErrorsAreRetried() throws Exception {
+        try (FakeAipConsole failingConsole = FakeAipConsole.builder().errorRate(0.2).seed(42).start()) {
+            RestApiServiceImpl service = new RestApiServiceImpl();
+            service.validateUrlAndKey(failingConsole.getUrl(), failingConsole.getApiKey());
+            String appGuid = failingConsole.addApplication("fake-app");
+
+            for (int i = 0; i < 20; i++) {
+                // a different url each time, so it's not served by the cache
+                assertNotNull(service.getForEntity(ApiEndpointHelper.getApplicationPath(appGuid) + "?call=" + i, String.class));
+            }
+            assertTrue(failingConsole.getInjectedErrorCount() > 0);
+        }
+    }
+}
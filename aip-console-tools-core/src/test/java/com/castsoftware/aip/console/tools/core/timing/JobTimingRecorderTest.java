@@ -0,0 +1,99 @@
+package com.castsoftware.aip.console.tools.core.timing;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobTimingRecorderTest {
+
+    @Test
+    public void testStepsDurationsAndDominantStep() throws Exception {
+        AtomicLong clock = new AtomicLong(1000);
+        JobTimingRecorder recorder = new JobTimingRecorder("add-version", clock::get);
+        recorder.startStep(JobTimingRecorder.UPLOAD_STEP);
+        clock.addAndGet(2000);
+        recorder.startStep(JobTimingRecorder.EXTRACT_STEP);
+        clock.addAndGet(1000);
+        recorder.endStep();
+        // waiting for the job to start
+        clock.addAndGet(1000);
+        recorder.startStep("analyze");
+        clock.addAndGet(5000);
+        recorder.startStep("ANALYZE");
+        clock.addAndGet(1000);
+        JobTimingReport report = recorder.finish("SUCCESS");
+
+        assertEquals(3, report.getSteps().size());
+        assertEquals(10000, report.getTotalDurationMs());
+        assertEquals(1000, report.getUntrackedMs());
+        assertEquals("analyze", report.getDominantStep());
+        StepTiming analyze = report.getSteps().get(2);
+        assertEquals(4000, analyze.getStartOffsetMs());
+        assertEquals(6000, analyze.getDurationMs());
+        assertEquals(60.0, analyze.getShare(), 0.01);
+
+        StringWriter json = new StringWriter();
+        report.writeJson(json);
+        JobTimingReport read = JobTimingReport.readJson(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(report, read);
+        assertTrue(report.toTable().contains("Longest step : analyze"));
+    }
+
+    @Test
+    public void testServicesReportToBoundRecorder() {
+        // nothing bound, nothing recorded
+        JobTimingRecorder.recordStep("ignored");
+
+        JobTimingRecorder recorder = JobTimingRecorder.start("deliver");
+        JobTimingRecorder.recordStep(JobTimingRecorder.UPLOAD_STEP);
+        JobTimingRecorder.recordStepEnd();
+        JobTimingReport report = recorder.finish("SUCCESS");
+        JobTimingRecorder.recordStep("after finish");
+
+        assertEquals(1, report.getSteps().size());
+        assertEquals(JobTimingRecorder.UPLOAD_STEP, report.getSteps().get(0).getName());
+        assertEquals(1, recorder.finish("SUCCESS").getSteps().size());
+    }
+
+    @Test
+    public void testThreadsDontInheritRecorder() throws Exception {
+        JobTimingRecorder recorder = JobTimingRecorder.start("deliver");
+        Thread thread = new Thread(() -> JobTimingRecorder.recordStep("other thread"));
+        thread.start();
+        thread.join();
+
+        assertTrue(recorder.finish("SUCCESS").getSteps().isEmpty());
+    }
+
+    @Test
+    public void testUploadThroughputAndQueueTime() {
+        AtomicLong clock = new AtomicLong(0);
+        JobTimingRecorder recorder = new JobTimingRecorder("analyze", clock::get);
+        recorder.startStep(JobTimingRecorder.UPLOAD_STEP);
+        recorder.addUploadedBytes(3 * 1024 * 1024);
+        clock.addAndGet(1500);
+        recorder.addUploadedBytes(3 * 1024 * 1024);
+        recorder.endStep();
+        // queued for two polls, then started
+        recorder.poll(true);
+        clock.addAndGet(1000);
+        recorder.poll(true);
+        clock.addAndGet(1000);
+        recorder.poll(false);
+        clock.addAndGet(1000);
+        recorder.poll(false);
+        JobTimingReport report = recorder.finish("SUCCESS");
+
+        assertEquals(6 * 1024 * 1024, report.getUploadedBytes());
+        assertEquals(4.0, report.getUploadMegabytesPerSecond(), 0.001);
+        assertEquals(4, report.getPollCount());
+        assertEquals(2000, report.getQueueMs());
+        assertTrue(report.toTable().contains("polled 4 times"));
+    }
+}
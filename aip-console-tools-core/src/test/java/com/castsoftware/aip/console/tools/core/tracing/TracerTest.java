@@ -0,0 +1,116 @@
+package com.castsoftware.aip.console.tools.core.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TracerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChildSpansShareTraceAndRestoreParent() {
+        ListExporter exporter = new ListExporter();
+        Tracer tracer = new Tracer(exporter, 1);
+
+        try (Span root = tracer.startSpan("root")) {
+            try (Span child = tracer.startSpan("child", SpanKind.CLIENT)) {
+                assertSame(child, tracer.currentSpan());
+                assertSame(root, child.getParent());
+                assertEquals(root.getTraceId(), child.getTraceId());
+                assertTrue(child.getTraceparent().matches("00-" + root.getTraceId() + "-[0-9a-f]{16}-01"));
+            }
+            assertSame(root, tracer.currentSpan());
+        }
+
+        assertSame(Span.NOOP, tracer.currentSpan());
+        assertEquals(2, exporter.spans.size());
+        assertEquals("child", exporter.spans.get(0).getName());
+    }
+
+    @Test
+    public void testThreadsGetTheSpanOnlyExplicitly() throws Exception {
+        Tracer tracer = new Tracer(new ListExporter(), 1);
+        AtomicReference<Span> inherited = new AtomicReference<>();
+        AtomicReference<Span> given = new AtomicReference<>();
+
+        try (Span root = tracer.startSpan("root")) {
+            Thread thread = new Thread(() -> inherited.set(tracer.currentSpan()));
+            thread.start();
+            thread.join();
+            Thread withSpan = new Thread(tracer.withCurrentSpan(() -> given.set(tracer.currentSpan())));
+            withSpan.start();
+            withSpan.join();
+
+            assertSame(Span.NOOP, inherited.get());
+            assertSame(root, given.get());
+        }
+    }
+
+    @Test
+    public void testNotSampledTracesArePropagatedButNotExported() {
+        ListExporter exporter = new ListExporter();
+        Tracer tracer = new Tracer(exporter, 0);
+
+        try (Span root = tracer.startSpan("root")) {
+            root.setAttribute("ignored", "value");
+            assertFalse(root.isRecording());
+            assertTrue(root.getTraceparent().endsWith("-00"));
+            assertTrue(root.getAttributes().isEmpty());
+        }
+
+        assertTrue(exporter.spans.isEmpty());
+    }
+
+    @Test
+    public void testOtlpJsonExport() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("traces.json");
+        Tracer tracer = new Tracer(new OtlpJsonFileExporter(file), 1);
+        try (Span root = tracer.startSpan("root")) {
+            root.setAttribute("aip.job.guid", "jobGuid").setAttribute("http.response.status_code", 200);
+            tracer.startSpan("failed").recordException(new IllegalStateException("boom")).close();
+        }
+        tracer.flush();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        JsonNode spans = new ObjectMapper().readTree(lines.get(0))
+                .at("/resourceSpans/0/scopeSpans/0/spans");
+        assertEquals(2, spans.size());
+        JsonNode failed = spans.get(0);
+        JsonNode root = spans.get(1);
+        assertEquals(root.get("spanId").asText(), failed.get("parentSpanId").asText());
+        assertEquals(2, failed.at("/status/code").asInt());
+        assertEquals("boom", failed.at("/status/message").asText());
+        assertEquals("200", root.at("/attributes/1/value/intValue").asText());
+        assertTrue(root.get("endTimeUnixNano").asLong() >= root.get("startTimeUnixNano").asLong());
+    }
+
+    private static class ListExporter implements SpanExporter {
+        private final List<Span> spans = new ArrayList<>();
+
+        @Override
+        public synchronized void export(Span span) {
+            spans.add(span);
+        }
+
+        @Override
+        public void flush() {
+            // kept in memory
+        }
+    }
+}
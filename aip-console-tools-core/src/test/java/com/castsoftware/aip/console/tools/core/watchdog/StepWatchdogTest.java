@@ -0,0 +1,159 @@
+package com.castsoftware.aip.console.tools.core.watchdog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StepWatchdogTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHistoryIsMergedWhenSaved() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("history").resolve("steps.tsv");
+        StepDurationHistory first = StepDurationHistory.load(file);
+        StepDurationHistory second = StepDurationHistory.load(file);
+        for (long i = 1; i <= 10; i++) {
+            first.record("app", "analyze", i * MINUTE);
+        }
+        second.record("app", "backup", MINUTE);
+        first.save();
+        second.save();
+
+        StepDurationHistory reloaded = StepDurationHistory.load(file);
+        assertEquals(OptionalLong.of(10 * MINUTE), reloaded.percentile("app", "analyze", 0.95, 5));
+        assertEquals(OptionalLong.of(5 * MINUTE), reloaded.percentile("app", "analyze", 0.5, 5));
+        assertEquals(OptionalLong.of(MINUTE), reloaded.percentile("app", "backup", 0.95, 1));
+        assertFalse(reloaded.percentile("app", "backup", 0.95, 5).isPresent());
+        assertFalse(reloaded.percentile("other", "analyze", 0.95, 1).isPresent());
+    }
+
+    @Test
+    public void testConcurrentSavesDontLoseDurations() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("steps.tsv");
+        List<StepDurationHistory> histories = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            StepDurationHistory history = StepDurationHistory.load(file);
+            history.record("app" + i, "analyze", MINUTE);
+            histories.add(history);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(histories.size());
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (StepDurationHistory history : histories) {
+                saves.add(executor.submit(() -> {
+                    history.save();
+                    return null;
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        StepDurationHistory reloaded = StepDurationHistory.load(file);
+        for (int i = 0; i < histories.size(); i++) {
+            assertEquals(OptionalLong.of(MINUTE), reloaded.percentile("app" + i, "analyze", 0.95, 1));
+        }
+    }
+
+    @Test
+    public void testHistoryKeepsTheLastDurations() throws Exception {
+        StepDurationHistory history = new StepDurationHistory(folder.getRoot().toPath().resolve("steps.tsv"), 3);
+        for (long i = 1; i <= 10; i++) {
+            history.record("app", "analyze", i);
+        }
+        assertEquals(OptionalLong.of(8), history.percentile("app", "analyze", 0, 1));
+    }
+
+    @Test
+    public void testStuckStepIsFlaggedOnce() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        StepWatchdog watchdog = watchdog(clock, false);
+
+        StepMonitor monitor = watchdog.monitor("app");
+        assertFalse(monitor.poll("analyze"));
+        clock.addAndGet(29 * MINUTE);
+        assertFalse(monitor.poll("analyze"));
+        assertNull(monitor.getStuckStep());
+        clock.addAndGet(2 * MINUTE);
+        assertFalse(monitor.poll("analyze"));
+        assertEquals("analyze", monitor.getStuckStep());
+        // other applications have no history yet
+        StepMonitor other = watchdog.monitor("other");
+        other.poll("analyze");
+        clock.addAndGet(60 * MINUTE);
+        other.poll("analyze");
+        assertNull(other.getStuckStep());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        StepWatchdog watchdog = watchdog(clock, true);
+
+        StepMonitor monitor = watchdog.monitor("app");
+        assertFalse(monitor.poll("analyze"));
+        clock.addAndGet(31 * MINUTE);
+        assertTrue(monitor.poll("analyze"));
+        monitor.finish(false);
+    }
+
+    @Test
+    public void testCompletedStepsAreRecorded() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        Path file = folder.getRoot().toPath().resolve("steps.tsv");
+        StepWatchdog watchdog = new StepWatchdog(StepDurationHistory.load(file), new WatchdogPolicy(2, 1, 0, false), clock::get);
+
+        StepMonitor monitor = watchdog.monitor("app");
+        monitor.poll("queued");
+        clock.addAndGet(MINUTE);
+        monitor.poll("analyze");
+        clock.addAndGet(5 * MINUTE);
+        monitor.poll("snapshot");
+        clock.addAndGet(2 * MINUTE);
+        monitor.finish(true);
+
+        StepDurationHistory history = StepDurationHistory.load(file);
+        assertEquals(OptionalLong.of(MINUTE), history.percentile("app", "queued", 0.95, 1));
+        assertEquals(OptionalLong.of(5 * MINUTE), history.percentile("app", "analyze", 0.95, 1));
+        assertEquals(OptionalLong.of(2 * MINUTE), history.percentile("app", "snapshot", 0.95, 1));
+    }
+
+    @Test
+    public void testDisabledWatchdog() {
+        StepMonitor monitor = StepWatchdog.DISABLED.monitor("app");
+        assertFalse(monitor.poll("analyze"));
+        monitor.finish(true);
+    }
+
+    /**
+     * @return A watchdog with 10 minutes as the 95th percentile of the analyze step, flagging it after 30 minutes
+     */
+    private StepWatchdog watchdog(AtomicLong clock, boolean failFast) throws Exception {
+        StepDurationHistory history = StepDurationHistory.load(folder.getRoot().toPath().resolve("steps.tsv"));
+        for (int i = 0; i < 20; i++) {
+            history.record("app", "analyze", (i % 2 == 0 ? 5 : 10) * MINUTE);
+        }
+        return new StepWatchdog(history, new WatchdogPolicy(3, 5, MINUTE, failFast), clock::get);
+    }
+}
@@ -41,7 +41,10 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
@@ -65,6 +68,8 @@ public class JobsServiceImplTest {
         service = new JobsServiceImpl(restApiService, TEST_SLEEP_DURATION);
         doReturn(ApiInfoDto.builder().apiVersion("1.13.0").enablePackagePathCheck(false).build())
                 .when(restApiService).getAipConsoleApiInfo();
+        // the job logs are relayed from another thread, which gets the session through this wrapper
+        lenient().when(restApiService.withCurrentSession(any(Runnable.class))).then(returnsFirstArg());
     }
 
     @Test(expected = JobServiceException.class)
@@ -228,6 +233,23 @@ public class JobsServiceImplTest {
         assertEquals("Expected state should be 'CANCELED'", JobState.CANCELED, resultState);
     }
 
+    @Test
+    public void testCancelJob() throws Exception {
+        service.cancelJob(TEST_JOB_GUID);
+
+        verify(restApiService).putForEntity(eq("/api/jobs/" + TEST_JOB_GUID),
+                argThat((ChangeJobStateRequest request) -> request.getState() == JobState.CANCELED), eq(String.class));
+    }
+
+    @Test(expected = JobServiceException.class)
+    public void testCancelJobApiCallException() throws Exception {
+        when(restApiService
+                .putForEntity(anyString(), any(ChangeJobStateRequest.class), eq(String.class))
+        ).thenThrow(new ApiCallException(500));
+
+        service.cancelJob(TEST_JOB_GUID);
+    }
+
     private ArgumentMatcher<CreateJobsRequest> getCreateJobsRequestMatcher() {
         return argument -> {
             Map<String, String> jobParams = argument.getJobParameters();
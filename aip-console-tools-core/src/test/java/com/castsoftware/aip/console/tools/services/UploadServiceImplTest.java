@@ -10,6 +10,7 @@ import com.castsoftware.aip.console.tools.core.services.UploadService;
 import com.castsoftware.aip.console.tools.core.services.UploadServiceImpl;
 import com.castsoftware.aip.console.tools.core.utils.ApiEndpointHelper;
 import lombok.extern.java.Log;
+import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -20,16 +21,22 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -166,6 +173,75 @@ public class UploadServiceImplTest {
         verify(restApiService, Mockito.never()).deleteForEntity(anyString(), eq(null), eq(String.class));
     }
 
+    @Test
+    public void testExtractionStopsWhenInterrupted() throws Exception {
+        ChunkedUploadDto expectedDto = ChunkedUploadDto.builder()
+                .guid(TEST_UPLOAD_GUID)
+                .fileName(TEST_ZIP_FILENAME)
+                .fileSize(fakeZip.length())
+                .applicationGuid(TEST_APP_GUID)
+                .build();
+        ChunkedUploadDto afterUploadDto = ChunkedUploadDto.builder()
+                .guid(TEST_UPLOAD_GUID)
+                .status(ChunkedUploadStatus.UPLOADED.name())
+                .currentOffset(fakeZip.length())
+                .build();
+        ChunkedUploadDto extractingDto = ChunkedUploadDto.builder()
+                .guid(TEST_UPLOAD_GUID)
+                .status(ChunkedUploadStatus.EXTRACTING.name())
+                .build();
+
+        String uploadEndpoint = ApiEndpointHelper.getApplicationUploadPath(TEST_APP_GUID, TEST_UPLOAD_GUID);
+        doReturn(expectedDto)
+                .when(restApiService).postForEntity(anyString(), any(CreateUploadRequest.class), eq(ChunkedUploadDto.class));
+        doReturn(afterUploadDto)
+                .when(restApiService).exchangeMultipartForEntity(eq("PATCH"), eq(uploadEndpoint), argThat(getChunkUploadMatcher()), argThat(getChunkUploadMatcher()), eq(ChunkedUploadDto.class));
+        // the build is stopped while AIP Console extracts the archive
+        doAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return extractingDto;
+        }).when(restApiService).putForEntity(ApiEndpointHelper.getApplicationExtractUploadPath(TEST_APP_GUID, TEST_UPLOAD_GUID), null, ChunkedUploadDto.class);
+
+        try {
+            uploadService.uploadFile(TEST_APP_GUID, fakeZip);
+            fail("The extraction should stop when the thread is interrupted");
+        } catch (UploadException e) {
+            // the interruption is left to the caller
+            assertTrue(Thread.interrupted());
+        }
+        verify(restApiService).putForEntity(ApiEndpointHelper.getApplicationExtractUploadPath(TEST_APP_GUID, TEST_UPLOAD_GUID), null, ChunkedUploadDto.class);
+    }
+
+    @Test
+    public void testUploadStopsReadingAtTheExpectedSize() throws Exception {
+        byte[] content = "Some random content".getBytes(StandardCharsets.UTF_8);
+        byte[] following = "what follows".getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream stream = new ByteArrayInputStream(ArrayUtils.addAll(content, following));
+        ChunkedUploadDto expectedDto = ChunkedUploadDto.builder()
+                .guid(TEST_UPLOAD_GUID)
+                .fileName(TEST_ZIP_FILENAME)
+                .fileSize(content.length)
+                .applicationGuid(TEST_APP_GUID)
+                .build();
+        ChunkedUploadDto afterUploadDto = ChunkedUploadDto.builder()
+                .guid(TEST_UPLOAD_GUID)
+                .status(ChunkedUploadStatus.UPLOADED.name())
+                .currentOffset(content.length)
+                .build();
+
+        String uploadEndpoint = ApiEndpointHelper.getApplicationUploadPath(TEST_APP_GUID, TEST_UPLOAD_GUID);
+        doReturn(expectedDto)
+                .when(restApiService).postForEntity(anyString(), any(CreateUploadRequest.class), eq(ChunkedUploadDto.class));
+        doReturn(afterUploadDto)
+                .when(restApiService).exchangeMultipartForEntity(eq("PATCH"), eq(uploadEndpoint), argThat(getChunkUploadMatcher()),
+                argThat(body -> Arrays.equals(content, (byte[]) body.get("content"))), eq(ChunkedUploadDto.class));
+
+        assertTrue(uploadService.uploadInputStream(TEST_APP_GUID, TEST_ZIP_FILENAME, content.length, stream, false));
+
+        // the chunks are larger than the content, the read still stops at the expected size
+        assertEquals(following.length, stream.available());
+    }
+
     private ArgumentMatcher<Map> getChunkUploadMatcher() {
         return argument -> argument.size() == 2
                 && argument.get("metadata") != null